@@ -66,6 +66,11 @@ public class VespaMetricSet {
         metrics.add(new Metric("jrt.transport.server.unencrypted-connections-established"));
         metrics.add(new Metric("jrt.transport.client.unencrypted-connections-established"));
 
+        // Java (JRT) buffer metrics
+        metrics.add(new Metric("jrt.transport.buffer-pool-hits"));
+        metrics.add(new Metric("jrt.transport.buffer-pool-misses"));
+        metrics.add(new Metric("jrt.transport.buffer-bytes-copied"));
+
         // C++ TLS metrics
         metrics.add(new Metric("vds.server.network.tls-handshakes-failed"));
         metrics.add(new Metric("vds.server.network.peer-authorization-failures"));
@@ -175,6 +180,14 @@ public class VespaMetricSet {
         metrics.add(new Metric("httpapi_parse_error.rate"));
         addMetric(metrics, "httpapi_condition_not_met", List.of("rate"));
         addMetric(metrics, "httpapi_not_found", List.of("rate"));
+        addMetric(metrics, "httpapi_dispatch_queue_size", List.of("max", "sum", "count"));
+        addMetric(metrics, "httpapi_dispatch_latency", List.of("max", "sum", "count"));
+
+        addMetric(metrics, "embedder_batch_size", List.of("max", "sum", "count"));
+        addMetric(metrics, "embedder_latency", List.of("max", "sum", "count"));
+        addMetric(metrics, "embedder_cache_hits", List.of("rate"));
+        addMetric(metrics, "embedder_cache_misses", List.of("rate"));
+        addMetric(metrics, "embedder_cache_evictions", List.of("rate"));
 
         metrics.add(new Metric("mem.heap.total.average"));
         metrics.add(new Metric("mem.heap.free.average"));
@@ -332,6 +345,15 @@ public class VespaMetricSet {
         metrics.add(new Metric("documents_total.count"));
         metrics.add(new Metric("dispatch_internal.rate"));
         metrics.add(new Metric("dispatch_fdispatch.rate"));
+        metrics.add(new Metric("dispatch_group_selected.rate"));
+        metrics.add(new Metric("dispatch_hedges_issued.rate"));
+        metrics.add(new Metric("dispatch_hedges_won.rate"));
+        metrics.add(new Metric("query_result_cache_hits.rate"));
+        metrics.add(new Metric("query_result_cache_misses.rate"));
+        metrics.add(new Metric("query_result_cache_evictions.rate"));
+        metrics.add(new Metric("docsum_cache_hits.rate"));
+        metrics.add(new Metric("docsum_cache_misses.rate"));
+        metrics.add(new Metric("docsum_cache_evictions.rate"));
         addMetric(metrics, "jdisc.render.latency", Set.of("min", "max", "count", "sum", "last", "average"));
         addMetric(metrics, "query_item_count", Set.of("max", "sum", "count"));
 
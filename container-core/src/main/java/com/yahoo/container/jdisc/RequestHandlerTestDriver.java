@@ -17,6 +17,7 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -85,10 +86,14 @@ public class RequestHandlerTestDriver implements AutoCloseable {
     }
 
     public MockResponseHandler sendRequest(String uri, HttpRequest.Method method, ByteBuffer body, String contentType) {
+        return sendRequest(uri, method, body, Map.of(com.yahoo.jdisc.http.HttpHeaders.Names.CONTENT_TYPE, contentType));
+    }
+
+    public MockResponseHandler sendRequest(String uri, HttpRequest.Method method, ByteBuffer body, Map<String, String> headers) {
         responseHandler = new MockResponseHandler();
         Request request = HttpRequest.newServerRequest(driver, URI.create(uri), method);
         request.context().put("contextVariable", 37); // TODO: Add a method for accepting a Request instead
-        request.headers().put(com.yahoo.jdisc.http.HttpHeaders.Names.CONTENT_TYPE, contentType);
+        headers.forEach(request.headers()::put);
         ContentChannel requestContent = request.connect(responseHandler);
         requestContent.write(body, null);
         requestContent.close(null);
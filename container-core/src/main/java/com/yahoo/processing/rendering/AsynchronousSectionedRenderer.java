@@ -89,6 +89,17 @@ public abstract class AsynchronousSectionedRenderer<RESPONSE extends Response> e
      */
     public abstract void endResponse() throws IOException;
 
+    /**
+     * Invoked when rendering is suspended to wait for more data, to send what is rendered so far to the client.
+     * Renderers which buffer output before writing it to the stream must override this to write it first.
+     *
+     * @param stream the stream which is rendered to
+     * @throws IOException passed on from the stream
+     */
+    protected void flush(OutputStream stream) throws IOException {
+        stream.flush();
+    }
+
     private static final Logger logger = Logger.getLogger(AsynchronousSectionedRenderer.class.getName());
 
     // NOTE: Renderers are *prototype objects* - a new instance is created for each rendering by invoking 
@@ -354,7 +365,7 @@ public abstract class AsynchronousSectionedRenderer<RESPONSE extends Response> e
             if (list.completeFuture().isDone()) // might not be when in before handover mode
                 endListLevel();
             else
-                stream.flush();
+                flush(stream);
         }
 
         private void endListLevel() throws IOException {
@@ -550,7 +561,7 @@ public abstract class AsynchronousSectionedRenderer<RESPONSE extends Response> e
 
         protected void flushIfLikelyToSuspend(DataList list) throws IOException {
             // If the listener is not complete, we will (likely) suspend rendering
-            if ( ! list.incoming().isComplete()) stream.flush();
+            if ( ! list.incoming().isComplete()) flush(stream);
         }
 
     }
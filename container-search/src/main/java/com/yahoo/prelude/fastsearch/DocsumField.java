@@ -86,7 +86,7 @@ public abstract class DocsumField {
      */
     public abstract Object convert(Inspector value);
 
-    /** Returns whether this is the string field type. */
+    /** Returns whether this is a string field type, whose values can be passed on as raw UTF-8. */
     boolean isString() { return false; }
 
 }
@@ -21,4 +21,6 @@ public class LongstringField extends DocsumField {
         return value.asString("");
     }
 
+    boolean isString() { return true; }
+
 }
@@ -0,0 +1,59 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.cache;
+
+import com.yahoo.search.Query;
+import com.yahoo.search.dispatch.InvokerResult;
+import com.yahoo.search.dispatch.LeanHit;
+import com.yahoo.search.result.Coverage;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of a result from a content cluster, from which a new result
+ * can be created for each query served by the {@link QueryResultCache}.
+ */
+public class CachedResult {
+
+    private final List<LeanHit> hits;
+    private final long totalHitCount;
+    private final long deepHitCount;
+    private final boolean hasCoverage;
+    private final long docs, active, soonActive;
+    private final int nodes, nodesTried, resultSets;
+    private final int offset;
+
+    CachedResult(List<LeanHit> hits, long totalHitCount, long deepHitCount, Coverage coverage, int offset) {
+        this.hits = hits;
+        this.totalHitCount = totalHitCount;
+        this.deepHitCount = deepHitCount;
+        this.hasCoverage = coverage != null;
+        this.docs = hasCoverage ? coverage.getDocs() : 0;
+        this.active = hasCoverage ? coverage.getActive() : 0;
+        this.soonActive = hasCoverage ? coverage.getSoonActive() : 0;
+        this.nodes = hasCoverage ? coverage.getNodes() : 0;
+        this.nodesTried = hasCoverage ? coverage.getNodesTried() : 0;
+        this.resultSets = hasCoverage ? coverage.getResultSets() : 0;
+        this.offset = offset;
+    }
+
+    /** Returns the number of hits in this */
+    public int hitCount() { return hits.size(); }
+
+    /**
+     * Returns a new invoker result for the given query containing the hits of this,
+     * and updates the query offset the same way the invoker producing this did.
+     */
+    public InvokerResult toInvokerResult(Query query) {
+        InvokerResult result = new InvokerResult(query, hits.size());
+        result.getLeanHits().addAll(hits);
+        result.getResult().setTotalHitCount(totalHitCount);
+        result.getResult().setDeepHitCount(deepHitCount);
+        if (hasCoverage) {
+            result.getResult().setCoverage(new Coverage(docs, active, nodes, resultSets).setSoonActive(soonActive)
+                                                                                        .setNodesTried(nodesTried));
+        }
+        query.setOffset(offset);
+        return result;
+    }
+
+}
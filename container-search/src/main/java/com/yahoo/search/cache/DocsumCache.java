@@ -0,0 +1,71 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.cache;
+
+import com.yahoo.data.access.Inspector;
+import com.yahoo.data.access.slime.SlimeAdapter;
+import com.yahoo.document.GlobalId;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.Slime;
+import com.yahoo.slime.SlimeUtils;
+import com.yahoo.vespa.config.search.DispatchConfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A memory bounded cache of document summaries from a content cluster, keyed on global id and summary class.
+ * Summaries are held in their binary slime form and decoded on each lookup, so that cached summaries
+ * do not keep the complete docsum replies they were received in alive.
+ *
+ * The search protocol does not expose a document generation, so a cached summary may be stale
+ * for up to the configured time to live after the document is changed.
+ * Summaries which depend on the query must never be added to this.
+ *
+ * This class is multithread safe.
+ */
+public class DocsumCache {
+
+    static final String HITS_METRIC = "docsum_cache_hits";
+    static final String MISSES_METRIC = "docsum_cache_misses";
+    static final String EVICTIONS_METRIC = "docsum_cache_evictions";
+
+    private final ExpiringLruCache<Key, byte[]> entries;
+    private final Metric metric;
+    private final Metric.Context metricContext;
+
+    public DocsumCache(DispatchConfig.DocsumCache config, Metric metric) {
+        this(config.maxBytes(), Duration.ofMillis((long) (config.timeToLive() * 1000)), Clock.systemUTC(), metric);
+    }
+
+    DocsumCache(long maxBytes, Duration timeToLive, Clock clock, Metric metric) {
+        this.entries = new ExpiringLruCache<>(maxBytes, timeToLive, summary -> summary.length, clock);
+        this.metric = metric;
+        this.metricContext = metric.createContext(null);
+    }
+
+    public boolean isEnabled() { return entries.isEnabled(); }
+
+    /** Returns the cached summary of the given class for the given document, if any */
+    public Optional<Inspector> get(String schema, String summaryClass, GlobalId globalId) {
+        Optional<byte[]> summary = entries.get(new Key(schema, summaryClass, globalId));
+        metric.add(summary.isPresent() ? HITS_METRIC : MISSES_METRIC, 1, metricContext);
+        return summary.map(data -> new SlimeAdapter(BinaryFormat.decode(data).get()));
+    }
+
+    /** Caches a copy of the given summary, which must be an object */
+    public void put(String schema, String summaryClass, GlobalId globalId, com.yahoo.slime.Inspector summary) {
+        Slime copy = new Slime();
+        SlimeUtils.copyObject(summary, copy.setObject());
+        int evicted = entries.put(new Key(schema, summaryClass, globalId), BinaryFormat.encode(copy));
+        if (evicted > 0)
+            metric.add(EVICTIONS_METRIC, evicted, metricContext);
+    }
+
+    /** Returns the number of bytes of summaries currently held in this, including expired ones not yet evicted */
+    public long sizeInBytes() { return entries.weight(); }
+
+    private record Key(String schema, String summaryClass, GlobalId globalId) { }
+
+}
@@ -0,0 +1,103 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache where entries expire after a fixed time to live, and where the least recently used entries
+ * are evicted when the total weight of the entries exceeds a maximum.
+ *
+ * This class is multithread safe.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+class ExpiringLruCache<K, V> {
+
+    private final long maxWeight;
+    private final Duration timeToLive;
+    private final ToLongFunction<V> weigher;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    ExpiringLruCache(long maxWeight, Duration timeToLive, ToLongFunction<V> weigher, Clock clock) {
+        this.maxWeight = maxWeight;
+        this.timeToLive = timeToLive;
+        this.weigher = weigher;
+        this.clock = clock;
+    }
+
+    /** Returns whether this can hold any entries at all */
+    boolean isEnabled() { return maxWeight > 0 && ! timeToLive.isZero() && ! timeToLive.isNegative(); }
+
+    /** Returns the unexpired value for this key, if any */
+    synchronized Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return Optional.empty();
+        if (entry.isExpired(clock.instant())) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Adds a value for this key, replacing any previous value, and evicts expired and
+     * least recently used entries until this is within its maximum weight.
+     *
+     * @return the number of entries evicted, not counting a replaced value
+     */
+    synchronized int put(K key, V value) {
+        Instant now = clock.instant();
+        Entry<V> entry = new Entry<>(value, weigher.applyAsLong(value), now.plus(timeToLive));
+        Entry<V> previous = entries.put(key, entry);
+        weight += entry.weight - (previous != null ? previous.weight : 0);
+
+        int evicted = 0;
+        for (Iterator<Map.Entry<K, Entry<V>>> i = entries.entrySet().iterator(); i.hasNext(); ) {
+            Entry<V> eldest = i.next().getValue();
+            if (weight <= maxWeight && ! eldest.isExpired(now)) break;
+            i.remove();
+            weight -= eldest.weight;
+            evicted++;
+        }
+        return evicted;
+    }
+
+    /** Returns the number of entries in this, including expired ones not yet evicted */
+    synchronized int size() { return entries.size(); }
+
+    /** Returns the total weight of the entries in this, including expired ones not yet evicted */
+    synchronized long weight() { return weight; }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null)
+            weight -= removed.weight;
+    }
+
+    private static class Entry<V> {
+
+        final V value;
+        final long weight;
+        final Instant expiry;
+
+        Entry(V value, long weight, Instant expiry) {
+            this.value = value;
+            this.weight = weight;
+            this.expiry = expiry;
+        }
+
+        boolean isExpired(Instant now) { return ! now.isBefore(expiry); }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.cache;
+
+import com.yahoo.jdisc.Metric;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.dispatch.LeanHit;
+import com.yahoo.search.dispatch.rpc.ProtobufSerialization;
+import com.yahoo.search.grouping.vespa.GroupingExecutor;
+import com.yahoo.vespa.config.search.DispatchConfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A bounded cache of search results (hits without summaries) from a content cluster, keyed on the
+ * canonical form of the request sent to the content nodes. Entries expire after a fixed time to live,
+ * and the least recently used entry is evicted when the cache is full.
+ *
+ * Caching is opt-in per schema, and only queries which do not depend on per-request state
+ * (tracing, grouping, backend session caches, explicit search paths) are cached.
+ *
+ * This class is multithread safe.
+ */
+public class QueryResultCache {
+
+    static final String HITS_METRIC = "query_result_cache_hits";
+    static final String MISSES_METRIC = "query_result_cache_misses";
+    static final String EVICTIONS_METRIC = "query_result_cache_evictions";
+
+    private final Set<String> schemas;
+    private final ExpiringLruCache<Key, CachedResult> entries;
+    private final Metric metric;
+    private final Metric.Context metricContext;
+
+    public QueryResultCache(DispatchConfig.ResultCache config, Metric metric) {
+        this(Set.copyOf(config.schema()), config.maxEntries(),
+             Duration.ofMillis((long) (config.timeToLive() * 1000)), Clock.systemUTC(), metric);
+    }
+
+    QueryResultCache(Set<String> schemas, int maxEntries, Duration timeToLive, Clock clock, Metric metric) {
+        this.schemas = schemas;
+        this.entries = new ExpiringLruCache<>(maxEntries, timeToLive, result -> 1, clock);
+        this.metric = metric;
+        this.metricContext = metric.createContext(null);
+    }
+
+    /** Returns whether any schema has caching enabled */
+    public boolean isEnabled() { return ! schemas.isEmpty() && entries.isEnabled(); }
+
+    /** Returns the key of the given query, or empty if the result of this query should not be cached */
+    public Optional<Key> keyOf(Query query) {
+        if ( ! isEnabled()) return Optional.empty();
+        if ( ! schemas.contains(query.getModel().getDocumentDb())) return Optional.empty();
+        if (query.getNoCache()) return Optional.empty();
+        if (query.getModel().getSearchPath() != null) return Optional.empty();
+        if (query.getGroupingSessionCache() || query.getRanking().getQueryCache()) return Optional.empty();
+        if (GroupingExecutor.hasGroupingList(query)) return Optional.empty();
+        if (query.getTrace().getLevel() > 0 || query.getTrace().getExplainLevel() > 0) return Optional.empty();
+        return Optional.of(new Key(ProtobufSerialization.serializeCacheKey(query)));
+    }
+
+    /** Returns the unexpired result cached for this key, if any */
+    public Optional<CachedResult> get(Key key) {
+        Optional<CachedResult> result = entries.get(key);
+        metric.add(result.isPresent() ? HITS_METRIC : MISSES_METRIC, 1, metricContext);
+        return result;
+    }
+
+    /**
+     * Caches a result for this key, evicting expired and least recently used entries as needed.
+     *
+     * @param key the key of the query producing this result
+     * @param result the result, which must not contain errors or have degraded coverage
+     * @param hits the hits of the result which are not yet added to it
+     * @param offset the offset of the query after producing this result
+     */
+    public void put(Key key, Result result, List<LeanHit> hits, int offset) {
+        CachedResult cached = new CachedResult(List.copyOf(hits), result.getTotalHitCount(), result.getDeepHitCount(),
+                                               result.getCoverage(false), offset);
+        int evicted = entries.put(key, cached);
+        if (evicted > 0)
+            metric.add(EVICTIONS_METRIC, evicted, metricContext);
+    }
+
+    /** Returns the number of entries currently in this cache, including expired ones not yet evicted */
+    public int size() { return entries.size(); }
+
+    /** The canonical, serialized form of a query */
+    public static final class Key {
+
+        private final byte[] request;
+        private final int hashCode;
+
+        Key(byte[] request) {
+            this.request = request;
+            this.hashCode = Arrays.hashCode(request);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if ( ! (o instanceof Key)) return false;
+            return Arrays.equals(request, ((Key) o).request);
+        }
+
+        @Override
+        public int hashCode() { return hashCode; }
+
+    }
+
+}
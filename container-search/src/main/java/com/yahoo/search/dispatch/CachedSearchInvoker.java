@@ -0,0 +1,39 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.search.Query;
+import com.yahoo.search.cache.CachedResult;
+import com.yahoo.search.searchchain.Execution;
+
+import java.util.Optional;
+
+/**
+ * A search invoker producing a result from the container result cache without contacting any content nodes.
+ */
+class CachedSearchInvoker extends SearchInvoker {
+
+    private final CachedResult cached;
+    private Query query;
+
+    CachedSearchInvoker(CachedResult cached) {
+        super(Optional.empty());
+        this.cached = cached;
+    }
+
+    @Override
+    protected Object sendSearchRequest(Query query, Object context) {
+        this.query = query;
+        return context;
+    }
+
+    @Override
+    protected InvokerResult getSearchResult(Execution execution) {
+        return cached.toInvokerResult(query);
+    }
+
+    @Override
+    protected void release() {
+        // nothing to release
+    }
+
+}
@@ -0,0 +1,57 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.cache.QueryResultCache;
+import com.yahoo.search.result.Coverage;
+import com.yahoo.search.searchchain.Execution;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * A search invoker which adds successful, fully covered results of the invoker it wraps to the container result cache.
+ * Only results where all hits are still lean hits are cached.
+ */
+class CachingSearchInvoker extends SearchInvoker {
+
+    private final SearchInvoker invoker;
+    private final QueryResultCache cache;
+    private final QueryResultCache.Key key;
+    private Query query;
+
+    CachingSearchInvoker(SearchInvoker invoker, QueryResultCache cache, QueryResultCache.Key key) {
+        super(Optional.empty());
+        this.invoker = invoker;
+        this.cache = cache;
+        this.key = key;
+    }
+
+    @Override
+    protected Object sendSearchRequest(Query query, Object context) throws IOException {
+        this.query = query;
+        return invoker.sendSearchRequest(query, context);
+    }
+
+    @Override
+    protected InvokerResult getSearchResult(Execution execution) throws IOException {
+        InvokerResult result = invoker.getSearchResult(execution);
+        boolean success = result.getResult().hits().getError() == null;
+        invoker.setFinalStatus(success);
+        if (success && result.getResult().hits().size() == 0 && isFullyCovered(result.getResult()))
+            cache.put(key, result.getResult(), result.getLeanHits(), query.getOffset());
+        return result;
+    }
+
+    private static boolean isFullyCovered(Result result) {
+        Coverage coverage = result.getCoverage(false);
+        return coverage == null || ! coverage.isDegraded();
+    }
+
+    @Override
+    protected void release() {
+        invoker.close();
+    }
+
+}
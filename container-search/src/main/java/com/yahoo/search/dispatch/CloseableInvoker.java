@@ -37,4 +37,13 @@ public abstract class CloseableInvoker implements Closeable {
         release();
     }
 
+    /** Closes this without reporting success or the time spent, for an invoker whose response is no longer wanted. */
+    protected final void abandon() {
+        if (teardown != null) {
+            teardown.accept(false, 0L);
+            teardown = null;
+        }
+        release();
+    }
+
 }
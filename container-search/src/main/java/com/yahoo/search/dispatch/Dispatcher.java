@@ -11,6 +11,9 @@ import com.yahoo.prelude.fastsearch.VespaBackEndSearcher;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
+import com.yahoo.search.cache.CachedResult;
+import com.yahoo.search.cache.DocsumCache;
+import com.yahoo.search.cache.QueryResultCache;
 import com.yahoo.search.cluster.ClusterMonitor;
 import com.yahoo.search.dispatch.SearchPath.InvalidSearchPathException;
 import com.yahoo.search.dispatch.rpc.RpcInvokerFactory;
@@ -27,7 +30,9 @@ import com.yahoo.vespa.config.search.DispatchConfig;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -49,6 +54,7 @@ public class Dispatcher extends AbstractComponent {
     private static final String TOP_K_PROBABILITY = "topKProbability";
 
     private static final String INTERNAL_METRIC = "dispatch_internal";
+    private static final String GROUP_SELECTED_METRIC = "dispatch_group_selected";
 
     private static final int MAX_GROUP_SELECTION_ATTEMPTS = 3;
 
@@ -63,8 +69,13 @@ public class Dispatcher extends AbstractComponent {
 
     private final InvokerFactory invokerFactory;
 
+    private final QueryResultCache resultCache;
+
+    private final HedgingPolicy hedgingPolicy;
+
     private final Metric metric;
     private final Metric.Context metricContext;
+    private final Map<Integer, Metric.Context> groupMetricContexts;
 
     private final int maxHitsPerNode;
 
@@ -93,7 +104,8 @@ public class Dispatcher extends AbstractComponent {
     }
 
     private Dispatcher(RpcResourcePool resourcePool, SearchCluster searchCluster, DispatchConfig dispatchConfig, Metric metric) {
-        this(new ClusterMonitor<>(searchCluster, true), searchCluster, dispatchConfig, new RpcInvokerFactory(resourcePool, searchCluster), metric);
+        this(new ClusterMonitor<>(searchCluster, true), searchCluster, dispatchConfig,
+             new RpcInvokerFactory(resourcePool, searchCluster, new DocsumCache(dispatchConfig.docsumCache(), metric)), metric);
     }
 
     /* Protected for simple mocking in tests. Beware that searchCluster is shutdown on in deconstruct() */
@@ -107,11 +119,15 @@ public class Dispatcher extends AbstractComponent {
 
         this.searchCluster = searchCluster;
         this.clusterMonitor = clusterMonitor;
-        this.loadBalancer = new LoadBalancer(searchCluster,
-                                  dispatchConfig.distributionPolicy() == DispatchConfig.DistributionPolicy.ROUNDROBIN);
+        this.loadBalancer = new LoadBalancer(searchCluster, toLoadBalancerPolicy(dispatchConfig.distributionPolicy()));
         this.invokerFactory = invokerFactory;
+        this.resultCache = new QueryResultCache(dispatchConfig.resultCache(), metric);
+        this.hedgingPolicy = new HedgingPolicy(dispatchConfig.hedging(), metric);
         this.metric = metric;
         this.metricContext = metric.createContext(null);
+        this.groupMetricContexts = searchCluster.orderedGroups().stream()
+                                                .collect(Collectors.toMap(Group::id,
+                                                                          group -> metric.createContext(Map.of("groupId", group.id()))));
         this.maxHitsPerNode = dispatchConfig.maxHitsPerNode();
         searchCluster.addMonitoring(clusterMonitor);
         Thread warmup = new Thread(() -> warmup(dispatchConfig.warmuptime()));
@@ -130,6 +146,14 @@ public class Dispatcher extends AbstractComponent {
         searchCluster.pingIterationCompleted();
     }
 
+    private static LoadBalancer.Policy toLoadBalancerPolicy(DispatchConfig.DistributionPolicy.Enum policy) {
+        switch (policy) {
+            case ROUNDROBIN: return LoadBalancer.Policy.ROUNDROBIN;
+            case BEST_OF_RANDOM_2: return LoadBalancer.Policy.BEST_OF_RANDOM_2;
+            default: return LoadBalancer.Policy.ADAPTIVE;
+        }
+    }
+
     /**
      * Will run important code in order to trigger JIT compilation and avoid cold start issues.
      * Currently warms up lz4 compression code.
@@ -155,7 +179,16 @@ public class Dispatcher extends AbstractComponent {
     }
 
     public SearchInvoker getSearchInvoker(Query query, VespaBackEndSearcher searcher) {
-        SearchInvoker invoker = getSearchPathInvoker(query, searcher).orElseGet(() -> getInternalInvoker(query, searcher));
+        Optional<QueryResultCache.Key> cacheKey = resultCache.keyOf(query);
+        Optional<CachedResult> cached = cacheKey.flatMap(resultCache::get);
+        SearchInvoker invoker;
+        if (cached.isPresent()) {
+            invoker = new CachedSearchInvoker(cached.get());
+        } else {
+            invoker = getSearchPathInvoker(query, searcher).orElseGet(() -> getInternalInvoker(query, searcher));
+            if (cacheKey.isPresent())
+                invoker = new CachingSearchInvoker(invoker, resultCache, cacheKey.get());
+        }
 
         if (query.properties().getBoolean(com.yahoo.search.query.Model.ESTIMATE)) {
             query.setHits(0);
@@ -216,8 +249,9 @@ public class Dispatcher extends AbstractComponent {
             if (invoker.isPresent()) {
                 query.trace(false, 2, "Dispatching to group ", group.id(), " after retries = ", i);
                 query.getModel().setSearchPath("/" + group.id());
-                invoker.get().teardown((success, time) -> loadBalancer.releaseGroup(group, success, time));
-                return invoker.get();
+                metric.add(GROUP_SELECTED_METRIC, 1, groupMetricContexts.get(group.id()));
+                invoker.get().teardown((success, time) -> releaseGroup(group, success, time));
+                return hedged(invoker.get(), group, query, searcher);
             } else {
                 loadBalancer.releaseGroup(group, false, 0);
                 if (rejected == null) {
@@ -229,6 +263,44 @@ public class Dispatcher extends AbstractComponent {
         throw new IllegalStateException("No suitable groups to dispatch query. Rejected: " + rejected);
     }
 
+    private void releaseGroup(Group group, boolean success, long searchTime) {
+        loadBalancer.releaseGroup(group, success, searchTime);
+        if (success)
+            hedgingPolicy.recordSearchTime(group.id(), searchTime);
+    }
+
+    /** Returns the given invoker wrapped in one hedging the search to another group if it is slow, if applicable */
+    private SearchInvoker hedged(SearchInvoker invoker, Group group, Query query, VespaBackEndSearcher searcher) {
+        if ( ! hedgingPolicy.isEnabled() || searchCluster.orderedGroups().size() < 2) return invoker;
+
+        OptionalLong hedgeDelay = hedgingPolicy.hedgeDelay(group.id(), query.getTimeLeft());
+        if (hedgeDelay.isEmpty()) return invoker;
+        return new HedgingSearchInvoker(invoker, hedgeDelay.getAsLong(), () -> getHedge(query, searcher, group), hedgingPolicy);
+    }
+
+    /** Returns an invoker for another group than the given one with full coverage, if the hedging budget allows it */
+    private Optional<HedgingSearchInvoker.Hedge> getHedge(Query query, VespaBackEndSearcher searcher, Group primary) {
+        Set<Integer> rejected = rejectGroupBlockingFeed(searchCluster.orderedGroups());
+        if (rejected == null) {
+            rejected = new HashSet<>();
+        }
+        rejected.add(primary.id());
+        Optional<Group> groupInCluster = loadBalancer.takeGroup(rejected);
+        if (groupInCluster.isEmpty()) return Optional.empty();
+
+        Group group = groupInCluster.get();
+        Optional<SearchInvoker> invoker = Optional.empty();
+        if (group.hasSufficientCoverage() && hedgingPolicy.tryIssue())
+            invoker = invokerFactory.createSearchInvoker(searcher, query, group.nodes(), false, maxHitsPerNode);
+        if (invoker.isEmpty()) {
+            loadBalancer.releaseGroup(group, false, 0);
+            return Optional.empty();
+        }
+        metric.add(GROUP_SELECTED_METRIC, 1, groupMetricContexts.get(group.id()));
+        invoker.get().teardown((success, time) -> releaseGroup(group, success, time));
+        return Optional.of(new HedgingSearchInvoker.Hedge(group, invoker.get()));
+    }
+
     /**
      * We want to avoid groups blocking feed because their data may be out of date.
      * If there is a single group blocking feed, we want to reject it.
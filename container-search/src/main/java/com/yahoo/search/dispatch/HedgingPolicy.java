@@ -0,0 +1,95 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.jdisc.Metric;
+import com.yahoo.vespa.config.search.DispatchConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Decides when a search to a group should be hedged by also sending it to another group.
+ * A search is hedged when it has not completed within a percentile of the recent search times of the group,
+ * as long as the number of hedged searches stays within a fraction of all searches.
+ *
+ * This class is multithread safe.
+ */
+class HedgingPolicy {
+
+    static final String ISSUED_METRIC = "dispatch_hedges_issued";
+    static final String WON_METRIC = "dispatch_hedges_won";
+
+    /** The relative step used to move the estimated percentile towards each new search time */
+    private static final double PERCENTILE_STEP = 0.05;
+
+    /** The maximum number of hedged searches which can be issued in a burst */
+    private static final double MAX_BUDGET = 10;
+
+    private final double percentile;
+    private final double maxExtraLoad;
+    private final long minDelayMillis;
+    private final Map<Integer, Double> searchTimePercentiles = new HashMap<>();
+    private final Metric metric;
+    private final Metric.Context metricContext;
+    private double budget = 0;
+
+    HedgingPolicy(DispatchConfig.Hedging config, Metric metric) {
+        this(config.latencyPercentile(), config.maxExtraLoad(), (long) (config.minDelay() * 1000), metric);
+    }
+
+    HedgingPolicy(double percentile, double maxExtraLoad, long minDelayMillis, Metric metric) {
+        this.percentile = percentile / 100;
+        this.maxExtraLoad = maxExtraLoad;
+        this.minDelayMillis = minDelayMillis;
+        this.metric = metric;
+        this.metricContext = metric.createContext(null);
+    }
+
+    boolean isEnabled() { return percentile > 0 && maxExtraLoad > 0; }
+
+    /**
+     * Updates the estimated search time percentile of a group with the time of a successful search.
+     * The estimate moves up by a larger step than down, such that it settles where the given fraction
+     * of search times are below it.
+     */
+    synchronized void recordSearchTime(int groupId, long searchTimeMillis) {
+        double searchTime = Math.max(searchTimeMillis, 1);
+        Double estimate = searchTimePercentiles.get(groupId);
+        if (estimate == null)
+            estimate = searchTime;
+        else if (searchTime > estimate)
+            estimate *= 1 + PERCENTILE_STEP * percentile;
+        else
+            estimate *= 1 - PERCENTILE_STEP * (1 - percentile);
+        searchTimePercentiles.put(groupId, estimate);
+    }
+
+    /**
+     * Returns the time to wait for a search to the given group before hedging it,
+     * or empty if it should not be hedged. This must be called once for every search.
+     */
+    synchronized OptionalLong hedgeDelay(int groupId, long timeLeftMillis) {
+        budget = Math.min(MAX_BUDGET, budget + maxExtraLoad);
+        Double estimate = searchTimePercentiles.get(groupId);
+        if (estimate == null) return OptionalLong.empty();
+
+        long delay = Math.max(minDelayMillis, estimate.longValue());
+        if (delay >= timeLeftMillis) return OptionalLong.empty();
+        return OptionalLong.of(delay);
+    }
+
+    /** Returns whether a hedged search may be issued now, and if so counts it as issued */
+    synchronized boolean tryIssue() {
+        if (budget < 1) return false;
+        budget -= 1;
+        metric.add(ISSUED_METRIC, 1, metricContext);
+        return true;
+    }
+
+    /** Called when a hedged search completed before the search it hedged */
+    void hedgeWon() {
+        metric.add(WON_METRIC, 1, metricContext);
+    }
+
+}
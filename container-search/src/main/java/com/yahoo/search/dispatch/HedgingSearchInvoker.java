@@ -0,0 +1,109 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.search.Query;
+import com.yahoo.search.dispatch.searchcluster.Group;
+import com.yahoo.search.searchchain.Execution;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A search invoker which sends the search to a second group as well if the first group has not
+ * answered with sufficient coverage within a given delay, and uses the result from the group which
+ * first does. The chosen invoker then applies its own adaptive timeout to any nodes still pending.
+ * A primary which loses to the hedge is closed as failed after the time it was given, so that its group
+ * is avoided by the load balancer, while a losing hedge is abandoned without reporting its search time.
+ */
+class HedgingSearchInvoker extends SearchInvoker implements ResponseMonitor<SearchInvoker> {
+
+    private final SearchInvoker primary;
+    private final long hedgeDelayMillis;
+    private final Supplier<Optional<Hedge>> hedgeFactory;
+    private final HedgingPolicy policy;
+    private final LinkedBlockingQueue<SearchInvoker> availableForProcessing = new LinkedBlockingQueue<>();
+
+    private Query query;
+    private Hedge hedge = null;
+    private SearchInvoker winner = null;
+
+    /**
+     * Creates a hedging invoker
+     *
+     * @param primary the invoker of the group selected for this search
+     * @param hedgeDelayMillis the time to wait for the primary invoker before hedging
+     * @param hedgeFactory creates the invoker of another group, or empty if the search should not be hedged after all
+     * @param policy the policy deciding this hedge
+     */
+    HedgingSearchInvoker(SearchInvoker primary, long hedgeDelayMillis, Supplier<Optional<Hedge>> hedgeFactory, HedgingPolicy policy) {
+        super(Optional.empty());
+        this.primary = primary;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgeFactory = hedgeFactory;
+        this.policy = policy;
+    }
+
+    @Override
+    protected Object sendSearchRequest(Query query, Object context) throws IOException {
+        this.query = query;
+        primary.setMonitor(this);
+        return primary.sendSearchRequest(query, context);
+    }
+
+    @Override
+    protected InvokerResult getSearchResult(Execution execution) throws IOException {
+        winner = primary;
+        try {
+            if (availableForProcessing.poll(Math.min(hedgeDelayMillis, query.getTimeLeft()), TimeUnit.MILLISECONDS) == null)
+                hedge();
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted while waiting for search results", e);
+        }
+        return winner.getSearchResult(execution);
+    }
+
+    private void hedge() throws IOException, InterruptedException {
+        if (query.getTimeLeft() <= 0) return;
+        Optional<Hedge> created = hedgeFactory.get();
+        if (created.isEmpty()) return;
+
+        hedge = created.get();
+        query.trace(false, 2, "Hedging search by also dispatching to group ", hedge.group().id());
+        hedge.invoker().setMonitor(this);
+        hedge.invoker().sendSearchRequest(query, null);
+        SearchInvoker first = availableForProcessing.poll(Math.max(query.getTimeLeft(), 0), TimeUnit.MILLISECONDS);
+        if (first == hedge.invoker()) {
+            winner = hedge.invoker();
+            query.getModel().setSearchPath("/" + hedge.group().id());
+            policy.hedgeWon();
+            primary.close(); // not successful, so reported as a failure after the time elapsed
+        } else {
+            hedge.invoker().abandon();
+        }
+    }
+
+    @Override
+    protected void setFinalStatus(boolean success) {
+        super.setFinalStatus(success);
+        (winner != null ? winner : primary).setFinalStatus(success);
+    }
+
+    @Override
+    protected void release() {
+        primary.close();
+        if (hedge != null)
+            hedge.invoker().close();
+    }
+
+    @Override
+    public void responseAvailable(SearchInvoker from) {
+        availableForProcessing.add(from);
+    }
+
+    /** An invoker of the group a search is hedged to */
+    record Hedge(Group group, SearchInvoker invoker) { }
+
+}
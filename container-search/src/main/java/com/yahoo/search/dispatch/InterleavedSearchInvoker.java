@@ -22,6 +22,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -45,6 +46,8 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     private final Group group;
     private final LinkedBlockingQueue<SearchInvoker> availableForProcessing;
     private final Set<Integer> alreadyFailedNodes;
+    private final AtomicInteger responses = new AtomicInteger(0);
+    private final int sufficientResponses;
     private Query query;
 
     private boolean adaptiveTimeoutCalculated = false;
@@ -72,6 +75,13 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         this.group = group;
         this.availableForProcessing = newQueue();
         this.alreadyFailedNodes = alreadyFailedNodes;
+        this.sufficientResponses = sufficientResponses(this.invokers.size(), searchCluster.dispatchConfig().minSearchCoverage());
+    }
+
+    /** Returns the number of responses after which {@link #getSearchResult} no longer waits for the full timeout */
+    private static int sufficientResponses(int invokers, double minimumCoverage) {
+        if (minimumCoverage >= 100.0) return invokers;
+        return Math.min(invokers, Math.max(1, (int) Math.ceil(invokers * minimumCoverage / 100.0)));
     }
 
     /**
@@ -332,11 +342,9 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         if (availableForProcessing != null) {
             availableForProcessing.add(from);
         }
-    }
-
-    @Override
-    protected void setMonitor(ResponseMonitor<SearchInvoker> monitor) {
-        // never to be called
+        if (responses.incrementAndGet() == sufficientResponses) {
+            responseAvailable(); // enough contained invokers have responded for the result to be returned by adaptive timeout
+        }
     }
 
     // For overriding in tests
@@ -9,13 +9,16 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.LongSupplier;
 import java.util.logging.Logger;
 
 /**
  * LoadBalancer determines which group of content nodes should be accessed next for each search query when the
  * internal java dispatcher is used.
  *
- * The implementation here is a simplistic least queries in flight + round-robin load balancer
+ * The implementation here is a simplistic least queries in flight + round-robin load balancer,
+ * a load balancer weighting groups by their average search time, or a load balancer picking the best of
+ * two random groups by their recent peak search time and queries in flight.
  *
  * @author ollivir
  */
@@ -27,17 +30,24 @@ public class LoadBalancer {
     private static final long MIN_LATENCY_DECAY_RATE = 42;
     private static final double INITIAL_QUERY_TIME = 0.001;
     private static final double MIN_QUERY_TIME = 0.001;
+    private static final double PEAK_SEARCH_TIME_DECAY = 0.05;
+    private static final double PEAK_SEARCH_TIME_HALF_LIFE_SECONDS = 1.0;
+
+    /** The policy for selecting the group to use for a query */
+    public enum Policy { ROUNDROBIN, ADAPTIVE, BEST_OF_RANDOM_2 }
 
     private final List<GroupStatus> scoreboard;
     private final GroupScheduler scheduler;
 
-    public LoadBalancer(SearchCluster searchCluster, boolean roundRobin) {
+    public LoadBalancer(SearchCluster searchCluster, Policy policy) {
         this.scoreboard = new ArrayList<>(searchCluster.groups().size());
         for (Group group : searchCluster.orderedGroups()) {
             scoreboard.add(new GroupStatus(group));
         }
-        if (roundRobin || scoreboard.size() == 1) {
+        if (policy == Policy.ROUNDROBIN || scoreboard.size() == 1) {
             this.scheduler = new RoundRobinScheduler(scoreboard);
+        } else if (policy == Policy.BEST_OF_RANDOM_2) {
+            this.scheduler = new BestOfRandom2Scheduler(new Random(), scoreboard);
         } else {
             this.scheduler = new AdaptiveScheduler(new Random(), scoreboard);
         }
@@ -90,9 +100,18 @@ public class LoadBalancer {
         private int allocations = 0;
         private long queries = 0;
         private double averageSearchTime = INITIAL_QUERY_TIME;
+        private double peakSearchTime = INITIAL_QUERY_TIME;
+        private long peakSearchTimeUpdatedNanos;
+        private final LongSupplier nanoClock;
 
         GroupStatus(Group group) {
+            this(group, System::nanoTime);
+        }
+
+        GroupStatus(Group group, LongSupplier nanoClock) {
             this.group = group;
+            this.nanoClock = nanoClock;
+            this.peakSearchTimeUpdatedNanos = nanoClock.getAsLong();
         }
 
         void allocate() {
@@ -111,6 +130,33 @@ public class LoadBalancer {
                 averageSearchTime = (searchTime + (decayRate - 1) * averageSearchTime) / decayRate;
                 queries++;
             }
+            if (success || searchTime > 0) // a failure after some time, e.g. a timeout, is also a sign of a slow group
+                updatePeakSearchTime(Math.max(searchTime, MIN_QUERY_TIME));
+        }
+
+        /**
+         * Tracks the recent peak search time: Increases immediately to slower search times,
+         * and decays exponentially towards faster ones, so that a group turning slow is avoided at once.
+         */
+        private void updatePeakSearchTime(double searchTime) {
+            long now = nanoClock.getAsLong();
+            double peak = peakSearchTime(now);
+            if (searchTime > peak)
+                peakSearchTime = searchTime;
+            else
+                peakSearchTime = peak + PEAK_SEARCH_TIME_DECAY * (searchTime - peak);
+            peakSearchTimeUpdatedNanos = now;
+        }
+
+        /**
+         * Returns the recent peak search time, halved towards the minimum for each half-life passed since it was last
+         * updated. A group which is avoided because of a slow query is thus tried again after a while, and recovers
+         * if it is fast again, also when each query is sent to the cheapest of the groups.
+         */
+        private double peakSearchTime(long nowNanos) {
+            double halfLives = (nowNanos - peakSearchTimeUpdatedNanos) * 1e-9 / PEAK_SEARCH_TIME_HALF_LIFE_SECONDS;
+            if (halfLives <= 0) return peakSearchTime;
+            return MIN_QUERY_TIME + (peakSearchTime - MIN_QUERY_TIME) * Math.pow(0.5, halfLives);
         }
 
         double averageSearchTime() {
@@ -121,6 +167,15 @@ public class LoadBalancer {
             return 1.0 / averageSearchTime;
         }
 
+        double peakSearchTime() {
+            return peakSearchTime(nanoClock.getAsLong());
+        }
+
+        /** Returns the expected cost of sending another query to this group given the queries already in flight */
+        double cost() {
+            return peakSearchTime() * (allocations + 1);
+        }
+
         int groupId() {
             return group.id();
         }
@@ -239,4 +294,46 @@ public class LoadBalancer {
         }
     }
 
+    /**
+     * Picks two distinct groups at random and selects the one with the lowest cost, see {@link GroupStatus#cost}.
+     * This avoids slow or overloaded groups quickly, without sending all queries to the currently fastest group.
+     */
+    static class BestOfRandom2Scheduler implements GroupScheduler {
+
+        private final Random random;
+        private final List<GroupStatus> scoreboard;
+
+        public BestOfRandom2Scheduler(Random random, List<GroupStatus> scoreboard) {
+            this.random = random;
+            this.scoreboard = scoreboard;
+        }
+
+        private Optional<GroupStatus> selectGroup(boolean requireCoverage, Set<Integer> rejected) {
+            List<GroupStatus> candidates = new ArrayList<>(scoreboard.size());
+            for (GroupStatus gs : scoreboard) {
+                if (rejected == null || !rejected.contains(gs.group.id())) {
+                    if (!requireCoverage || gs.group.hasSufficientCoverage()) {
+                        candidates.add(gs);
+                    }
+                }
+            }
+            if (candidates.isEmpty()) return Optional.empty();
+            if (candidates.size() == 1) return Optional.of(candidates.get(0));
+
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) second++;
+            GroupStatus a = candidates.get(first);
+            GroupStatus b = candidates.get(second);
+            return Optional.of(b.cost() < a.cost() ? b : a);
+        }
+
+        @Override
+        public Optional<GroupStatus> takeNextGroup(Set<Integer> rejectedGroups) {
+            Optional<GroupStatus> gs = selectGroup(true, rejectedGroups);
+            if (gs.isPresent()) return gs;
+            return selectGroup(false, rejectedGroups); // any coverage better than none
+        }
+    }
+
 }
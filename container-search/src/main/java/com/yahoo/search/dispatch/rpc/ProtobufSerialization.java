@@ -43,6 +43,14 @@ public class ProtobufSerialization {
         return convertFromQuery(query, hits, serverId, requestTimeout).toByteArray();
     }
 
+    /**
+     * Returns the search request for the given query without any per-request state such as timeout,
+     * suitable as a canonical key for caching results. The query must not use backend session caches.
+     */
+    public static byte[] serializeCacheKey(Query query) {
+        return convertFromQuery(query, query.getHits(), null, 0).toByteArray();
+    }
+
     private static void convertSearchReplyErrors(Result target, List<SearchProtocol.Error> errors) {
         for (var error : errors) {
             target.hits().addError(ErrorMessage.createSearchReplyError(error.getMessage()));
@@ -6,6 +6,7 @@ import com.yahoo.prelude.fastsearch.VespaBackEndSearcher;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
+import com.yahoo.search.cache.DocsumCache;
 import com.yahoo.search.dispatch.Dispatcher;
 import com.yahoo.search.dispatch.FillInvoker;
 import com.yahoo.search.dispatch.InvokerFactory;
@@ -24,10 +25,12 @@ public class RpcInvokerFactory extends InvokerFactory {
     private final static CompoundName dispatchSummaries = new CompoundName("dispatch.summaries");
 
     private final RpcResourcePool rpcResourcePool;
+    private final DocsumCache docsumCache;
 
-    public RpcInvokerFactory(RpcResourcePool rpcResourcePool, SearchCluster searchCluster) {
+    public RpcInvokerFactory(RpcResourcePool rpcResourcePool, SearchCluster searchCluster, DocsumCache docsumCache) {
         super(searchCluster);
         this.rpcResourcePool = rpcResourcePool;
+        this.docsumCache = docsumCache;
     }
 
     @Override
@@ -43,7 +46,11 @@ public class RpcInvokerFactory extends InvokerFactory {
         Query query = result.getQuery();
 
         boolean summaryNeedsQuery = searcher.summaryNeedsQuery(query);
-        return new RpcProtobufFillInvoker(rpcResourcePool, searcher.getDocumentDatabase(query), searcher.getServerId(), summaryNeedsQuery);
+        // Summaries depending on the query cannot be reused for other queries
+        boolean useDocsumCache = docsumCache.isEnabled() && ! summaryNeedsQuery && ! query.getRanking().getQueryCache()
+                                 && ! query.getNoCache();
+        return new RpcProtobufFillInvoker(rpcResourcePool, searcher.getDocumentDatabase(query), searcher.getServerId(), summaryNeedsQuery,
+                                          useDocsumCache ? Optional.of(docsumCache) : Optional.empty());
     }
 
 }
@@ -16,6 +16,7 @@ import com.yahoo.prelude.fastsearch.TimeoutException;
 import com.yahoo.processing.IllegalInputException;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
+import com.yahoo.search.cache.DocsumCache;
 import com.yahoo.search.dispatch.FillInvoker;
 import com.yahoo.search.dispatch.rpc.Client.ProtobufResponse;
 import com.yahoo.search.result.ErrorMessage;
@@ -25,6 +26,7 @@ import com.yahoo.slime.BinaryFormat;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -47,6 +49,7 @@ public class RpcProtobufFillInvoker extends FillInvoker {
     private final RpcResourcePool resourcePool;
     private final boolean summaryNeedsQuery;
     private final String serverId;
+    private final Optional<DocsumCache> docsumCache;
 
     private BlockingQueue<Pair<Client.ResponseOrError<ProtobufResponse>, List<FastHit>>> responses;
 
@@ -57,10 +60,20 @@ public class RpcProtobufFillInvoker extends FillInvoker {
     private int outstandingResponses;
 
     RpcProtobufFillInvoker(RpcResourcePool resourcePool, DocumentDatabase documentDb, String serverId, boolean summaryNeedsQuery) {
+        this(resourcePool, documentDb, serverId, summaryNeedsQuery, Optional.empty());
+    }
+
+    /**
+     * @param docsumCache the cache to look up summaries in before requesting them from content nodes,
+     *                    and to add received summaries to. Must be empty unless summaries are independent of the query.
+     */
+    RpcProtobufFillInvoker(RpcResourcePool resourcePool, DocumentDatabase documentDb, String serverId, boolean summaryNeedsQuery,
+                           Optional<DocsumCache> docsumCache) {
         this.documentDb = documentDb;
         this.resourcePool = resourcePool;
         this.serverId = serverId;
         this.summaryNeedsQuery = summaryNeedsQuery;
+        this.docsumCache = docsumCache;
     }
 
     @Override
@@ -72,7 +85,7 @@ public class RpcProtobufFillInvoker extends FillInvoker {
                 throw new IllegalInputException("invalid presentation.summary=" + summaryClass);
             }
         }
-        ListMap<Integer, FastHit> hitsByNode = hitsByNode(result);
+        ListMap<Integer, FastHit> hitsByNode = hitsByNode(result, summaryClass);
 
         result.getQuery().trace(false, 5, "Sending ", hitsByNode.size(), " summary fetch requests with jrt/protobuf");
 
@@ -116,20 +129,30 @@ public class RpcProtobufFillInvoker extends FillInvoker {
         responses.add(new Pair<>(response, hitsContext));
     }
 
-    /** Return a map of hits by their search node (partition) id */
-    private static ListMap<Integer, FastHit> hitsByNode(Result result) {
+    /** Return a map of hits by their search node (partition) id, except those which could be filled from the docsum cache */
+    private ListMap<Integer, FastHit> hitsByNode(Result result, String summaryClass) {
         ListMap<Integer, FastHit> hitsByNode = new ListMap<>();
         for (Iterator<Hit> i = result.hits().unorderedDeepIterator(); i.hasNext();) {
             Hit h = i.next();
             if (!(h instanceof FastHit))
                 continue;
             FastHit hit = (FastHit) h;
+            if (fillFromCache(hit, summaryClass))
+                continue;
 
             hitsByNode.put(hit.getDistributionKey(), hit);
         }
         return hitsByNode;
     }
 
+    private boolean fillFromCache(FastHit hit, String summaryClass) {
+        if (docsumCache.isEmpty()) return false;
+
+        Optional<Inspector> summary = docsumCache.get().get(documentDb.schema().name(), summaryClass, hit.getGlobalId());
+        summary.ifPresent(value -> fill(hit, summaryClass, value));
+        return summary.isPresent();
+    }
+
     /** Send a docsums request to a node. Responses will be added to the given receiver. */
     private void sendDocsumsRequest(int nodeId, List<FastHit> hits, byte[] payload, Result result,
                                     double clientTimeout) {
@@ -221,17 +244,17 @@ public class RpcProtobufFillInvoker extends FillInvoker {
             }
             convertErrorsFromDocsumReply(result, protobuf.getErrorsList());
 
-            Inspector summaries = new SlimeAdapter(root.field("docsums"));
+            com.yahoo.slime.Inspector summaries = root.field("docsums");
             if (!summaries.valid()) {
                 return 0; // No summaries; Perhaps we requested a non-existing summary class
             }
             int skippedHits = 0;
             for (int i = 0; i < hits.size(); i++) {
-                Inspector summary = summaries.entry(i).field("docsum");
+                com.yahoo.slime.Inspector summary = summaries.entry(i).field("docsum");
                 if (summary.valid()) {
-                    hits.get(i).setField(Hit.SDDOCNAME_FIELD, documentDb.schema().name());
-                    hits.get(i).addSummary(documentDb.getDocsumDefinitionSet().getDocsum(summaryClass), summary);
-                    hits.get(i).setFilled(summaryClass);
+                    fill(hits.get(i), summaryClass, new SlimeAdapter(summary));
+                    if (docsumCache.isPresent() && ! hasErrors)
+                        docsumCache.get().put(documentDb.schema().name(), summaryClass, hits.get(i).getGlobalId(), summary);
                 } else {
                     skippedHits++;
                 }
@@ -244,6 +267,12 @@ public class RpcProtobufFillInvoker extends FillInvoker {
         }
     }
 
+    private void fill(FastHit hit, String summaryClass, Inspector summary) {
+        hit.setField(Hit.SDDOCNAME_FIELD, documentDb.schema().name());
+        hit.addSummary(documentDb.getDocsumDefinitionSet().getDocsum(summaryClass), summary);
+        hit.setFilled(summaryClass);
+    }
+
     private void throwTimeout() throws TimeoutException {
         throw new TimeoutException("Timed out waiting for summary data. " + outstandingResponses + " responses outstanding.");
     }
@@ -40,12 +40,19 @@ public class HttpSearchResponse extends ExtendedResponse {
     private final Timing timing;
     private final HitCounts hitCounts;
     private final TraceNode trace;
+    private final IncrementalFill incrementalFill;
 
     public HttpSearchResponse(int status, Result result, Query query, Renderer<Result> renderer) {
-        this(status, result, query, renderer, null, null);
+        this(status, result, query, renderer, null, null, null);
     }
 
-    HttpSearchResponse(int status, Result result, Query query, Renderer<Result> renderer, TraceNode trace, Metric metric) {
+    /**
+     * Creates a response
+     *
+     * @param incrementalFill the fill of the hits of the result to do while rendering, or null if the result is filled
+     */
+    HttpSearchResponse(int status, Result result, Query query, Renderer<Result> renderer, TraceNode trace, Metric metric,
+                       IncrementalFill incrementalFill) {
         super(status);
         this.query = query;
         this.result = result;
@@ -54,6 +61,7 @@ public class HttpSearchResponse extends ExtendedResponse {
         this.timing = SearchResponse.createTiming(query, result);
         this.hitCounts = SearchResponse.createHitCounts(query, result);
         this.trace = trace;
+        this.incrementalFill = incrementalFill;
         populateHeaders(headers(), result.getHeaders(false));
     }
 
@@ -98,10 +106,16 @@ public class HttpSearchResponse extends ExtendedResponse {
         try {
             try {
                 long nanoStart = System.nanoTime();
+                if (incrementalFill != null) {
+                    incrementalFill.prepare();
+                }
                 CompletableFuture<Boolean> promise = asyncRender(output);
                 if (metric != null) {
                     promise.whenComplete((__, ___) -> new RendererLatencyReporter(nanoStart).run());
                 }
+                if (incrementalFill != null) {
+                    incrementalFill.fill(); // hits are rendered by the renderer threads as they are filled
+                }
             } finally {
                 if (!(rendererCopy instanceof AsynchronousSectionedRenderer)) {
                     output.flush();
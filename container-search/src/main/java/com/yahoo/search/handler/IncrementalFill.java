@@ -0,0 +1,134 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.handler;
+
+import com.yahoo.processing.IllegalInputException;
+import com.yahoo.processing.rendering.AsynchronousSectionedRenderer;
+import com.yahoo.processing.rendering.Renderer;
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.result.DefaultErrorHit;
+import com.yahoo.search.result.ErrorHit;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.result.HitGroup;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.yolean.Exceptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fills the hits of a result in chunks after rendering of it has started, such that each chunk is
+ * rendered and sent to the client as soon as it is filled, instead of after all the hits are filled.
+ * This lowers the time to first byte, and the memory held per request, for requests for many hits.
+ *
+ * Only results with all hits directly in the top level hit group are filled incrementally.
+ * Errors from filling a chunk are added to the result as it is rendered, and rendered at its end.
+ */
+class IncrementalFill {
+
+    private static final Logger log = Logger.getLogger(IncrementalFill.class.getName());
+
+    /** The number of hits to fill before rendering them, or 0 (default) to fill all hits before rendering */
+    static final CompoundName CHUNK_SIZE = new CompoundName("renderer.incremental.chunkSize");
+
+    private final Result result;
+    private final int chunkSize;
+    private List<Hit> hits = null;
+
+    private IncrementalFill(Result result, int chunkSize) {
+        this.result = result;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Returns whether the result of this query should be filled incrementally, if possible, when rendered by the given renderer */
+    static boolean isRequested(Query query, Renderer<?> renderer) {
+        return chunkSize(query) > 0 && renderer instanceof AsynchronousSectionedRenderer;
+    }
+
+    /** Returns whether this result can be filled incrementally */
+    static boolean canFill(Result result) {
+        if (result.getConcreteHitCount() == 0) return false;
+        for (Hit hit : result.hits().asUnorderedHits())
+            if (hit instanceof HitGroup) return false;
+        return true;
+    }
+
+    /** Returns an incremental fill of the given result, if it is requested and possible */
+    static IncrementalFill of(Result result, Renderer<?> renderer) {
+        if ( ! canFill(result) || ! isRequested(result.getQuery(), renderer)) return null;
+        return new IncrementalFill(result, chunkSize(result.getQuery()));
+    }
+
+    private static int chunkSize(Query query) {
+        Integer chunkSize = query.properties().getInteger(CHUNK_SIZE, 0);
+        if (chunkSize < 0) throw new IllegalInputException(CHUNK_SIZE + " cannot be negative, but was " + chunkSize);
+        return chunkSize;
+    }
+
+    /**
+     * Replaces the top level hit group of the result by one which receives the concrete hits
+     * asynchronously by {@link #fill}. This must be called before rendering starts.
+     */
+    void prepare() {
+        SearchResponse.trimHits(result);
+        HitGroup hits = result.hits();
+        HitGroup incremental = HitGroup.createAsync(hits.getId().toString());
+        incremental.setQuery(hits.getQuery());
+        incremental.setOrdered(true); // The hits are added in order
+        hits.forEachField(incremental::setField);
+        this.hits = new ArrayList<>(hits.getConcreteSize());
+        for (Hit hit : hits.asList()) {
+            if (hit.isAuxiliary())
+                incremental.add(hit);
+            else
+                this.hits.add(hit);
+        }
+        result.setHits(incremental);
+    }
+
+    /** Fills the hits chunk by chunk, and passes each filled chunk on to rendering */
+    void fill() {
+        Execution execution = result.getQuery().getModel().getExecution();
+        String summaryClass = result.getQuery().getPresentation().getSummary();
+        try {
+            for (int start = 0; start < hits.size(); start += chunkSize) {
+                List<Hit> remaining = hits.subList(start, Math.min(start + chunkSize, hits.size()));
+                List<Hit> chunk = new ArrayList<>(remaining);
+                Collections.fill(remaining, null); // rendered hits are released when no longer referenced by the chunk
+                fill(chunk, execution, summaryClass);
+                result.hits().incoming().add(chunk);
+            }
+        }
+        finally {
+            result.hits().incoming().markComplete();
+            hits = null;
+        }
+    }
+
+    private void fill(List<Hit> chunk, Execution execution, String summaryClass) {
+        Result chunkResult = new Result(result.getQuery());
+        chunkResult.hits().addAll(chunk);
+        try {
+            execution.fill(chunkResult, summaryClass);
+            ErrorHit errors = chunkResult.hits().getErrorHit();
+            if (errors != null)
+                addErrors(new ArrayList<>(errors.errors()));
+        }
+        catch (RuntimeException e) {
+            log.log(Level.FINE, e, () -> "Exception filling hits after rendering started");
+            addErrors(List.of(ErrorMessage.createUnspecifiedError("Exception filling hits: " + Exceptions.toMessageString(e))));
+        }
+        SearchResponse.removeEmptySummaryFeatureFields(chunkResult);
+    }
+
+    /** Passes the given errors on to rendering, through the hit group which is still receiving hits */
+    private void addErrors(List<ErrorMessage> errors) {
+        result.hits().incoming().add(new DefaultErrorHit(result.hits().getSource(), errors));
+    }
+
+}
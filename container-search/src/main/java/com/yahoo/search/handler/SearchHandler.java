@@ -250,7 +250,8 @@ public class SearchHandler extends LoggingRequestHandler {
         HttpSearchResponse response = new HttpSearchResponse(getHttpResponseStatus(request, result),
                                                              result, query, renderer,
                                                              extractTraceNode(query),
-                                                             metric);
+                                                             metric,
+                                                             IncrementalFill.of(result, renderer));
         response.setRequestType(Request.RequestType.READ);
         hostResponseHeaderKey.ifPresent(key -> response.headers().add(key, selfHostname));
 
@@ -300,6 +301,14 @@ public class SearchHandler extends LoggingRequestHandler {
 
     /** Used from container SDK, for internal use only */
     public Result searchAndFill(Query query, Chain<? extends Searcher> searchChain) {
+        return searchAndFill(query, searchChain, false);
+    }
+
+    /**
+     * Searches and fills the result of the query. If allowIncrementalFill is true, the fill is left to
+     * rendering if this is requested and possible, see {@link IncrementalFill}.
+     */
+    private Result searchAndFill(Query query, Chain<? extends Searcher> searchChain, boolean allowIncrementalFill) {
         Result errorResult = validateQuery(query);
         if (errorResult != null) return errorResult;
 
@@ -326,7 +335,8 @@ public class SearchHandler extends LoggingRequestHandler {
         Result result = execution.search(query);
 
         ensureQuerySet(result, query);
-        execution.fill(result, result.getQuery().getPresentation().getSummary());
+        if ( ! (allowIncrementalFill && IncrementalFill.canFill(result) && IncrementalFill.isRequested(query, renderer)))
+            execution.fill(result, result.getQuery().getPresentation().getSummary());
 
         traceExecutionTimes(query, result);
         traceVespaVersion(query);
@@ -368,7 +378,7 @@ public class SearchHandler extends LoggingRequestHandler {
         connectionStatistics();
 
         try {
-            return searchAndFill(query, searchChain);
+            return searchAndFill(query, searchChain, true);
         } catch (ParseException e) {
             ErrorMessage error = ErrorMessage.createIllegalQuery("Could not parse query [" + request + "]: "
                                                                  + Exceptions.toMessageString(e));
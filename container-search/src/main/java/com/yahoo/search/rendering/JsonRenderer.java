@@ -9,8 +9,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import com.yahoo.container.logging.TraceRenderer;
 import com.yahoo.data.JsonProducer;
+import com.yahoo.data.access.ArrayTraverser;
 import com.yahoo.data.access.Inspectable;
 import com.yahoo.data.access.Inspector;
+import com.yahoo.data.access.ObjectTraverser;
 import com.yahoo.data.access.Type;
 import com.yahoo.data.access.simple.JsonRender;
 import com.yahoo.data.access.simple.Value;
@@ -25,6 +27,7 @@ import com.yahoo.processing.rendering.AsynchronousSectionedRenderer;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.processing.response.Data;
 import com.yahoo.processing.response.DataList;
+import com.yahoo.processing.response.IncomingData;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
 import com.yahoo.search.grouping.Continuation;
@@ -58,6 +61,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -124,6 +128,7 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
     private volatile JsonGenerator generator;
     private volatile FieldConsumer fieldConsumer;
     private volatile Deque<Integer> renderedChildren;
+    private volatile Map<DataList<?>, Integer> renderedErrorCounts;
 
     static class FieldConsumerSettings {
         volatile boolean debugRendering = false;
@@ -186,6 +191,7 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         fieldConsumerSettings.init();
         setGenerator(null, fieldConsumerSettings);
         renderedChildren = null;
+        renderedErrorCounts = null;
         timeSource = System::currentTimeMillis;
         stream = null;
     }
@@ -196,6 +202,7 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         fieldConsumerSettings.getSettings(getResult().getQuery());
         setGenerator(generatorFactory.createGenerator(stream, JsonEncoding.UTF8), fieldConsumerSettings);
         renderedChildren = new ArrayDeque<>();
+        renderedErrorCounts = new IdentityHashMap<>();
         generator.writeStartObject();
         renderTrace(getExecution().trace());
         renderTiming();
@@ -274,13 +281,37 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         if (getRecursionLevel() == 1)
             renderCoverage();
 
-        ErrorHit errorHit = hitGroup.getErrorHit();
-        if (errorHit != null)
-            renderErrors(errorHit.errors());
+        Set<ErrorMessage> errors = errorsOf(hitGroup);
+        renderErrors(errors);
+        if (isAsynchronous(hitGroup)) // errors may still be added to asynchronous groups, see endList
+            renderedErrorCounts.put(hitGroup, errors.size());
 
         // the framework will invoke begin methods as needed from here
     }
 
+    private static Set<ErrorMessage> errorsOf(HitGroup hitGroup) {
+        ErrorHit errorHit = hitGroup.getErrorHit();
+        return errorHit == null ? Set.of() : errorHit.errors();
+    }
+
+    /**
+     * Renders the errors of an asynchronous hit group if any were added after its head was rendered, e.g. errors
+     * from filling its hits. All its errors are rendered again, since the errors field may already have been written,
+     * and most parsers use the last occurrence of a repeated field.
+     */
+    private void renderLateErrors(DataList<?> list) throws IOException {
+        Integer renderedErrorCount = renderedErrorCounts.remove(list);
+        if (renderedErrorCount == null) return;
+
+        Set<ErrorMessage> errors = errorsOf((HitGroup) list);
+        if (errors.size() > renderedErrorCount)
+            renderErrors(errors);
+    }
+
+    private static boolean isAsynchronous(DataList<?> list) {
+        return ! (list.incoming() instanceof IncomingData.NullIncomingData);
+    }
+
     protected void renderErrors(Set<ErrorMessage> errors) throws IOException {
         if (errors.isEmpty()) return;
 
@@ -462,6 +493,7 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
     @Override
     public void endList(DataList<?> list) throws IOException {
         lessChildren();
+        renderLateErrors(list);
         generator.writeEndObject();
     }
 
@@ -471,6 +503,14 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         endJsonCallback();
     }
 
+    @Override
+    protected void flush(OutputStream stream) throws IOException {
+        if (generator != null)
+            generator.flush(); // writes what is buffered in the generator to the stream, and flushes it
+        else
+            super.flush(stream);
+    }
+
     @Override
     public String getEncoding() {
         return "utf-8";
@@ -554,6 +594,8 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
      */
     public static class FieldConsumer implements Hit.RawUtf8Consumer, TraceRenderer.FieldConsumer {
 
+        private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
         private final JsonGenerator generator;
         private final FieldConsumerSettings settings;
         private MutableBoolean hasFieldsField;
@@ -752,10 +794,83 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
             renderInspectorDirect(maybeConvertData(data));
         }
 
+        /**
+         * Writes the given data directly to the generator, without creating an intermediate string.
+         * String values are copied as UTF-8, and data values are written as hex strings like {@link JsonRender} does.
+         */
         private void renderInspectorDirect(Inspector data) throws IOException {
-            StringBuilder intermediate = new StringBuilder();
-            JsonRender.render(data, intermediate, true);
-            generator().writeRawValue(intermediate.toString());
+            try {
+                writeInspector(data);
+            }
+            catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void writeInspector(Inspector data) throws IOException {
+            switch (data.type()) {
+                case EMPTY:
+                    generator().writeNull();
+                    break;
+                case BOOL:
+                    generator().writeBoolean(data.asBool());
+                    break;
+                case LONG:
+                    generator().writeNumber(data.asLong());
+                    break;
+                case DOUBLE:
+                    double value = data.asDouble();
+                    if (Double.isFinite(value))
+                        generator().writeNumber(value);
+                    else
+                        generator().writeNull();
+                    break;
+                case STRING:
+                    byte[] utf8 = data.asUtf8();
+                    generator().writeUTF8String(utf8, 0, utf8.length);
+                    break;
+                case DATA:
+                    writeHexData(data.asData());
+                    break;
+                case ARRAY:
+                    generator().writeStartArray();
+                    data.traverse((ArrayTraverser) (index, entry) -> writeInspectorUnchecked(entry));
+                    generator().writeEndArray();
+                    break;
+                case OBJECT:
+                    generator().writeStartObject();
+                    data.traverse((ObjectTraverser) (name, field) -> {
+                        try {
+                            generator().writeFieldName(name);
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        writeInspectorUnchecked(field);
+                    });
+                    generator().writeEndObject();
+                    break;
+            }
+        }
+
+        private void writeInspectorUnchecked(Inspector data) {
+            try {
+                writeInspector(data);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeHexData(byte[] data) throws IOException {
+            char[] hex = new char[2 + data.length * 2];
+            hex[0] = '0';
+            hex[1] = 'x';
+            for (int i = 0; i < data.length; i++) {
+                hex[2 + i * 2] = HEX_DIGITS[(data[i] >> 4) & 0xf];
+                hex[3 + i * 2] = HEX_DIGITS[data[i] & 0xf];
+            }
+            generator().writeString(hex, 0, hex.length);
         }
 
         protected void renderFieldContents(Object field) throws IOException {
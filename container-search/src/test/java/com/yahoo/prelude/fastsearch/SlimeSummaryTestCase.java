@@ -501,8 +501,8 @@ public class SlimeSummaryTestCase {
 
         @Override
         public void accept(String name, Object value) {
-            if (name.equals("string_value"))
-                fail("Expected string_value to be received as UTF-8");
+            if (name.equals("string_field") || name.equals("longstring_field"))
+                fail("Expected " + name + " to be received as UTF-8");
             traversed.put(name, value);
         }
 
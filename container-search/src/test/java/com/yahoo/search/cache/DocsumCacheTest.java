@@ -0,0 +1,78 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.cache;
+
+import com.yahoo.data.access.Inspector;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.GlobalId;
+import com.yahoo.jdisc.test.MockMetric;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Slime;
+import com.yahoo.test.ManualClock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DocsumCacheTest {
+
+    private final ManualClock clock = new ManualClock();
+    private final MockMetric metric = new MockMetric();
+
+    @Test
+    public void requireThatSummariesAreCachedPerSchemaClassAndDocument() {
+        DocsumCache cache = new DocsumCache(1000, Duration.ofSeconds(10), clock, metric);
+        GlobalId first = gid(1);
+        GlobalId second = gid(2);
+        cache.put("music", "short", first, summary("first"));
+
+        Inspector cached = cache.get("music", "short", first).get();
+        assertEquals("first", cached.field("title").asString());
+        assertFalse(cache.get("music", "long", first).isPresent());
+        assertFalse(cache.get("books", "short", first).isPresent());
+        assertFalse(cache.get("music", "short", second).isPresent());
+
+        clock.advance(Duration.ofSeconds(10));
+        assertFalse(cache.get("music", "short", first).isPresent());
+        assertEquals(0, cache.sizeInBytes());
+        assertEquals(1.0, metric(DocsumCache.HITS_METRIC), 0.0);
+        assertEquals(4.0, metric(DocsumCache.MISSES_METRIC), 0.0);
+    }
+
+    @Test
+    public void requireThatCacheIsBoundedByMemory() {
+        DocsumCache cache = new DocsumCache(100, Duration.ofSeconds(10), clock, metric);
+        for (int i = 0; i < 10; i++)
+            cache.put("music", null, gid(i), summary("title number " + i));
+        assertTrue(cache.sizeInBytes() <= 100);
+        assertTrue(cache.get("music", null, gid(9)).isPresent());
+        assertFalse(cache.get("music", null, gid(0)).isPresent());
+        assertTrue(metric(DocsumCache.EVICTIONS_METRIC) > 0);
+    }
+
+    @Test
+    public void requireThatCacheIsDisabledWithoutMemory() {
+        assertFalse(new DocsumCache(0, Duration.ofSeconds(10), clock, metric).isEnabled());
+        assertTrue(new DocsumCache(1, Duration.ofSeconds(10), clock, metric).isEnabled());
+    }
+
+    private static GlobalId gid(int i) {
+        return new GlobalId(new DocumentId("id:ns:music::" + i).getGlobalId());
+    }
+
+    private static com.yahoo.slime.Inspector summary(String title) {
+        Slime slime = new Slime();
+        Cursor docsum = slime.setObject();
+        docsum.setString("title", title);
+        docsum.setLong("year", 2022);
+        return slime.get();
+    }
+
+    private double metric(String name) {
+        return metric.metrics().get(name).get(Map.of());
+    }
+
+}
@@ -0,0 +1,104 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.cache;
+
+import com.yahoo.jdisc.test.MockMetric;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.dispatch.InvokerResult;
+import com.yahoo.search.dispatch.LeanHit;
+import com.yahoo.search.result.Coverage;
+import com.yahoo.test.ManualClock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QueryResultCacheTest {
+
+    private final ManualClock clock = new ManualClock();
+    private final MockMetric metric = new MockMetric();
+
+    @Test
+    public void requireThatOnlyEnabledSchemasAreCached() {
+        QueryResultCache cache = new QueryResultCache(Set.of("music"), 10, Duration.ofSeconds(1), clock, metric);
+        assertTrue(cache.keyOf(query("music", "?query=foo")).isPresent());
+        assertFalse(cache.keyOf(query("books", "?query=foo")).isPresent());
+        assertFalse(cache.keyOf(query("music", "?query=foo&noCache=true")).isPresent());
+        assertFalse(cache.keyOf(query("music", "?query=foo&trace.level=1")).isPresent());
+        assertFalse(cache.keyOf(query("music", "?query=foo&ranking.queryCache=true")).isPresent());
+
+        QueryResultCache disabled = new QueryResultCache(Set.of(), 10, Duration.ofSeconds(1), clock, metric);
+        assertFalse(disabled.keyOf(query("music", "?query=foo")).isPresent());
+    }
+
+    @Test
+    public void requireThatKeyDependsOnQueryAndWindow() {
+        QueryResultCache cache = new QueryResultCache(Set.of("music"), 10, Duration.ofSeconds(1), clock, metric);
+        var key = cache.keyOf(query("music", "?query=foo&hits=10")).get();
+        assertEquals(key, cache.keyOf(query("music", "?query=foo&hits=10&timeout=5s")).get());
+        assertFalse(key.equals(cache.keyOf(query("music", "?query=bar&hits=10")).get()));
+        assertFalse(key.equals(cache.keyOf(query("music", "?query=foo&hits=20")).get()));
+        assertFalse(key.equals(cache.keyOf(query("music", "?query=foo&hits=10&offset=10")).get()));
+        assertFalse(key.equals(cache.keyOf(query("music", "?query=foo&hits=10&ranking=other")).get()));
+    }
+
+    @Test
+    public void requireThatCachedResultsAreReturnedUntilExpired() {
+        QueryResultCache cache = new QueryResultCache(Set.of("music"), 10, Duration.ofSeconds(1), clock, metric);
+        var key = cache.keyOf(query("music", "?query=foo")).get();
+        assertFalse(cache.get(key).isPresent());
+
+        Result result = new Result(query("music", "?query=foo"));
+        result.setTotalHitCount(42);
+        result.setCoverage(new Coverage(100, 100, 1));
+        cache.put(key, result, List.of(new LeanHit(new byte[] { 1 }, 0, 0, 1.0), new LeanHit(new byte[] { 2 }, 0, 0, 0.5)), 3);
+
+        Query query = query("music", "?query=foo");
+        InvokerResult cached = cache.get(key).get().toInvokerResult(query);
+        assertEquals(2, cached.getLeanHits().size());
+        assertEquals(42, cached.getResult().getTotalHitCount());
+        assertEquals(100, cached.getResult().getCoverage(false).getDocs());
+        assertEquals(3, query.getOffset());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertFalse(cache.get(key).isPresent());
+        assertEquals(0, cache.size());
+        assertEquals(1.0, metric(QueryResultCache.HITS_METRIC), 0.0);
+        assertEquals(2.0, metric(QueryResultCache.MISSES_METRIC), 0.0);
+    }
+
+    @Test
+    public void requireThatLeastRecentlyUsedEntriesAreEvicted() {
+        QueryResultCache cache = new QueryResultCache(Set.of("music"), 2, Duration.ofSeconds(10), clock, metric);
+        var foo = cache.keyOf(query("music", "?query=foo")).get();
+        var bar = cache.keyOf(query("music", "?query=bar")).get();
+        var baz = cache.keyOf(query("music", "?query=baz")).get();
+        Result result = new Result(query("music", "?query=foo"));
+        cache.put(foo, result, List.of(), 0);
+        cache.put(bar, result, List.of(), 0);
+        assertTrue(cache.get(foo).isPresent());
+        cache.put(baz, result, List.of(), 0);
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(foo).isPresent());
+        assertFalse(cache.get(bar).isPresent());
+        assertTrue(cache.get(baz).isPresent());
+        assertEquals(1.0, metric(QueryResultCache.EVICTIONS_METRIC), 0.0);
+    }
+
+    private static Query query(String schema, String request) {
+        Query query = new Query(request);
+        query.getModel().setDocumentDb(schema);
+        return query;
+    }
+
+    private double metric(String name) {
+        return metric.metrics().get(name).get(Map.of());
+    }
+
+}
@@ -12,8 +12,10 @@ import com.yahoo.search.dispatch.searchcluster.PingFactory;
 import com.yahoo.search.dispatch.searchcluster.Pinger;
 import com.yahoo.search.dispatch.searchcluster.PongHandler;
 import com.yahoo.search.dispatch.searchcluster.SearchCluster;
+import com.yahoo.vespa.config.search.DispatchConfig;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -21,6 +23,7 @@ import java.util.OptionalInt;
 import static com.yahoo.search.dispatch.MockSearchCluster.createDispatchConfig;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -140,6 +143,29 @@ public class DispatcherTest {
         dispatcher.deconstruct();
     }
 
+    @Test
+    public void requireThatRepeatedQueriesAreServedFromResultCache() throws IOException {
+        SearchCluster cluster = new MockSearchCluster("1", 2, 1);
+        DispatchConfig config = new DispatchConfig(new DispatchConfig.Builder(createDispatchConfig())
+                                                           .resultCache(new DispatchConfig.ResultCache.Builder().schema("music")));
+        MockInvokerFactory invokerFactory = new MockInvokerFactory(cluster, (n, a) -> true); // Fails on a second backend call
+        Dispatcher dispatcher = new Dispatcher(new ClusterMonitor(cluster, false), cluster, config, invokerFactory, new MockMetric());
+
+        Query first = new Query("?query=foo");
+        first.getModel().setDocumentDb("music");
+        SearchInvoker invoker = dispatcher.getSearchInvoker(first, null);
+        assertTrue(invoker instanceof CachingSearchInvoker);
+        assertNull(invoker.search(first, null).hits().getError());
+
+        Query second = new Query("?query=foo");
+        second.getModel().setDocumentDb("music");
+        SearchInvoker cached = dispatcher.getSearchInvoker(second, null);
+        assertTrue(cached instanceof CachedSearchInvoker);
+        assertNull(cached.search(second, null).hits().getError());
+        invokerFactory.verifyAllEventsProcessed();
+        dispatcher.deconstruct();
+    }
+
     interface FactoryStep {
         boolean returnInvoker(List<Node> nodes, boolean acceptIncompleteCoverage);
     }
@@ -0,0 +1,162 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.jdisc.test.MockMetric;
+import com.yahoo.search.Query;
+import com.yahoo.search.dispatch.searchcluster.Group;
+import com.yahoo.search.dispatch.searchcluster.Node;
+import com.yahoo.search.dispatch.searchcluster.SearchCluster;
+import com.yahoo.search.result.Coverage;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static com.yahoo.search.dispatch.MockSearchCluster.createDispatchConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HedgingSearchInvokerTest {
+
+    private final MockMetric metric = new MockMetric();
+    private final HedgingPolicy policy = new HedgingPolicy(95, 1.0, 1, metric);
+
+    @Test
+    public void requireThatFastSearchesAreNotHedged() throws IOException {
+        TestInvoker primary = new TestInvoker(0, true);
+        HedgingSearchInvoker invoker = new HedgingSearchInvoker(primary, 10000, () -> {
+            throw new AssertionError("Should not hedge");
+        }, policy);
+
+        Query query = new Query("?query=foo");
+        query.getModel().setSearchPath("/0");
+        invoker.search(query, null);
+        invoker.close();
+        assertEquals("/0", query.getModel().getSearchPath());
+        assertTrue(primary.released);
+        assertNull(metric.metrics().get(HedgingPolicy.WON_METRIC));
+    }
+
+    @Test
+    public void requireThatSlowSearchesAreHedgedToAnotherGroup() throws IOException {
+        TestInvoker primary = new TestInvoker(0, false);
+        TestInvoker secondary = new TestInvoker(1, true);
+        var hedge = new HedgingSearchInvoker.Hedge(new Group(1, List.of()), secondary);
+        HedgingSearchInvoker invoker = new HedgingSearchInvoker(primary, 1, () -> Optional.of(hedge), policy);
+
+        Query query = new Query("?query=foo");
+        query.getModel().setSearchPath("/0");
+        var result = invoker.search(query, null);
+        assertEquals(1, result.getCoverage(false).getDocs());
+        assertEquals("/1", query.getModel().getSearchPath());
+        assertTrue(primary.released);
+        assertFalse(secondary.released);
+        invoker.close();
+        assertTrue(secondary.released);
+        assertEquals(1.0, metric.metrics().get(HedgingPolicy.WON_METRIC).get(Map.of()), 0.0);
+    }
+
+    @Test
+    public void requireThatPartiallySlowGroupsReturnByAdaptiveTimeout() throws IOException {
+        SearchCluster cluster = new MockSearchCluster("!", createDispatchConfig(50.0), 2, 4);
+        List<Boolean> primaryReleases = new ArrayList<>();
+        InterleavedSearchInvoker primary = interleaved(cluster, 0, 1); // Too slow for sufficient coverage.
+        primary.teardown((success, time) -> primaryReleases.add(success));
+        InterleavedSearchInvoker secondary = interleaved(cluster, 1, 3); // Sufficient coverage, but one node is slow.
+        var hedge = new HedgingSearchInvoker.Hedge(cluster.groups().get(1), secondary);
+        HedgingSearchInvoker invoker = new HedgingSearchInvoker(primary, 1, () -> Optional.of(hedge), policy);
+
+        Query query = new Query("?query=foo&timeout=20s");
+        long start = System.currentTimeMillis();
+        var result = invoker.search(query, null);
+        assertTrue("Returns without waiting for the slow node", System.currentTimeMillis() - start < 10000);
+        assertEquals("/1", query.getModel().getSearchPath());
+        assertEquals(3, result.getCoverage(false).getNodes());
+        assertEquals(4, result.getCoverage(false).getNodesTried());
+        assertTrue(result.getCoverage(false).isDegradedByAdapativeTimeout());
+        assertEquals("Losing primary is reported as failed", List.of(false), primaryReleases);
+        invoker.close();
+    }
+
+    @Test
+    public void requireThatGroupOfLosingPrimaryIsPenalized() throws IOException {
+        Group slow = new Group(0, List.of());
+        LoadBalancer.GroupStatus status = new LoadBalancer.GroupStatus(slow, () -> 0L);
+        double peakBefore = status.peakSearchTime();
+        status.allocate();
+        TestInvoker primary = new TestInvoker(0, false);
+        primary.teardown((success, time) -> status.release(success, time / 1000.0));
+        TestInvoker secondary = new TestInvoker(1, true);
+        var hedge = new HedgingSearchInvoker.Hedge(new Group(1, List.of()), secondary);
+        HedgingSearchInvoker invoker = new HedgingSearchInvoker(primary, 20, () -> Optional.of(hedge), policy);
+
+        invoker.search(new Query("?query=foo"), null);
+        assertTrue(primary.released);
+        assertTrue("Peak search time " + status.peakSearchTime() + " includes the time before hedging",
+                   status.peakSearchTime() >= 0.020 && status.peakSearchTime() > peakBefore);
+        invoker.close();
+    }
+
+    @Test
+    public void requireThatHedgeDelayFollowsSearchTimePercentile() {
+        assertTrue(policy.hedgeDelay(0, 1000).isEmpty());
+        for (int i = 0; i < 1000; i++)
+            policy.recordSearchTime(0, 10 + i % 100);
+        OptionalLong delay = policy.hedgeDelay(0, 1000);
+        assertTrue(delay.isPresent());
+        assertTrue("Delay " + delay.getAsLong() + " is near the 95th percentile", delay.getAsLong() >= 85 && delay.getAsLong() <= 125);
+        assertTrue(policy.hedgeDelay(0, 50).isEmpty());
+    }
+
+    @Test
+    public void requireThatHedgesAreLimitedByBudget() {
+        HedgingPolicy policy = new HedgingPolicy(95, 0.1, 1, metric);
+        policy.recordSearchTime(0, 10);
+        int issued = 0;
+        for (int i = 0; i < 100; i++) {
+            policy.hedgeDelay(0, 1000);
+            if (policy.tryIssue()) issued++;
+        }
+        assertEquals(10, issued, 1);
+        assertEquals(issued, metric.metrics().get(HedgingPolicy.ISSUED_METRIC).get(Map.of()), 0.0);
+    }
+
+    private static InterleavedSearchInvoker interleaved(SearchCluster cluster, int group, int responding) {
+        List<SearchInvoker> invokers = new ArrayList<>();
+        for (Node node : cluster.groups().get(group).nodes())
+            invokers.add(new TestInvoker(node.key(), invokers.size() < responding));
+        return new InterleavedSearchInvoker(invokers, cluster, cluster.groups().get(group), null);
+    }
+
+    private static class TestInvoker extends MockInvoker {
+
+        private final boolean respond;
+        boolean released = false;
+
+        TestInvoker(int key, boolean respond) {
+            super(key, new Coverage(key, key, 1));
+            this.respond = respond;
+        }
+
+        @Override
+        protected Object sendSearchRequest(Query query, Object context) {
+            super.sendSearchRequest(query, context);
+            if (respond)
+                responseAvailable();
+            return context;
+        }
+
+        @Override
+        protected void release() {
+            released = true;
+        }
+
+    }
+
+}
@@ -2,6 +2,7 @@
 package com.yahoo.search.dispatch;
 
 import com.yahoo.search.dispatch.LoadBalancer.AdaptiveScheduler;
+import com.yahoo.search.dispatch.LoadBalancer.BestOfRandom2Scheduler;
 import com.yahoo.search.dispatch.LoadBalancer.GroupStatus;
 import com.yahoo.search.dispatch.searchcluster.Group;
 import com.yahoo.search.dispatch.searchcluster.Node;
@@ -14,6 +15,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 import static com.yahoo.search.dispatch.MockSearchCluster.createDispatchConfig;
 import static org.junit.Assert.assertEquals;
@@ -29,7 +33,7 @@ public class LoadBalancerTest {
     public void requireThatLoadBalancerServesSingleNodeSetups() {
         Node n1 = new Node(0, "test-node1", 0);
         SearchCluster cluster = new SearchCluster("a", createDispatchConfig(n1), null, null);
-        LoadBalancer lb = new LoadBalancer(cluster, true);
+        LoadBalancer lb = new LoadBalancer(cluster, LoadBalancer.Policy.ROUNDROBIN);
 
         Optional<Group> grp = lb.takeGroup(null);
         Group group = grp.orElseGet(() -> {
@@ -43,7 +47,7 @@ public class LoadBalancerTest {
         Node n1 = new Node(0, "test-node1", 0);
         Node n2 = new Node(1, "test-node2", 1);
         SearchCluster cluster = new SearchCluster("a", createDispatchConfig(n1, n2), null, null);
-        LoadBalancer lb = new LoadBalancer(cluster, true);
+        LoadBalancer lb = new LoadBalancer(cluster, LoadBalancer.Policy.ROUNDROBIN);
 
         Optional<Group> grp = lb.takeGroup(null);
         Group group = grp.orElseGet(() -> {
@@ -59,7 +63,7 @@ public class LoadBalancerTest {
         Node n3 = new Node(0, "test-node3", 1);
         Node n4 = new Node(1, "test-node4", 1);
         SearchCluster cluster = new SearchCluster("a", createDispatchConfig(n1, n2, n3, n4), null, null);
-        LoadBalancer lb = new LoadBalancer(cluster, true);
+        LoadBalancer lb = new LoadBalancer(cluster, LoadBalancer.Policy.ROUNDROBIN);
 
         Optional<Group> grp = lb.takeGroup(null);
         assertTrue(grp.isPresent());
@@ -70,7 +74,7 @@ public class LoadBalancerTest {
         Node n1 = new Node(0, "test-node1", 0);
         Node n2 = new Node(1, "test-node2", 1);
         SearchCluster cluster = new SearchCluster("a", createDispatchConfig(n1, n2), null,null);
-        LoadBalancer lb = new LoadBalancer(cluster, true);
+        LoadBalancer lb = new LoadBalancer(cluster, LoadBalancer.Policy.ROUNDROBIN);
 
         // get first group
         Optional<Group> grp = lb.takeGroup(null);
@@ -155,19 +159,99 @@ public class LoadBalancerTest {
         assertEquals(4, sched.takeNextGroup(null).get().groupId());
     }
 
+    @Test
+    public void requirePeakSearchTimeToIncreaseAtOnceAndDecaySlowly() {
+        GroupStatus gs = newGroupStatus(1);
+        updateSearchTime(gs, 0.1);
+        assertEquals(0.1, gs.peakSearchTime(), 0.00001);
+        updateSearchTime(gs, 1.0);
+        assertEquals(1.0, gs.peakSearchTime(), 0.00001);
+        updateSearchTime(gs, 0.1);
+        assertEquals(0.955, gs.peakSearchTime(), 0.00001);
+        gs.allocate();
+        gs.release(false, 0.0);
+        assertEquals(0.955, gs.peakSearchTime(), 0.00001);
+    }
+
+    @Test
+    public void requireThatBestOfRandom2SchedulerPicksTheCheapestOfTwoGroups() {
+        List<GroupStatus> scoreboard = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            GroupStatus gs = newGroupStatus(i);
+            updateSearchTime(gs, 0.1 * (i + 1));
+            scoreboard.add(gs);
+        }
+        Random seq = intSequence(0, 0, 2, 1, 1, 1);
+        BestOfRandom2Scheduler sched = new BestOfRandom2Scheduler(seq, scoreboard);
+
+        assertEquals(0, sched.takeNextGroup(null).get().groupId()); // 0 vs 1
+        assertEquals(1, sched.takeNextGroup(null).get().groupId()); // 2 vs 1
+        assertEquals(1, sched.takeNextGroup(null).get().groupId()); // 1 vs 2
+
+        scoreboard.get(0).allocate();
+        scoreboard.get(0).allocate();
+        assertEquals(1, sched.takeNextGroup(null).get().groupId()); // 0 with 2 in flight vs 1
+        assertEquals(2, sched.takeNextGroup(Set.of(0, 1)).get().groupId());
+    }
+
+    @Test
+    public void requireThatPeakSearchTimeDecaysWithTimeSoAnAvoidedGroupRecovers() {
+        AtomicLong nanos = new AtomicLong();
+        List<GroupStatus> scoreboard = List.of(newGroupStatus(0, nanos::get), newGroupStatus(1, nanos::get));
+        updateSearchTime(scoreboard.get(0), 0.01);
+        updateSearchTime(scoreboard.get(1), 0.01);
+        updateSearchTime(scoreboard.get(0), 1.0); // A single slow query.
+        BestOfRandom2Scheduler sched = new BestOfRandom2Scheduler(intSequence(0, 0), scoreboard);
+
+        for (int i = 0; i < 10; i++) {
+            nanos.addAndGet(100_000_000);
+            assertEquals(1, sched.takeNextGroup(null).get().groupId());
+            updateSearchTime(scoreboard.get(1), 0.01);
+        }
+        assertEquals(0.5005, scoreboard.get(0).peakSearchTime(), 0.00001); // Halved towards the minimum after one second.
+
+        int steps = 0;
+        GroupStatus picked;
+        do {
+            nanos.addAndGet(100_000_000);
+            picked = sched.takeNextGroup(null).get();
+            updateSearchTime(picked, 0.01);
+        } while (picked.groupId() == 1 && ++steps < 1000);
+        assertEquals(0, picked.groupId());
+        assertTrue(steps < 100); // Within ten more seconds.
+        assertEquals(0.01, scoreboard.get(0).peakSearchTime(), 0.001);
+    }
+
     private static void updateSearchTime(GroupStatus gs, double time) {
         gs.allocate();
         gs.release(true, time);
     }
 
     private GroupStatus newGroupStatus(int id) {
+        return newGroupStatus(id, () -> 0);
+    }
+
+    private GroupStatus newGroupStatus(int id, LongSupplier nanoClock) {
         Group dummyGroup = new Group(id, Collections.emptyList()) {
             @Override
             public boolean hasSufficientCoverage() {
                 return true;
             }
         };
-        return new GroupStatus(dummyGroup);
+        return new GroupStatus(dummyGroup, nanoClock);
+    }
+
+    private Random intSequence(int... values) {
+        return new Random() {
+            private int index = 0;
+
+            @Override
+            public int nextInt(int bound) {
+                int retv = values[index];
+                index = (index + 1) % values.length;
+                return retv;
+            }
+        };
     }
 
     private Random sequence(double... values) {
@@ -0,0 +1,152 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.handler;
+
+import com.yahoo.component.chain.Chain;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.rendering.JsonRenderer;
+import com.yahoo.search.rendering.SyncDefaultRenderer;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.text.Utf8;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalFillTest {
+
+    @Test
+    public void requireThatIncrementalFillIsOnlyUsedWhenRequestedAndPossible() {
+        JsonRenderer renderer = new JsonRenderer(Runnable::run);
+        assertNull(IncrementalFill.of(result("?query=foo", 10), renderer));
+        assertNull(IncrementalFill.of(result("?query=foo&renderer.incremental.chunkSize=3", 10), new SyncDefaultRenderer()));
+        assertNull(IncrementalFill.of(result("?query=foo&renderer.incremental.chunkSize=3", 0), renderer));
+        assertNotNull(IncrementalFill.of(result("?query=foo&renderer.incremental.chunkSize=3", 10), renderer));
+    }
+
+    @Test
+    public void requireThatHitsAreFilledInChunksWhileRendering() throws Exception {
+        Result result = result("?query=foo&hits=8&summary=short&renderer.incremental.chunkSize=3", 10);
+        List<Integer> chunks = new ArrayList<>();
+        Execution execution = new Execution(new Chain<>(new FillingSearcher(chunks)), Execution.Context.createContextStub());
+        result.getQuery().getModel().setExecution(execution);
+
+        JsonRenderer renderer = new JsonRenderer(Runnable::run);
+        renderer.init();
+        IncrementalFill fill = IncrementalFill.of(result, renderer);
+        fill.prepare();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        var rendered = renderer.renderResponse(out, result, execution, result.getQuery());
+        fill.fill();
+
+        assertTrue(rendered.get());
+        assertEquals(List.of(3, 3, 2), chunks);
+        String json = Utf8.toString(out.toByteArray());
+        for (int i = 0; i < 8; i++)
+            assertTrue(json.contains("\"id\":\"hit:" + i + "\""));
+        assertEquals(8, json.split("\"filled\":true").length - 1);
+        assertTrue(json.contains("\"totalCount\":10"));
+    }
+
+    @Test
+    public void requireThatFillErrorsAfterRenderingStartedAreRendered() throws Exception {
+        Result result = result("?query=foo&hits=8&summary=short&renderer.incremental.chunkSize=3", 10);
+        List<Integer> chunks = new ArrayList<>();
+        Execution execution = new Execution(new Chain<>(new FillingSearcher(chunks) {
+            @Override
+            public void fill(Result result, String summaryClass, Execution execution) {
+                super.fill(result, summaryClass, execution);
+                if (chunks.size() == 2)
+                    result.hits().addError(ErrorMessage.createBackendCommunicationError("Second chunk failed"));
+                if (chunks.size() == 3)
+                    throw new IllegalStateException("Third chunk failed");
+            }
+        }), Execution.Context.createContextStub());
+        result.getQuery().getModel().setExecution(execution);
+
+        JsonRenderer renderer = new JsonRenderer(Runnable::run);
+        renderer.init();
+        IncrementalFill fill = IncrementalFill.of(result, renderer);
+        fill.prepare();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        var rendered = renderer.renderResponse(out, result, execution, result.getQuery());
+        fill.fill();
+
+        assertTrue(rendered.get());
+        String json = Utf8.toString(out.toByteArray());
+        assertTrue(json, json.contains("\"errors\":["));
+        assertTrue(json, json.contains("Second chunk failed"));
+        assertTrue(json, json.contains("Exception filling hits: Third chunk failed"));
+        assertTrue(json, json.indexOf("\"errors\":[") > json.indexOf("\"children\":["));
+        assertEquals(8, json.split("\"filled\":true").length - 1);
+    }
+
+    @Test
+    public void requireThatErrorsKnownBeforeRenderingAreRenderedBeforeHits() throws Exception {
+        Result result = result("?query=foo&hits=8&summary=short&renderer.incremental.chunkSize=3", 10);
+        result.hits().addError(ErrorMessage.createTimeout("Some groups timed out"));
+        List<Integer> chunks = new ArrayList<>();
+        Execution execution = new Execution(new Chain<>(new FillingSearcher(chunks)), Execution.Context.createContextStub());
+        result.getQuery().getModel().setExecution(execution);
+
+        JsonRenderer renderer = new JsonRenderer(Runnable::run);
+        renderer.init();
+        IncrementalFill fill = IncrementalFill.of(result, renderer);
+        fill.prepare();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        var rendered = renderer.renderResponse(out, result, execution, result.getQuery());
+        fill.fill();
+
+        assertTrue(rendered.get());
+        String json = Utf8.toString(out.toByteArray());
+        assertTrue(json, json.contains("Some groups timed out"));
+        assertTrue(json, json.indexOf("\"errors\":[") < json.indexOf("\"children\":["));
+        assertEquals(json, 1, json.split("\"errors\":\\[").length - 1);
+    }
+
+    private static Result result(String request, int hitCount) {
+        Query query = new Query(request);
+        Result result = new Result(query);
+        for (int i = 0; i < hitCount; i++) {
+            Hit hit = new Hit("hit:" + i, 10 - i);
+            hit.setFillable();
+            result.hits().add(hit);
+        }
+        result.setTotalHitCount(hitCount);
+        return result;
+    }
+
+    private static class FillingSearcher extends Searcher {
+
+        private final List<Integer> chunks;
+
+        FillingSearcher(List<Integer> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            return execution.search(query);
+        }
+
+        @Override
+        public void fill(Result result, String summaryClass, Execution execution) {
+            chunks.add(result.getConcreteHitCount());
+            for (Hit hit : result.hits()) {
+                hit.setField("filled", true);
+                hit.setFilled(summaryClass);
+            }
+        }
+
+    }
+
+}
@@ -7,6 +7,7 @@ import com.yahoo.component.ComponentId;
 import com.yahoo.component.chain.Chain;
 import com.yahoo.concurrent.ThreadFactoryFactory;
 import com.yahoo.container.QrSearchersConfig;
+import com.yahoo.data.access.simple.JsonRender;
 import com.yahoo.data.access.simple.Value;
 import com.yahoo.data.access.slime.SlimeAdapter;
 import com.yahoo.document.DataType;
@@ -1096,6 +1097,48 @@ public class JsonRendererTestCase {
         assertEqualJson(expected, summary);
     }
 
+    @Test
+    public void testStructuredDataIsRenderedLikeJsonRender() throws InterruptedException, ExecutionException, IOException {
+        Slime slime = new Slime();
+        Cursor top = slime.setObject();
+        top.setString("string", "quote \" backslash \\ newline \n unicode æøå");
+        top.setLong("long", 7809531904L);
+        top.setDouble("double", 0.5);
+        top.setDouble("nan", Double.NaN);
+        top.setBool("bool", true);
+        top.setData("data", new byte[] { 1, (byte) 0xab });
+        Cursor array = top.setArray("array");
+        array.addLong(1);
+        array.addObject().setString("inner", "value");
+        array.addNix();
+        StructuredData struct = new StructuredData(new SlimeAdapter(slime.get()));
+
+        StringBuilder expectedField = JsonRender.render(struct, new StringBuilder(), true);
+        String expected = "{"
+                + "    \"root\": {"
+                + "        \"children\": ["
+                + "            {"
+                + "                \"fields\": {"
+                + "                    \"struct\": " + expectedField
+                + "                },"
+                + "                \"id\": \"structured data\","
+                + "                \"relevance\": 1.0"
+                + "            }"
+                + "        ],"
+                + "        \"fields\": {"
+                + "            \"totalCount\": 0"
+                + "        },"
+                + "        \"id\": \"toplevel\","
+                + "        \"relevance\": 1.0"
+                + "    }"
+                + "}";
+        Result r = newEmptyResult();
+        Hit h = new Hit("structured data");
+        h.setField("struct", struct);
+        r.hits().add(h);
+        assertEqualJson(expected, render(r));
+    }
+
     @Test
     public void testFieldValueInHit() throws IOException, InterruptedException, ExecutionException {
         String expected = "{"
@@ -12,6 +12,7 @@ import com.yahoo.document.serialization.DocumentWriter;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
 import com.yahoo.document.serialization.SerializationException;
+import com.yahoo.document.serialization.SerializedField;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.io.GrowableByteBuffer;
@@ -185,6 +186,16 @@ public class Document extends StructuredFieldValue {
         header.setFieldValue(field, value);
     }
 
+    @Override
+    public void setSerializedFieldValue(Field field, SerializedField value) {
+        header.setSerializedFieldValue(field, value);
+    }
+
+    @Override
+    public SerializedField getSerializedFieldValue(Field field) {
+        return header.getSerializedFieldValue(field);
+    }
+
     @Override
     public FieldValue removeFieldValue(Field field) {
         return header.removeFieldValue(field);
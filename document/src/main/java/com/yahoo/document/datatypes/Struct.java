@@ -9,6 +9,7 @@ import com.yahoo.document.PositionDataType;
 import com.yahoo.document.StructDataType;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.SerializedField;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.vespa.objects.Ids;
@@ -28,6 +29,7 @@ public class Struct extends StructuredFieldValue {
 
     public static final int classId = registerClass(Ids.document + 33, Struct.class);
     private Hashlet<Integer, FieldValue> values = new Hashlet<>();
+    private Hashlet<Integer, SerializedField> serialized = null; // Values of fields with a null value in values.
     private int [] order = null;
 
     private int version;
@@ -47,6 +49,32 @@ public class Struct extends StructuredFieldValue {
         order = null;
     }
 
+    /** Returns the value at the given index in values, de-serializing it first if it has not yet been. */
+    private FieldValue valueAt(int index) {
+        FieldValue value = values.value(index);
+        if (value == null) {
+            int serializedIndex = serialized.getIndexOfKey(values.key(index));
+            value = serialized.value(serializedIndex).deserialize();
+            serialized.setValue(serializedIndex, null);
+            values.setValue(index, value);
+        }
+        return value;
+    }
+
+    private void deserializeAll() {
+        if (serialized == null) return;
+        for (int i = 0; i < values.size(); i++)
+            valueAt(i);
+        serialized = null;
+    }
+
+    private void forgetSerialized(int id) {
+        if (serialized == null) return;
+        int index = serialized.getIndexOfKey(id);
+        if (index != -1)
+            serialized.setValue(index, null);
+    }
+
     public Struct(DataType type) {
         super((StructDataType) type);
         this.version = Document.SERIALIZED_VERSION;
@@ -71,14 +99,18 @@ public class Struct extends StructuredFieldValue {
         struct.values = new Hashlet<>();
         struct.values.reserve(values.size());
         for (int i = 0; i < values.size(); i++) {
-            struct.values.put(values.key(i), values.value(i).clone());
+            FieldValue value = values.value(i);
+            struct.values.put(values.key(i), value == null ? null : value.clone());
         }
+        if (serialized != null)
+            struct.serialized = new Hashlet<>(serialized);
         return struct;
     }
 
     @Override
     public void clear() {
         values = new Hashlet<>();
+        serialized = null;
         invalidateOrder();
     }
 
@@ -106,7 +138,38 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue getFieldValue(Field field) {
-        return values.get(field.getId());
+        int index = values.getIndexOfKey(field.getId());
+        return index == -1 ? null : valueAt(index);
+    }
+
+    /** Sets the serialized value of the given field, which is de-serialized when the field is first accessed. */
+    @Override
+    public void setSerializedFieldValue(Field field, SerializedField value) {
+        if (getDataType().getField(field.getId()) == null) {
+            throw new IllegalArgumentException("No such field in " + getDataType() + " : " + field.getName());
+        }
+        if (serialized == null) {
+            serialized = new Hashlet<>();
+        }
+        int serializedIndex = serialized.getIndexOfKey(field.getId());
+        if (serializedIndex == -1) {
+            serialized.put(field.getId(), value);
+        } else {
+            serialized.setValue(serializedIndex, value);
+        }
+        int index = values.getIndexOfKey(field.getId());
+        if (index == -1) {
+            values.put(field.getId(), null);
+            invalidateOrder();
+        } else {
+            values.setValue(index, null);
+        }
+    }
+
+    @Override
+    public SerializedField getSerializedFieldValue(Field field) {
+        if (serialized == null || values.get(field.getId()) != null) return null;
+        return serialized.get(field.getId());
     }
 
 
@@ -149,12 +212,13 @@ public class Struct extends StructuredFieldValue {
             invalidateOrder();
         } else {
             values.setValue(index, value);
+            forgetSerialized(field.getId());
         }
     }
 
     @Override
     public FieldValue removeFieldValue(Field field) {
-        FieldValue found = values.get(field.getId());
+        FieldValue found = getFieldValue(field);
         if (found != null) {
             Hashlet<Integer, FieldValue> copy = new Hashlet<>();
             copy.reserve(values.size() - 1);
@@ -164,6 +228,7 @@ public class Struct extends StructuredFieldValue {
                 }
             }
             values = copy;
+            forgetSerialized(field.getId());
             invalidateOrder();
         }
         return found;
@@ -202,11 +267,14 @@ public class Struct extends StructuredFieldValue {
         if (!super.equals(o)) return false;
 
         Struct struct = (Struct) o;
+        deserializeAll();
+        struct.deserializeAll();
         return values.equals(struct.values);
     }
 
     @Override
     public int hashCode() {
+        deserializeAll();
         int result = super.hashCode();
         result = 31 * result + values.hashCode();
         return result;
@@ -214,6 +282,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public String toString() {
+        deserializeAll();
         StringBuilder retVal = new StringBuilder();
         retVal.append("Struct (").append(getDataType()).append("): ");
         int [] increasing = getInOrder();
@@ -277,7 +346,8 @@ public class Struct extends StructuredFieldValue {
         }
 
         public FieldValue getValue() {
-            return values.get(id);
+            int index = values.getIndexOfKey(id);
+            return index == -1 ? null : valueAt(index);
         }
 
         public FieldValue setValue(FieldValue value) {
@@ -291,7 +361,7 @@ public class Struct extends StructuredFieldValue {
                 values.put(id, value);
                 invalidateOrder();
             } else {
-                retVal = values.value(index);
+                retVal = valueAt(index);
                 values.setValue(index, value);
             }
 
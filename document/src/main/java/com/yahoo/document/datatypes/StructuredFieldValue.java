@@ -2,6 +2,7 @@
 package com.yahoo.document.datatypes;
 
 import com.yahoo.document.*;
+import com.yahoo.document.serialization.SerializedField;
 import com.yahoo.vespa.objects.Ids;
 
 import java.util.ArrayList;
@@ -143,6 +144,25 @@ public abstract class StructuredFieldValue extends CompositeFieldValue {
     public final FieldValue setFieldValue(String field, Boolean value) {
         return setFieldValue(field, new BoolFieldValue(value));
     }
+    /**
+     * Sets the value of the given field to the given serialized value, which is de-serialized when first accessed,
+     * if this supports that, or immediately otherwise.
+     *
+     * @param field The field whose value to set.
+     * @param value The serialized value of the field.
+     */
+    public void setSerializedFieldValue(Field field, SerializedField value) {
+        setFieldValue(field, value.deserialize());
+    }
+
+    /**
+     * Returns the serialized value of the given field, if it was set with {@link #setSerializedFieldValue} and has not
+     * since been accessed or replaced, or null otherwise.
+     */
+    public SerializedField getSerializedFieldValue(Field field) {
+        return null;
+    }
+
     /**
      * Removes and returns a field value.
      *
@@ -0,0 +1,73 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+/**
+ * Parses JSON numbers from the characters of a parser's text buffer, without creating a string.
+ *
+ * This only handles the common case where the value can be computed exactly as an integer of at most 15 digits
+ * multiplied or divided by a power of ten of at most 22, where the result of the single floating point operation is
+ * correctly rounded. Other numbers are left to the caller.
+ */
+class DoubleParser {
+
+    private static final int maxDigits = 15;
+    private static final double[] powersOfTen = new double[23];
+    static {
+        powersOfTen[0] = 1;
+        for (int i = 1; i < powersOfTen.length; i++)
+            powersOfTen[i] = powersOfTen[i - 1] * 10;
+    }
+
+    private DoubleParser() { }
+
+    /**
+     * Returns the number in the given characters if it can be parsed exactly by this,
+     * and NaN otherwise (including if the characters are "NaN").
+     */
+    static double parse(char[] chars, int offset, int length) {
+        int i = offset, end = offset + length;
+        if (i == end) return Double.NaN;
+
+        boolean negative = chars[i] == '-';
+        if (negative) i++;
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        for (; i < end && isDigit(chars[i]); i++, anyDigits = true) {
+            if (mantissa > 0 || chars[i] != '0') digits++;
+            mantissa = mantissa * 10 + (chars[i] - '0');
+        }
+        if (i < end && chars[i] == '.') {
+            for (i++; i < end && isDigit(chars[i]); i++, anyDigits = true) {
+                if (mantissa > 0 || chars[i] != '0') digits++;
+                mantissa = mantissa * 10 + (chars[i] - '0');
+                exponent--;
+            }
+        }
+        if ( ! anyDigits || digits > maxDigits) return Double.NaN;
+
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+'))
+                negativeExponent = chars[i++] == '-';
+            if (i == end) return Double.NaN;
+            int explicitExponent = 0;
+            for (; i < end && isDigit(chars[i]); i++) {
+                explicitExponent = explicitExponent * 10 + (chars[i] - '0');
+                if (explicitExponent > 1000) return Double.NaN;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != end) return Double.NaN;
+        if (exponent < -22 || exponent > 22) return Double.NaN;
+
+        double value = exponent < 0 ? mantissa / powersOfTen[-exponent] : mantissa * powersOfTen[exponent];
+        return negative ? -value : value;
+    }
+
+    private static boolean isDigit(char c) { return c >= '0' && c <= '9'; }
+
+}
@@ -24,6 +24,10 @@ import static com.yahoo.document.json.readers.JsonParserHelpers.expectArrayStart
  * Initialize Vespa documents/updates/removes from an InputStream containing a
  * valid JSON representation of a feed.
  *
+ * When the document id of an operation is known before its fields, either because it is given
+ * or because it precedes the fields in the JSON, the field values are created directly from the
+ * JSON parser. Otherwise the fields are buffered until the document id is known.
+ *
  * @author Steinar Knutsen
  * @author dybis
  */
@@ -64,7 +68,7 @@ public class JsonReader {
         DocumentId docId = new DocumentId(docIdString);
         DocumentParseInfo documentParseInfo;
         try {
-            DocumentParser documentParser = new DocumentParser(parser);
+            DocumentParser documentParser = new DocumentParser(parser, (info, fields) -> readFields(docId, operationType, fields));
             documentParseInfo = documentParser.parse(Optional.of(docId)).get();
         } catch (IOException e) {
             state = END_OF_FEED;
@@ -78,13 +82,15 @@ public class JsonReader {
         return operation;
     }
 
-    /** Returns the next document operation, or null if we have reached the end */
+    /**
+     * Returns the next document operation, or null if we have reached the end.
+     * If an operation is invalid, the rest of it is skipped before the failure is thrown, so the operations
+     * after it may still be read; structural errors in the JSON, however, end the feed.
+     */
     public DocumentOperation next() {
         switch (state) {
             case AT_START:
-                JsonToken t = nextToken(parser);
-                expectArrayStart(t);
-                state = ReaderState.READING;
+                readArrayStart();
                 break;
             case END_OF_FEED:
                 return null;
@@ -93,11 +99,15 @@ public class JsonReader {
         }
         Optional<DocumentParseInfo> documentParseInfo;
         try {
-            documentParseInfo = parseDocument();
+            DocumentParser documentParser = new DocumentParser(parser, (info, fields) -> readFields(info.documentId, info.operationType, fields));
+            documentParseInfo = documentParser.parse(Optional.empty());
         } catch (IOException r) {
             // Jackson is not able to recover from structural parse errors
             state = END_OF_FEED;
             throw new IllegalArgumentException(r);
+        } catch (RuntimeException e) {
+            skipToEndOfOperation();
+            throw e;
         }
         if ( ! documentParseInfo.isPresent()) {
             state = END_OF_FEED;
@@ -111,6 +121,38 @@ public class JsonReader {
         return operation;
     }
 
+    /**
+     * Reads the start of the array of operations, unless this is already done, as it otherwise is by the first
+     * call to {@link #next()}. This lets callers tell input which is not an array from an invalid first operation.
+     */
+    public void readArrayStart() {
+        if (state != ReaderState.AT_START)
+            return;
+
+        state = END_OF_FEED;
+        expectArrayStart(nextToken(parser));
+        state = ReaderState.READING;
+    }
+
+    /** Skips tokens until the parser is back in the array of operations, or the feed ends */
+    private void skipToEndOfOperation() {
+        try {
+            while ( ! (parser.getParsingContext().inArray() && parser.getParsingContext().getParent().inRoot()))
+                if (parser.nextToken() == null) {
+                    state = END_OF_FEED;
+                    return;
+                }
+        } catch (IOException e) {
+            state = END_OF_FEED;
+        }
+    }
+
+    /** Reads the fields of an operation directly from the parser, as the document id is known before they are parsed */
+    private DocumentOperation readFields(DocumentId documentId, DocumentOperationType operationType, TokenBuffer fields) {
+        VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader(typeManager.getIgnoreUndefinedFields());
+        return vespaJsonDocumentReader.readOperation(getDocumentTypeFromString(documentId.getDocType(), typeManager),
+                                                     documentId, operationType, fields);
+    }
 
     public DocumentType readDocumentType(DocumentId docId) {
         return getDocumentTypeFromString(docId.getDocType(), typeManager);
@@ -13,6 +13,9 @@ import com.google.common.base.Preconditions;
 /**
  * Helper class to enable lookahead in the token stream.
  *
+ * A buffer either holds all the tokens of an object or array, or reads them directly from a parser
+ * as they are consumed, in which case tokens are only buffered when lookahead is requested.
+ *
  * @author Steinar Knutsen
  */
 public class TokenBuffer {
@@ -32,12 +35,35 @@ public class TokenBuffer {
     private final Deque<Token> buffer;
     private int nesting = 0;
 
+    /** The parser supplying tokens beyond those in the buffer, or null if all tokens are buffered */
+    private final JsonParser parser;
+    /** The nesting after the last token read from the parser */
+    private int parserNesting = 0;
+    /** Whether all the tokens of the parser object or array have been consumed */
+    private boolean parserExhausted = false;
+
     public TokenBuffer() {
         this(new ArrayDeque<>());
     }
 
+    /**
+     * Creates a buffer which reads the object or array the given parser is positioned at the start of
+     * directly from the parser. When all tokens are consumed, the parser is left at the end of the
+     * object or array.
+     */
+    public TokenBuffer(JsonParser parser) {
+        JsonToken first = parser.currentToken();
+        Preconditions.checkArgument(first == JsonToken.START_OBJECT || first == JsonToken.START_ARRAY,
+                                    "Expected START_OBJECT or START_ARRAY, got %s.", first);
+        this.buffer = new ArrayDeque<>();
+        this.parser = parser;
+        updateNesting(first);
+        parserNesting = nesting;
+    }
+
     private TokenBuffer(Deque<Token> buffer) {
         this.buffer = buffer;
+        this.parser = null;
         if (buffer.size() > 0) {
             updateNesting(buffer.peekFirst().token);
         }
@@ -47,17 +73,41 @@ public class TokenBuffer {
     public boolean isEmpty() { return size() == 0; }
 
     public JsonToken next() {
-        buffer.removeFirst();
-        Token t = buffer.peekFirst();
-        if (t == null) {
+        if (parser == null || ! buffer.isEmpty()) {
+            buffer.removeFirst();
+            Token t = buffer.peekFirst();
+            if (t != null) {
+                updateNesting(t.token);
+                return t.token;
+            }
+            if (parser == null) {
+                return null;
+            }
+        }
+        return nextFromParser();
+    }
+
+    private JsonToken nextFromParser() {
+        if (parserNesting == 0) {
+            parserExhausted = true;
+        }
+        if (parserExhausted) {
             return null;
         }
-        updateNesting(t.token);
-        return t.token;
+        JsonToken t = nextValue(parser);
+        parserNesting += nestingOffset(t);
+        updateNesting(t);
+        return t;
+    }
+
+    /** Returns whether the current token is the current token of the parser, rather than a buffered one */
+    private boolean currentIsFromParser() {
+        return parser != null && buffer.isEmpty() && ! parserExhausted;
     }
 
     /** Returns the current token without changing position, or null if none */
     public JsonToken currentToken() {
+        if (currentIsFromParser()) return parser.currentToken();
         Token token = buffer.peekFirst();
         if (token == null) return null;
         return token.token;
@@ -65,6 +115,7 @@ public class TokenBuffer {
 
     /** Returns the current token name without changing position, or null if none */
     public String currentName() {
+        if (currentIsFromParser()) return parserName();
         Token token = buffer.peekFirst();
         if (token == null) return null;
         return token.name;
@@ -72,13 +123,32 @@ public class TokenBuffer {
 
     /** Returns the current token text without changing position, or null if none */
     public String currentText() {
+        if (currentIsFromParser()) return parserText();
         Token token = buffer.peekFirst();
         if (token == null) return null;
         return token.text;
     }
 
+    /**
+     * Returns the value of the current token as a double without changing position. Numbers read directly
+     * from a parser are converted from the parser's text buffer, without creating the token text.
+     *
+     * @throws NumberFormatException if the current token is not a number
+     */
+    public double currentDouble() {
+        if (currentIsFromParser() && parser.currentToken().isNumeric()) {
+            try {
+                double value = DoubleParser.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                return Double.isNaN(value) ? parser.getDoubleValue() : value;
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        return Double.parseDouble(currentText());
+    }
+
     public int size() {
-        return buffer.size();
+        return buffer.size() + (currentIsFromParser() ? 1 : 0);
     }
 
     private void add(JsonToken token, String name, String text) {
@@ -133,6 +203,39 @@ public class TokenBuffer {
         }
     }
 
+    /**
+     * Reads tokens from the parser into the buffer until the object or array containing
+     * the current token ends, such that lookahead can be done in the buffer alone.
+     */
+    private void bufferToEndOfCurrentElement() {
+        if (parser == null || parserExhausted) return;
+        if (buffer.isEmpty()) {
+            addFromParser(parser.currentToken(), parser);
+        }
+        int nestingBarrier = nesting();
+        while (parserNesting > 0 && parserNesting >= nestingBarrier) {
+            JsonToken t = nextValue(parser);
+            parserNesting += nestingOffset(t);
+            addFromParser(t, parser);
+        }
+    }
+
+    private String parserName() {
+        try {
+            return parser.getCurrentName();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private String parserText() {
+        try {
+            return parser.getText();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     private JsonToken nextValue(JsonParser tokens) {
         try {
             return tokens.nextValue();
@@ -167,7 +270,18 @@ public class TokenBuffer {
         }
     }
 
+    /**
+     * Consumes all remaining tokens. For a buffer reading from a parser, this leaves the parser
+     * at the end of the object or array this was created for.
+     */
+    public void skipToEnd() {
+        while (size() > 0) {
+            next();
+        }
+    }
+
     public TokenBuffer prefetchCurrentElement() {
+        bufferToEndOfCurrentElement();
         Deque<Token> copy = new ArrayDeque<>();
 
         if (currentToken().isScalarValue()) {
@@ -187,6 +301,7 @@ public class TokenBuffer {
     }
 
     public Token prefetchScalar(String name) {
+        bufferToEndOfCurrentElement();
         int localNesting = nesting();
         int nestingBarrier = localNesting;
         Token toReturn = null;
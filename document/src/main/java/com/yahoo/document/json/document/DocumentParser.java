@@ -4,7 +4,9 @@ package com.yahoo.document.json.document;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
 import com.yahoo.document.json.DocumentOperationType;
+import com.yahoo.document.json.TokenBuffer;
 import com.yahoo.document.json.readers.DocumentParseInfo;
 
 import java.io.IOException;
@@ -25,10 +27,33 @@ public class DocumentParser {
     public static final String FIELDS = "fields";
     public static final String REMOVE = "remove";
     private final JsonParser parser;
+    private final FieldsReader fieldsReader;
     private  long indentLevel;
 
     public DocumentParser(JsonParser parser) {
+        this(parser, null);
+    }
+
+    /**
+     * Creates a parser which passes the fields of each document operation to the given reader as they
+     * are parsed, when the document id is known at that point. Otherwise the fields are buffered.
+     */
+    public DocumentParser(JsonParser parser, FieldsReader fieldsReader) {
         this.parser = parser;
+        this.fieldsReader = fieldsReader;
+    }
+
+    /** Reads the fields of a document operation directly from the JSON parser */
+    public interface FieldsReader {
+
+        /**
+         * Returns the document operation with the given fields.
+         *
+         * @param documentParseInfo the document id and operation type of the operation, parsed so far
+         * @param fields the fields object, where the tokens are read from the underlying parser as they are consumed
+         */
+        DocumentOperation read(DocumentParseInfo documentParseInfo, TokenBuffer fields);
+
     }
 
     /**
@@ -124,7 +149,10 @@ public class DocumentParser {
             JsonToken currentToken = parser.getCurrentToken();
             // "fields" opens a dictionary and is therefore on level two which might be surprising.
             if (currentToken == JsonToken.START_OBJECT && FIELDS.equals(parser.getCurrentName())) {
-                documentParseInfo.fieldsBuffer.bufferObject(currentToken, parser);
+                if (canReadFieldsDirectly(documentParseInfo))
+                    readFieldsDirectly(documentParseInfo);
+                else
+                    documentParseInfo.fieldsBuffer.bufferObject(currentToken, parser);
                 processIndent();
             }
         } catch (IOException e) {
@@ -132,6 +160,29 @@ public class DocumentParser {
         }
     }
 
+    private boolean canReadFieldsDirectly(DocumentParseInfo documentParseInfo) {
+        return fieldsReader != null
+               && documentParseInfo.documentId != null
+               && documentParseInfo.operation == null
+               && documentParseInfo.fieldsFailure == null
+               && documentParseInfo.fieldsBuffer.isEmpty();
+    }
+
+    /**
+     * Reads the fields object by passing the tokens from the parser to the fields reader. Failures are kept
+     * until the rest of the document is parsed, as they would be when reading buffered fields.
+     */
+    private void readFieldsDirectly(DocumentParseInfo documentParseInfo) {
+        TokenBuffer fields = new TokenBuffer(parser);
+        try {
+            documentParseInfo.operation = fieldsReader.read(documentParseInfo, fields);
+        }
+        catch (RuntimeException e) {
+            documentParseInfo.fieldsFailure = e;
+        }
+        fields.skipToEnd();
+    }
+
     private static DocumentOperationType operationNameToOperationType(String operationName) {
         switch (operationName) {
             case PUT:
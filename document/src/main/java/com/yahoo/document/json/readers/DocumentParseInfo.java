@@ -2,6 +2,7 @@
 package com.yahoo.document.json.readers;
 
 import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
 import com.yahoo.document.json.DocumentOperationType;
 import com.yahoo.document.json.TokenBuffer;
 
@@ -13,4 +14,8 @@ public class DocumentParseInfo {
     public Optional<String> condition = Optional.empty();
     public DocumentOperationType operationType = null;
     public TokenBuffer fieldsBuffer = new TokenBuffer();
+    /** The operation read directly from the parser, if its fields were not buffered */
+    public DocumentOperation operation = null;
+    /** The failure to read the fields of the operation directly from the parser, if any */
+    public RuntimeException fieldsFailure = null;
 }
@@ -200,7 +200,7 @@ public class TensorReader {
 
     private static double readDouble(TokenBuffer buffer) {
         try {
-            return Double.parseDouble(buffer.currentText());
+            return buffer.currentDouble();
         }
         catch (NumberFormatException e) {
             throw new IllegalArgumentException("Expected a number but got '" + buffer.currentText());
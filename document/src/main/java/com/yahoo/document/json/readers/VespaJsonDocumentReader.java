@@ -4,6 +4,7 @@ package com.yahoo.document.json.readers;
 import com.fasterxml.jackson.core.JsonToken;
 import com.google.common.base.Preconditions;
 import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
 import com.yahoo.document.DocumentOperation;
 import com.yahoo.document.DocumentPut;
 import com.yahoo.document.DocumentRemove;
@@ -16,6 +17,7 @@ import com.yahoo.document.fieldpathupdate.AddFieldPathUpdate;
 import com.yahoo.document.fieldpathupdate.AssignFieldPathUpdate;
 import com.yahoo.document.fieldpathupdate.FieldPathUpdate;
 import com.yahoo.document.fieldpathupdate.RemoveFieldPathUpdate;
+import com.yahoo.document.json.DocumentOperationType;
 import com.yahoo.document.json.JsonReaderException;
 import com.yahoo.document.json.TokenBuffer;
 import com.yahoo.document.update.FieldUpdate;
@@ -52,33 +54,54 @@ public class VespaJsonDocumentReader {
 
     public DocumentOperation createDocumentOperation(DocumentType documentType, DocumentParseInfo documentParseInfo) {
         final DocumentOperation documentOperation;
+        if (documentParseInfo.fieldsFailure != null) {
+            throw documentParseInfo.fieldsFailure;
+        }
+        if (documentParseInfo.operation != null) { // fields were read directly from the parser
+            Preconditions.checkState(documentParseInfo.fieldsBuffer.isEmpty(), "Dangling data at end of operation");
+            documentOperation = documentParseInfo.operation;
+        }
+        else {
+            documentOperation = readOperation(documentType, documentParseInfo.documentId,
+                                              documentParseInfo.operationType, documentParseInfo.fieldsBuffer);
+        }
+        if (documentParseInfo.create.isPresent()) {
+            if (! ( documentOperation instanceof DocumentUpdate)) {
+                throw new IllegalArgumentException("Could not set create flag on non update operation.");
+            }
+            DocumentUpdate update = (DocumentUpdate) documentOperation;
+            update.setCreateIfNonExistent(documentParseInfo.create.get());
+        }
+        return documentOperation;
+    }
+
+    /**
+     * Returns a document operation with the fields in the given buffer, which may be reading
+     * directly from the JSON parser.
+     */
+    public DocumentOperation readOperation(DocumentType documentType, DocumentId documentId,
+                                           DocumentOperationType operationType, TokenBuffer fieldsBuffer) {
+        final DocumentOperation documentOperation;
         try {
-            switch (documentParseInfo.operationType) {
+            switch (operationType) {
                 case PUT:
-                    documentOperation = new DocumentPut(new Document(documentType, documentParseInfo.documentId));
-                    readPut(documentParseInfo.fieldsBuffer, (DocumentPut) documentOperation);
-                    verifyEndState(documentParseInfo.fieldsBuffer, JsonToken.END_OBJECT);
+                    documentOperation = new DocumentPut(new Document(documentType, documentId));
+                    readPut(fieldsBuffer, (DocumentPut) documentOperation);
+                    verifyEndState(fieldsBuffer, JsonToken.END_OBJECT);
                     break;
                 case REMOVE:
-                    documentOperation = new DocumentRemove(documentParseInfo.documentId);
+                    documentOperation = new DocumentRemove(documentId);
                     break;
                 case UPDATE:
-                    documentOperation = new DocumentUpdate(documentType, documentParseInfo.documentId);
-                    readUpdate(documentParseInfo.fieldsBuffer, (DocumentUpdate) documentOperation);
-                    verifyEndState(documentParseInfo.fieldsBuffer, JsonToken.END_OBJECT);
+                    documentOperation = new DocumentUpdate(documentType, documentId);
+                    readUpdate(fieldsBuffer, (DocumentUpdate) documentOperation);
+                    verifyEndState(fieldsBuffer, JsonToken.END_OBJECT);
                     break;
                 default:
                     throw new IllegalStateException("Implementation out of sync with itself. This is a bug.");
             }
         } catch (JsonReaderException e) {
-            throw JsonReaderException.addDocId(e, documentParseInfo.documentId);
-        }
-        if (documentParseInfo.create.isPresent()) {
-            if (! ( documentOperation instanceof DocumentUpdate)) {
-                throw new IllegalArgumentException("Could not set create flag on non update operation.");
-            }
-            DocumentUpdate update = (DocumentUpdate) documentOperation;
-            update.setCreateIfNonExistent(documentParseInfo.create.get());
+            throw JsonReaderException.addDocId(e, documentId);
         }
         return documentOperation;
     }
@@ -19,6 +19,16 @@ public class DocumentDeserializerFactory {
         return new VespaDocumentDeserializerHead(manager, buf);
     }
 
+    /**
+     * Creates a de-serializer for the current head document format, which keeps each field value of the documents
+     * and structs it reads in serialized form until that field is first accessed, and which serializes untouched
+     * fields by copying them. This saves work for consumers which access only some fields of each document.
+     * The serialized field values refer to the array backing the given buffer, which must not be modified after this.
+     */
+    public static DocumentDeserializer createLazyHead(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        return new VespaDocumentDeserializerHead(manager, buf, true);
+    }
+
     /**
      * Creates a de-serializer for the 6.x document format.
      * This format is an extension of the 4.2 format.
@@ -0,0 +1,50 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The serialized value of a struct field, as read by a de-serializer with lazy field values.
+ * The value is de-serialized when the field is first accessed, and written out as it is by
+ * {@link VespaDocumentSerializer6} if it never is.
+ *
+ * Instances are immutable, and may be shared between copies of a struct.
+ */
+public final class SerializedField {
+
+    private final Field field;
+    private final DocumentTypeManager manager;
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+
+    SerializedField(Field field, DocumentTypeManager manager, byte[] data, int offset, int length) {
+        this.field = field;
+        this.manager = manager;
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public Field getField() { return field; }
+
+    /** Returns the size of the serialized value, in bytes. */
+    public int getLength() { return length; }
+
+    /** De-serializes and returns a new value from this. Nested structs in the value also get lazy field values. */
+    public FieldValue deserialize() {
+        FieldValue value = field.getDataType().createFieldValue();
+        value.deserialize(field, new VespaDocumentDeserializerHead(manager, GrowableByteBuffer.wrap(data, offset, length), true));
+        return value;
+    }
+
+    void serialize(VespaDocumentSerializer6 serializer) {
+        serializer.put(null, ByteBuffer.wrap(data, offset, length));
+    }
+
+}
@@ -78,14 +78,25 @@ import static com.yahoo.text.Utf8.calculateStringPositions;
 public class VespaDocumentDeserializer6 extends BufferSerializer implements DocumentDeserializer {
 
     private final DocumentTypeManager manager;
+    private final boolean lazyFieldValues;
     private short version;
     private List<SpanNode> spanNodes;
     private List<Annotation> annotations;
     private int[] stringPositions;
 
     VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        this(manager, buf, false);
+    }
+
+    /**
+     * Creates a de-serializer which, if lazyFieldValues is set, keeps the serialized form of each field of
+     * documents and structs, and de-serializes it only when the field is first accessed.
+     * The serialized fields refer to the array backing the given buffer, which must then not be modified.
+     */
+    VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf, boolean lazyFieldValues) {
         super(buf);
         this.manager = manager;
+        this.lazyFieldValues = lazyFieldValues;
         this.version = Document.SERIALIZED_VERSION;
     }
 
@@ -287,11 +298,16 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
                 position(position() + fieldIdsAndLengths.get(i).second.intValue());
             } else {
                 int posBefore = position();
-                FieldValue value = structField.getDataType().createFieldValue();
-                value.deserialize(structField, this);
-                s.setFieldValue(structField, value);
+                int length = fieldIdsAndLengths.get(i).second.intValue();
+                if (lazyFieldValues) {
+                    s.setSerializedFieldValue(structField, new SerializedField(structField, manager, buf.array(), posBefore, length));
+                } else {
+                    FieldValue value = structField.getDataType().createFieldValue();
+                    value.deserialize(structField, this);
+                    s.setFieldValue(structField, value);
+                }
                 //jump to beginning of next field:
-                position(posBefore + fieldIdsAndLengths.get(i).second.intValue());
+                position(posBefore + length);
             }
         }
 
@@ -329,15 +345,19 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
 
         for (int i=0; i<numberOfFields; ++i) {
             int posBefore = position();
+            int length = fieldIdsAndLengths.get(i).second.intValue();
             Integer f_id = fieldIdsAndLengths.get(i).first;
             Field structField = priType.getField(f_id);
-            if (structField != null) {
+            if (structField != null && lazyFieldValues) {
+                target.setSerializedFieldValue(structField, new SerializedField(structField, manager, buf.array(), posBefore, length));
+            }
+            else if (structField != null) {
                 FieldValue value = structField.getDataType().createFieldValue();
                 value.deserialize(structField, this);
                 target.setFieldValue(structField, value);
             }
             //jump to beginning of next field:
-            position(posBefore + fieldIdsAndLengths.get(i).second.intValue());
+            position(posBefore + length);
         }
 
         // restore the original buffer
@@ -335,7 +335,11 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
             Map.Entry<Field, FieldValue> value = iter.next();
 
             int startPos = buffer.position();
-            value.getValue().serialize(value.getKey(), this);
+            SerializedField serialized = s.getSerializedFieldValue(value.getKey());
+            if (serialized != null)
+                serialized.serialize(this); // Not yet de-serialized, so still the same.
+            else
+                value.getValue().serialize(value.getKey(), this);
 
             fieldLengths.add(buffer.position() - startPos);
             fieldIds.add(value.getKey().getId());
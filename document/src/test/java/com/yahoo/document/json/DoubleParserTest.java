@@ -0,0 +1,48 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DoubleParserTest {
+
+    @Test
+    public void testParsingIsExact() {
+        for (String number : new String[] { "0", "-0", "0.0", "-0.0", "1", "-1", "0.1", "-0.1", "3.14159", "1e22", "1E-22",
+                                            "123456789012345", "0.000123456789012345", "1.5e+3", "-2.5E-3" }) {
+            assertTrue(number, ! Double.isNaN(parse(number)));
+            assertParsed(number);
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            assertParsed(Float.toString((float)random.nextGaussian()));
+            assertParsed(Double.toString(random.nextGaussian()));
+            assertParsed(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+        }
+    }
+
+    @Test
+    public void testNumbersWhichCannotBeParsedExactlyAreLeftToTheCaller() {
+        for (String number : new String[] { "1234567890123456", "1e23", "1e-23", "0.1e-22", "1e", "1e+", "-", ".", "", "NaN",
+                                            "Infinity", "1x", "1.5.5", "1e99999999999",
+                                            "2.2250738585072014E-308" })
+            assertTrue(number, Double.isNaN(parse(number)));
+    }
+
+    private static void assertParsed(String number) {
+        double value = parse(number);
+        if ( ! Double.isNaN(value))
+            assertEquals(number, Double.doubleToRawLongBits(Double.parseDouble(number)), Double.doubleToRawLongBits(value));
+    }
+
+    private static double parse(String number) {
+        char[] chars = ("[" + number + "]").toCharArray();
+        return DoubleParser.parse(chars, 1, number.length());
+    }
+
+}
@@ -1034,6 +1034,75 @@ public class JsonReaderTestCase {
         }
     }
 
+    @Test
+    public void invalidOperationsAreSkippedInFeed() {
+        JsonReader r = createReader(inputJson("[",
+                                              "  { 'put': 'id:unittest:smoke::0', 'fields': { 'something': 'foo' } },",
+                                              "  { 'put': 'not a document id', 'fields': { 'something': 'foo' } },",
+                                              "  { 'fields': { 'something': 'foo' }, 'post': 'id:unittest:smoke::1' },",
+                                              "  { 'put': 'id:unittest:nosuchtype::2', 'fields': { 'something': { 'nested': [ 'foo' ] } } },",
+                                              "  { 'put': 'id:unittest:smoke::3', 'fields': { 'nosuchfield': 'foo' } },",
+                                              "  { 'remove': 'id:unittest:smoke::4' }",
+                                              "]"));
+        assertEquals("id:unittest:smoke::0", r.next().getId().toString());
+        for (int i = 0; i < 4; i++) {
+            try {
+                r.next();
+                fail("Operation " + (i + 1) + " should be invalid");
+            }
+            catch (IllegalArgumentException expected) { }
+        }
+        assertEquals("id:unittest:smoke::4", r.next().getId().toString());
+        assertNull(r.next());
+    }
+
+    @Test
+    public void fieldsAreReadTheSameWhenBeforeAndAfterDocumentId() {
+        String fields = inputJson("'fields': {",
+                                  "  'sparse_tensor': { 'cells': [ { 'address': { 'x': 'a', 'y': 'b' }, 'value': 2.0 } ] },",
+                                  "  'dense_tensor': { 'values': [ 1, 2, 3, 4, 5, 6 ] },",
+                                  "  'mixed_tensor': { 'blocks': { 'a': [ 1, 2, 3 ] } }",
+                                  "}");
+        String update = inputJson("'fields': {",
+                                  "  'actualset': { 'match': { 'element': 'person', 'increment': 13 } }",
+                                  "}");
+        JsonReader r = createReader(inputJson("[",
+                                              "  { 'put': 'id:unittest:testtensor::0', " + fields + " },",
+                                              "  { " + fields + ", 'put': 'id:unittest:testtensor::0' },",
+                                              "  { 'update': 'id:unittest:testset::0', " + update + ", 'create': true },",
+                                              "  { 'create': true, " + update + ", 'update': 'id:unittest:testset::0' }",
+                                              "]"));
+        DocumentPut directPut = (DocumentPut) r.next();
+        DocumentPut bufferedPut = (DocumentPut) r.next();
+        assertEquals(bufferedPut.getDocument(), directPut.getDocument());
+        assertEquals(3, directPut.getDocument().getFieldCount());
+
+        DocumentUpdate directUpdate = (DocumentUpdate) r.next();
+        DocumentUpdate bufferedUpdate = (DocumentUpdate) r.next();
+        assertEquals(bufferedUpdate, directUpdate);
+        assertTrue(directUpdate.getCreateIfNonExistent());
+        assertNull(r.next());
+    }
+
+    @Test
+    public void errorInFieldsReadDirectlyIsReportedAfterTheOperationIsParsed() {
+        JsonReader r = createReader(inputJson("[",
+                                              "  { 'put': 'id:unittest:smoke::0', 'fields': { 'nalle': 'foo', 'nosuchfield': { 'a': [ 1 ] }, 'flag': true } },",
+                                              "  { 'put': 'id:unittest:smoke::1', 'fields': { 'nalle': 'bar' } }",
+                                              "]"));
+        try {
+            r.next();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(Exceptions.toMessageString(e).contains("No field 'nosuchfield'"));
+        }
+        DocumentPut put = (DocumentPut) r.next();
+        assertEquals("id:unittest:smoke::1", put.getId().toString());
+        assertEquals(new StringFieldValue("bar"), put.getDocument().getFieldValue("nalle"));
+        assertNull(r.next());
+    }
+
     @Test
     public void idAsAliasForPutTest()  throws IOException{
         JsonReader r = createReader(inputJson("{ 'id': 'id:unittest:smoke::doc1',",
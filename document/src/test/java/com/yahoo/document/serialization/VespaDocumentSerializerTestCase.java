@@ -4,15 +4,21 @@ package com.yahoo.document.serialization;
 import com.yahoo.document.DataType;
 import com.yahoo.document.Document;
 import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.Field;
+import com.yahoo.document.StructDataType;
 import com.yahoo.document.datatypes.IntegerFieldValue;
 import com.yahoo.document.datatypes.PredicateFieldValue;
 import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.datatypes.Struct;
 import com.yahoo.io.GrowableByteBuffer;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author Simon Thoresen Hult
@@ -47,4 +53,61 @@ public class VespaDocumentSerializerTestCase {
         Mockito.verify(predicate, Mockito.times(1)).serialize(Mockito.same(field), Mockito.any(FieldWriter.class));
     }
 
+    @Test
+    public void lazy_field_values_are_deserialized_when_accessed_and_otherwise_copied() {
+        StructDataType structType = new StructDataType("my_struct");
+        Field nestedField = new Field("my_nested", DataType.STRING);
+        structType.addField(nestedField);
+        DocumentType docType = new DocumentType("my_type");
+        Field strField = new Field("my_str", DataType.STRING);
+        Field intField = new Field("my_int", DataType.INT);
+        Field structField = new Field("my_struct", structType);
+        docType.addField(strField);
+        docType.addField(intField);
+        docType.addField(structField);
+        DocumentTypeManager manager = new DocumentTypeManager();
+        manager.registerDocumentType(docType);
+
+        Document doc = new Document(docType, "id:ns:my_type::");
+        doc.setFieldValue(strField, new StringFieldValue("foo"));
+        doc.setFieldValue(intField, new IntegerFieldValue(69));
+        Struct struct = structType.createFieldValue();
+        struct.setFieldValue(nestedField, new StringFieldValue("bar"));
+        doc.setFieldValue(structField, struct);
+        byte[] serialized = serialize(doc);
+
+        Document lazy = new Document(DocumentDeserializerFactory.createLazyHead(manager, GrowableByteBuffer.wrap(serialized)));
+        assertEquals(3, lazy.getFieldCount());
+        assertNotNull(lazy.getSerializedFieldValue(strField));
+        assertNotNull(lazy.getSerializedFieldValue(intField));
+        assertArrayEquals(serialized, serialize(lazy));
+
+        assertEquals(new IntegerFieldValue(69), lazy.getFieldValue(intField));
+        assertNull(lazy.getSerializedFieldValue(intField));
+        assertNotNull(lazy.getSerializedFieldValue(strField));
+
+        Struct lazyStruct = (Struct) lazy.getFieldValue(structField);
+        assertNotNull(lazyStruct.getSerializedFieldValue(nestedField));
+        assertEquals(new StringFieldValue("bar"), lazyStruct.getFieldValue(nestedField));
+
+        Document copy = lazy.clone();
+        lazy.setFieldValue(strField, new StringFieldValue("baz"));
+        assertNull(lazy.getSerializedFieldValue(strField));
+        assertNotNull(copy.getSerializedFieldValue(strField));
+        assertEquals(doc, copy);
+
+        doc.setFieldValue(strField, new StringFieldValue("baz"));
+        assertEquals(doc, new Document(DocumentDeserializerFactory.createHead(manager, GrowableByteBuffer.wrap(serialize(lazy)))));
+        assertEquals(doc, lazy);
+    }
+
+    private static byte[] serialize(Document doc) {
+        GrowableByteBuffer buf = new GrowableByteBuffer();
+        doc.serialize(buf);
+        buf.flip();
+        byte[] data = new byte[buf.remaining()];
+        buf.get(data);
+        return data;
+    }
+
 }
@@ -0,0 +1,373 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi;
+
+import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.documentapi.VisitorControlHandler.CompletionCode;
+import com.yahoo.messagebus.Message;
+import com.yahoo.messagebus.Trace;
+import com.yahoo.vdslib.VisitorStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A visitor session which splits the bucket space selected by its parameters into a number of distinct slices,
+ * and visits each slice with a separate underlying session. Data from all of these are passed through a shared,
+ * bounded queue to a number of handler threads, which call the local data handler of the parameters, so processing
+ * of the visited data scales with the number of cores on the client. The data handler must therefore be thread safe.
+ * <p>
+ * The control handler of the parameters is notified when all slices are done, and all their data is handled,
+ * with the most severe completion code among the slices. It also receives the sum of the statistics of all slices.
+ * Progress is tracked per slice, by {@link #getSliceProgress()}, so this can not be resumed from a single progress token;
+ * {@link #getProgress()} only combines these for reporting.
+ */
+public class ParallelVisitorSession implements VisitorSession {
+
+    private static final Logger log = Logger.getLogger(ParallelVisitorSession.class.getName());
+
+    /** Creates the visitor session for each slice, e.g., {@link DocumentAccess#createVisitorSession}. */
+    @FunctionalInterface
+    public interface SessionFactory {
+        VisitorSession create(VisitorParameters parameters) throws ParseException;
+    }
+
+    private final VisitorDataHandler data;
+    private final VisitorControlHandler control;
+    private final BlockingQueue<Entry> queue;
+    private final List<Slice> slices = new ArrayList<>();
+    private final AtomicInteger remainingSlices;
+    private final AtomicInteger remainingHandlers;
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicReference<String> failure = new AtomicReference<>();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean aborted = false;
+
+    /**
+     * Creates and starts a new parallel visitor session.
+     *
+     * @param factory creates the session for each slice, using a copy of the given parameters
+     * @param parameters the parameters for the visitor, with a local data handler, or none to poll with {@link #getNext}
+     * @param sessions the number of slices, and thus sessions, to visit with
+     * @param handlerThreads the number of threads calling the data handler
+     * @param queueCapacity the maximum number of messages waiting for a handler thread
+     */
+    public ParallelVisitorSession(SessionFactory factory, VisitorParameters parameters,
+                                  int sessions, int handlerThreads, int queueCapacity) throws ParseException {
+        if (sessions < 1)
+            throw new IllegalArgumentException("Number of sessions must be positive, but was " + sessions);
+        if (handlerThreads < 1)
+            throw new IllegalArgumentException("Number of handler threads must be positive, but was " + handlerThreads);
+        if (parameters.getRemoteDataHandler() != null)
+            throw new IllegalArgumentException("Parallel visiting requires a local data handler");
+        if (parameters.getResumeToken() != null || ! (parameters.getResumeFileName() == null || parameters.getResumeFileName().isEmpty()))
+            throw new IllegalArgumentException("Parallel visiting can not be resumed from a single progress token");
+
+        this.data = parameters.getLocalDataHandler() == null ? new VisitorDataQueue() : parameters.getLocalDataHandler();
+        this.data.reset();
+        this.data.setSession(this);
+
+        this.control = parameters.getControlHandler() == null ? new VisitorControlHandler() : parameters.getControlHandler();
+        this.control.reset();
+        this.control.setSession(this);
+
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.remainingSlices = new AtomicInteger(sessions);
+        this.remainingHandlers = new AtomicInteger(handlerThreads);
+        for (int i = 0; i < handlerThreads; i++) {
+            Thread thread = new Thread(this::handle, "parallel-visitor-handler-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        for (int i = 0; i < sessions; i++)
+            slices.add(new Slice(i, parameters, sessions));
+
+        int started = 0;
+        try {
+            for ( ; started < sessions; started++)
+                slices.get(started).session = factory.create(slices.get(started).parameters);
+        }
+        catch (ParseException | RuntimeException e) {
+            failure.compareAndSet(null, e.getMessage());
+            abort();
+            for ( ; started < sessions; started++)
+                sliceDone();
+            throw e;
+        }
+    }
+
+    /** Returns the total number of messages passed to the data handler so far. */
+    public long getHandledCount() { return handled.get(); }
+
+    /** Returns the average number of messages passed to the data handler per second, since this was created. */
+    public double getHandledPerSecond() {
+        return handled.get() * 1e9 / Math.max(1, System.nanoTime() - startNanos);
+    }
+
+    /** Returns the number of messages currently waiting for a handler thread. */
+    public int getQueuedCount() { return queue.size(); }
+
+    /** Returns the most recent progress token of each slice, or {@code null} for slices which have not yet started. */
+    public List<ProgressToken> getSliceProgress() {
+        List<ProgressToken> progress = new ArrayList<>(slices.size());
+        for (Slice slice : slices)
+            progress.add(slice.session == null ? null : slice.session.getProgress());
+        return progress;
+    }
+
+    /** Returns the average percentage of buckets finished, over all slices. */
+    public double percentFinished() {
+        double sum = 0;
+        for (ProgressToken token : getSliceProgress())
+            if (token != null) sum += token.percentFinished();
+
+        return sum / slices.size();
+    }
+
+    /** Returns the sum of the most recent visitor statistics of all slices. */
+    public VisitorStatistics getVisitorStatistics() {
+        VisitorStatistics total = new VisitorStatistics();
+        for (Slice slice : slices) {
+            VisitorStatistics statistics = slice.control.getVisitorStatistics();
+            if (statistics != null) total.add(statistics);
+        }
+        return total;
+    }
+
+    @Override
+    public boolean isDone() {
+        return control.isDone();
+    }
+
+    /**
+     * Returns the combined progress of all slices: the sums of their bucket counts, and all their active, pending
+     * and failed buckets. This is a snapshot for reporting, which can not be resumed from; see {@link #getSliceProgress()}.
+     */
+    @Override
+    public ProgressToken getProgress() {
+        ProgressToken total = new ProgressToken();
+        boolean first = true;
+        for (ProgressToken token : getSliceProgress()) {
+            if (token == null) continue;
+            synchronized (token) {
+                if (first) total.setDistributionBitCount(token.getDistributionBitCount());
+                first = false;
+                total.setTotalBucketCount(total.getTotalBucketCount() + token.getTotalBucketCount());
+                total.setFinishedBucketCount(total.getFinishedBucketCount() + token.getFinishedBucketCount());
+                token.getBuckets().forEach((key, entry) -> total.addBucket(key.toBucketId(), entry.getProgress(), entry.getState()));
+                token.getFailedBuckets().forEach((superbucket, progress) -> total.addFailedBucket(superbucket, progress, token.getFirstErrorMsg()));
+            }
+        }
+        return total;
+    }
+
+    /** Returns a trace with the traces of all slices as children. */
+    @Override
+    public Trace getTrace() {
+        Trace trace = new Trace();
+        for (Slice slice : slices)
+            if (slice.session != null)
+                trace.getRoot().addChild(slice.session.getTrace().getRoot());
+
+        return trace;
+    }
+
+    @Override
+    public boolean waitUntilDone(long timeoutMs) throws InterruptedException {
+        return control.waitUntilDone(timeoutMs);
+    }
+
+    @Override
+    public void ack(AckToken token) {
+        SliceToken sliceToken = (SliceToken) token.ackObject;
+        sliceToken.slice.data.ack(sliceToken.token);
+    }
+
+    @Override
+    public void abort() {
+        aborted = true;
+        for (Slice slice : slices)
+            if (slice.session != null)
+                slice.session.abort();
+    }
+
+    @Override
+    public VisitorResponse getNext() {
+        return data.getNext();
+    }
+
+    @Override
+    public VisitorResponse getNext(int timeoutMilliseconds) throws InterruptedException {
+        return data.getNext(timeoutMilliseconds);
+    }
+
+    @Override
+    public void destroy() {
+        abort();
+        for (Slice slice : slices)
+            if (slice.session != null)
+                slice.session.destroy();
+        try {
+            control.waitUntilDone(0);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Blocks until there is room in the queue for the given message, unless this is aborted, in which case it is dropped. */
+    private void enqueue(Entry entry) {
+        try {
+            while ( ! queue.offer(entry, 100, TimeUnit.MILLISECONDS))
+                if (aborted) return;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Called when a slice is done; when the last one is, the handler threads are told to stop after the remaining data. */
+    private void sliceDone() {
+        if (remainingSlices.decrementAndGet() > 0)
+            return;
+
+        for (int i = remainingHandlers.get(); i > 0; i--) {
+            try {
+                queue.put(Entry.last);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while stopping handler threads", e);
+            }
+        }
+    }
+
+    private void handle() {
+        try {
+            for (Entry entry; (entry = queue.take()) != Entry.last; ) {
+                if (aborted) continue; // Aborted sessions don't need acks.
+                try {
+                    data.onMessage(entry.message, entry.token);
+                    handled.incrementAndGet();
+                }
+                catch (RuntimeException e) {
+                    log.log(Level.WARNING, "Data handler failed; aborting visitor", e);
+                    failure.compareAndSet(null, "Data handler failed: " + e.getMessage());
+                    abort();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            if (remainingHandlers.decrementAndGet() == 0)
+                done();
+        }
+    }
+
+    /** Notifies the handlers of this once all slices are done, and all their data handled. */
+    private void done() {
+        CompletionCode code = CompletionCode.SUCCESS;
+        String message = "Success";
+        if (failure.get() != null) {
+            code = CompletionCode.FAILURE;
+            message = failure.get();
+        }
+        for (Slice slice : slices) {
+            VisitorControlHandler.Result result = slice.control.getResult();
+            if (result != null && severity(result.getCode()) > severity(code)) {
+                code = result.getCode();
+                message = "Slice " + slice.index + " of " + slices.size() + ": " + result.getMessage();
+            }
+        }
+        data.onDone();
+        control.onDone(code, message);
+    }
+
+    private static int severity(CompletionCode code) {
+        switch (code) {
+            case SUCCESS: return 0;
+            case ABORTED: return 1;
+            case TIMEOUT: return 2;
+            case FAILURE: return 3;
+            default: throw new IllegalArgumentException("Unexpected completion code " + code);
+        }
+    }
+
+    /** One slice of the visited bucket space, with the handlers given to the session visiting it. */
+    private class Slice {
+
+        final int index;
+        final VisitorParameters parameters;
+        volatile VisitorSession session;
+
+        final VisitorDataHandler data = new VisitorDataHandler() {
+            @Override
+            public void onMessage(Message m, AckToken token) {
+                enqueue(new Entry(m, new AckToken(new SliceToken(Slice.this, token))));
+            }
+        };
+
+        final VisitorControlHandler control = new VisitorControlHandler() {
+            @Override
+            public void onVisitorError(String message) {
+                ParallelVisitorSession.this.control.onVisitorError(message);
+            }
+            @Override
+            public void onVisitorStatistics(VisitorStatistics statistics) {
+                super.onVisitorStatistics(statistics);
+                ParallelVisitorSession.this.control.onVisitorStatistics(ParallelVisitorSession.this.getVisitorStatistics());
+            }
+            @Override
+            public void onDone(CompletionCode code, String message) {
+                super.onDone(code, message);
+                sliceDone();
+            }
+        };
+
+        Slice(int index, VisitorParameters parameters, int count) {
+            this.index = index;
+            this.parameters = new VisitorParameters(parameters);
+            this.parameters.slice(parameters.getSlices() * count, parameters.getSliceId() + parameters.getSlices() * index);
+            this.parameters.setLocalDataHandler(data);
+            this.parameters.setControlHandler(control);
+        }
+
+    }
+
+    private static class SliceToken {
+
+        final Slice slice;
+        final AckToken token;
+
+        SliceToken(Slice slice, AckToken token) {
+            this.slice = slice;
+            this.token = token;
+        }
+
+    }
+
+    private static class Entry {
+
+        static final Entry last = new Entry(null, null);
+
+        final Message message;
+        final AckToken token;
+
+        Entry(Message message, AckToken token) {
+            this.message = message;
+            this.token = token;
+        }
+
+    }
+
+}
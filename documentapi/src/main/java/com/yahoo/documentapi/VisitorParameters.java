@@ -70,6 +70,7 @@ public class VisitorParameters extends Parameters {
         setVisitorLibrary(params.getVisitorLibrary());
         setMaxPending(params.getMaxPending());
         setTimeoutMs(params.getTimeoutMs());
+        setSessionTimeoutMs(params.getSessionTimeoutMs());
         setFromTimestamp(params.getFromTimestamp());
         setToTimestamp(params.getToTimestamp());
         visitRemoves(params.visitRemoves());
@@ -90,7 +91,8 @@ public class VisitorParameters extends Parameters {
         setPriority(params.getPriority());
         setTraceLevel(params.getTraceLevel());
         skipBucketsOnFatalErrors(params.skipBucketsOnFatalErrors());
-        slice(params.getSlices(), getSliceId());
+        slice(params.getSlices(), params.getSliceId());
+        setThrottlePolicy(params.getThrottlePolicy());
     }
 
     // Get functions
@@ -25,6 +25,7 @@ public class MessageBusParams extends DocumentAccessParams {
     private RPCNetworkParams rpcNetworkParams = new RPCNetworkParams();
     private com.yahoo.messagebus.MessageBusParams mbusParams = new com.yahoo.messagebus.MessageBusParams();
     private SourceSessionParams sourceSessionParams = new SourceSessionParams();
+    private boolean lazyFieldValues = false;
 
     public MessageBusParams() {}
 
@@ -202,4 +203,22 @@ public class MessageBusParams extends DocumentAccessParams {
         sourceSessionParams = new SourceSessionParams(params);
         return this;
     }
+
+    /** Returns whether received documents keep their field values serialized until these are accessed. */
+    public boolean getLazyFieldValues() {
+        return lazyFieldValues;
+    }
+
+    /**
+     * Sets whether received documents, e.g., from visiting, should keep their field values serialized until these
+     * are accessed. This saves work when only some fields of each document are used, or when documents are
+     * only passed on. Default is false.
+     *
+     * @param lazyFieldValues Whether to de-serialize field values lazily.
+     * @return This object for chaining.
+     */
+    public MessageBusParams setLazyFieldValues(boolean lazyFieldValues) {
+        this.lazyFieldValues = lazyFieldValues;
+        return this;
+    }
 }
@@ -245,22 +245,31 @@ public class DocumentProtocol implements Protocol {
                             DocumentProtocolPoliciesConfig policiesConfig,
                             DistributionConfig distributionConfig) {
         this(requireNonNull(documentTypeManager), null,
-             requireNonNull(policiesConfig), requireNonNull(distributionConfig));
+             requireNonNull(policiesConfig), requireNonNull(distributionConfig), false);
     }
 
     public DocumentProtocol(DocumentTypeManager docMan, String configId) {
-        this(docMan, configId == null ? "client" : configId, null, null);
+        this(docMan, configId, false);
+    }
+
+    /**
+     * Creates a document protocol which, if lazyFieldValues is set, decodes documents with each field value kept
+     * in serialized form until it is first accessed, which is cheaper for consumers which access only some fields.
+     */
+    public DocumentProtocol(DocumentTypeManager docMan, String configId, boolean lazyFieldValues) {
+        this(docMan, configId == null ? "client" : configId, null, null, lazyFieldValues);
     }
 
     private DocumentProtocol(DocumentTypeManager docMan, String configId,
-                             DocumentProtocolPoliciesConfig policiesConfig, DistributionConfig distributionConfig) {
+                             DocumentProtocolPoliciesConfig policiesConfig, DistributionConfig distributionConfig,
+                             boolean lazyFieldValues) {
         if (docMan != null)
             this.docMan = docMan;
         else {
             this.docMan = new DocumentTypeManager();
             DocumentTypeManagerConfigurer.configure(this.docMan, configId);
         }
-        this.routableRepository = new RoutableRepository();
+        this.routableRepository = new RoutableRepository(lazyFieldValues);
 
         // When adding factories to this list, please KEEP THEM ORDERED alphabetically like they are now.
         putRoutingPolicyFactory("AND", new RoutingPolicyFactories.AndPolicyFactory());
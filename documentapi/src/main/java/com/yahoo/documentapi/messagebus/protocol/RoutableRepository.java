@@ -33,7 +33,19 @@ final class RoutableRepository {
     private final CopyOnWriteHashMap<Integer, VersionMap> factoryTypes = new CopyOnWriteHashMap<>();
     private final CopyOnWriteHashMap<CacheKey, RoutableFactory> cache = new CopyOnWriteHashMap<>();
 
-    public RoutableRepository() {}
+    private final boolean lazyFieldValues;
+
+    public RoutableRepository() {
+        this(false);
+    }
+
+    /**
+     * Creates a repository whose decoded documents keep their field values serialized until these are accessed,
+     * if lazyFieldValues is set.
+     */
+    public RoutableRepository(boolean lazyFieldValues) {
+        this.lazyFieldValues = lazyFieldValues;
+    }
 
     /**
      * Decodes a {@link Routable} from the given byte array. This uses the content of the byte array to dispatch the
@@ -54,7 +66,8 @@ final class RoutableRepository {
             log.log(Level.SEVERE,"Can not decode anything from (version " + version + "). Only major version 5 and up supported.");
             return null;
         }
-        DocumentDeserializer in = DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
+        DocumentDeserializer in = lazyFieldValues ? DocumentDeserializerFactory.createLazyHead(docMan, GrowableByteBuffer.wrap(data))
+                                                  : DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
 
 
         int type = in.getInt(null);
@@ -0,0 +1,167 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.document.DocumentId;
+import com.yahoo.documentapi.VisitorControlHandler.CompletionCode;
+import com.yahoo.documentapi.messagebus.protocol.RemoveDocumentMessage;
+import com.yahoo.messagebus.Message;
+import com.yahoo.messagebus.Trace;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelVisitorSessionTest {
+
+    @Test
+    public void all_documents_are_handled_once_over_distinct_slices() throws Exception {
+        List<String> slices = new CopyOnWriteArrayList<>();
+        Map<String, String> handled = new ConcurrentHashMap<>();
+        VisitorParameters parameters = new VisitorParameters("");
+        parameters.slice(2, 1);
+        parameters.setControlHandler(new VisitorControlHandler());
+        parameters.setLocalDataHandler(new VisitorDataHandler() {
+            @Override
+            public void onMessage(Message m, AckToken token) {
+                handled.merge(((RemoveDocumentMessage) m).getDocumentId().toString(), Thread.currentThread().getName(), (a, b) -> "duplicate");
+                ack(token);
+            }
+        });
+
+        ParallelVisitorSession session = new ParallelVisitorSession(sliceParameters -> {
+                                                                        slices.add(sliceParameters.getSliceId() + "/" + sliceParameters.getSlices());
+                                                                        return new SliceSession(sliceParameters, 1000, CompletionCode.SUCCESS);
+                                                                    },
+                                                                    parameters, 3, 4, 2);
+        assertTrue(session.waitUntilDone(0));
+
+        assertEquals(List.of("1/6", "3/6", "5/6"), slices);
+        assertEquals(500, handled.size());
+        for (int i = 1; i < 1000; i += 2)
+            assertTrue("document " + i + " handled once", handled.containsKey("id:ns:music::" + i) && ! handled.get("id:ns:music::" + i).equals("duplicate"));
+        assertEquals(500, session.getHandledCount());
+        assertEquals(0, session.getQueuedCount());
+        assertEquals(CompletionCode.SUCCESS, parameters.getControlHandler().getResult().getCode());
+        assertEquals(3, session.getSliceProgress().size());
+        session.destroy();
+    }
+
+    @Test
+    public void most_severe_completion_code_is_reported() throws Exception {
+        VisitorDataQueue queue = new VisitorDataQueue();
+        VisitorParameters parameters = new VisitorParameters("");
+        parameters.setLocalDataHandler(queue);
+        VisitorControlHandler control = new VisitorControlHandler();
+        parameters.setControlHandler(control);
+
+        ParallelVisitorSession session = new ParallelVisitorSession(sliceParameters -> new SliceSession(sliceParameters,
+                                                                                                        10,
+                                                                                                        sliceParameters.getSliceId() == 1 ? CompletionCode.FAILURE
+                                                                                                                                          : CompletionCode.ABORTED),
+                                                                    parameters, 2, 1, 1);
+        for (int i = 0; i < 10; i++)
+            session.ack(session.getNext(60_000).getAckToken());
+
+        assertTrue(session.waitUntilDone(0));
+        assertEquals(CompletionCode.FAILURE, control.getResult().getCode());
+        assertEquals("Slice 1 of 2: FAILURE", control.getResult().getMessage());
+        session.destroy();
+    }
+
+    @Test
+    public void progress_is_combined_over_slices() throws Exception {
+        List<SliceSession> sessions = new CopyOnWriteArrayList<>();
+        VisitorParameters parameters = new VisitorParameters("");
+        parameters.setLocalDataHandler(new VisitorDataHandler() {
+            @Override
+            public void onMessage(Message m, AckToken token) { ack(token); }
+        });
+        ParallelVisitorSession session = new ParallelVisitorSession(sliceParameters -> {
+                                                                        SliceSession slice = new SliceSession(sliceParameters, 10, CompletionCode.SUCCESS);
+                                                                        sessions.add(slice);
+                                                                        return slice;
+                                                                    },
+                                                                    parameters, 3, 1, 1);
+        assertTrue(session.waitUntilDone(0));
+        for (int i = 0; i < sessions.size(); i++) {
+            ProgressToken progress = sessions.get(i).progress;
+            progress.setTotalBucketCount(8);
+            progress.setFinishedBucketCount(2 * i);
+            progress.addBucket(new BucketId(16, i), ProgressToken.NULL_BUCKET, ProgressToken.BucketState.BUCKET_PENDING);
+        }
+        sessions.get(2).progress.addFailedBucket(new BucketId(16, 8), ProgressToken.NULL_BUCKET, "failed");
+
+        ProgressToken total = session.getProgress();
+        assertEquals(24, total.getTotalBucketCount());
+        assertEquals(6, total.getFinishedBucketCount());
+        assertEquals(3, total.getPendingBucketCount());
+        assertEquals(Map.of(new BucketId(16, 8), ProgressToken.NULL_BUCKET), total.getFailedBuckets());
+        assertEquals("failed", total.getFirstErrorMsg());
+        assertEquals(session.percentFinished(), total.percentFinished(), 1e-9);
+        session.destroy();
+    }
+
+    @Test
+    public void resuming_from_a_single_token_is_not_supported() throws Exception {
+        VisitorParameters parameters = new VisitorParameters("");
+        parameters.setResumeToken(new ProgressToken());
+        try {
+            new ParallelVisitorSession(sliceParameters -> { throw new AssertionError("should not be called"); },
+                                       parameters, 2, 2, 2);
+            fail("resume token should be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Parallel visiting can not be resumed from a single progress token", e.getMessage());
+        }
+    }
+
+    /** Sends a remove for each document in its slice, and completes with the given code once all are acked. */
+    private static class SliceSession implements VisitorSession {
+
+        private final VisitorParameters parameters;
+        private final ProgressToken progress = new ProgressToken();
+
+        SliceSession(VisitorParameters parameters, int documents, CompletionCode code) {
+            this.parameters = parameters;
+            VisitorDataHandler data = parameters.getLocalDataHandler();
+            data.reset();
+            data.setSession(this);
+            VisitorControlHandler control = parameters.getControlHandler();
+            control.reset();
+            control.setSession(this);
+
+            CountDownLatch acked = new CountDownLatch((documents - parameters.getSliceId() + parameters.getSlices() - 1) / parameters.getSlices());
+            new Thread(() -> {
+                for (int i = parameters.getSliceId(); i < documents; i += parameters.getSlices())
+                    data.onMessage(new RemoveDocumentMessage(new DocumentId("id:ns:music::" + i)), new AckToken(acked));
+                try {
+                    acked.await();
+                }
+                catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                control.onDone(code, code.name());
+            }).start();
+        }
+
+        @Override public boolean isDone() { return parameters.getControlHandler().isDone(); }
+        @Override public ProgressToken getProgress() { return progress; }
+        @Override public Trace getTrace() { return new Trace(); }
+        @Override public boolean waitUntilDone(long timeoutMs) throws InterruptedException { return parameters.getControlHandler().waitUntilDone(timeoutMs); }
+        @Override public void ack(AckToken token) { ((CountDownLatch) token.ackObject).countDown(); }
+        @Override public void abort() { }
+        @Override public VisitorResponse getNext() { throw new UnsupportedOperationException(); }
+        @Override public VisitorResponse getNext(int timeoutMilliseconds) { throw new UnsupportedOperationException(); }
+        @Override public void destroy() { }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package com.yahoo.documentapi;
 
 import com.yahoo.document.fieldset.AllFields;
 import com.yahoo.documentapi.messagebus.protocol.DocumentProtocol;
+import com.yahoo.messagebus.StaticThrottlePolicy;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -32,6 +33,9 @@ public class VisitorParametersTestCase {
         params.setControlHandler(new VisitorControlHandler());
         params.setMaxTotalHits(777);
         params.skipBucketsOnFatalErrors(true);
+        params.setSessionTimeoutMs(4711);
+        params.setThrottlePolicy(new StaticThrottlePolicy());
+        params.slice(3, 2);
 
         return params;
     }
@@ -64,6 +68,10 @@ public class VisitorParametersTestCase {
         assertEquals(params.getControlHandler(), copy.getControlHandler());
         assertEquals(777, copy.getMaxTotalHits());
         assertEquals(true, copy.skipBucketsOnFatalErrors());
+        assertEquals(4711, copy.getSessionTimeoutMs());
+        assertEquals(params.getThrottlePolicy(), copy.getThrottlePolicy()); // instance compare
+        assertEquals(3, copy.getSlices());
+        assertEquals(2, copy.getSliceId());
 
         // Test local data handler copy
         VisitorParameters params2 = new VisitorParameters("");
@@ -5,7 +5,14 @@ package com.yahoo.jrt;
 import java.nio.ByteBuffer;
 
 
+/**
+ * A byte buffer which is alternately written and read, and which grows as needed. The underlying byte buffers
+ * are taken from, and returned to, a {@link BufferPool}, except those which grow larger than the given max
+ * pooled size, which are allocated on the heap with the size they need.
+ */
 class Buffer {
+    private final BufferPool pool;
+    private final int        maxPooledSize;
     private ByteBuffer buf;
     private int        readPos;
     private int        writePos;
@@ -49,24 +56,57 @@ class Buffer {
             buf.position(readPos);
             buf.limit(writePos);
             buf.compact();
+            pool.countCopied(used);
             readPos = 0;
         } else {
             int size = buf.capacity() * 2;
             if (buf.capacity() + free < minFree) {
                 size = buf.capacity() + minFree;
             }
-            ByteBuffer tmp = ByteBuffer.allocate(size);
-            tmp.order(buf.order());
             buf.position(readPos);
             buf.limit(writePos);
-            tmp.put(buf);
-            buf = tmp;
+            replace(allocate(size), used);
             readPos = 0;
         }
     }
 
+    /** Returns a buffer for growing to the given size, from the pool unless its size class is above the max pooled size. */
+    private ByteBuffer allocate(int size) {
+        int capacity = BufferPool.sizeClass(size);
+        if (maxPooledSize > 0 && capacity > maxPooledSize) {
+            return ByteBuffer.allocate(size);
+        }
+        return pool.acquire(capacity);
+    }
+
+    /** Moves the readable bytes of the current buffer, which are set as its position and limit, to the given one. */
+    private void replace(ByteBuffer tmp, int used) {
+        tmp.order(buf.order());
+        tmp.put(buf);
+        pool.release(buf);
+        buf = tmp;
+        if (used > 0) {
+            pool.countCopied(used);
+        }
+    }
+
     public Buffer(int size) {
-        buf = ByteBuffer.allocate(size);
+        this(size, 0);
+    }
+
+    /** Creates a buffer which does not pool byte buffers larger than the given size, or any if it is 0. */
+    Buffer(int size, int maxPooledSize) {
+        this(size, BufferPool.getInstance(), maxPooledSize);
+    }
+
+    Buffer(int size, BufferPool pool) {
+        this(size, pool, 0);
+    }
+
+    Buffer(int size, BufferPool pool, int maxPooledSize) {
+        this.pool = pool;
+        this.maxPooledSize = maxPooledSize;
+        buf = pool.acquire(size);
         readPos = 0;
         writePos = 0;
         readMode = false;
@@ -79,12 +119,9 @@ class Buffer {
         if (used > size || buf.capacity() <= size) {
             return false;
         }
-        ByteBuffer tmp = ByteBuffer.allocate(size);
-        tmp.order(buf.order());
         buf.position(rpos);
         buf.limit(wpos);
-        tmp.put(buf);
-        buf = tmp;
+        replace(pool.acquire(size), used);
         readPos = 0;
         writePos = used;
         buf.position(readMode? readPos : writePos);
@@ -92,6 +129,18 @@ class Buffer {
         return true;
     }
 
+    /**
+     * Returns the underlying byte buffer to the pool, discarding any content. This buffer is empty after
+     * this, and may still be used, but no byte buffer previously obtained from it may.
+     */
+    public void release() {
+        pool.release(buf);
+        buf = pool.acquire(0);
+        readPos = 0;
+        writePos = 0;
+        readMode = false;
+    }
+
     public int bytes() {
         return (readMode)
             ? (writePos - buf.position())
@@ -0,0 +1,158 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * A pool of direct byte buffers backing the {@link Buffer}s of all connections. Connection buffers grow with the
+ * traffic and are dropped when idle, so without a pool each burst allocates new memory; and since sockets are read
+ * and written through direct memory, heap buffers would also be copied to a temporary direct buffer by the JDK on
+ * every socket operation. Buffers are pooled by exact capacity. Growing buffers are sized by {@link #sizeClass},
+ * and the other sizes used are a few fixed ones, so the capacities which are pooled are also the ones asked for.
+ * The total capacity kept in the pool is bounded, by default to a quarter of the direct memory of the JVM. If direct
+ * memory runs out anyway, the pool drops what it holds, and heap buffers are used instead.
+ */
+class BufferPool {
+
+    private static final BufferPool instance = new BufferPool(
+            Math.min(64 << 20, maxDirectMemory(ManagementFactory.getRuntimeMXBean().getInputArguments(),
+                                               Runtime.getRuntime().maxMemory()) / 4));
+
+    private final IntFunction<ByteBuffer> allocateDirect;
+    private final Map<Integer, Queue<ByteBuffer>> free = new ConcurrentHashMap<>();
+    private final AtomicLong pooledBytes = new AtomicLong(0);
+    private final long maxPooledBytes;
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong bytesCopied = new AtomicLong(0);
+    private final TransportMetrics metrics = TransportMetrics.getInstance();
+
+    BufferPool(long maxPooledBytes) {
+        this(maxPooledBytes, ByteBuffer::allocateDirect);
+    }
+
+    BufferPool(long maxPooledBytes, IntFunction<ByteBuffer> allocateDirect) {
+        this.maxPooledBytes = maxPooledBytes;
+        this.allocateDirect = allocateDirect;
+    }
+
+    static BufferPool getInstance() { return instance; }
+
+    /**
+     * Returns the direct memory limit given by the last -XX:MaxDirectMemorySize among the given JVM arguments,
+     * or the given max heap size, which is the default, if there is none, or it is 0.
+     */
+    static long maxDirectMemory(List<String> jvmArguments, long maxHeap) {
+        long max = 0;
+        for (String argument : jvmArguments) {
+            if ( ! argument.startsWith("-XX:MaxDirectMemorySize=")) {
+                continue;
+            }
+            String size = argument.substring(argument.indexOf('=') + 1).toLowerCase();
+            int shift = 0;
+            switch (size.isEmpty() ? ' ' : size.charAt(size.length() - 1)) {
+                case 't': shift = 40; break;
+                case 'g': shift = 30; break;
+                case 'm': shift = 20; break;
+                case 'k': shift = 10; break;
+            }
+            try {
+                max = Long.parseLong(shift == 0 ? size : size.substring(0, size.length() - 1)) << shift;
+            } catch (NumberFormatException e) {
+                // Not a size the JVM would start with, so not the one in effect.
+            }
+        }
+        return max > 0 ? max : maxHeap;
+    }
+
+    /** Returns the capacity to use for a buffer which must grow to at least the given size: the next power of two. */
+    static int sizeClass(int size) {
+        if (size <= 1 || size > 1 << 30) {
+            return size;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /** Returns a cleared, big-endian buffer with exactly the given capacity, reusing a pooled one if possible. */
+    ByteBuffer acquire(int capacity) {
+        if (capacity == 0) {
+            return ByteBuffer.allocate(0);
+        }
+        Queue<ByteBuffer> queue = free.get(capacity);
+        ByteBuffer buf = (queue == null) ? null : queue.poll();
+        if (buf != null) {
+            pooledBytes.addAndGet(-capacity);
+            hits.incrementAndGet();
+            metrics.incrementBufferPoolHits();
+            buf.clear();
+            buf.order(ByteOrder.BIG_ENDIAN);
+            return buf;
+        }
+        misses.incrementAndGet();
+        metrics.incrementBufferPoolMisses();
+        try {
+            return allocateDirect.apply(capacity);
+        } catch (OutOfMemoryError e) { // Cannot reserve direct buffer memory
+            clear();
+            return ByteBuffer.allocate(capacity);
+        }
+    }
+
+    /** Returns the given buffer to the pool, unless the pool is full. The caller must not use the buffer after this. */
+    void release(ByteBuffer buf) {
+        int capacity = buf.capacity();
+        if (capacity == 0 || !buf.isDirect()) {
+            return;
+        }
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            pooledBytes.addAndGet(-capacity);
+            return;
+        }
+        free.computeIfAbsent(capacity, __ -> new ConcurrentLinkedQueue<>()).add(buf);
+    }
+
+    /** Drops all pooled buffers, leaving them to the garbage collector. */
+    private void clear() {
+        for (Queue<ByteBuffer> queue : free.values()) {
+            for (ByteBuffer buf; (buf = queue.poll()) != null; ) {
+                pooledBytes.addAndGet(-buf.capacity());
+            }
+        }
+    }
+
+    /** Counts bytes moved within or between buffers from this pool as these are compacted or resized. */
+    void countCopied(int bytes) {
+        bytesCopied.addAndGet(bytes);
+        metrics.addBufferBytesCopied(bytes);
+    }
+
+    /** Returns the number of buffers which were reused from this pool. */
+    long hits() {
+        return hits.get();
+    }
+
+    /** Returns the number of buffers which had to be allocated because this pool had none of the requested capacity. */
+    long misses() {
+        return misses.get();
+    }
+
+    /** Returns the number of bytes copied in buffers from this pool. */
+    long bytesCopied() {
+        return bytesCopied.get();
+    }
+
+    /** Returns the total capacity of the buffers currently in the pool. */
+    long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+}
@@ -34,8 +34,8 @@ class Connection extends Target {
     private int state = INITIAL;
     private final Queue  queue   = new Queue();
     private final Queue  myQueue = new Queue();
-    private final Buffer input   = new Buffer(0); // Start off with empty buffer.
-    private final Buffer output  = new Buffer(0); // Start off with empty buffer.
+    private final Buffer input;
+    private final Buffer output;
     private final int maxInputSize;
     private final int maxOutputSize;
     private final boolean dropEmptyBuffers;
@@ -94,6 +94,8 @@ class Connection extends Target {
         this.tcpNoDelay = tcpNoDelay;
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
+        input = new Buffer(0, maxInputSize); // Start off with empty buffers.
+        output = new Buffer(0, maxOutputSize);
         dropEmptyBuffers = owner.getDropEmptyBuffers();
         server = true;
     }
@@ -106,6 +108,8 @@ class Connection extends Target {
         this.tcpNoDelay = tcpNoDelay;
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
+        input = new Buffer(0, maxInputSize); // Start off with empty buffers.
+        output = new Buffer(0, maxOutputSize);
         dropEmptyBuffers = owner.getDropEmptyBuffers();
         server = false;
     }
@@ -403,6 +407,12 @@ class Connection extends Target {
                 log.log(Level.WARNING, "Error closing connection", e);
             }
         }
+        // Called by the worker after fini(), so the transport thread no longer uses the buffers.
+        input.release();
+        output.release();
+        if (socket != null) {
+            socket.releaseBuffers();
+        }
     }
 
     public void setLostReason(Exception e) {
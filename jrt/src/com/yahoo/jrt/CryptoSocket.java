@@ -103,6 +103,13 @@ public interface CryptoSocket {
      **/
     public void dropEmptyBuffers();
 
+    /**
+     * Returns all internal buffers to the pool they were taken
+     * from, discarding any content. Called when the underlying
+     * socket has been closed; this socket is not used after that.
+     **/
+    default void releaseBuffers() {}
+
     /** Returns the auth context for the current connection (given handshake completed) */
     default ConnectionAuthContext connectionAuthContext() { return ConnectionAuthContext.defaultAllCapabilities(); }
 }
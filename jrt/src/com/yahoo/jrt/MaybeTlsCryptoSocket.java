@@ -84,6 +84,8 @@ public class MaybeTlsCryptoSocket implements CryptoSocket {
                 if (looksLikeTlsToMe(data)) {
                     TlsCryptoSocket tlsSocket = factory.createServerCryptoSocket(channel());
                     tlsSocket.injectReadData(buffer);
+                    buffer.release();
+                    buffer = null;
                     socket = tlsSocket;
                     return socket.handshake();
                 } else {
@@ -111,11 +113,19 @@ public class MaybeTlsCryptoSocket implements CryptoSocket {
                     cnt++;
                 }
                 if (buffer.bytes() == 0) {
+                    buffer.release();
                     buffer = null;
                 }
             }
             return cnt;
         }
+
+        @Override public void releaseBuffers() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
     }
 
     public MaybeTlsCryptoSocket(SocketChannel channel, TlsCryptoEngine factory) {
@@ -131,5 +141,6 @@ public class MaybeTlsCryptoSocket implements CryptoSocket {
     @Override public int write(ByteBuffer src) throws IOException { return socket.write(src); }
     @Override public FlushResult flush() throws IOException { return socket.flush(); }
     @Override public void dropEmptyBuffers() { socket.dropEmptyBuffers(); }
+    @Override public void releaseBuffers() { socket.releaseBuffers(); }
     @Override public ConnectionAuthContext connectionAuthContext() { return socket.connectionAuthContext(); }
 }
@@ -1,7 +1,15 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jrt;
 
+import com.yahoo.concurrent.DaemonThreadFactory;
+
 import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -21,6 +29,9 @@ public class Supervisor {
     private int                     maxInputBufferSize  = 64*1024;
     private int                     maxOutputBufferSize = 64*1024;
     private boolean                 dropEmptyBuffers = false;
+    private volatile Executor       invocationExecutor = null;
+    private ExecutorService         invocationPool = null; // Set if invocationExecutor was created by this
+    private boolean                 invocationPoolShutdownRegistered = false;
 
     /**
      * Creates a new Supervisor based on the given {@link Transport}
@@ -75,6 +86,65 @@ public class Supervisor {
     }
     int getMaxOutputBufferSize() { return maxOutputBufferSize; }
 
+    /**
+     * Runs incoming invocations in the given executor, rather than
+     * in the transport thread which read the request. This lets
+     * method handlers block, e.g., on other remote calls, without
+     * stalling all other connections of that transport thread. Note
+     * that requests on the same connection may then be handled
+     * concurrently, and complete in any order. Requests rejected by
+     * the executor fail with {@link ErrorCode#OVERLOAD}. Any pool
+     * created by {@link #setMaxConcurrentInvocations} is shut down.
+     *
+     * @param executor where to run invocations, or null to run them in the transport threads
+     */
+    public synchronized Supervisor setInvocationExecutor(Executor executor) {
+        invocationExecutor = executor;
+        if (invocationPool != null && invocationPool != executor) {
+            invocationPool.shutdown();
+            invocationPool = null;
+        }
+        return this;
+    }
+
+    /**
+     * Runs incoming invocations in a pool of at most the given number
+     * of threads, with room for 16 waiting requests per thread. See
+     * {@link #setMaxConcurrentInvocations(int, int)}.
+     *
+     * @param maxThreads the maximum number of concurrent invocations
+     */
+    public Supervisor setMaxConcurrentInvocations(int maxThreads) {
+        return setMaxConcurrentInvocations(maxThreads, 16 * maxThreads);
+    }
+
+    /**
+     * Runs incoming invocations in a pool of at most the given number
+     * of threads, which are started as needed, and stopped when idle.
+     * This caps the number of concurrent invocations; further requests
+     * wait for a thread to become available, and fail with
+     * {@link ErrorCode#OVERLOAD} when too many are already waiting.
+     * The pool is shut down when replaced, and when the transport of
+     * this is shut down. See {@link #setInvocationExecutor}.
+     *
+     * @param maxThreads the maximum number of concurrent invocations
+     * @param maxWaiting the maximum number of requests waiting for a thread
+     */
+    public synchronized Supervisor setMaxConcurrentInvocations(int maxThreads, int maxWaiting) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 10, TimeUnit.SECONDS,
+                                                         new ArrayBlockingQueue<>(maxWaiting),
+                                                         new DaemonThreadFactory(transport.getName() + ".jrt-invoker-"));
+        pool.allowCoreThreadTimeOut(true);
+        setInvocationExecutor(pool);
+        invocationPool = pool;
+        if ( ! invocationPoolShutdownRegistered) {
+            transport.runWhenDone(() -> setInvocationExecutor(null));
+            invocationPoolShutdownRegistered = true;
+        }
+        return this;
+    }
+    synchronized ExecutorService getInvocationPool() { return invocationPool; }
+
     /**
      * Obtains the method map for this Supervisor
      *
@@ -190,9 +260,20 @@ public class Supervisor {
         RequestPacket rp = (RequestPacket) packet;
         Request req = new Request(rp.methodName(), rp.parameters());
         Method method = methodMap().get(req.methodName());
-        new InvocationServer(conn, req, method,
-                             packet.requestId(),
-                             packet.noReply()).invoke();
+        InvocationServer server = new InvocationServer(conn, req, method,
+                                                       packet.requestId(),
+                                                       packet.noReply());
+        Executor executor = invocationExecutor;
+        if (executor == null) {
+            server.invoke();
+            return;
+        }
+        try {
+            executor.execute(server::invoke);
+        } catch (RejectedExecutionException e) {
+            req.setError(ErrorCode.OVERLOAD, "Invocation rejected");
+            server.returnRequest();
+        }
     }
 
 }
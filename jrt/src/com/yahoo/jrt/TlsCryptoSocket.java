@@ -213,6 +213,11 @@ public class TlsCryptoSocket implements CryptoSocket {
         unwrapBuffer.shrink(0);
     }
 
+    @Override public void releaseBuffers() {
+        wrapBuffer.release();
+        unwrapBuffer.release();
+    }
+
     @Override
     public ConnectionAuthContext connectionAuthContext() {
         if (handshakeState != HandshakeState.COMPLETED) throw new IllegalStateException("Handshake not complete");
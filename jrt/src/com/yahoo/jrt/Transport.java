@@ -6,6 +6,7 @@ import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -32,6 +33,7 @@ public class Transport {
 
     private final TransportMetrics metrics = TransportMetrics.getInstance();
     private final List<TransportThread> threads = new ArrayList<>();
+    private final List<Runnable> doneTasks = new CopyOnWriteArrayList<>();
     private final Random rnd = new Random();
 
     /**
@@ -216,10 +218,26 @@ public class Transport {
         }
     }
 
+    /**
+     * Runs the given task when all transport threads are done, or
+     * right away if they already are.
+     */
+    void runWhenDone(Runnable task) {
+        doneTasks.add(task);
+        if (runCnt.get() == 0 && doneTasks.remove(task)) {
+            task.run();
+        }
+    }
+
     void notifyDone(TransportThread self) {
         if (runCnt.decrementAndGet() == 0) {
             worker.shutdown().join();
             try { cryptoEngine.close(); } catch (Exception e) {}
+            for (Runnable task : doneTasks) {
+                if (doneTasks.remove(task)) {
+                    task.run();
+                }
+            }
         }
     }
 
@@ -123,4 +123,8 @@ public class XorCryptoSocket implements CryptoSocket {
         input.shrink(0);
         output.shrink(0);
     }
+    @Override public void releaseBuffers() {
+        input.release();
+        output.release();
+    }
 }
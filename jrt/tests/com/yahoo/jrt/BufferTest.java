@@ -3,6 +3,7 @@ package com.yahoo.jrt;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -222,4 +223,105 @@ public class BufferTest {
         }
     }
 
+    @org.junit.Test
+    public void testDroppedBuffersAreReusedFromPool() {
+        BufferPool pool = new BufferPool(300);
+
+        Buffer first = new Buffer(0, pool);
+        first.getWritable(100).put((byte)42);
+        assertTrue(first.getReadable().isDirect());
+        assertEquals(128, first.getReadable().capacity());
+        assertEquals(42, first.getReadable().get());
+        assertTrue(first.shrink(0));
+        assertEquals(128, pool.pooledBytes());
+
+        Buffer second = new Buffer(0, pool);
+        assertEquals(128, second.getWritable(120).capacity());
+        assertEquals(0, pool.pooledBytes());
+
+        Buffer third = new Buffer(200, pool);
+        second.release();
+        third.release();
+        assertEquals(0, second.bytes());
+        assertEquals(128, pool.pooledBytes()); // Pool is bounded.
+
+        assertEquals(1, pool.hits());
+        assertEquals(2, pool.misses());
+        assertEquals(0, pool.bytesCopied());
+    }
+
+    @org.junit.Test
+    public void testBytesCopiedAreCounted() {
+        BufferPool pool = new BufferPool(0);
+        Buffer buf = new Buffer(10, pool);
+        buf.getWritable(10).put(new byte[10]);
+        buf.getReadable().get(new byte[4]);
+        assertEquals(32, buf.getWritable(10).capacity()); // Grows, copying 6 bytes.
+        assertTrue(buf.shrink(8)); // Shrinks, copying 6 bytes.
+        buf.getReadable().get(new byte[2]);
+        buf.getWritable(4); // Compacts, copying 4 bytes.
+        assertEquals(16, pool.bytesCopied());
+    }
+
+    @org.junit.Test
+    public void testBuffersAboveMaxPooledSizeAreNotPooled() {
+        BufferPool pool = new BufferPool(1 << 20);
+        Buffer buf = new Buffer(0, pool, 256);
+        assertTrue(buf.getWritable(200).isDirect());
+        assertEquals(256, buf.getWritable(200).capacity());
+        buf.getWritable(200).put(new byte[200]);
+        ByteBuffer grown = buf.getWritable(100);
+        assertFalse(grown.isDirect());
+        assertEquals(512, grown.capacity());
+        grown.put(new byte[100]);
+        ByteBuffer exact = buf.getWritable(2000);
+        assertFalse(exact.isDirect());
+        assertEquals(2512, exact.capacity()); // Not a size class.
+        assertEquals(300, buf.bytes());
+        buf.release();
+        assertEquals(256, pool.pooledBytes());
+        assertEquals(1, pool.misses());
+    }
+
+    @org.junit.Test
+    public void testHeapBuffersAreUsedWhenDirectMemoryIsExhausted() {
+        boolean[] exhausted = { false };
+        BufferPool pool = new BufferPool(1 << 20, size -> {
+            if (exhausted[0]) throw new OutOfMemoryError("Cannot reserve " + size + " bytes of direct buffer memory");
+            return ByteBuffer.allocateDirect(size);
+        });
+        Buffer pooled = new Buffer(64, pool);
+        pooled.release();
+        assertEquals(64, pool.pooledBytes());
+
+        exhausted[0] = true;
+        Buffer buf = new Buffer(10, pool);
+        buf.getWritable(10).put(new byte[] { 1, 2, 3 });
+        assertFalse(buf.getReadable().isDirect());
+        assertEquals(1, buf.getReadable().get());
+        assertEquals(0, pool.pooledBytes()); // Pooled buffers are dropped, to free their memory.
+        buf.release();
+        assertEquals(0, pool.pooledBytes());
+    }
+
+    @org.junit.Test
+    public void testMaxDirectMemory() {
+        assertEquals(1000, BufferPool.maxDirectMemory(List.of("-Xmx2g"), 1000));
+        assertEquals(32 << 20, BufferPool.maxDirectMemory(List.of("-XX:MaxDirectMemorySize=32m", "-Xmx2g"), 1000));
+        assertEquals(3L << 30, BufferPool.maxDirectMemory(List.of("-XX:MaxDirectMemorySize=1G", "-XX:MaxDirectMemorySize=3G"), 1000));
+        assertEquals(12345, BufferPool.maxDirectMemory(List.of("-XX:MaxDirectMemorySize=12345"), 1000));
+        assertEquals(1000, BufferPool.maxDirectMemory(List.of("-XX:MaxDirectMemorySize=0"), 1000));
+        assertEquals(1000, BufferPool.maxDirectMemory(List.of("-XX:MaxDirectMemorySize=lots"), 1000));
+    }
+
+    @org.junit.Test
+    public void testSizeClasses() {
+        assertEquals(0, BufferPool.sizeClass(0));
+        assertEquals(1, BufferPool.sizeClass(1));
+        assertEquals(128, BufferPool.sizeClass(100));
+        assertEquals(128, BufferPool.sizeClass(128));
+        assertEquals(256, BufferPool.sizeClass(129));
+        assertEquals((1 << 30) + 1, BufferPool.sizeClass((1 << 30) + 1));
+    }
+
 }
@@ -0,0 +1,72 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the time to complete a burst of concurrent invocations, with handlers run in the transport thread,
+ * and in invocation threads, for a handler which returns immediately, and for one which blocks for a while.
+ */
+public class InvocationExecutorBenchmark {
+
+    static final int requests = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        run(0, 0, 1); // Warmup.
+        for (int blockMillis : new int[] { 0, 1 })
+            for (int threads : new int[] { 0, 16, 256 })
+                System.out.printf("handler blocking %d ms, %-20s %8.1f us/call%n",
+                                  blockMillis, threads == 0 ? "in transport thread:" : "in " + threads + " threads:",
+                                  run(blockMillis, threads, blockMillis > 0 && threads == 0 ? 1 : 3));
+    }
+
+    /*
+     * On a machine with a single core, for 10k concurrent requests, best of three rounds (one for the slowest):
+     *
+     * handler blocking 0 ms, in transport thread:      9.0 us/call
+     * handler blocking 0 ms, in 16 threads:            7.2 us/call
+     * handler blocking 0 ms, in 256 threads:           8.1 us/call
+     * handler blocking 1 ms, in transport thread:   1104.8 us/call
+     * handler blocking 1 ms, in 16 threads:           70.0 us/call
+     * handler blocking 1 ms, in 256 threads:          14.2 us/call
+     *
+     * The hand-off to another thread costs nothing measurable here, while blocking handlers stall the transport thread.
+     */
+    static double run(int blockMillis, int threads, int rounds) throws Exception {
+        Supervisor server = new Supervisor(new Transport("server", 1));
+        Supervisor client = new Supervisor(new Transport("client", 1));
+        if (threads > 0) server.setMaxConcurrentInvocations(threads, requests);
+        server.addMethod(new Method("inc", "i", "i", req -> {
+            if (blockMillis > 0) {
+                try {
+                    Thread.sleep(blockMillis);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            req.returnValues().add(new Int32Value(req.parameters().get(0).asInt32() + 1));
+        }));
+        Acceptor acceptor = server.listen(new Spec(0));
+        Target target = client.connect(new Spec("localhost", acceptor.port()));
+
+        long nanos = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            CountDownLatch done = new CountDownLatch(requests);
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                Request req = new Request("inc");
+                req.parameters().add(new Int32Value(i));
+                target.invokeAsync(req, 600.0, __ -> done.countDown());
+            }
+            done.await();
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+
+        target.close();
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+        return nanos * 1e-3 / requests;
+    }
+
+}
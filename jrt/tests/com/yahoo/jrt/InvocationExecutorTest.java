@@ -0,0 +1,179 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InvocationExecutorTest {
+
+    Supervisor server;
+    Acceptor   acceptor;
+    Supervisor client;
+    Target     target;
+
+    final CountDownLatch unblock = new CountDownLatch(1);
+    final AtomicInteger  blocked = new AtomicInteger();
+
+    @Before
+    public void setUp() throws ListenFailedException {
+        server   = new Supervisor(new Transport("server", 1));
+        client   = new Supervisor(new Transport("client", 1));
+        acceptor = server.listen(new Spec(0));
+        target   = client.connect(new Spec("localhost", acceptor.port()));
+
+        server.addMethod(new Method("block", "i", "i", this::rpc_block));
+        server.addMethod(new Method("inc", "i", "i", this::rpc_inc));
+    }
+
+    @After
+    public void tearDown() {
+        unblock.countDown();
+        target.close();
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+    }
+
+    private void rpc_block(Request req) {
+        blocked.incrementAndGet();
+        try {
+            unblock.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        rpc_inc(req);
+    }
+
+    private void rpc_inc(Request req) {
+        req.returnValues().add(new Int32Value(req.parameters().get(0).asInt32() + 1));
+    }
+
+    private static Request request(String method, int value) {
+        Request req = new Request(method);
+        req.parameters().add(new Int32Value(value));
+        return req;
+    }
+
+    @org.junit.Test
+    public void testBlockingHandlersDoNotStallTransportThread() throws InterruptedException {
+        server.setMaxConcurrentInvocations(3);
+        Request[] blocking = { request("block", 1), request("block", 2) };
+        Test.Waiter[] waiters = { new Test.Waiter(), new Test.Waiter() };
+        for (int i = 0; i < blocking.length; i++) {
+            target.invokeAsync(blocking[i], 60.0, waiters[i]);
+        }
+        while (blocked.get() < 2) {
+            Thread.sleep(1);
+        }
+
+        Request req = request("inc", 10);
+        target.invokeSync(req, 60.0);
+        assertFalse(req.isError());
+        assertEquals(11, req.returnValues().get(0).asInt32());
+
+        unblock.countDown();
+        for (int i = 0; i < blocking.length; i++) {
+            waiters[i].waitDone();
+            assertFalse(blocking[i].isError());
+            assertEquals(i + 2, blocking[i].returnValues().get(0).asInt32());
+        }
+    }
+
+    @org.junit.Test
+    public void testConcurrentInvocationsAreCapped() throws InterruptedException {
+        server.setMaxConcurrentInvocations(1);
+        Request first = request("block", 1);
+        Test.Waiter firstDone = new Test.Waiter();
+        target.invokeAsync(first, 60.0, firstDone);
+        while (blocked.get() < 1) {
+            Thread.sleep(1);
+        }
+
+        Request second = request("inc", 10);
+        Test.Waiter secondDone = new Test.Waiter();
+        target.invokeAsync(second, 60.0, secondDone);
+        Thread.sleep(100);
+        assertFalse(secondDone.isDone()); // Waits for the only thread.
+
+        unblock.countDown();
+        firstDone.waitDone();
+        secondDone.waitDone();
+        assertEquals(2, first.returnValues().get(0).asInt32());
+        assertEquals(11, second.returnValues().get(0).asInt32());
+    }
+
+    @org.junit.Test
+    public void testInvocationsFailWithOverloadWhenTooManyAreWaiting() throws InterruptedException {
+        server.setMaxConcurrentInvocations(1, 1);
+        Request first = request("block", 1);
+        Test.Waiter firstDone = new Test.Waiter();
+        target.invokeAsync(first, 60.0, firstDone);
+        while (blocked.get() < 1) {
+            Thread.sleep(1);
+        }
+
+        Request second = request("inc", 10);
+        Test.Waiter secondDone = new Test.Waiter();
+        target.invokeAsync(second, 60.0, secondDone);
+        Request third = request("inc", 20);
+        target.invokeSync(third, 60.0);
+        assertTrue(third.isError());
+        assertEquals(ErrorCode.OVERLOAD, third.errorCode());
+
+        unblock.countDown();
+        firstDone.waitDone();
+        secondDone.waitDone();
+        assertFalse(first.isError());
+        assertFalse(second.isError());
+    }
+
+    @org.junit.Test
+    public void testInvocationPoolIsShutDownWhenReplacedAndWithTransport() {
+        server.setMaxConcurrentInvocations(2);
+        ExecutorService first = server.getInvocationPool();
+        server.setMaxConcurrentInvocations(2);
+        ExecutorService second = server.getInvocationPool();
+        assertTrue(first.isShutdown());
+        assertFalse(second.isShutdown());
+
+        server.setInvocationExecutor(null);
+        assertTrue(second.isShutdown());
+        assertNull(server.getInvocationPool());
+
+        server.setMaxConcurrentInvocations(2);
+        ExecutorService third = server.getInvocationPool();
+        server.transport().shutdown().join();
+        assertTrue(third.isShutdown());
+    }
+
+    @org.junit.Test
+    public void testRejectedInvocationsFailWithOverload() {
+        server.setInvocationExecutor(command -> { throw new RejectedExecutionException("full"); });
+        Request req = request("inc", 10);
+        target.invokeSync(req, 60.0);
+        assertTrue(req.isError());
+        assertEquals(ErrorCode.OVERLOAD, req.errorCode());
+    }
+
+    @org.junit.Test
+    public void testInvocationsRunInTransportThreadWithoutExecutor() {
+        server.setMaxConcurrentInvocations(1).setInvocationExecutor(null);
+        server.addMethod(new Method("thread", "", "s",
+                                    req -> req.returnValues().add(new StringValue(Thread.currentThread().getName()))));
+        Request req = new Request("thread");
+        target.invokeSync(req, 60.0);
+        assertFalse(req.isError());
+        assertTrue(req.returnValues().get(0).asString().contains("jrt-transport"));
+    }
+
+}
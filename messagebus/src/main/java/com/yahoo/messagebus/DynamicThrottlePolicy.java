@@ -98,7 +98,7 @@ public class DynamicThrottlePolicy extends StaticThrottlePolicy {
     }
 
     @Override
-    public boolean canSend(Message message, int pendingCount) {
+    public synchronized boolean canSend(Message message, int pendingCount) {
         if ( ! super.canSend(message, pendingCount)) {
              return false;
         }
@@ -115,7 +115,7 @@ public class DynamicThrottlePolicy extends StaticThrottlePolicy {
     }
 
     @Override
-    public void processMessage(Message message) {
+    public synchronized void processMessage(Message message) {
         super.processMessage(message);
         if (++numSent < windowSize * resizeRate) {
             return;
@@ -163,7 +163,7 @@ public class DynamicThrottlePolicy extends StaticThrottlePolicy {
     }
 
     @Override
-    public void processReply(Reply reply) {
+    public synchronized void processReply(Reply reply) {
         super.processReply(reply);
         if ( ! reply.hasErrors()) {
             ++numOk;
@@ -155,12 +155,12 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         }
 
         // Start messenger.
-        msn = new Messenger();
+        msn = new Messenger(params.getMessengerThreads());
 
         RetryPolicy retryPolicy = params.getRetryPolicy();
         if (retryPolicy != null) {
             resender = new Resender(retryPolicy);
-            msn.addRecurrentTask(new ResenderTask(resender));
+            msn.addRecurrentTask(new ResenderTask(resender, msn));
         } else {
             resender = null;
         }
@@ -617,14 +617,17 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
     /**
      * <p>Implements a task for running the resender in the messenger
      * thread. This task acts as a proxy for the resender, allowing the task to
-     * be deleted without affecting the resender itself.</p>
+     * be deleted without affecting the resender itself. If the messenger has
+     * more than one thread, the resending is spread over all of them.</p>
      */
     private static class ResenderTask implements Messenger.Task {
 
         final Resender resender;
+        final Messenger messenger;
 
-        ResenderTask(Resender resender) {
+        ResenderTask(Resender resender, Messenger messenger) {
             this.resender = resender;
+            this.messenger = messenger;
         }
 
         public void destroy() {
@@ -632,7 +635,11 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         }
 
         public void run() {
-            resender.resendScheduled();
+            if (messenger.getNumThreads() > 1) {
+                resender.resendScheduled(messenger);
+            } else {
+                resender.resendScheduled();
+            }
         }
 
     }
@@ -19,6 +19,7 @@ public class MessageBusParams {
     private RetryPolicy retryPolicy;
     private int maxPendingCount;
     private int maxPendingSize;
+    private int messengerThreads;
     private MessagebusConfig config;
 
     /**
@@ -28,6 +29,7 @@ public class MessageBusParams {
         retryPolicy = new RetryTransientErrorsPolicy();
         maxPendingCount = 1024;
         maxPendingSize = 128 * 1024 * 1024;
+        messengerThreads = 1;
         config = null;
     }
 
@@ -41,6 +43,7 @@ public class MessageBusParams {
         retryPolicy = params.retryPolicy;
         maxPendingCount = params.maxPendingCount;
         maxPendingSize = params.maxPendingSize;
+        messengerThreads = params.messengerThreads;
         config = params.config;
     }
 
@@ -147,6 +150,27 @@ public class MessageBusParams {
         return this;
     }
 
+    /**
+     * Returns the number of threads of the messenger, which resends messages.
+     *
+     * @return The number of threads.
+     */
+    public int getMessengerThreads() {
+        return messengerThreads;
+    }
+
+    /**
+     * Sets the number of threads of the messenger, which resends messages. Resending of messages with the same
+     * sequence id is always done by the same thread.
+     *
+     * @param messengerThreads The number of threads to set.
+     * @return This, to allow chaining.
+     */
+    public MessageBusParams setMessengerThreads(int messengerThreads) {
+        this.messengerThreads = messengerThreads;
+        return this;
+    }
+
     public MessagebusConfig getMessageBusConfig() {
         return config;
     }
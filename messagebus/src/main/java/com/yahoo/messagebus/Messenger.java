@@ -15,9 +15,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 /**
- * <p>This class implements a single thread that is able to process arbitrary
- * tasks. Tasks are enqueued using the synchronized {@link #enqueue(Task)}
- * method, and are run in the order they were enqueued.</p>
+ * <p>This class implements a number of threads that are able to process
+ * arbitrary tasks. Tasks are enqueued using the synchronized {@link
+ * #enqueue(Task)} and {@link #enqueue(long, Task)} methods, and tasks with the
+ * same key are run by the same thread, in the order they were enqueued.
+ * Recurrent tasks are run by the first thread, which also runs all tasks
+ * enqueued without a key.</p>
  *
  * @author Simon Thoresen Hult
  */
@@ -26,12 +29,26 @@ public class Messenger implements Runnable {
     private static final Logger log = Logger.getLogger(Messenger.class.getName());
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final List<Task> children = new ArrayList<>();
-    private final Queue<Task> queue = new ArrayDeque<>();
-
-    private final Thread thread = new Thread(this, "Messenger");
+    private final Partition[] partitions;
 
     public Messenger() {
-        thread.setDaemon(true);
+        this(1);
+    }
+
+    /**
+     * <p>Creates a messenger which runs its tasks in the given number of
+     * threads.</p>
+     *
+     * @param numThreads The number of threads to run tasks in.
+     */
+    public Messenger(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of messenger threads must be positive, but was " + numThreads);
+        }
+        partitions = new Partition[numThreads];
+        for (int i = 0; i < numThreads; ++i) {
+            partitions[i] = new Partition(i == 0 ? "Messenger" : "Messenger-" + i);
+        }
     }
 
     /**
@@ -47,13 +64,15 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Starts the internal thread. This must be done AFTER all recurrent
+     * <p>Starts the internal threads. This must be done AFTER all recurrent
      * tasks have been added.</p>
      *
      * @see #addRecurrentTask(Task)
      */
     public void start() {
-        thread.start();
+        for (Partition partition : partitions) {
+            partition.thread.start();
+        }
     }
 
     /**
@@ -89,36 +108,69 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Enqueues the given task in the list of tasks that this worker is to
-     * process. If this thread has been destroyed previously, this method
+     * <p>Enqueues the given task in the list of tasks that the first thread of
+     * this is to process. If this has been destroyed previously, this method
      * invokes {@link Messenger.Task#destroy()}.</p>
      *
      * @param task The task to enqueue.
      */
     public void enqueue(final Task task) {
+        enqueue(partitions[0], task);
+    }
+
+    /**
+     * <p>Enqueues the given task in the list of tasks that the thread selected
+     * by the given key is to process, e.g., the sequence id of a message. If
+     * this has been destroyed previously, this method invokes {@link
+     * Messenger.Task#destroy()}.</p>
+     *
+     * @param key  The key which selects the thread to run the task.
+     * @param task The task to enqueue.
+     */
+    public void enqueue(long key, final Task task) {
+        enqueue(partitions[(int) Math.floorMod(key, (long) partitions.length)], task);
+    }
+
+    private void enqueue(Partition partition, Task task) {
         if (destroyed.get()) {
             task.destroy();
             return;
         }
-        synchronized (this) {
-            queue.offer(task);
-            if (queue.size() == 1) {
-                notify();
-            }
+        partition.enqueue(task);
+    }
+
+    /** Returns the number of threads running the tasks of this. */
+    public int getNumThreads() {
+        return partitions.length;
+    }
+
+    /** Returns the number of tasks currently waiting in the queue of each thread of this. */
+    public List<Integer> getQueueSizes() {
+        List<Integer> sizes = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            sizes.add(partition.size());
         }
+        return sizes;
     }
 
     /**
-     * <p>Handshakes with the internal thread. If this method is called using
-     * the messenger thread, this will deadlock.</p>
+     * <p>Handshakes with the internal threads. If this method is called using
+     * a messenger thread, this will not wait for that thread, but may deadlock
+     * if another messenger thread is syncing at the same time.</p>
      */
     public void sync() {
-        if (Thread.currentThread() == thread) {
-            return; // no need to wait for self
+        List<SyncTask> tasks = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            if (Thread.currentThread() == partition.thread) {
+                continue; // no need to wait for self
+            }
+            final SyncTask task = new SyncTask();
+            enqueue(partition, task);
+            tasks.add(task);
+        }
+        for (SyncTask task : tasks) {
+            task.await();
         }
-        final SyncTask task = new SyncTask();
-        enqueue(task);
-        task.await();
     }
 
     /**
@@ -131,15 +183,19 @@ public class Messenger implements Runnable {
      */
     public boolean destroy() {
         boolean done = false;
-        enqueue(TERMINATE);
+        for (Partition partition : partitions) {
+            enqueue(partition, TERMINATE);
+        }
         if (!destroyed.getAndSet(true)) {
             try {
-                synchronized (this) {
-                    while (!queue.isEmpty()) {
-                        wait();
+                for (Partition partition : partitions) {
+                    synchronized (partition) {
+                        while (!partition.queue.isEmpty()) {
+                            partition.wait();
+                        }
                     }
+                    partition.thread.join();
                 }
-                thread.join();
             } catch (final InterruptedException e) {
                 // ignore
             }
@@ -148,57 +204,92 @@ public class Messenger implements Runnable {
         return done;
     }
 
+    /**
+     * <p>Runs the main loop of the first thread of this, which also runs the
+     * recurrent tasks.</p>
+     */
     @Override
     public void run() {
-        long timeoutMS = SystemTimer.adjustTimeoutByDetectedHz(Duration.ofMillis(100)).toMillis();
-        while (true) {
-            Task task = null;
-            synchronized (this) {
-                if (queue.isEmpty()) {
-                    try {
-                        if (children.isEmpty()) {
-                            wait();
-                        } else {
-                            wait(timeoutMS);
+        partitions[0].run();
+    }
+
+    /**
+     * <p>The queue of tasks of a single thread of this.</p>
+     */
+    private class Partition {
+
+        final Queue<Task> queue = new ArrayDeque<>();
+        final Thread thread;
+
+        Partition(String name) {
+            thread = new Thread(this::run, name);
+            thread.setDaemon(true);
+        }
+
+        synchronized void enqueue(Task task) {
+            queue.offer(task);
+            if (queue.size() == 1) {
+                notify();
+            }
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        void run() {
+            final List<Task> children = this == partitions[0] ? Messenger.this.children : List.of();
+            long timeoutMS = SystemTimer.adjustTimeoutByDetectedHz(Duration.ofMillis(100)).toMillis();
+            while (true) {
+                Task task = null;
+                synchronized (this) {
+                    if (queue.isEmpty()) {
+                        try {
+                            if (children.isEmpty()) {
+                                wait();
+                            } else {
+                                wait(timeoutMS);
+                            }
+                        } catch (final InterruptedException e) {
+                            continue;
                         }
-                    } catch (final InterruptedException e) {
-                        continue;
+                    }
+                    if (queue.size() > 0) {
+                        task = queue.poll();
                     }
                 }
-                if (queue.size() > 0) {
-                    task = queue.poll();
+                if (task == TERMINATE) {
+                    break;
                 }
-            }
-            if (task == TERMINATE) {
-                break;
-            }
-            if (task != null) {
-                try {
-                    task.run();
-                } catch (final Exception e) {
-                    log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
+                if (task != null) {
+                    try {
+                        task.run();
+                    } catch (final Exception e) {
+                        log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
+                    }
+                    try {
+                        task.destroy();
+                    } catch (final Exception e) {
+                        log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " + e);
+                        log.warning("Someone, somewhere might have to wait indefinitely for something.");
+                    }
                 }
-                try {
-                    task.destroy();
-                } catch (final Exception e) {
-                    log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " + e);
-                    log.warning("Someone, somewhere might have to wait indefinitely for something.");
+                for (final Task child : children) {
+                    child.run();
                 }
             }
             for (final Task child : children) {
-                child.run();
+                child.destroy();
             }
-        }
-        for (final Task child : children) {
-            child.destroy();
-        }
-        synchronized (this) {
-            while (!queue.isEmpty()) {
-                final Task task = queue.poll();
-                task.destroy();
+            synchronized (this) {
+                while (!queue.isEmpty()) {
+                    final Task task = queue.poll();
+                    task.destroy();
+                }
+                notify();
             }
-            notify();
         }
+
     }
 
     /**
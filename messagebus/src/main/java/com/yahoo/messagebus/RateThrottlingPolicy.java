@@ -35,7 +35,7 @@ public class RateThrottlingPolicy extends StaticThrottlePolicy {
         currentPeriod = timer.milliTime() / PERIOD;
     }
 
-    public boolean canSend(Message message, int pendingCount) {
+    public synchronized boolean canSend(Message message, int pendingCount) {
         if (!super.canSend(message, pendingCount)) {
             return false;
         }
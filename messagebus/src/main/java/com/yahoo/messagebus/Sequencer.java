@@ -1,10 +1,11 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.messagebus;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -13,13 +14,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * id, and messages are only sent when they are at the front of their list. When a reply arrives, the current front of
  * the list is removed and the next message, if any, is sent.
  *
+ * The lists are kept in a concurrent map, so messages with different sequencing ids do not contend. Messages are
+ * added to a list, and a list is removed when empty, while holding the lock of its map entry. Messages are taken
+ * from a list only by the thread handling the reply for its id, of which there is at most one at any time.
+ *
  * @author Simon Thoresen Hult
  */
 public class Sequencer implements MessageHandler, ReplyHandler {
 
+    /** Value in the map for sequencing ids with a message in flight, but none waiting; must never be modified. */
+    private static final Queue<Message> NONE_QUEUED = new ArrayDeque<>(0);
+
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final MessageHandler sender;
-    private final Map<Long, Queue<Message>> seqMap = new HashMap<>();
+    private final Map<Long, Queue<Message>> seqMap = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new sequencer on top of the given async sender.
@@ -38,15 +46,13 @@ public class Sequencer implements MessageHandler, ReplyHandler {
      */
     public boolean destroy() {
         if (!destroyed.getAndSet(true)) {
-            synchronized (this) {
-                for (Queue<Message> queue : seqMap.values()) {
-                    if (queue != null) {
-                        for (Message msg : queue) {
-                            msg.discard();
-                        }
+            for (Long seqId : seqMap.keySet()) {
+                Queue<Message> queue = seqMap.remove(seqId);
+                if (queue != null) {
+                    for (Message msg : queue) {
+                        msg.discard();
                     }
                 }
-                seqMap.clear();
             }
             return true;
         }
@@ -65,25 +71,30 @@ public class Sequencer implements MessageHandler, ReplyHandler {
     private boolean filter(Message msg) {
         long seqId = msg.getSequenceId();
         msg.setContext(seqId);
-        synchronized (this) {
-            if (seqMap.containsKey(seqId)) {
-                Queue<Message> queue = seqMap.get(seqId);
-                if (queue == null) {
-                    queue = new LinkedList<>();
-                    seqMap.put(seqId, queue);
-                }
-                if (msg.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
-                    msg.getTrace().trace(TraceLevel.COMPONENT,
-                                         "Sequencer queued message with sequence id '" + seqId + "'.");
-                }
-                queue.add(msg);
+        boolean traced = false;
+        while (seqMap.putIfAbsent(seqId, NONE_QUEUED) != null) {
+            // The message must be traced before it is queued, as it may be sent by another thread as soon as it is.
+            if ( ! traced && msg.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
+                msg.getTrace().trace(TraceLevel.COMPONENT,
+                                     "Sequencer queued message with sequence id '" + seqId + "'.");
+                traced = true;
+            }
+            if (seqMap.computeIfPresent(seqId, (id, queue) -> enqueue(queue, msg)) != null) {
                 return false;
             }
-            seqMap.put(seqId, null);
+            // The message in flight was replied to, and the list removed, since we looked; try again.
         }
         return true;
     }
 
+    private static Queue<Message> enqueue(Queue<Message> queue, Message msg) {
+        if (queue == NONE_QUEUED) {
+            queue = new ConcurrentLinkedQueue<>();
+        }
+        queue.add(msg);
+        return queue;
+    }
+
     /**
      * Internal method for forwarding a sequenced message to the underlying sender.
      *
@@ -137,18 +148,16 @@ public class Sequencer implements MessageHandler, ReplyHandler {
             reply.getTrace().trace(TraceLevel.COMPONENT,
                                    "Sequencer received reply with sequence id '" + seqId + "'.");
         }
-        Message msg = null;
-        synchronized (this) {
+        if ( ! seqMap.remove(seqId, NONE_QUEUED)) {
             Queue<Message> queue = seqMap.get(seqId);
-            if (queue == null || queue.isEmpty()) {
-                seqMap.remove(seqId);
-            } else {
-                msg = queue.remove();
+            Message next = queue != null ? queue.poll() : null; // null only if destroyed meanwhile
+            // If that was the last one waiting, only the next is now in flight; messages are added while holding
+            // the lock of the map entry, so the queue is still empty when it is replaced, and none are lost.
+            seqMap.computeIfPresent(seqId, (id, current) -> current.isEmpty() ? NONE_QUEUED : current);
+            if (next != null) {
+                sequencedSend(next);
             }
         }
-        if (msg != null) {
-            sequencedSend(msg);
-        }
         ReplyHandler handler = reply.popHandler();
         handler.handleReply(reply);
     }
@@ -5,13 +5,18 @@ import com.yahoo.messagebus.routing.Route;
 import com.yahoo.messagebus.routing.RoutingTable;
 
 import java.util.Deque;
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A session supporting sending new messages.
  *
+ * Sending takes no locks in this: a message reserves its place in the pending count before it is checked against
+ * the throttle policy, and gives it back if rejected, so a count limit is never exceeded, while the policy itself
+ * must be thread safe.
+ *
  * @author Simon Thoresen Hult
  */
 public final class SourceSession implements ReplyHandler, MessageBus.SendBlockedMessages {
@@ -19,15 +24,14 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final CountDownLatch done = new CountDownLatch(1);
     private final AtomicBoolean sendingBlockedToken = new AtomicBoolean(false);
-    private final Object lock = new Object();
     private final MessageBus mbus;
     private final Sequencer sequencer;
     private final ReplyHandler replyHandler;
     private final ThrottlePolicy throttlePolicy;
     private volatile double timeout;  // volatile only for tests
-    private volatile int pendingCount = 0;
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
     private volatile boolean closed = false;
-    private final Deque<BlockedMessage> blockedQ = new LinkedList<>();
+    private final Deque<BlockedMessage> blockedQ = new ConcurrentLinkedDeque<>();
     private final static class Counter {
         private int count = 0;
         void inc() { count ++; }
@@ -70,9 +74,7 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
         if (destroyed.getAndSet(true)) {
             return false;
         }
-        synchronized (lock) {
-            closed = true;
-        }
+        closed = true;
         sequencer.destroy();
         mbus.sync();
         return true;
@@ -83,10 +85,8 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
      * returning, this method calls {@link #destroy()}.
      */
     public void close() {
-        synchronized (lock) {
-            closed = true;
-        }
-        if (pendingCount == 0) {
+        closed = true;
+        if (pendingCount.get() == 0) {
             done.countDown();
         }
         try {
@@ -135,30 +135,37 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
     }
 
     private Result sendInternal(Message message) {
-        synchronized (lock) {
-            if (closed) {
-                return new Result(ErrorCode.SEND_QUEUE_CLOSED, "Source session is closed.");
-            }
-            if (throttlePolicy != null && ! throttlePolicy.canSend(message, pendingCount)) {
-                return new Result(ErrorCode.SEND_QUEUE_FULL,
-                                  "Too much pending data (" + pendingCount + " messages).");
-            }
-            message.pushHandler(replyHandler);
-            if (throttlePolicy != null) {
-                throttlePolicy.processMessage(message);
-            }
-            ++pendingCount;
+        int pending = pendingCount.incrementAndGet();
+        if (closed) {
+            release();
+            return new Result(ErrorCode.SEND_QUEUE_CLOSED, "Source session is closed.");
+        }
+        if (throttlePolicy != null && ! throttlePolicy.canSend(message, pending - 1)) {
+            release();
+            return new Result(ErrorCode.SEND_QUEUE_FULL,
+                              "Too much pending data (" + (pending - 1) + " messages).");
+        }
+        message.pushHandler(replyHandler);
+        if (throttlePolicy != null) {
+            throttlePolicy.processMessage(message);
         }
         if (message.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
             message.getTrace().trace(TraceLevel.COMPONENT,
                                      "Source session accepted a " + message.getApproxSize() + " byte message. " +
-                                     pendingCount + " message(s) now pending.");
+                                     pending + " message(s) now pending.");
         }
         message.pushHandler(this);
         sequencer.handleMessage(message);
         return Result.ACCEPTED;
     }
 
+    /** Gives back a place in the pending count, and completes closing if this was the last one. */
+    private void release() {
+        if (pendingCount.decrementAndGet() == 0 && closed) {
+            done.countDown();
+        }
+    }
+
     @Override
     public boolean trySend() {
         if (destroyed.get()) return false;
@@ -169,6 +176,7 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
 
     private class BlockedMessage {
         private final Message msg;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
         private Result result = null;
         BlockedMessage(Message msg) {
             this.msg = msg;
@@ -181,25 +189,36 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
             }
         }
 
+        private void expire() {
+            Error error = new Error(ErrorCode.TIMEOUT, "Timed out in sendQ");
+            notifyComplete(new Result(error));
+            replyHandler.handleReply(createSendTimedOutReply(msg, error));
+        }
+
+        /** Expires this unless it is being sent by another thread, and returns whether it was expired. */
         boolean notifyIfExpired() {
-            if (msg.isExpired()) {
-                Error error = new Error(ErrorCode.TIMEOUT, "Timed out in sendQ");
-                notifyComplete(new Result(error));
-                replyHandler.handleReply(createSendTimedOutReply(msg, error));
+            if (msg.isExpired() && claimed.compareAndSet(false, true)) {
+                expire();
                 return true;
             }
             return false;
         }
 
+        /** Returns false if this could not be sent yet, in which case it should be retried later. */
         boolean sendOrExpire() {
-            if ( ! notifyIfExpired() ) {
-                Result res = sendInternal(msg);
-                if ( ! isSendQFull(res) ) {
-                    notifyComplete(res);
-                } else {
-                    return false;
-                }
+            if ( ! claimed.compareAndSet(false, true)) {
+                return true; // Expired by another thread.
+            }
+            if (msg.isExpired()) {
+                expire();
+                return true;
+            }
+            Result res = sendInternal(msg);
+            if (isSendQFull(res)) {
+                claimed.set(false);
+                return false;
             }
+            notifyComplete(res);
             return true;
         }
 
@@ -240,24 +259,18 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
         Result res = send(msg);
         if (isSendQFull(res)) {
             BlockedMessage blockedMessage = new BlockedMessage(msg);
-            synchronized (blockedQ) {
-                blockedQ.add(blockedMessage);
-            }
+            blockedQ.add(blockedMessage);
             res = blockedMessage.waitComplete();
         }
         return res;
     }
 
     private void expireStalledBlockedMessages() {
-        synchronized (blockedQ) {
-            blockedQ.removeIf(BlockedMessage::notifyIfExpired);
-        }
+        blockedQ.removeIf(BlockedMessage::notifyIfExpired);
     }
 
     private BlockedMessage getNextBlockedMessage() {
-        synchronized (blockedQ) {
-            return blockedQ.poll();
-        }
+        return blockedQ.poll();
     }
 
     private void sendBlockedMessages() {
@@ -272,9 +285,7 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
                 success = msg.sendOrExpire();
                 if (!success) {
                     // Failed sending, put it back at the head of the Q.
-                    synchronized (blockedQ) {
-                        blockedQ.addFirst(msg);
-                    }
+                    blockedQ.addFirst(msg);
                 } else {
                     msg = getNextBlockedMessage();
                 }
@@ -291,18 +302,15 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
             reply.discard();
             return;
         }
-        boolean done;
-        synchronized (lock) {
-            --pendingCount;
-            if (throttlePolicy != null) {
-                throttlePolicy.processReply(reply);
-            }
-            done = (closed && pendingCount == 0);
+        if (throttlePolicy != null) {
+            throttlePolicy.processReply(reply);
         }
+        int pending = pendingCount.decrementAndGet();
+        boolean done = closed && pending == 0;
         sendBlockedMessages();
         if (reply.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
             reply.getTrace().trace(TraceLevel.COMPONENT,
-                                   "Source session received reply. " + pendingCount + " message(s) now pending.");
+                                   "Source session received reply. " + pending + " message(s) now pending.");
         }
         ReplyHandler handler = reply.popHandler();
         handler.handleReply(reply);
@@ -379,7 +387,7 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
 
     /** Returns the number of messages sent that have not been replied to yet */
     public int getPendingCount() {
-        return pendingCount;
+        return pendingCount.get();
     }
 
     /**
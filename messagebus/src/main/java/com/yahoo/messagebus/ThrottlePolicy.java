@@ -7,6 +7,9 @@ package com.yahoo.messagebus;
  * All messages accepted are passed through the {@link #processMessage(Message)} method, and the corresponding replies
  * are passed through the {@link #processReply(Reply)} method.
  *
+ * These methods are called concurrently by all threads sending on, and receiving replies for, the session, without
+ * any external synchronization, so implementations must be thread safe.
+ *
  * @author Simon Thoresen Hult
  */
 public interface ThrottlePolicy {
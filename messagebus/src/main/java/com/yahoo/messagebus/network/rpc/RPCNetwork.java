@@ -3,6 +3,7 @@ package com.yahoo.messagebus.network.rpc;
 
 import com.yahoo.component.Version;
 import com.yahoo.component.Vtag;
+import com.yahoo.compress.CompressionType;
 import com.yahoo.concurrent.ThreadFactoryFactory;
 import com.yahoo.jrt.Acceptor;
 import com.yahoo.jrt.ListenFailedException;
@@ -32,6 +33,7 @@ import com.yahoo.messagebus.routing.RoutingNode;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,6 +44,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -66,6 +69,11 @@ public class RPCNetwork implements Network, MethodHandler {
     private final TreeMap<Version, RPCSendAdapter> sendAdapters = new TreeMap<>();
     private NetworkOwner owner;
     private final SlobrokConfigSubscriber slobroksConfig;
+    private final CompressionType compressionType;
+    private final int compressionLevel;
+    private final LongAdder bytesBeforeCompression = new LongAdder();
+    private final LongAdder bytesAfterCompression = new LongAdder();
+    private final Map<CompressionType, LongAdder> compressionCounts = new EnumMap<>(CompressionType.class);
     private final LinkedHashMap<String, Route> lruRouteMap = new LinkedHashMap<>(10000, 0.5f, true);
     private final ExecutorService executor =
             new ThreadPoolExecutor(getNumThreads(), getNumThreads(), 0L, TimeUnit.SECONDS,
@@ -97,6 +105,10 @@ public class RPCNetwork implements Network, MethodHandler {
         orb.setMaxOutputBufferSize(params.getMaxOutputBufferSize());
         targetPool = new RPCTargetPool(params.getConnectionExpireSecs(), params.getNumTargetsPerSpec());
         servicePool = new RPCServicePool(this, 4096);
+        compressionType = params.getCompressionType();
+        for (CompressionType type : CompressionType.values())
+            compressionCounts.put(type, new LongAdder());
+        compressionLevel = params.getCompressionLevel();
 
         Method method = new Method("mbus.getVersion", "", "s", this);
         method.methodDesc("Retrieves the message bus version.");
@@ -199,7 +211,7 @@ public class RPCNetwork implements Network, MethodHandler {
         }
         this.owner = owner;
 
-        sendAdapters.put(new Version(6,149), new RPCSendV2(this));
+        sendAdapters.put(new Version(6,149), new RPCSendV2(this, compressionType, compressionLevel));
     }
 
     @Override
@@ -390,6 +402,27 @@ public class RPCNetwork implements Network, MethodHandler {
         return executor;
     }
 
+    /** Returns the total size of all messages and replies sent by this network, before compression. */
+    public long getBytesBeforeCompression() {
+        return bytesBeforeCompression.sum();
+    }
+
+    /** Returns the total size of all messages and replies sent by this network, after compression. */
+    public long getBytesAfterCompression() {
+        return bytesAfterCompression.sum();
+    }
+
+    /** Returns the number of messages and replies sent by this network with the given compression type. */
+    public long getCompressionCount(CompressionType type) {
+        return compressionCounts.get(type).sum();
+    }
+
+    void countCompression(CompressionType type, int bytesBefore, int bytesAfter) {
+        compressionCounts.get(type).increment();
+        bytesBeforeCompression.add(bytesBefore);
+        bytesAfterCompression.add(bytesAfter);
+    }
+
     private class SendTask implements Runnable {
 
         final Protocol protocol;
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.messagebus.network.rpc;
 
+import com.yahoo.compress.CompressionType;
 import com.yahoo.messagebus.network.Identity;
 import com.yahoo.cloud.config.SlobroksConfig;
 
@@ -21,6 +22,8 @@ public class RPCNetworkParams {
     private double connectionExpireSecs = 30;
     private int numTargetsPerSpec = 1;
     private int numNetworkThreads = 2;
+    private CompressionType compressionType = CompressionType.LZ4;
+    private int compressionLevel = 3;
 
     private int transportEventsBeforeWakeup = 1;
     public enum Optimization {LATENCY, THROUGHPUT}
@@ -49,6 +52,8 @@ public class RPCNetworkParams {
         numTargetsPerSpec = params.numTargetsPerSpec;
         numNetworkThreads = params.numNetworkThreads;
         optimization = params.optimization;
+        compressionType = params.compressionType;
+        compressionLevel = params.compressionLevel;
     }
 
     /**
@@ -175,6 +180,42 @@ public class RPCNetworkParams {
         return optimization;
     }
 
+    /**
+     * Sets the type of compression to use for the messages and replies sent over this network. Zstd is only used
+     * towards peers which have told they can decode it, and LZ4 towards the others.
+     *
+     * @param compressionType the compression type, one of NONE, LZ4 and ZSTD
+     * @return this, to allow chaining
+     */
+    public RPCNetworkParams setCompressionType(CompressionType compressionType) {
+        switch (compressionType) {
+            case NONE: case LZ4: case ZSTD:
+                break;
+            default:
+                throw new IllegalArgumentException("Compression type must be one of NONE, LZ4 and ZSTD, but was " + compressionType);
+        }
+        this.compressionType = compressionType;
+        return this;
+    }
+    CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    /**
+     * Sets the compression level, a number between 0 and 9 where higher means more compression. For LZ4, levels
+     * of 7 and above use the high compression mode, while the zstd compressor currently has a single level.
+     *
+     * @param compressionLevel the compression level
+     * @return this, to allow chaining
+     */
+    public RPCNetworkParams setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+    int getCompressionLevel() {
+        return compressionLevel;
+    }
+
     /**
      * Returns the maximum input buffer size allowed for the underlying FNET connection.
      *
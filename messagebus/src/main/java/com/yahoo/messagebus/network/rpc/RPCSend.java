@@ -39,9 +39,9 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
     protected abstract String getReturnSpec();
     protected abstract Request encodeRequest(Version version, Route route, RPCServiceAddress address, Message msg,
                                              long timeRemaining, byte[] payload, int traceLevel);
-    protected abstract Reply createReply(Values ret, String serviceName, Trace trace);
+    protected abstract Reply createReply(Values ret, RPCServiceAddress address, Trace trace);
     protected abstract Params toParams(Values req);
-    protected abstract void createResponse(Values ret, Reply reply, Version version, byte [] payload);
+    protected abstract void createResponse(Values ret, Reply reply, Version version, byte [] payload, boolean acceptsZstd);
 
     protected RPCSend(RPCNetwork net) {
         this.net = net;
@@ -116,7 +116,8 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
 
     private void doRequestDone(Request req) {
         SendContext ctx = (SendContext)req.getContext();
-        String serviceName = ((RPCServiceAddress)ctx.recipient.getServiceAddress()).getServiceName();
+        RPCServiceAddress address = (RPCServiceAddress)ctx.recipient.getServiceAddress();
+        String serviceName = address.getServiceName();
         Reply reply;
         Error error = null;
         if (!req.checkReturnTypes(getReturnSpec())) {
@@ -137,7 +138,7 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
                             "A network error occurred for '" + serviceName + "'; " + req.errorMessage());
             }
         } else {
-            reply = createReply(req.returnValues(), serviceName, ctx.trace);
+            reply = createReply(req.returnValues(), address, ctx.trace);
         }
         if (ctx.trace.shouldTrace(TraceLevel.SEND_RECEIVE)) {
             ctx.trace.trace(TraceLevel.SEND_RECEIVE,
@@ -160,6 +161,7 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
         Utf8Array protocolName;
         byte [] payload;
         int traceLevel;
+        boolean acceptsZstd;
     }
 
     @Override
@@ -198,7 +200,7 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
         if (p.route != null && p.route.length() > 0) {
             msg.setRoute(net.getRoute(p.route));
         }
-        msg.setContext(new ReplyContext(request, p.version, protocol));
+        msg.setContext(new ReplyContext(request, p.version, protocol, p.acceptsZstd));
         msg.pushHandler(this);
         msg.setRetryEnabled(p.retryEnabled);
         msg.setRetry(p.retry);
@@ -234,7 +236,7 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
                         "An error occurred while encoding the reply."));
             }
         }
-        createResponse(ctx.request.returnValues(), reply, ctx.version, payload);
+        createResponse(ctx.request.returnValues(), reply, ctx.version, payload, ctx.acceptsZstd);
         ctx.request.returnRequest();
     }
 
@@ -249,7 +251,7 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
      */
     private void replyError(Request request, Version version, Protocol protocol, int traceLevel, Error err) {
         Reply reply = new EmptyReply();
-        reply.setContext(new ReplyContext(request, version, protocol));
+        reply.setContext(new ReplyContext(request, version, protocol, false));
         reply.getTrace().setLevel(traceLevel);
         reply.addError(err);
         handleReply(reply);
@@ -273,11 +275,13 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
         final Request request;
         final Version version;
         final Protocol protocol;
+        final boolean acceptsZstd;
 
-        ReplyContext(Request request, Version version, Protocol protocol) {
+        ReplyContext(Request request, Version version, Protocol protocol, boolean acceptsZstd) {
             this.request = request;
             this.version = version;
             this.protocol = protocol;
+            this.acceptsZstd = acceptsZstd;
         }
     }
 }
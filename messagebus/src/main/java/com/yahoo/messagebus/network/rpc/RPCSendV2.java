@@ -23,9 +23,14 @@ import com.yahoo.slime.Inspector;
 import com.yahoo.slime.Slime;
 import com.yahoo.text.Utf8Array;
 
+import java.util.Optional;
+
 /**
  * Implements the request adapter for method "mbus.slime".
  *
+ * Messages and replies are compressed with the compression type of the network, except zstd is used only towards
+ * peers which have told they can decode it, in a field of the message or reply they sent; LZ4 is used for others.
+ *
  * @author baldersheim
  */
 public class RPCSendV2 extends RPCSend {
@@ -33,9 +38,19 @@ public class RPCSendV2 extends RPCSend {
     private final static String METHOD_NAME = "mbus.slime";
     private final static String METHOD_PARAMS = "bixbix";
     private final static String METHOD_RETURN = "bixbix";
-    private final Compressor compressor = new Compressor(CompressionType.LZ4, 3, 0.90, 1024);
-
-    protected RPCSendV2(RPCNetwork net) { super(net); }
+    private final RPCNetwork net;
+    private final Compressor compressor;
+    private final Compressor fallbackCompressor;
+
+    protected RPCSendV2(RPCNetwork net) { this(net, CompressionType.LZ4, 3); }
+
+    protected RPCSendV2(RPCNetwork net, CompressionType compressionType, int compressionLevel) {
+        super(net);
+        this.net = net;
+        this.compressor = new Compressor(compressionType, compressionLevel, 0.90, 1024);
+        this.fallbackCompressor = compressionType == CompressionType.ZSTD ? new Compressor(CompressionType.LZ4, compressionLevel, 0.90, 1024)
+                                                                          : compressor;
+    }
 
     @Override
     protected String getReturnSpec() { return METHOD_RETURN; }
@@ -74,6 +89,7 @@ public class RPCSendV2 extends RPCSend {
     private static final String CODE_F = "code";
     private static final String BLOB_F = "msg";
     private static final String MSG_F = "msg";
+    private static final String ACCEPTZSTD_F = "acceptzstd";
 
     @Override
     protected Request encodeRequest(Version version, Route route, RPCServiceAddress address, Message msg,
@@ -99,8 +115,9 @@ public class RPCSendV2 extends RPCSend {
         root.setLong(TIMEREMAINING_F, msg.getTimeRemaining());
         root.setLong(TRACELEVEL_F, traceLevel);
         root.setData(BLOB_F, payload);
+        root.setBool(ACCEPTZSTD_F, true);
 
-        Compressor.Compression compressionResult = BinaryFormat.encode_and_compress(slime, compressor);
+        Compressor.Compression compressionResult = compress(slime, address.getTarget().acceptsZstd());
 
         v.add(new Int8Value(compressionResult.type().getCode()));
         v.add(new Int32Value(compressionResult.uncompressedSize()));
@@ -110,11 +127,13 @@ public class RPCSendV2 extends RPCSend {
     }
 
     @Override
-    protected Reply createReply(Values ret, String serviceName, Trace trace) {
-        CompressionType compression = CompressionType.valueOf(ret.get(3).asInt8());
-        byte[] slimeBytes = compressor.decompress(ret.get(5).asData(), compression, ret.get(4).asInt32());
-        Slime slime = BinaryFormat.decode(slimeBytes);
+    protected Reply createReply(Values ret, RPCServiceAddress address, Trace trace) {
+        String serviceName = address.getServiceName();
+        Slime slime = BinaryFormat.decode(decompress(ret));
         Inspector root = slime.get();
+        if (root.field(ACCEPTZSTD_F).asBool()) {
+            address.getTarget().setAcceptsZstd();
+        }
 
         Version version = new Version(new Utf8Array(root.field(VERSION_F).asUtf8()));
         byte[] payload = root.field(BLOB_F).asData();
@@ -152,9 +171,7 @@ public class RPCSendV2 extends RPCSend {
     }
 
     protected Params toParams(Values args) {
-        CompressionType compression = CompressionType.valueOf(args.get(3).asInt8());
-        byte[] slimeBytes = compressor.decompress(args.get(5).asData(), compression, args.get(4).asInt32());
-        Slime slime = BinaryFormat.decode(slimeBytes);
+        Slime slime = BinaryFormat.decode(decompress(args));
         Inspector root = slime.get();
         Params p = new Params();
         p.version = new Version(new Utf8Array(root.field(VERSION_F).asUtf8()));
@@ -166,11 +183,12 @@ public class RPCSendV2 extends RPCSend {
         p.protocolName = new Utf8Array(root.field(PROTOCOL_F).asUtf8());
         p.payload = root.field(BLOB_F).asData();
         p.traceLevel = (int)root.field(TRACELEVEL_F).asLong();
+        p.acceptsZstd = root.field(ACCEPTZSTD_F).asBool();
         return p;
     }
 
     @Override
-    protected void createResponse(Values ret, Reply reply, Version version, byte [] payload) {
+    protected void createResponse(Values ret, Reply reply, Version version, byte [] payload, boolean acceptsZstd) {
         ret.add(new Int8Value(CompressionType.NONE.getCode()));
         ret.add(new Int32Value(0));
         ret.add(new DataValue(new byte[0]));
@@ -182,6 +200,7 @@ public class RPCSendV2 extends RPCSend {
         root.setDouble(RETRYDELAY_F, reply.getRetryDelay());
         root.setString(PROTOCOL_F, reply.getProtocol().getBytes());
         root.setData(BLOB_F, payload);
+        root.setBool(ACCEPTZSTD_F, true);
         if (reply.getTrace().getLevel() > 0) {
             root.setString(TRACE_F, reply.getTrace().getRoot().encode());
         }
@@ -199,11 +218,25 @@ public class RPCSendV2 extends RPCSend {
             }
         }
 
-        Compressor.Compression compressionResult = BinaryFormat.encode_and_compress(slime, compressor);
+        Compressor.Compression compressionResult = compress(slime, acceptsZstd);
 
         ret.add(new Int8Value(compressionResult.type().getCode()));
         ret.add(new Int32Value(compressionResult.uncompressedSize()));
         ret.add(new DataValue(compressionResult.data()));
     }
 
+    private Compressor.Compression compress(Slime slime, boolean peerAcceptsZstd) {
+        Compressor.Compression compression = BinaryFormat.encode_and_compress(slime, peerAcceptsZstd ? compressor : fallbackCompressor);
+        net.countCompression(compression.type(), compression.uncompressedSize(), compression.data().length);
+        return compression;
+    }
+
+    /** Decompresses the body of the given request parameters or return values. Zstd requires the compressed size. */
+    private byte[] decompress(Values values) {
+        CompressionType compression = CompressionType.valueOf(values.get(3).asInt8());
+        byte[] data = values.get(5).asData();
+        return compressor.decompress(compression, data, 0, values.get(4).asInt32(),
+                                     compression == CompressionType.ZSTD ? Optional.of(data.length) : Optional.empty());
+    }
+
 }
@@ -30,6 +30,7 @@ public class RPCTarget implements RequestWaiter {
     private final Target target;
     private boolean targetInvoked = false;
     private Version version = null;
+    private volatile boolean acceptsZstd = false;
     private List<VersionHandler> versionHandlers = new LinkedList<>();
 
     /**
@@ -52,6 +53,25 @@ public class RPCTarget implements RequestWaiter {
         return target;
     }
 
+    /**
+     * <p>Returns whether the peer has told it can decode zstd compressed
+     * payloads. This is learnt from its replies, and since a new target is
+     * created when a connection is lost, it is forgotten if the peer
+     * restarts, possibly on an older version.</p>
+     *
+     * @return Whether zstd may be used towards this target.
+     */
+    boolean acceptsZstd() {
+        return acceptsZstd;
+    }
+
+    /**
+     * <p>Records that the peer can decode zstd compressed payloads.</p>
+     */
+    void setAcceptsZstd() {
+        acceptsZstd = true;
+    }
+
     /**
      * <p>This method is used for explicit reference counting targets to allow
      * reusing open connections. An instance of this class is constructed with a
@@ -4,6 +4,7 @@ package com.yahoo.messagebus.routing;
 import com.yahoo.concurrent.SystemTimer;
 import com.yahoo.messagebus.ErrorCode;
 import com.yahoo.messagebus.Message;
+import com.yahoo.messagebus.Messenger;
 import com.yahoo.messagebus.Reply;
 import com.yahoo.messagebus.TraceLevel;
 
@@ -102,21 +103,41 @@ public class Resender {
      * Invokes {@link RoutingNode#send()} on all routing nodes that are applicable for sending at the current time.
      */
     public void resendScheduled() {
-        List<RoutingNode> sendList;
+        for (RoutingNode node : takeScheduled()) {
+            resend(node);
+        }
+    }
+
+    /**
+     * Enqueues tasks with the given messenger which invoke {@link RoutingNode#send()} on all routing nodes that are
+     * applicable for sending at the current time. The tasks are keyed on the sequence id of the message, if any, so
+     * that resending of sequenced messages is done by the same messenger thread.
+     *
+     * @param messenger The messenger whose threads will resend the messages.
+     */
+    public void resendScheduled(Messenger messenger) {
+        for (RoutingNode node : takeScheduled()) {
+            Message msg = node.getMessage();
+            messenger.enqueue(msg.hasSequenceId() ? msg.getSequenceId() : System.identityHashCode(node), new ResendTask(node));
+        }
+    }
 
+    private List<RoutingNode> takeScheduled() {
+        List<RoutingNode> sendList;
         long now = SystemTimer.INSTANCE.milliTime();
         synchronized (monitor) {
-            if (queue.isEmpty()) return;
+            if (queue.isEmpty()) return List.of();
             sendList = new LinkedList<>();
             while (!queue.isEmpty() && queue.peek().time <= now) {
                 sendList.add(queue.poll().node);
             }
         }
+        return sendList;
+    }
 
-        for (RoutingNode node : sendList) {
-            node.getTrace().trace(TraceLevel.COMPONENT, "Resender resending message.");
-            node.send();
-        }
+    private static void resend(RoutingNode node) {
+        node.getTrace().trace(TraceLevel.COMPONENT, "Resender resending message.");
+        node.send();
     }
 
     /**
@@ -131,6 +152,32 @@ public class Resender {
         }
     }
 
+    /**
+     * Resends a routing node in a messenger thread, or discards it if the messenger is destroyed before it runs.
+     */
+    private static class ResendTask implements Messenger.Task {
+
+        final RoutingNode node;
+        boolean sent = false;
+
+        ResendTask(RoutingNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void run() {
+            sent = true;
+            resend(node);
+        }
+
+        @Override
+        public void destroy() {
+            if ( ! sent) {
+                node.discard();
+            }
+        }
+    }
+
     /**
      * This class encapsulates a routing node and some arbitrary time. This is required for the resending logic so that
      * it can properly schedule resending.
@@ -3,9 +3,16 @@ package com.yahoo.messagebus;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -95,6 +102,79 @@ public class MessengerTestCase {
         assertTrue(tryMessenger(msn));
     }
 
+    @Test
+    public void requireThatTasksWithSameKeyRunInOrderOnSameThread() throws InterruptedException {
+        Messenger msn = new Messenger(4);
+        msn.start();
+        assertEquals(4, msn.getNumThreads());
+
+        Map<Long, List<Integer>> order = new ConcurrentHashMap<>();
+        Map<Long, Set<String>> threads = new ConcurrentHashMap<>();
+        Set<String> allThreads = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            long key = i % 10;
+            int index = i;
+            msn.enqueue(key, new Messenger.Task() {
+                @Override
+                public void run() {
+                    order.computeIfAbsent(key, k -> new ArrayList<>()).add(index);
+                    threads.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+                    allThreads.add(Thread.currentThread().getName());
+                }
+
+                @Override
+                public void destroy() {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        for (long key = 0; key < 10; key++) {
+            assertEquals(1, threads.get(key).size());
+            List<Integer> indices = order.get(key);
+            assertEquals(100, indices.size());
+            for (int i = 1; i < indices.size(); i++) {
+                assertTrue(indices.get(i - 1) < indices.get(i));
+            }
+        }
+        assertEquals(Set.of("Messenger", "Messenger-1", "Messenger-2", "Messenger-3"), allThreads);
+        assertEquals(List.of(0, 0, 0, 0), msn.getQueueSizes());
+        assertTrue(msn.destroy());
+    }
+
+    @Test
+    public void requireThatSyncWaitsForAllThreads() throws InterruptedException {
+        Messenger msn = new Messenger(3);
+        msn.start();
+        CountDownLatch blocker = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        msn.enqueue(2, new Messenger.Task() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                ran.set(true);
+            }
+
+            @Override
+            public void destroy() { }
+        });
+        msn.enqueue(2, new MyTask());
+
+        Thread syncer = new Thread(msn::sync);
+        syncer.start();
+        syncer.join(100);
+        assertTrue(syncer.isAlive());
+        blocker.countDown();
+        syncer.join();
+        assertTrue(ran.get());
+        assertTrue(msn.destroy());
+    }
+
     private static boolean tryMessenger(Messenger msn) {
         MyTask task = new MyTask();
         msn.enqueue(task);
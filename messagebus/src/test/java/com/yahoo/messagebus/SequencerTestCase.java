@@ -5,9 +5,18 @@ import com.yahoo.messagebus.test.SimpleMessage;
 import org.junit.Test;
 
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -104,6 +113,58 @@ public class SequencerTestCase {
         assertEquals(0, dst.size());
     }
 
+    @Test
+    public void testConcurrentSendAndReply() throws InterruptedException {
+        int senders = 4, messagesPerSender = 1000, sequenceIds = 8;
+        BlockingQueue<Message> sent = new LinkedBlockingQueue<>();
+        Map<Long, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        AtomicBoolean overlapped = new AtomicBoolean(false);
+        Sequencer seq = new Sequencer(msg -> {
+            if (inFlight.computeIfAbsent(msg.getSequenceId(), id -> new AtomicInteger()).incrementAndGet() > 1) {
+                overlapped.set(true);
+            }
+            sent.add(msg);
+        });
+        CountDownLatch replied = new CountDownLatch(senders * messagesPerSender);
+        Thread[] threads = new Thread[senders + 2];
+        for (int i = 0; i < senders; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < messagesPerSender; j++) {
+                    Message msg = new MyMessage(true, j % sequenceIds);
+                    msg.pushHandler(reply -> replied.countDown());
+                    seq.handleMessage(msg);
+                }
+            });
+        }
+        for (int i = senders; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    while (replied.getCount() > 0) {
+                        Message msg = sent.poll(10, TimeUnit.MILLISECONDS);
+                        if (msg != null) {
+                            inFlight.get(msg.getSequenceId()).decrementAndGet();
+                            Reply reply = new EmptyReply();
+                            reply.swapState(msg);
+                            reply.setMessage(msg);
+                            reply.popHandler().handleReply(reply);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        assertTrue(replied.await(60, TimeUnit.SECONDS));
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(overlapped.get());
+        assertEquals(0, sent.size());
+    }
+
     @SuppressWarnings("serial")
     private static class TestQueue extends LinkedList<Routable> implements ReplyHandler {
 
@@ -0,0 +1,129 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.messagebus;
+
+import com.yahoo.messagebus.network.local.LocalNetwork;
+import com.yahoo.messagebus.routing.Hop;
+import com.yahoo.messagebus.routing.Route;
+import com.yahoo.messagebus.routing.RoutingNode;
+import com.yahoo.messagebus.test.SimpleMessage;
+import com.yahoo.messagebus.test.SimpleProtocol;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the throughput of {@link SourceSession#sendBlocking(Message)} against the number of client threads sending
+ * on the same session, with and without sequencing, when the network replies immediately from a pool of threads.
+ * This isolates the cost of throttle accounting and sequencing from that of the actual network.
+ */
+public class SourceSessionBenchmark {
+
+    static final int replyThreads = 4;
+    static final int maxPending = 1024;
+    static final int sequenceIds = 1024;
+
+    public static void main(String[] args) throws Exception {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 3000;
+        run(8, false, millis); // Warmup.
+        for (boolean sequenced : new boolean[] { false, true })
+            for (int threads = 1; threads <= 32; threads *= 2)
+                System.out.printf("%2d threads, %-11s %10.0f messages/s%n",
+                                  threads, sequenced ? "sequenced:" : "unsequenced:", run(threads, sequenced, millis));
+    }
+
+    /*
+     * On a machine with a single core, where there is no real contention, with a lock around throttle accounting and
+     * a synchronized sequencer (before), and without (after); the mean of two runs, which differed by up to a factor 2:
+     *
+     *                         before      after
+     *  1 threads, unsequenced: 534000     470000 messages/s
+     *  4 threads, unsequenced: 1004000    1225000 messages/s
+     * 32 threads, unsequenced: 967000     1118000 messages/s
+     *  1 threads, sequenced:   352000     517000 messages/s
+     *  4 threads, sequenced:   1059000    1075000 messages/s
+     * 32 threads, sequenced:   703000     772000 messages/s
+     *
+     * Run this on a multicore machine to see the effect of contention on the session.
+     */
+    static double run(int threads, boolean sequenced, long millis) throws InterruptedException {
+        ExecutorService replier = Executors.newFixedThreadPool(replyThreads);
+        MessageBus mbus = new MessageBus(new ReplyingNetwork(replier),
+                                         new MessageBusParams().addProtocol(new SimpleProtocol()).setRetryPolicy(null));
+        DestinationSession destination = mbus.createDestinationSession(new DestinationSessionParams().setMessageHandler(message -> { }));
+        Route route = new Route().addHop(Hop.parse(destination.getConnectionSpec()));
+        LongAdder replies = new LongAdder();
+        SourceSession session = mbus.createSourceSession(new SourceSessionParams().setTimeout(600)
+                                                                                  .setThrottlePolicy(new StaticThrottlePolicy().setMaxPendingCount(maxPending))
+                                                                                  .setReplyHandler(reply -> replies.increment()));
+
+        long deadline = System.currentTimeMillis() + millis;
+        Thread[] clients = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            clients[i] = new Thread(() -> {
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        Message message = sequenced ? new SequencedMessage(ThreadLocalRandom.current().nextInt(sequenceIds))
+                                                    : new SimpleMessage("message");
+                        session.sendBlocking(message.setRoute(new Route(route)));
+                    }
+                }
+                catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            clients[i].start();
+        }
+        long start = System.nanoTime();
+        for (Thread client : clients)
+            client.join();
+
+        double throughput = replies.sum() * 1e9 / (System.nanoTime() - start);
+        session.close();
+        destination.destroy();
+        mbus.destroy();
+        replier.shutdown();
+        return throughput;
+    }
+
+    /** A network which replies to all messages immediately, using the given executor. */
+    static class ReplyingNetwork extends LocalNetwork {
+
+        final ExecutorService replier;
+
+        ReplyingNetwork(ExecutorService replier) {
+            this.replier = replier;
+        }
+
+        @Override
+        public void send(Message msg, List<RoutingNode> recipients) {
+            for (RoutingNode recipient : recipients)
+                replier.execute(() -> recipient.handleReply(new EmptyReply()));
+        }
+
+    }
+
+    static class SequencedMessage extends SimpleMessage {
+
+        final long sequenceId;
+
+        SequencedMessage(long sequenceId) {
+            super("message");
+            this.sequenceId = sequenceId;
+        }
+
+        @Override
+        public boolean hasSequenceId() {
+            return true;
+        }
+
+        @Override
+        public long getSequenceId() {
+            return sequenceId;
+        }
+
+    }
+
+}
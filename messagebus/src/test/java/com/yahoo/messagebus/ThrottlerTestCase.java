@@ -4,6 +4,7 @@ package com.yahoo.messagebus;
 import com.yahoo.jrt.ListenFailedException;
 import com.yahoo.jrt.slobrok.server.Slobrok;
 import com.yahoo.messagebus.network.rpc.test.TestServer;
+import com.yahoo.messagebus.routing.Route;
 import com.yahoo.messagebus.routing.RoutingTableSpec;
 import com.yahoo.messagebus.test.QueueAdapter;
 import com.yahoo.messagebus.test.Receptor;
@@ -15,6 +16,11 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -87,6 +93,83 @@ public class ThrottlerTestCase {
         dst_s.destroy();
     }
 
+    @Test
+    public void testMaxCountWithConcurrentSenders() throws InterruptedException {
+        int senders = 16, messagesPerSender = 50;
+
+        // Prepare a source session with a throttle which tracks the number of messages between send and reply.
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        StaticThrottlePolicy policy = new StaticThrottlePolicy() {
+            @Override
+            public void processMessage(Message message) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                super.processMessage(message);
+            }
+            @Override
+            public void processReply(Reply reply) {
+                inFlight.decrementAndGet();
+                super.processReply(reply);
+            }
+        };
+        policy.setMaxPendingCount(10);
+        AtomicInteger replies = new AtomicInteger();
+        SourceSession src_s = src.mb.createSourceSession(reply -> replies.incrementAndGet(),
+                                                         new SourceSessionParams().setTimeout(600.0).setThrottlePolicy(policy));
+
+        // Prepare a destination session to acknowledge messages.
+        QueueAdapter dst_q = new QueueAdapter();
+        DestinationSession dst_s = dst.mb.createDestinationSession("session", true, dst_q);
+        src.waitSlobrok("test/dst/session", 1);
+
+        // Many threads attempting to send at once are accepted only up to the limit, while there are no replies.
+        ExecutorService executor = Executors.newFixedThreadPool(senders);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch attempted = new CountDownLatch(senders);
+        for (int i = 0; i < senders; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < messagesPerSender; j++)
+                    if (src_s.send(new SimpleMessage("msg"), "test").isAccepted())
+                        accepted.incrementAndGet();
+                attempted.countDown();
+            });
+        }
+        assertTrue(attempted.await(60, TimeUnit.SECONDS));
+        assertEquals(policy.getMaxPendingCount(), accepted.get());
+        assertTrue(dst_q.waitSize(policy.getMaxPendingCount(), 60));
+        while ( ! dst_q.isEmpty()) {
+            dst_s.acknowledge((Message)dst_q.dequeue());
+        }
+
+        // Many threads blocking to send have no more messages in flight than the limit at any time.
+        for (int i = 0; i < senders; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < messagesPerSender; j++) {
+                    try {
+                        assertTrue(src_s.sendBlocking(new SimpleMessage("msg").setRoute(Route.parse("test/dst/session"))).isAccepted());
+                    }
+                    catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+        }
+        int expectedReplies = policy.getMaxPendingCount() + senders * messagesPerSender;
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (replies.get() < expectedReplies && System.currentTimeMillis() < deadline) {
+            Message message = (Message)dst_q.dequeue();
+            if (message != null) dst_s.acknowledge(message);
+            else Thread.sleep(1);
+        }
+        executor.shutdown();
+        assertEquals(expectedReplies, replies.get());
+        assertTrue(maxInFlight.get() <= policy.getMaxPendingCount());
+        assertEquals(0, inFlight.get());
+
+        src_s.close();
+        dst_s.destroy();
+    }
+
     @Test
     public void testMaxSize() {
         // Prepare a source session with throttle enabled.
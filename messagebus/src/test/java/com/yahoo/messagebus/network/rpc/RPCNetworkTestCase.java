@@ -2,6 +2,19 @@
 package com.yahoo.messagebus.network.rpc;
 
 import com.yahoo.component.Version;
+import com.yahoo.compress.CompressionType;
+import com.yahoo.jrt.Acceptor;
+import com.yahoo.jrt.DataValue;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int8Value;
+import com.yahoo.jrt.ListenFailedException;
+import com.yahoo.jrt.Method;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.Spec;
+import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Supervisor;
+import com.yahoo.jrt.Transport;
+import com.yahoo.jrt.Values;
 import com.yahoo.jrt.slobrok.server.Slobrok;
 import com.yahoo.messagebus.DestinationSession;
 import com.yahoo.messagebus.DestinationSessionParams;
@@ -16,11 +29,19 @@ import com.yahoo.messagebus.network.rpc.test.TestServer;
 import com.yahoo.messagebus.routing.Route;
 import com.yahoo.messagebus.routing.RoutingPolicy;
 import com.yahoo.messagebus.test.Receptor;
+import com.yahoo.messagebus.test.SimpleMessage;
+import com.yahoo.messagebus.test.SimpleProtocol;
+import com.yahoo.messagebus.test.SimpleReply;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Slime;
 import com.yahoo.text.Utf8String;
 import org.junit.Test;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.Assert.*;
 
@@ -53,6 +74,119 @@ public class RPCNetworkTestCase {
         assertTrue(actual, actual.contains(expected.toString()));
     }
 
+    @Test
+    public void requireThatZstdCompressedMessagesAndRepliesAreDecoded() throws ListenFailedException {
+        Slobrok slobrok = new Slobrok();
+        TestServer server = new TestServer(new MessageBusParams().addProtocol(new SimpleProtocol()),
+                                           new RPCNetworkParams().setSlobrokConfigId(slobrok.configId())
+                                                                 .setCompressionType(CompressionType.ZSTD));
+        Receptor replies = new Receptor();
+        Receptor messages = new Receptor();
+        SourceSession src = server.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(replies));
+        DestinationSession dst = server.mb.createDestinationSession(new DestinationSessionParams().setMessageHandler(messages));
+
+        // The first message is sent with LZ4, and its reply tells the sender that zstd is accepted for the next.
+        String value = "a fairly repetitive message ".repeat(1 << 10);
+        for (int i = 0; i < 2; i++) {
+            assertTrue(src.send(new SimpleMessage(value + i).setRoute(Route.parse(dst.getConnectionSpec()))).isAccepted());
+            Message msg = messages.getMessage(60);
+            assertNotNull(msg);
+            assertEquals(value + i, ((SimpleMessage) msg).getValue());
+
+            Reply reply = new SimpleReply(value + i);
+            reply.swapState(msg);
+            dst.reply(reply);
+            reply = replies.getReply(60);
+            assertNotNull(reply);
+            assertFalse(reply.hasErrors());
+            assertEquals(value + i, ((SimpleReply) reply).getValue());
+        }
+        // Only the first message was sent before the destination told it accepts zstd.
+        assertEquals(1, server.net.getCompressionCount(CompressionType.LZ4));
+        assertEquals(3, server.net.getCompressionCount(CompressionType.ZSTD));
+        assertTrue(server.net.getBytesBeforeCompression() > 4 * value.length());
+        assertTrue(server.net.getBytesAfterCompression() * 10 < server.net.getBytesBeforeCompression());
+
+        src.destroy();
+        dst.destroy();
+        server.destroy();
+        slobrok.stop();
+    }
+
+    @Test
+    public void requireThatPeersNotAcceptingZstdReceiveLz4() throws ListenFailedException {
+        Slobrok slobrok = new Slobrok();
+        TestServer server = new TestServer(new MessageBusParams().addProtocol(new SimpleProtocol()),
+                                           new RPCNetworkParams().setSlobrokConfigId(slobrok.configId())
+                                                                 .setCompressionType(CompressionType.ZSTD));
+        Receptor replies = new Receptor();
+        SourceSession src = server.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(replies));
+        OldPeer peer = new OldPeer();
+
+        String value = "a fairly repetitive message ".repeat(1 << 10);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(src.send(new SimpleMessage(value + i).setRoute(Route.parse(peer.connectionSpec()))).isAccepted());
+            Reply reply = replies.getReply(60);
+            assertNotNull(reply);
+            assertFalse(reply.hasErrors());
+        }
+        assertEquals(List.of(CompressionType.LZ4, CompressionType.LZ4, CompressionType.LZ4), peer.received);
+        assertEquals(3, server.net.getCompressionCount(CompressionType.LZ4));
+        assertEquals(0, server.net.getCompressionCount(CompressionType.ZSTD));
+
+        src.destroy();
+        peer.destroy();
+        server.destroy();
+        slobrok.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requireThatOnlySupportedCompressionTypesAreAccepted() {
+        new RPCNetworkParams().setCompressionType(CompressionType.INCOMPRESSIBLE);
+    }
+
+    /** A peer which replies to mbus.slime like the ones which do not know about zstd, recording what it receives. */
+    private static class OldPeer {
+
+        final Supervisor orb = new Supervisor(new Transport());
+        final Acceptor acceptor;
+        final List<CompressionType> received = new CopyOnWriteArrayList<>();
+
+        OldPeer() throws ListenFailedException {
+            orb.addMethod(new Method("mbus.getVersion", "", "s", req -> req.returnValues().add(new StringValue("7.0.0"))));
+            orb.addMethod(new Method("mbus.slime", "bixbix", "bixbix", this::reply));
+            acceptor = orb.listen(new Spec(0));
+        }
+
+        void reply(Request request) {
+            received.add(CompressionType.valueOf(request.parameters().get(3).asInt8()));
+            Slime slime = new Slime();
+            Cursor root = slime.setObject();
+            root.setString("version", "7.0.0");
+            root.setString("prot", SimpleProtocol.NAME.toString());
+            root.setData("msg", new byte[0]);
+            byte[] data = BinaryFormat.encode(slime);
+            Values ret = request.returnValues();
+            ret.add(new Int8Value(CompressionType.NONE.getCode()));
+            ret.add(new Int32Value(0));
+            ret.add(new DataValue(new byte[0]));
+            ret.add(new Int8Value(CompressionType.NONE.getCode()));
+            ret.add(new Int32Value(data.length));
+            ret.add(new DataValue(data));
+        }
+
+        String connectionSpec() {
+            return "tcp/localhost:" + acceptor.port() + "/session";
+        }
+
+        void destroy() {
+            acceptor.shutdown().join();
+            orb.transport().shutdown().join();
+        }
+    }
+
     private static class MyMessage extends Message {
 
         @Override
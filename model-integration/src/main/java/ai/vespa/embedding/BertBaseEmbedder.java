@@ -4,15 +4,16 @@ import ai.vespa.modelintegration.evaluator.OnnxEvaluator;
 import ai.vespa.modelintegration.evaluator.OnnxEvaluatorOptions;
 import com.yahoo.embedding.BertBaseEmbedderConfig;
 import com.yahoo.component.annotation.Inject;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.language.process.Embedder;
 import com.yahoo.language.wordpiece.WordPieceEmbedder;
 import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
-import com.yahoo.tensor.TensorAddress;
 import com.yahoo.tensor.TensorType;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +28,10 @@ import java.util.Map;
  *  - An attention mask (attention_mask)
  *  - Token types for cross encoding (token_type_ids)
  *
+ * Concurrent embed requests can be evaluated together in batches by setting batchingMaxSize
+ * larger than 1, which trades some latency for throughput, and embeddings of repeated texts
+ * can be cached by setting cacheMaxBytes.
+ *
  * See bert-base-embedder.def for configurable parameters.
  *
  * @author lesters
@@ -45,9 +50,15 @@ public class BertBaseEmbedder implements Embedder {
 
     private final WordPieceEmbedder tokenizer;
     private final OnnxEvaluator evaluator;
+    private final EmbeddingBatcher<List<Integer>, double[]> batcher;
+    private final EmbeddingCache cache;
 
-    @Inject
     public BertBaseEmbedder(BertBaseEmbedderConfig config) {
+        this(config, null);
+    }
+
+    @Inject
+    public BertBaseEmbedder(BertBaseEmbedderConfig config, Metric metric) {
         maxTokens = config.transformerMaxTokens();
         inputIdsName = config.transformerInputIds();
         attentionMaskName = config.transformerAttentionMask();
@@ -66,7 +77,11 @@ public class BertBaseEmbedder implements Embedder {
         tokenizer = new WordPieceEmbedder.Builder(tokenizerFile).build();
         evaluator = new OnnxEvaluator(modelFile, options);
 
-        validateModel();
+        validateModel(config.batchingMaxSize());
+
+        batcher = new EmbeddingBatcher<>(config.batchingMaxSize(), Duration.ofMillis(config.batchingMaxDelay()),
+                                         this::evaluate, metric, Map.of("embedder", "bert-base"));
+        cache = new EmbeddingCache(config.cacheMaxBytes(), metric, Map.of("embedder", "bert-base"));
     }
 
     private String pathOrUrl(Path path, File url) {
@@ -76,11 +91,16 @@ public class BertBaseEmbedder implements Embedder {
         return path.toAbsolutePath().toString();
     }
 
-    private void validateModel() {
+    private void validateModel(int batchingMaxSize) {
         Map<String, TensorType> inputs = evaluator.getInputInfo();
         validateName(inputs, inputIdsName, "input");
         validateName(inputs, attentionMaskName, "input");
         validateName(inputs, tokenTypeIdsName, "input");
+        if (batchingMaxSize > 1) {
+            validateDynamicBatchDimension(inputs, inputIdsName);
+            validateDynamicBatchDimension(inputs, attentionMaskName);
+            validateDynamicBatchDimension(inputs, tokenTypeIdsName);
+        }
 
         Map<String, TensorType> outputs = evaluator.getOutputInfo();
         validateName(outputs, outputName, "output");
@@ -93,6 +113,14 @@ public class BertBaseEmbedder implements Embedder {
         }
     }
 
+    private void validateDynamicBatchDimension(Map<String, TensorType> types, String name) {
+        TensorType type = types.get(name);
+        if (type.dimensions().isEmpty() || type.dimensions().get(0).size().isPresent()) {
+            throw new IllegalArgumentException("Batching requires a dynamic batch dimension, but model input '" + name +
+                                               "' has type " + type + ". Set batchingMaxSize to 1 to disable batching");
+        }
+    }
+
     @Override
     public List<Integer> embed(String text, Context context) {
         return tokenizer.embed(text, context);
@@ -106,36 +134,72 @@ public class BertBaseEmbedder implements Embedder {
         if (!type.dimensions().get(0).isIndexed()) {
             throw new IllegalArgumentException("Error in embedding to type '" + type + "': dimension should be indexed.");
         }
-        List<Integer> tokens = embedWithSeperatorTokens(text, context, maxTokens);
-        return embedTokens(tokens, type);
+        return cache.get(text, context.getLanguage(), type,
+                         () -> embedTokens(embedWithSeperatorTokens(text, context, maxTokens), type));
     }
 
     Tensor embedTokens(List<Integer> tokens, TensorType type) {
-        Tensor inputSequence = createTensorRepresentation(tokens, "d1");
-        Tensor attentionMask = createAttentionMask(inputSequence);
-        Tensor tokenTypeIds = createTokenTypeIds(inputSequence);
+        double[] embedding = batcher.evaluate(tokens);
+        Tensor.Builder builder = Tensor.Builder.of(type);
+        for (int i = 0; i < type.dimensions().get(0).size().get(); i++) {
+            builder.cell(i < embedding.length ? embedding[i] : 0, i);
+        }
+        return builder.build();
+    }
 
-        Map<String, Tensor> inputs = Map.of(inputIdsName, inputSequence.expand("d0"),
-                                            attentionMaskName, attentionMask.expand("d0"),
-                                            tokenTypeIdsName, tokenTypeIds.expand("d0"));
-        Map<String, Tensor> outputs = evaluator.evaluate(inputs);
+    /**
+     * Evaluates the model once for all the given token sequences, padded to the length of the longest,
+     * and returns the pooled embedding of each sequence.
+     */
+    List<double[]> evaluate(List<List<Integer>> sequences) {
+        int batchSize = sequences.size();
+        int length = 0;
+        for (List<Integer> tokens : sequences)
+            length = Math.max(length, tokens.size());
+
+        TensorType inputType = new TensorType.Builder(TensorType.Value.FLOAT).indexed("d0", batchSize)
+                                                                             .indexed("d1", length).build();
+        IndexedTensor.BoundBuilder inputSequence = (IndexedTensor.BoundBuilder) Tensor.Builder.of(inputType);
+        IndexedTensor.BoundBuilder attentionMask = (IndexedTensor.BoundBuilder) Tensor.Builder.of(inputType);
+        IndexedTensor.BoundBuilder tokenTypeIds = (IndexedTensor.BoundBuilder) Tensor.Builder.of(inputType);
+        for (int i = 0; i < batchSize; i++) {
+            List<Integer> tokens = sequences.get(i);
+            for (int j = 0; j < length; j++) {
+                int token = j < tokens.size() ? tokens.get(j) : 0;  // pad with zeroes, which are masked out
+                inputSequence.cellByDirectIndex((long) i * length + j, token);
+                attentionMask.cellByDirectIndex((long) i * length + j, token > 0 ? 1 : 0);
+                tokenTypeIds.cellByDirectIndex((long) i * length + j, 0);
+            }
+        }
 
-        Tensor tokenEmbeddings = outputs.get(outputName);
+        Map<String, Tensor> inputs = Map.of(inputIdsName, inputSequence.build(),
+                                            attentionMaskName, attentionMask.build(),
+                                            tokenTypeIdsName, tokenTypeIds.build());
+        Map<String, Tensor> outputs = evaluator.evaluate(inputs);
 
-        Tensor.Builder builder = Tensor.Builder.of(type);
-        if (poolingStrategy.equals("mean")) {  // average over tokens
-            Tensor summedEmbeddings = tokenEmbeddings.sum("d1");
-            Tensor summedAttentionMask = attentionMask.expand("d0").sum("d1");
-            Tensor averaged = summedEmbeddings.join(summedAttentionMask, (x, y) -> x / y);
-            for (int i = 0; i < type.dimensions().get(0).size().get(); i++) {
-                builder.cell(averaged.get(TensorAddress.of(0,i)), i);
-            }
-        } else {  // CLS - use first token
-            for (int i = 0; i < type.dimensions().get(0).size().get(); i++) {
-                builder.cell(tokenEmbeddings.get(TensorAddress.of(0,0,i)), i);
+        IndexedTensor tokenEmbeddings = (IndexedTensor) outputs.get(outputName);
+        int embeddingSize = (int) tokenEmbeddings.dimensionSizes().size(2);
+        List<double[]> embeddings = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            List<Integer> tokens = sequences.get(i);
+            double[] embedding = new double[embeddingSize];
+            if (poolingStrategy.equals("mean")) {  // average over tokens
+                int attendedTokens = 0;
+                for (int token : tokens)
+                    attendedTokens += token > 0 ? 1 : 0;
+                for (int k = 0; k < embeddingSize; k++) {
+                    double sum = 0;
+                    for (int j = 0; j < tokens.size(); j++)
+                        sum += tokenEmbeddings.get(i, j, k);
+                    embedding[k] = (float) (sum / attendedTokens);
+                }
+            } else {  // CLS - use first token
+                for (int k = 0; k < embeddingSize; k++)
+                    embedding[k] = tokenEmbeddings.get(i, 0, k);
             }
+            embeddings.add(embedding);
         }
-        return builder.build();
+        return embeddings;
     }
 
     private List<Integer> embedWithSeperatorTokens(String text, Context context, int maxLength) {
@@ -150,24 +214,6 @@ public class BertBaseEmbedder implements Embedder {
         return tokens;
     }
 
-    private IndexedTensor createTensorRepresentation(List<Integer> input, String dimension)  {
-        int size = input.size();
-        TensorType type = new TensorType.Builder(TensorType.Value.FLOAT).indexed(dimension, size).build();
-        IndexedTensor.Builder builder = IndexedTensor.Builder.of(type);
-        for (int i = 0; i < size; ++i) {
-            builder.cell(input.get(i), i);
-        }
-        return builder.build();
-    }
-
-    private static Tensor createAttentionMask(Tensor d)  {
-        return d.map((x) -> x > 0 ? 1:0);
-    }
-
-    private static Tensor createTokenTypeIds(Tensor d)  {
-        return d.map((x) -> x > 0 ? 0:0);
-    }
-
     private int modifyThreadCount(int numThreads) {
         if (numThreads >= 0)
             return numThreads;
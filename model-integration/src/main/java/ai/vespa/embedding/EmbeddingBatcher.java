@@ -0,0 +1,150 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import com.yahoo.jdisc.Metric;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent embedding requests into batches which are evaluated together.
+ *
+ * There is no separate batching thread: The first request to arrive opens a batch and waits
+ * until the batch is full or the max delay has passed, and then evaluates the whole batch
+ * on behalf of all the requests in it, which receive their own part of the result.
+ *
+ * @param <INPUT> the type of a single request
+ * @param <OUTPUT> the type of the result of a single request
+ */
+class EmbeddingBatcher<INPUT, OUTPUT> {
+
+    static final String batchSizeMetric = "embedder_batch_size";
+    static final String latencyMetric = "embedder_latency";
+
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private final Function<List<INPUT>, List<OUTPUT>> evaluator;
+    private final Metric metric;
+    private final Metric.Context metricContext;
+
+    private final Object monitor = new Object();
+    private Batch<INPUT, OUTPUT> open = null;
+
+    /**
+     * Creates a batcher.
+     *
+     * @param maxSize the max number of requests to evaluate in one batch
+     * @param maxDelay the max time the first request of a batch waits for more requests
+     * @param evaluator the function evaluating a batch, returning one result per input, in the same order
+     * @param metric the metric to report batch sizes and latencies to, or null to not report metrics
+     * @param metricDimensions the dimensions to report metrics with
+     */
+    EmbeddingBatcher(int maxSize, Duration maxDelay, Function<List<INPUT>, List<OUTPUT>> evaluator,
+                     Metric metric, Map<String, ?> metricDimensions) {
+        if (maxSize < 1) throw new IllegalArgumentException("Max batch size must be positive, but was " + maxSize);
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.evaluator = evaluator;
+        this.metric = metric;
+        this.metricContext = metric == null ? null : metric.createContext(metricDimensions);
+    }
+
+    /** Returns the result of evaluating the given input, as part of a batch if there are concurrent requests */
+    OUTPUT evaluate(INPUT input) {
+        long startTime = System.nanoTime();
+        try {
+            if (maxSize == 1) return evaluate(List.of(input)).get(0);
+
+            Batch<INPUT, OUTPUT> batch;
+            int index;
+            boolean leader;
+            synchronized (monitor) {
+                leader = open == null;
+                if (leader)
+                    open = new Batch<>();
+                batch = open;
+                index = batch.add(input);
+                if (batch.size() >= maxSize) {
+                    open = null;
+                    monitor.notifyAll();
+                }
+            }
+            if (leader)
+                evaluate(awaitBatch(batch, startTime), batch);
+            return batch.result(index);
+        }
+        finally {
+            if (metric != null)
+                metric.set(latencyMetric, (System.nanoTime() - startTime) / 1_000_000.0, metricContext);
+        }
+    }
+
+    /** Waits until the given batch is full or the max delay has passed, closes it and returns its inputs */
+    private List<INPUT> awaitBatch(Batch<INPUT, OUTPUT> batch, long startTime) {
+        synchronized (monitor) {
+            long remaining;
+            while (open == batch && (remaining = maxDelayNanos - (System.nanoTime() - startTime)) > 0) {
+                try {
+                    monitor.wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (open == batch)
+                open = null;
+            return batch.inputs;
+        }
+    }
+
+    private void evaluate(List<INPUT> inputs, Batch<INPUT, OUTPUT> batch) {
+        try {
+            batch.outputs.complete(evaluate(inputs));
+        }
+        catch (RuntimeException | Error e) {
+            batch.outputs.completeExceptionally(e);
+        }
+    }
+
+    private List<OUTPUT> evaluate(List<INPUT> inputs) {
+        if (metric != null)
+            metric.set(batchSizeMetric, inputs.size(), metricContext);
+        List<OUTPUT> outputs = evaluator.apply(inputs);
+        if (outputs.size() != inputs.size())
+            throw new IllegalStateException("Expected " + inputs.size() + " results from batch evaluation, got " + outputs.size());
+        return outputs;
+    }
+
+    private static class Batch<INPUT, OUTPUT> {
+
+        /** The inputs of this batch, only modified while holding the batcher monitor, before the batch is closed */
+        private final List<INPUT> inputs = new ArrayList<>();
+        private final CompletableFuture<List<OUTPUT>> outputs = new CompletableFuture<>();
+
+        int add(INPUT input) {
+            inputs.add(input);
+            return inputs.size() - 1;
+        }
+
+        int size() { return inputs.size(); }
+
+        OUTPUT result(int index) {
+            try {
+                return outputs.join().get(index);
+            }
+            catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw e;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,142 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import com.yahoo.jdisc.Metric;
+import com.yahoo.language.Language;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A cache of tensor embeddings of texts, where the least recently used embeddings are evicted
+ * when the estimated memory used by the cache exceeds a maximum.
+ *
+ * Embeddings are keyed on text, language and tensor type. As each embedder has its own cache, this
+ * also serves repeated texts from both queries and indexing in the same container.
+ *
+ * This class is multithread safe.
+ */
+class EmbeddingCache {
+
+    static final String hitsMetric = "embedder_cache_hits";
+    static final String missesMetric = "embedder_cache_misses";
+    static final String evictionsMetric = "embedder_cache_evictions";
+
+    /** Rough estimate of the memory used by an entry in addition to the text and tensor cells */
+    private static final long entryOverheadBytes = 200;
+
+    private final long maxBytes;
+    private final Metric metric;
+    private final Metric.Context metricContext;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes the max estimated memory used by this cache, where 0 or less disables caching
+     * @param metric the metric to report hits, misses and evictions to, or null to not report metrics
+     * @param metricDimensions the dimensions to report metrics with
+     */
+    EmbeddingCache(long maxBytes, Metric metric, Map<String, ?> metricDimensions) {
+        this.maxBytes = maxBytes;
+        this.metric = metric;
+        this.metricContext = metric == null ? null : metric.createContext(metricDimensions);
+    }
+
+    /** Returns the cached embedding of this text, or computes, caches and returns it if not present */
+    Tensor get(String text, Language language, TensorType type, Supplier<Tensor> embedder) {
+        if (maxBytes <= 0) return embedder.get();
+
+        Key key = new Key(text, language, type);
+        Tensor embedding;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            embedding = entry == null ? null : entry.embedding;
+        }
+        if (embedding != null) {
+            count(hitsMetric, 1);
+            return embedding;
+        }
+
+        count(missesMetric, 1);
+        embedding = embedder.get(); // Outside the lock: Concurrent misses on the same key may compute it twice
+        count(evictionsMetric, put(key, embedding));
+        return embedding;
+    }
+
+    private synchronized int put(Key key, Tensor embedding) {
+        Entry entry = new Entry(embedding, estimateBytes(key, embedding));
+        Entry previous = entries.put(key, entry);
+        bytes += entry.bytes - (previous != null ? previous.bytes : 0);
+
+        int evicted = 0;
+        for (Iterator<Entry> i = entries.values().iterator(); i.hasNext() && bytes > maxBytes; ) {
+            Entry eldest = i.next();
+            i.remove();
+            bytes -= eldest.bytes;
+            evicted++;
+        }
+        return evicted;
+    }
+
+    /** Returns the number of embeddings in this */
+    synchronized int size() { return entries.size(); }
+
+    /** Returns the estimated memory used by the embeddings in this */
+    synchronized long bytes() { return bytes; }
+
+    private void count(String name, int count) {
+        if (metric != null && count > 0)
+            metric.add(name, count, metricContext);
+    }
+
+    private static long estimateBytes(Key key, Tensor embedding) {
+        long cellBytes = embedding.type().valueType() == TensorType.Value.DOUBLE ? 8 : 4;
+        return entryOverheadBytes + 2L * key.text.length() + cellBytes * embedding.size();
+    }
+
+    private static class Key {
+
+        private final String text;
+        private final Language language;
+        private final TensorType type;
+        private final int hashCode;
+
+        Key(String text, Language language, TensorType type) {
+            this.text = text;
+            this.language = language;
+            this.type = type;
+            this.hashCode = 31 * (31 * text.hashCode() + language.hashCode()) + type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if ( ! (o instanceof Key)) return false;
+            Key other = (Key) o;
+            return text.equals(other.text) && language == other.language && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() { return hashCode; }
+
+    }
+
+    private static class Entry {
+
+        final Tensor embedding;
+        final long bytes;
+
+        Entry(Tensor embedding, long bytes) {
+            this.embedding = embedding;
+            this.bytes = bytes;
+        }
+
+    }
+
+}
@@ -10,6 +10,7 @@ import org.junit.Test;
 
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assume.assumeTrue;
 
@@ -36,4 +37,29 @@ public class BertBaseEmbedderTest {
         assertEquals(embedding, expected);
     }
 
+    @Test
+    public void testBatchedEmbeddingsEqualSingleEmbeddings() {
+        String vocabPath = "src/test/models/onnx/transformer/dummy_vocab.txt";
+        String modelPath = "src/test/models/onnx/transformer/dummy_token_embedder.onnx";
+        assumeTrue(OnnxEvaluator.isRuntimeAvailable(modelPath));
+
+        BertBaseEmbedderConfig.Builder builder = new BertBaseEmbedderConfig.Builder();
+        builder.tokenizerVocabPath(new FileReference(vocabPath));
+        builder.tokenizerVocabUrl(new UrlReference(""));
+        builder.transformerModelPath(new FileReference(modelPath));
+        builder.transformerModelUrl(new UrlReference(""));
+        builder.batchingMaxSize(4);  // accepted, as the batch dimension of the model inputs is dynamic
+        BertBaseEmbedder embedder = new BertBaseEmbedder(builder.build());
+
+        List<Integer> longer = List.of(1,2,3,4,5);
+        List<Integer> shorter = List.of(6,7,8);  // padded to the length of the longer in the batch
+        List<double[]> batched = embedder.evaluate(List.of(longer, shorter));
+        assertEquals(2, batched.size());
+        assertArrayEquals(embedder.evaluate(List.of(longer)).get(0), batched.get(0), 1e-6);
+        assertArrayEquals(embedder.evaluate(List.of(shorter)).get(0), batched.get(1), 1e-6);
+
+        // The model embeds token t as sin(16 * t + k), and the mean is over the tokens of each input only
+        assertEquals((Math.sin(96) + Math.sin(112) + Math.sin(128)) / 3, batched.get(1)[0], 1e-6);
+    }
+
 }
@@ -0,0 +1,86 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EmbeddingBatcherTest {
+
+    @Test
+    public void testConcurrentRequestsAreBatched() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        EmbeddingBatcher<Integer, String> batcher = new EmbeddingBatcher<>(4, Duration.ofSeconds(60),
+                                                                           inputs -> evaluate(inputs, batchSizes),
+                                                                           null, Map.of());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int input = i;
+                results.add(executor.submit(() -> batcher.evaluate(input)));
+            }
+            for (int i = 0; i < 8; i++)
+                assertEquals("result " + i, results.get(i).get());
+            assertEquals(List.of(4, 4), batchSizes);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchIsEvaluatedAfterMaxDelay() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        EmbeddingBatcher<Integer, String> batcher = new EmbeddingBatcher<>(4, Duration.ofMillis(1),
+                                                                           inputs -> evaluate(inputs, batchSizes),
+                                                                           null, Map.of());
+        assertEquals("result 1", batcher.evaluate(1));
+        assertEquals("result 2", batcher.evaluate(2));
+        assertEquals(List.of(1, 1), batchSizes);
+    }
+
+    @Test
+    public void testFailuresArePropagated() {
+        EmbeddingBatcher<Integer, String> batcher = new EmbeddingBatcher<>(2, Duration.ofMillis(1),
+                                                                           inputs -> { throw new IllegalStateException("failed"); },
+                                                                           null, Map.of());
+        try {
+            batcher.evaluate(1);
+            fail("Expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBatchingCanBeDisabled() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        EmbeddingBatcher<Integer, String> batcher = new EmbeddingBatcher<>(1, Duration.ofSeconds(60),
+                                                                           inputs -> evaluate(inputs, batchSizes),
+                                                                           null, Map.of());
+        long startTime = System.nanoTime();
+        assertEquals("result 1", batcher.evaluate(1));
+        assertTrue(System.nanoTime() - startTime < Duration.ofSeconds(30).toNanos());
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    private static List<String> evaluate(List<Integer> inputs, List<Integer> batchSizes) {
+        batchSizes.add(inputs.size());
+        return inputs.stream().map(input -> "result " + input).collect(Collectors.toList());
+    }
+
+}
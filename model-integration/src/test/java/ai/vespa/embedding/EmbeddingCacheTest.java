@@ -0,0 +1,73 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import com.yahoo.jdisc.test.MockMetric;
+import com.yahoo.language.Language;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class EmbeddingCacheTest {
+
+    private static final TensorType type = TensorType.fromSpec("tensor<float>(x[4])");
+
+    @Test
+    public void testRepeatedTextsAreServedFromCache() {
+        MockMetric metric = new MockMetric();
+        AtomicInteger embeddings = new AtomicInteger();
+        EmbeddingCache cache = new EmbeddingCache(10_000, metric, Map.of());
+
+        Tensor first = cache.get("foo", Language.ENGLISH, type, () -> embed(embeddings));
+        assertSame(first, cache.get("foo", Language.ENGLISH, type, () -> embed(embeddings)));
+        assertEquals(1, embeddings.get());
+
+        cache.get("foo", Language.GERMAN, type, () -> embed(embeddings));
+        cache.get("foo", Language.ENGLISH, TensorType.fromSpec("tensor<float>(x[8])"), () -> embed(embeddings));
+        cache.get("bar", Language.ENGLISH, type, () -> embed(embeddings));
+        assertEquals(4, embeddings.get());
+        assertEquals(4, cache.size());
+
+        assertEquals(1, metric.metrics().get(EmbeddingCache.hitsMetric).get(Map.of()).intValue());
+        assertEquals(4, metric.metrics().get(EmbeddingCache.missesMetric).get(Map.of()).intValue());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEmbeddingsAreEvicted() {
+        MockMetric metric = new MockMetric();
+        AtomicInteger embeddings = new AtomicInteger();
+        EmbeddingCache cache = new EmbeddingCache(500, metric, Map.of());
+
+        cache.get("a", Language.UNKNOWN, type, () -> embed(embeddings));
+        cache.get("b", Language.UNKNOWN, type, () -> embed(embeddings));
+        cache.get("a", Language.UNKNOWN, type, () -> embed(embeddings));
+        cache.get("c", Language.UNKNOWN, type, () -> embed(embeddings));
+        assertEquals(2, cache.size());
+        assertEquals(1, metric.metrics().get(EmbeddingCache.evictionsMetric).get(Map.of()).intValue());
+
+        cache.get("a", Language.UNKNOWN, type, () -> embed(embeddings));
+        assertEquals(3, embeddings.get());
+        cache.get("b", Language.UNKNOWN, type, () -> embed(embeddings));
+        assertEquals(4, embeddings.get());
+    }
+
+    @Test
+    public void testCachingCanBeDisabled() {
+        AtomicInteger embeddings = new AtomicInteger();
+        EmbeddingCache cache = new EmbeddingCache(0, null, Map.of());
+        cache.get("foo", Language.UNKNOWN, type, () -> embed(embeddings));
+        cache.get("foo", Language.UNKNOWN, type, () -> embed(embeddings));
+        assertEquals(2, embeddings.get());
+        assertEquals(0, cache.size());
+    }
+
+    private static Tensor embed(AtomicInteger embeddings) {
+        return Tensor.from(type, "[" + embeddings.incrementAndGet() + ", 2, 3, 4]");
+    }
+
+}
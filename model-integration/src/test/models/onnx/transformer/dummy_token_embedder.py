@@ -0,0 +1,38 @@
+# Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+
+import numpy
+import onnx
+from onnx import helper, numpy_helper, TensorProto
+
+# Embeds each token independently of the others, so that embeddings do not depend on padding or batching
+
+VOCABULARY_SIZE = 20
+EMBEDDING_SIZE = 16
+
+INPUT_IDS = helper.make_tensor_value_info('input_ids', TensorProto.INT64, ['batch', 'tokens'])
+ATTENTION_MASK = helper.make_tensor_value_info('attention_mask', TensorProto.INT64, ['batch', 'tokens'])
+TOKEN_TYPE_IDS = helper.make_tensor_value_info('token_type_ids', TensorProto.INT64, ['batch', 'tokens'])
+OUTPUT = helper.make_tensor_value_info('output_0', TensorProto.FLOAT, ['batch', 'tokens', EMBEDDING_SIZE])
+
+EMBEDDINGS = numpy_helper.from_array(numpy.sin(numpy.arange(VOCABULARY_SIZE * EMBEDDING_SIZE))
+                                          .reshape(VOCABULARY_SIZE, EMBEDDING_SIZE).astype(numpy.float32),
+                                     name='embeddings')
+
+nodes = [
+    helper.make_node('Mul', ['input_ids', 'attention_mask'], ['masked_ids']),
+    helper.make_node('Add', ['masked_ids', 'token_type_ids'], ['ids']),
+    helper.make_node('Gather', ['embeddings', 'ids'], ['output_0']),
+]
+graph_def = helper.make_graph(
+    nodes,
+    'dummy_token_embedder',
+    [
+        INPUT_IDS,
+        ATTENTION_MASK,
+        TOKEN_TYPE_IDS
+    ],
+    [OUTPUT],
+    [EMBEDDINGS],
+)
+model_def = helper.make_model(graph_def, producer_name='dummy_token_embedder.py', opset_imports=[onnx.OperatorSetIdProto(version=12)])
+onnx.save(model_def, 'dummy_token_embedder.onnx')
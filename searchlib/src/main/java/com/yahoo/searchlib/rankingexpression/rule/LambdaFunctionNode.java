@@ -8,6 +8,7 @@ import com.yahoo.searchlib.rankingexpression.evaluation.MapContext;
 import com.yahoo.searchlib.rankingexpression.evaluation.Value;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.tensor.evaluation.TypeContext;
+import com.yahoo.tensor.functions.ScalarFunctions;
 
 import java.util.Collections;
 import java.util.Deque;
@@ -125,9 +126,18 @@ public class LambdaFunctionNode extends CompositeNode {
         switch (operator) {
             case OR: return asFunctionExpression((left, right) -> ((left != 0.0) || (right != 0.0)) ? 1.0 : 0.0);
             case AND: return asFunctionExpression((left, right) -> ((left != 0.0) && (right != 0.0)) ? 1.0 : 0.0);
-            case PLUS: return asFunctionExpression((left, right) -> left + right);
-            case MINUS: return asFunctionExpression((left, right) -> left - right);
-            case MULTIPLY: return asFunctionExpression((left, right) -> left * right);
+            case PLUS: return Optional.of(new ScalarFunctions.Add() {
+                @Override
+                public String toString() { return LambdaFunctionNode.this.toString(); }
+            });
+            case MINUS: return Optional.of(new ScalarFunctions.Subtract() {
+                @Override
+                public String toString() { return LambdaFunctionNode.this.toString(); }
+            });
+            case MULTIPLY: return Optional.of(new ScalarFunctions.Multiply() { // allows tensor functions to use fused kernels
+                @Override
+                public String toString() { return LambdaFunctionNode.this.toString(); }
+            });
             case DIVIDE: return asFunctionExpression((left, right) -> left / right);
             case MODULO: return asFunctionExpression((left, right) -> left % right);
             case POWER: return asFunctionExpression(Math::pow);
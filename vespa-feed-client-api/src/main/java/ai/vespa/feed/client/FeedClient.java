@@ -38,6 +38,28 @@ public interface FeedClient extends Closeable {
      */
     CompletableFuture<Result> remove(DocumentId documentId, OperationParameters params);
 
+    /**
+     * Send a document put with the given parameters, returning a future with the result of the operation.
+     * The document is given in the binary document serialization format of the Vespa document API, rather than
+     * as JSON, which saves the container from parsing it. The document id in the serialized document must
+     * be the given one. Clients which do not support binary operations fail these with a {@link FeedException}.
+     * Exceptional completion will use be an instance of {@link FeedException} or one of its sub-classes.
+     */
+    default CompletableFuture<Result> put(DocumentId documentId, byte[] document, OperationParameters params) {
+        return CompletableFuture.failedFuture(new FeedException(documentId, "binary operations not supported"));
+    }
+
+    /**
+     * Send a document update with the given parameters, returning a future with the result of the operation.
+     * The update is given in the binary document update serialization format of the Vespa document API, rather
+     * than as JSON, which saves the container from parsing it. The document id in the serialized update must
+     * be the given one. Clients which do not support binary operations fail these with a {@link FeedException}.
+     * Exceptional completion will use be an instance of {@link FeedException} or one of its sub-classes.
+     */
+    default CompletableFuture<Result> update(DocumentId documentId, byte[] update, OperationParameters params) {
+        return CompletableFuture.failedFuture(new FeedException(documentId, "binary operations not supported"));
+    }
+
     /**
      * Waits for all feed operations to complete, either successfully or with exception.
      * @throws MultiFeedException if any operation fails
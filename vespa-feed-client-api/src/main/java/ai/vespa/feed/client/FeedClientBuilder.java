@@ -7,6 +7,7 @@ import java.net.URI;
 import java.nio.file.Path;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -97,6 +98,34 @@ public interface FeedClientBuilder {
 
     FeedClientBuilder setDryrun(boolean enabled);
 
+    /**
+     * Selects latency-based throttling, which adjusts the number of inflight operations to keep the round-trip time
+     * of requests close to its long-term average, instead of sampling throughput for different numbers of inflight
+     * operations. This is more stable when round-trip times are long, e.g., when feeding across a WAN link, or
+     * when the nodes of the cluster to feed have uneven speed. Throughput sampling is used by default.
+     */
+    FeedClientBuilder setLatencyBasedThrottling(boolean enabled);
+
+    /**
+     * Enables coalescing of JSON document operations into batch requests, which are sent when they reach
+     * the given size in bytes, or when the first operation in them has waited for the given delay.
+     *
+     * This reduces per-request overhead when feeding small documents, at the cost of some latency.
+     * Operations on the same document are never sent in the same batch, so per-document ordering is preserved.
+     * Requires the /document/v1/batch API in the container cluster to feed. Batching is disabled by default.
+     */
+    FeedClientBuilder setBatching(int maxBatchBytes, Duration maxBatchDelay);
+
+    /**
+     * Compresses request bodies of at least the given size in bytes with the given algorithm, and sets the
+     * Content-Encoding header accordingly. This trades client CPU for network bandwidth, which pays off when
+     * feeding large text documents over a constrained network. Bodies are not compressed by default.
+     */
+    FeedClientBuilder setCompression(Compression compression, int minBytes);
+
+    /** Algorithms for compression of request bodies. */
+    enum Compression { none, gzip, zstd }
+
     /**
      * Overrides JVM default SSL truststore
      * @param caCertificatesFile Path to PEM encoded file containing trusted certificates
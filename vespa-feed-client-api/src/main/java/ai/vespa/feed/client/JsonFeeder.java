@@ -12,12 +12,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -45,12 +53,16 @@ public class JsonFeeder implements Closeable {
     });
     private final FeedClient client;
     private final OperationParameters protoParameters;
+    private final int parallelism;
     private final AtomicInteger globalInflightOperations = new AtomicInteger(0);
+    private final AtomicLong operationsParsed = new AtomicLong(0);
+    private final AtomicLong bytesParsed = new AtomicLong(0);
     private volatile boolean closed = false;
 
-    private JsonFeeder(FeedClient client, OperationParameters protoParameters) {
+    private JsonFeeder(FeedClient client, OperationParameters protoParameters, int parallelism) {
         this.client = client;
         this.protoParameters = protoParameters;
+        this.parallelism = parallelism;
     }
 
     public interface ResultCallback {
@@ -130,8 +142,11 @@ public class JsonFeeder implements Closeable {
      *     ]
      * </pre>
      * Note that {@code "id"} is an alias for the document put operation.
+     * The stream may also contain a sequence of such operations, without the enclosing array, as in JSONL.
      * Exceptional completion will use be an instance of {@link FeedException} or one of its sub-classes.
      * The input stream will be closed upon exhaustion, or error.
+     * With a {@link Builder#withParallelism parallelism} above 1, the input is split into chunks of whole operations,
+     * which are parsed by that many threads; operations are still dispatched to the client in input order.
      */
     public CompletableFuture<Void> feedMany(InputStream jsonStream, ResultCallback resultCallback) {
         return feedMany(jsonStream, 1 << 26, resultCallback);
@@ -151,8 +166,8 @@ public class JsonFeeder implements Closeable {
         CompletableFuture<Result> result;
         AtomicInteger localInflightOperations = new AtomicInteger(1); // The below dispatch loop itself is counted as a single pending operation
         AtomicBoolean finalCallbackInvoked = new AtomicBoolean();
-        try (RingBufferStream buffer = new RingBufferStream(jsonStream, size)) {
-            while ((result = buffer.next()) != null) {
+        try (OperationSource source = parallelism > 1 ? new ParallelOperationSource(jsonStream) : new RingBufferStream(jsonStream, size)) {
+            while ((result = source.next()) != null) {
                 localInflightOperations.incrementAndGet();
                 globalInflightOperations.incrementAndGet();
                 result.whenCompleteAsync((r, t) -> {
@@ -184,6 +199,15 @@ public class JsonFeeder implements Closeable {
         return overallResult;
     }
 
+    /** Returns the statistics of the client, with the number of operations and bytes of input parsed by this. */
+    public OperationStats stats() {
+        OperationStats stats = client.stats();
+        return new OperationStats(stats.requests(), stats.responsesByCode(), stats.exceptions(), stats.inflight(),
+                                  stats.averageLatencyMillis(), stats.minLatencyMillis(), stats.maxLatencyMillis(),
+                                  stats.bytesSent(), stats.bytesReceived(), stats.bytesCompressed(), stats.bytesAfterCompression(),
+                                  operationsParsed.get(), bytesParsed.get());
+    }
+
     private static void invokeCallback(ResultCallback callback, Consumer<ResultCallback> invocation) {
         try {
             invocation.accept(callback);
@@ -225,7 +249,14 @@ public class JsonFeeder implements Closeable {
         return new FeedException(e);
     }
 
-    private class RingBufferStream extends InputStream {
+    private interface OperationSource extends Closeable {
+
+        /** Dispatches the next operation from the feed input, and returns its result, or null if the input is exhausted. */
+        CompletableFuture<Result> next() throws IOException;
+
+    }
+
+    private class RingBufferStream extends InputStream implements OperationSource {
 
         private final byte[] b = new byte[1];
         private final InputStream in;
@@ -285,6 +316,7 @@ public class JsonFeeder implements Closeable {
             }
         }
 
+        @Override
         public CompletableFuture<Result> next() throws IOException {
            return parserAndExecutor.next();
         }
@@ -367,7 +399,7 @@ public class JsonFeeder implements Closeable {
 
         private class RingBufferBackedOperationParserAndExecutor extends OperationParserAndExecutor {
 
-            RingBufferBackedOperationParserAndExecutor(JsonParser parser) { super(parser, true); }
+            RingBufferBackedOperationParserAndExecutor(JsonParser parser) { super(parser, true, 0, 1, 1); }
 
             @Override
             String getDocumentJson(long start, long end) {
@@ -381,12 +413,223 @@ public class JsonFeeder implements Closeable {
         }
     }
 
+    /**
+     * Splits the feed input into chunks of whole operations, which are parsed by a pool of threads, and returned in input order.
+     * Splitting only tracks the nesting of objects, arrays and strings, which is much cheaper than parsing.
+     * Whitespace between operations is kept, and separators are blanked, so positions in errors match the input.
+     */
+    private class ParallelOperationSource implements OperationSource {
+
+        private static final int chunkBytes = 1 << 18;
+
+        private final InputStream in;
+        private final ExecutorService parsers;
+        private final BlockingQueue<CompletableFuture<Chunk>> chunks;
+        private final Thread splitter;
+        private Iterator<Operation> operations = Collections.emptyIterator();
+        private Exception failure = null;
+
+        ParallelOperationSource(InputStream in) {
+            this.in = in;
+            AtomicInteger threads = new AtomicInteger();
+            this.parsers = Executors.newFixedThreadPool(parallelism, r -> {
+                Thread t = new Thread(r, "json-feeder-parser-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            this.chunks = new ArrayBlockingQueue<>(4 * parallelism);
+            this.splitter = new Thread(this::split, "feed-splitter");
+            splitter.setDaemon(true);
+            splitter.start();
+        }
+
+        @Override
+        public CompletableFuture<Result> next() throws IOException {
+            while ( ! operations.hasNext()) {
+                if (failure instanceof IOException) throw (IOException) failure;
+                if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+
+                Chunk chunk;
+                try {
+                    chunk = chunks.take().join();
+                }
+                catch (InterruptedException e) {
+                    throw new InterruptedIOException("Interrupted waiting for operations: " + e.getMessage());
+                }
+                if (chunk == null) return null;
+                operations = chunk.parsed.iterator();
+                failure = chunk.failure; // Thrown after dispatching the operations parsed before it.
+            }
+            return operations.next().dispatch();
+        }
+
+        private void split() {
+            try {
+                Exception failure = null;
+                Chunk chunk = new Chunk();
+                byte[] buffer = new byte[1 << 16];
+                long offset = 0;
+                int line = 1, column = 1, depth = 0;
+                boolean first = true, array = false, string = false, escaped = false;
+                try {
+                    read: while (true) {
+                        if (depth == 0 && chunk.operations > 0 && in.available() <= 0)
+                            chunk = dispatch(chunk); // Don't hold back operations while waiting for more input.
+
+                        int read = in.read(buffer);
+                        if (read < 0) {
+                            if (array && depth == 0) failure = parseException("Unexpected end of input", offset, line, column);
+                            break;
+                        }
+                        for (int i = 0; i < read; i++) {
+                            byte b = buffer[i];
+                            if (depth > 0) {
+                                if (string) {
+                                    if (escaped) escaped = false;
+                                    else if (b == '\\') escaped = true;
+                                    else if (b == '"') string = false;
+                                }
+                                else switch (b) {
+                                    case '"': string = true; break;
+                                    case '{': case '[': ++depth; break;
+                                    case '}': case ']': --depth; break;
+                                }
+                                chunk.append(b);
+                                if (depth == 0) {
+                                    ++chunk.operations;
+                                    if (chunk.size >= chunkBytes) chunk = dispatch(chunk);
+                                }
+                            }
+                            else switch (b) {
+                                case ' ': case '\t': case '\r': case '\n':
+                                    if (chunk.size > 0) chunk.append(b);
+                                    break;
+                                case '{':
+                                    if (chunk.size == 0) chunk.start(offset, line, column);
+                                    chunk.append(b);
+                                    depth = 1;
+                                    first = false;
+                                    break;
+                                case '[':
+                                    if ( ! first) { failure = parseException("Unexpected character '['", offset, line, column); break read; }
+                                    array = true;
+                                    first = false;
+                                    break;
+                                case ',':
+                                    if ( ! array) { failure = parseException("Unexpected character ','", offset, line, column); break read; }
+                                    if (chunk.size > 0) chunk.append((byte) ' ');
+                                    break;
+                                case ']':
+                                    if ( ! array) failure = parseException("Unexpected character ']'", offset, line, column);
+                                    break read;
+                                default:
+                                    failure = parseException("Unexpected character '" + (char) b + "'", offset, line, column);
+                                    break read;
+                            }
+                            ++offset;
+                            if (b == '\n') { ++line; column = 1; }
+                            else ++column;
+                        }
+                    }
+                }
+                catch (IOException e) {
+                    failure = e;
+                }
+                if (chunk.size > 0) dispatch(chunk);
+                chunks.put(CompletableFuture.completedFuture(failure == null ? null : new Chunk(failure)));
+            }
+            catch (InterruptedException e) {
+                // Closed.
+            }
+            catch (RuntimeException e) {
+                chunks.offer(CompletableFuture.completedFuture(new Chunk(e)));
+            }
+        }
+
+        private OperationParseException parseException(String error, long offset, int line, int column) {
+            return new OperationParseException(error + " at offset " + offset + " (line " + line + ", column " + column + ")");
+        }
+
+        /** Submits the given chunk for parsing, and returns a new, empty chunk. */
+        private Chunk dispatch(Chunk chunk) throws InterruptedException {
+            CompletableFuture<Chunk> parsed = new CompletableFuture<>();
+            parsers.execute(() -> {
+                try {
+                    chunk.parse();
+                    parsed.complete(chunk);
+                }
+                catch (Throwable t) {
+                    parsed.completeExceptionally(t);
+                }
+            });
+            chunks.put(parsed);
+            return new Chunk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            splitter.interrupt();
+            parsers.shutdownNow();
+            in.close();
+        }
+
+        private class Chunk {
+
+            private byte[] data = new byte[1 << 16];
+            private int size = 0;
+            private int operations = 0;
+            private long offset = 0;
+            private int line = 1;
+            private int column = 1;
+            private List<Operation> parsed = Collections.emptyList();
+            private Exception failure = null;
+
+            Chunk() { }
+
+            Chunk(Exception failure) {
+                this.failure = failure;
+            }
+
+            void start(long offset, int line, int column) {
+                this.offset = offset;
+                this.line = line;
+                this.column = column;
+            }
+
+            void append(byte b) {
+                if (size == data.length) data = Arrays.copyOf(data, 2 * size);
+                data[size++] = b;
+            }
+
+            /** Parses the operations in this, until the end, or the first error, which is kept. */
+            void parse() {
+                parsed = new ArrayList<>(operations);
+                try {
+                    OperationParserAndExecutor parser = new SingleOperationParserAndExecutor(data, size, offset, line, column);
+                    for (Operation operation; (operation = parser.parse()) != null; )
+                        parsed.add(operation);
+                }
+                catch (IOException | RuntimeException e) {
+                    failure = e;
+                }
+                data = null;
+            }
+
+        }
+
+    }
+
     private class SingleOperationParserAndExecutor extends OperationParserAndExecutor {
 
         private final byte[] json;
 
         SingleOperationParserAndExecutor(byte[] json) throws IOException {
-            super(factory.createParser(json), false);
+            this(json, json.length, 0, 1, 1);
+        }
+
+        /** Parses the first {@code length} bytes of {@code json}, which are found at the given position in the feed input. */
+        SingleOperationParserAndExecutor(byte[] json, int length, long offset, int line, int column) throws IOException {
+            super(factory.createParser(json, 0, length), false, offset, line, column);
             this.json = json;
         }
 
@@ -400,22 +643,40 @@ public class JsonFeeder implements Closeable {
 
         private final JsonParser parser;
         private final boolean multipleOperations;
+        private final long inputOffset;
+        private final int inputLine;
+        private final int inputColumn;
         private boolean arrayPrefixParsed;
 
-        protected OperationParserAndExecutor(JsonParser parser, boolean multipleOperations) {
+        /** The parsed bytes are found at the given offset, line and column of the feed input, for error messages. */
+        protected OperationParserAndExecutor(JsonParser parser, boolean multipleOperations, long inputOffset, int inputLine, int inputColumn) {
             this.parser = parser;
             this.multipleOperations = multipleOperations;
+            this.inputOffset = inputOffset;
+            this.inputLine = inputLine;
+            this.inputColumn = inputColumn;
         }
 
         abstract String getDocumentJson(long start, long end);
 
+        private long offset() {
+            return inputOffset + parser.getTokenLocation().getByteOffset();
+        }
+
         OperationParseException parseException(String error) {
             JsonLocation location = parser.getTokenLocation();
-            return new OperationParseException(error + " at offset " + location.getByteOffset() +
-                                               " (line " + location.getLineNr() + ", column " + location.getColumnNr() + ")");
+            int line = location.getLineNr(), column = location.getColumnNr();
+            return new OperationParseException(error + " at offset " + offset() +
+                                               " (line " + (inputLine + line - 1) + ", column " + (line == 1 ? inputColumn + column - 1 : column) + ")");
         }
 
         CompletableFuture<Result> next() throws IOException {
+            Operation operation = parse();
+            return operation == null ? null : operation.dispatch();
+        }
+
+        /** Parses the next operation, or returns null if there are no more. */
+        Operation parse() throws IOException {
             JsonToken token = parser.nextToken();
             if (multipleOperations && ! arrayPrefixParsed && token == JsonToken.START_ARRAY) {
                 arrayPrefixParsed = true;
@@ -424,6 +685,7 @@ public class JsonFeeder implements Closeable {
             if (token == JsonToken.END_ARRAY && multipleOperations) return null;
             else if (token == null && ! arrayPrefixParsed) return null;
             else if (token != JsonToken.START_OBJECT) throw parseException("Unexpected token '" + parser.currentToken() + "'");
+            long operationStart = parser.getTokenLocation().getByteOffset();
             long start = 0, end = -1;
             OperationType type = null;
             DocumentId id = null;
@@ -471,25 +733,21 @@ public class JsonFeeder implements Closeable {
             else if (end < start)
                 throw parseException("No 'fields' object for document");
 
-            String payload = getDocumentJson(start, end);
-            switch (type) {
-                case PUT:    return client.put   (id, payload, parameters);
-                case UPDATE: return client.update(id, payload, parameters);
-                case REMOVE: return client.remove(id, parameters);
-                default: throw new OperationParseException("Unexpected operation type '" + type + "'");
-            }
+            operationsParsed.incrementAndGet();
+            bytesParsed.addAndGet(parser.getTokenLocation().getByteOffset() + 1 - operationStart);
+            return new Operation(type, id, getDocumentJson(start, end), parameters);
         }
 
         private void expect(JsonToken token) throws IOException {
             if (parser.nextToken() != token)
-                throw new OperationParseException("Expected '" + token + "' at offset " + parser.getTokenLocation().getByteOffset() +
+                throw new OperationParseException("Expected '" + token + "' at offset " + offset() +
                         ", but found '" + parser.currentToken() + "' (" + parser.getText() + ")");
         }
 
         private String readString() throws IOException {
             String value = parser.nextTextValue();
             if (value == null)
-                throw new OperationParseException("Expected '" + JsonToken.VALUE_STRING + "' at offset " + parser.getTokenLocation().getByteOffset() +
+                throw new OperationParseException("Expected '" + JsonToken.VALUE_STRING + "' at offset " + offset() +
                                                   ", but found '" + parser.currentToken() + "' (" + parser.getText() + ")");
 
             return value;
@@ -498,7 +756,7 @@ public class JsonFeeder implements Closeable {
         private boolean readBoolean() throws IOException {
             Boolean value = parser.nextBooleanValue();
             if (value == null)
-                throw new OperationParseException("Expected '" + JsonToken.VALUE_FALSE + "' or '" + JsonToken.VALUE_TRUE + "' at offset " + parser.getTokenLocation().getByteOffset() +
+                throw new OperationParseException("Expected '" + JsonToken.VALUE_FALSE + "' or '" + JsonToken.VALUE_TRUE + "' at offset " + offset() +
                                                   ", but found '" + parser.currentToken() + "' (" + parser.getText() + ")");
 
             return value;
@@ -511,10 +769,36 @@ public class JsonFeeder implements Closeable {
 
     }
 
+    private class Operation {
+
+        private final OperationType type;
+        private final DocumentId id;
+        private final String payload;
+        private final OperationParameters parameters;
+
+        Operation(OperationType type, DocumentId id, String payload, OperationParameters parameters) {
+            this.type = type;
+            this.id = id;
+            this.payload = payload;
+            this.parameters = parameters;
+        }
+
+        CompletableFuture<Result> dispatch() {
+            switch (type) {
+                case PUT:    return client.put   (id, payload, parameters);
+                case UPDATE: return client.update(id, payload, parameters);
+                case REMOVE: return client.remove(id, parameters);
+                default: throw new OperationParseException("Unexpected operation type '" + type + "'");
+            }
+        }
+
+    }
+
     public static class Builder {
 
         final FeedClient client;
         OperationParameters parameters = OperationParameters.empty();
+        int parallelism = 1;
 
         private Builder(FeedClient client) {
             this.client = requireNonNull(client);
@@ -535,8 +819,18 @@ public class JsonFeeder implements Closeable {
             return this;
         }
 
+        /**
+         * Sets the number of threads parsing the input of {@link JsonFeeder#feedMany}. With the default of 1,
+         * operations are parsed by the calling thread, and larger values help when parsing limits throughput.
+         */
+        public Builder withParallelism(int parallelism) {
+            if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive, but was " + parallelism);
+            this.parallelism = parallelism;
+            return this;
+        }
+
         public JsonFeeder build() {
-            return new JsonFeeder(client, parameters);
+            return new JsonFeeder(client, parameters, parallelism);
         }
 
     }
@@ -21,10 +21,22 @@ public class OperationStats {
     private final long maxLatencyMillis;
     private final long bytesSent;
     private final long bytesReceived;
+    private final long bytesCompressed;
+    private final long bytesAfterCompression;
+    private final long operationsParsed;
+    private final long bytesParsed;
 
     public OperationStats(long requests, Map<Integer, Long> responsesByCode, long exceptions, long inflight,
                           long averageLatencyMillis, long minLatencyMillis, long maxLatencyMillis,
                           long bytesSent, long bytesReceived) {
+        this(requests, responsesByCode, exceptions, inflight, averageLatencyMillis, minLatencyMillis, maxLatencyMillis,
+             bytesSent, bytesReceived, 0, 0, 0, 0);
+    }
+
+    public OperationStats(long requests, Map<Integer, Long> responsesByCode, long exceptions, long inflight,
+                          long averageLatencyMillis, long minLatencyMillis, long maxLatencyMillis,
+                          long bytesSent, long bytesReceived, long bytesCompressed, long bytesAfterCompression,
+                          long operationsParsed, long bytesParsed) {
         this.requests = requests;
         this.responsesByCode = responsesByCode;
         this.exceptions = exceptions;
@@ -34,6 +46,10 @@ public class OperationStats {
         this.maxLatencyMillis = maxLatencyMillis;
         this.bytesSent = bytesSent;
         this.bytesReceived = bytesReceived;
+        this.bytesCompressed = bytesCompressed;
+        this.bytesAfterCompression = bytesAfterCompression;
+        this.operationsParsed = operationsParsed;
+        this.bytesParsed = bytesParsed;
     }
 
     /** Returns the difference between this and the initial. Min and max latency are not modified. */
@@ -50,7 +66,11 @@ public class OperationStats {
                                   minLatencyMillis,
                                   maxLatencyMillis,
                                   bytesSent - initial.bytesSent,
-                                  bytesReceived - initial.bytesReceived);
+                                  bytesReceived - initial.bytesReceived,
+                                  bytesCompressed - initial.bytesCompressed,
+                                  bytesAfterCompression - initial.bytesAfterCompression,
+                                  operationsParsed - initial.operationsParsed,
+                                  bytesParsed - initial.bytesParsed);
     }
 
     /** Number of HTTP requests attempted. */
@@ -108,17 +128,42 @@ public class OperationStats {
         return bytesReceived;
     }
 
+    /** Number of bytes of request bodies which were compressed before they were sent; these are included in {@link #bytesSent()}. */
+    public long bytesCompressed() {
+        return bytesCompressed;
+    }
+
+    /** Number of bytes the compressed request bodies were reduced to. */
+    public long bytesAfterCompression() {
+        return bytesAfterCompression;
+    }
+
+    /** Ratio between the sizes of compressed request bodies before and after compression, or 1 if none were compressed. */
+    public double compressionRatio() {
+        return bytesAfterCompression == 0 ? 1 : (double) bytesCompressed / bytesAfterCompression;
+    }
+
+    /** Number of operations parsed from feed input, when obtained from a {@link JsonFeeder}. */
+    public long operationsParsed() {
+        return operationsParsed;
+    }
+
+    /** Number of bytes of feed input parsed into operations, when obtained from a {@link JsonFeeder}. */
+    public long bytesParsed() {
+        return bytesParsed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         OperationStats that = (OperationStats) o;
-        return requests == that.requests && inflight == that.inflight && exceptions == that.exceptions && averageLatencyMillis == that.averageLatencyMillis && minLatencyMillis == that.minLatencyMillis && maxLatencyMillis == that.maxLatencyMillis && bytesSent == that.bytesSent && bytesReceived == that.bytesReceived && responsesByCode.equals(that.responsesByCode);
+        return requests == that.requests && inflight == that.inflight && exceptions == that.exceptions && averageLatencyMillis == that.averageLatencyMillis && minLatencyMillis == that.minLatencyMillis && maxLatencyMillis == that.maxLatencyMillis && bytesSent == that.bytesSent && bytesReceived == that.bytesReceived && bytesCompressed == that.bytesCompressed && bytesAfterCompression == that.bytesAfterCompression && operationsParsed == that.operationsParsed && bytesParsed == that.bytesParsed && responsesByCode.equals(that.responsesByCode);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(requests, responsesByCode, inflight, exceptions, averageLatencyMillis, minLatencyMillis, maxLatencyMillis, bytesSent, bytesReceived);
+        return Objects.hash(requests, responsesByCode, inflight, exceptions, averageLatencyMillis, minLatencyMillis, maxLatencyMillis, bytesSent, bytesReceived, bytesCompressed, bytesAfterCompression, operationsParsed, bytesParsed);
     }
 
     @Override
@@ -133,6 +178,10 @@ public class OperationStats {
                ", maxLatencyMillis=" + maxLatencyMillis +
                ", bytesSent=" + bytesSent +
                ", bytesReceived=" + bytesReceived +
+               ", bytesCompressed=" + bytesCompressed +
+               ", bytesAfterCompression=" + bytesAfterCompression +
+               ", operationsParsed=" + operationsParsed +
+               ", bytesParsed=" + bytesParsed +
                '}';
     }
 
@@ -10,8 +10,10 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -157,14 +159,73 @@ class JsonFeederTest {
         }
     }
 
+    @Test
+    void parallelParsingDispatchesOperationsInInputOrder() throws ExecutionException, InterruptedException {
+        int docs = 1 << 12;
+        List<String> operations = IntStream.range(0, docs)
+                                           .mapToObj(i -> "{\"put\": \"id:ns:type::abc" + (i % 100) + "\", " +
+                                                          "\"fields\": { \"n\": " + i + ", \"s\": \"}{[\\\"\" }}")
+                                           .collect(Collectors.toList());
+        String jsonl = String.join("\n", operations) + "\n";
+        String array = "[\n  " + String.join(",\n  ", operations) + "\n]";
+
+        for (String json : Arrays.asList(jsonl, array)) {
+            MockClient sequential = new MockClient();
+            JsonFeeder sequentialFeeder = JsonFeeder.builder(sequential).build();
+            sequentialFeeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8))).get();
+
+            MockClient parallel = new MockClient();
+            JsonFeeder parallelFeeder = JsonFeeder.builder(parallel).withParallelism(4).build();
+            parallelFeeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8))).get();
+
+            assertEquals(docs, parallel.dispatched.size());
+            assertEquals("id:ns:type::abc99: {\"fields\":{ \"n\": 99, \"s\": \"}{[\\\"\" }}", parallel.dispatched.get(99));
+            assertEquals(sequential.dispatched, parallel.dispatched);
+            assertEquals(docs, parallelFeeder.stats().operationsParsed());
+            assertEquals(sequentialFeeder.stats().bytesParsed(), parallelFeeder.stats().bytesParsed());
+        }
+    }
+
+    @Test
+    void parallelParsingReportsErrorsAtInputPosition() {
+        String operations = IntStream.range(0, 1 << 13)
+                                     .mapToObj(i -> "{ \"put\": \"id:ns:type::abc" + i + "\", \"fields\": { \"n\": " + i + " } }\n")
+                                     .collect(joining());
+        String json = operations + "{ \"put\": \"id:ns:type::abc\",\n  \"fields\": { }, \"foo\": 1 }\n";
+        MockClient sequential = new MockClient();
+        MockClient parallel = new MockClient();
+        FeedException expected = feedError(JsonFeeder.builder(sequential).build(), json);
+        assertEquals("Unexpected field name 'foo' at offset " + (json.length() - 11) + " (line " + ((1 << 13) + 2) + ", column 18)", expected.getMessage());
+        assertEquals(expected.getMessage(), feedError(JsonFeeder.builder(parallel).withParallelism(4).build(), json).getMessage());
+        assertEquals(sequential.dispatched, parallel.dispatched);
+
+        json = "[" + operations.replace("}\n", "},\n") + "x";
+        assertEquals("Unexpected character 'x' at offset " + (json.length() - 1) + " (line " + ((1 << 13) + 1) + ", column 1)",
+                     feedError(JsonFeeder.builder(new MockClient()).withParallelism(4).build(), json).getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> JsonFeeder.builder(new MockClient()).withParallelism(0));
+    }
+
+    private static FeedException feedError(JsonFeeder feeder, String json) {
+        AtomicReference<FeedException> error = new AtomicReference<>();
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> feeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8)), new JsonFeeder.ResultCallback() {
+            @Override public void onError(FeedException e) { error.set(e); }
+        }).get());
+        assertEquals(error.get(), thrown.getCause());
+        return error.get();
+    }
+
     private static class MockClient implements FeedClient {
+        final List<String> dispatched = Collections.synchronizedList(new ArrayList<>());
         final Map<DocumentId, String> putOperations = new LinkedHashMap<>();
         final Map<DocumentId, String> updateOperations = new LinkedHashMap<>();
         final Map<DocumentId, String> removeOperations = new LinkedHashMap<>();
+        final Map<DocumentId, byte[]> binaryOperations = new LinkedHashMap<>();
 
         @Override
         public CompletableFuture<Result> put(DocumentId documentId, String documentJson, OperationParameters params) {
             putOperations.put(documentId, documentJson);
+            dispatched.add(documentId + ": " + documentJson);
             return createSuccessResult(documentId);
         }
 
@@ -181,7 +242,19 @@ class JsonFeederTest {
         }
 
         @Override
-        public OperationStats stats() { return null; }
+        public CompletableFuture<Result> put(DocumentId documentId, byte[] document, OperationParameters params) {
+            binaryOperations.put(documentId, document);
+            return createSuccessResult(documentId);
+        }
+
+        @Override
+        public CompletableFuture<Result> update(DocumentId documentId, byte[] update, OperationParameters params) {
+            binaryOperations.put(documentId, update);
+            return createSuccessResult(documentId);
+        }
+
+        @Override
+        public OperationStats stats() { return new OperationStats(0, Collections.emptyMap(), 0, 0, 0, 0, 0, 0, 0); }
 
         @Override
         public CircuitBreaker.State circuitBreakerState() { return null; }
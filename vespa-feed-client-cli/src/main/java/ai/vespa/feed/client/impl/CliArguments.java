@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package ai.vespa.feed.client.impl;
 
+import ai.vespa.feed.client.FeedClientBuilder.Compression;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -36,6 +37,7 @@ class CliArguments {
     private static final String BENCHMARK_OPTION = "benchmark";
     private static final String CA_CERTIFICATES_OPTION = "ca-certificates";
     private static final String CERTIFICATE_OPTION = "certificate";
+    private static final String COMPRESSION_OPTION = "compression";
     private static final String CONNECTIONS_OPTION = "connections";
     private static final String DISABLE_SSL_HOSTNAME_VERIFICATION_OPTION = "disable-ssl-hostname-verification";
     private static final String DRYRUN_OPTION = "dryrun";
@@ -44,6 +46,7 @@ class CliArguments {
     private static final String HEADER_OPTION = "header";
     private static final String HELP_OPTION = "help";
     private static final String MAX_STREAMS_PER_CONNECTION = "max-streams-per-connection";
+    private static final String PARSE_THREADS_OPTION = "parse-threads";
     private static final String PRIVATE_KEY_OPTION = "private-key";
     private static final String ROUTE_OPTION = "route";
     private static final String TIMEOUT_OPTION = "timeout";
@@ -106,6 +109,18 @@ class CliArguments {
 
     OptionalInt maxStreamsPerConnection() throws CliArgumentsException { return intValue(MAX_STREAMS_PER_CONNECTION); }
 
+    OptionalInt parseThreads() throws CliArgumentsException { return intValue(PARSE_THREADS_OPTION); }
+
+    Optional<Compression> compression() throws CliArgumentsException {
+        Optional<String> compression = stringValue(COMPRESSION_OPTION);
+        if ( ! compression.isPresent()) return Optional.empty();
+        try {
+            return Optional.of(Compression.valueOf(compression.get()));
+        } catch (IllegalArgumentException e) {
+            throw new CliArgumentsException(String.format("Invalid value for '%s': '%s'", COMPRESSION_OPTION, compression.get()), e);
+        }
+    }
+
     Optional<CertificateAndKey> certificateAndKey() throws CliArgumentsException {
         Path certificateFile = fileValue(CERTIFICATE_OPTION).orElse(null);
         Path privateKeyFile = fileValue(PRIVATE_KEY_OPTION).orElse(null);
@@ -249,6 +264,17 @@ class CliArguments {
                         .hasArg()
                         .type(Number.class)
                         .build())
+                .addOption(Option.builder()
+                        .longOpt(PARSE_THREADS_OPTION)
+                        .desc("Number of threads parsing the feed input. Default is 1")
+                        .hasArg()
+                        .type(Number.class)
+                        .build())
+                .addOption(Option.builder()
+                        .longOpt(COMPRESSION_OPTION)
+                        .desc("Compress request bodies larger than 1 KiB, with 'gzip' or 'zstd'. Disabled by default")
+                        .hasArg()
+                        .build())
                 .addOption(Option.builder()
                         .longOpt(CERTIFICATE_OPTION)
                         .desc("Path to PEM encoded X.509 certificate file")
@@ -78,7 +78,7 @@ public class CliClient {
                         try {
                             while ( ! latch.await(10, TimeUnit.SECONDS)) {
                                 synchronized (printMonitor) {
-                                    printBenchmarkResult(System.nanoTime() - startNanos, successes.get(), failures.get(), feedClient.stats(), systemError);
+                                    printBenchmarkResult(System.nanoTime() - startNanos, successes.get(), failures.get(), feeder.stats(), systemError);
                                 }
                             }
                         }
@@ -95,7 +95,7 @@ public class CliClient {
                 });
                 latch.await();
 
-                printBenchmarkResult(System.nanoTime() - startNanos, successes.get(), failures.get(), feedClient.stats(), cliArgs.benchmarkModeEnabled() ? systemOut : systemError);
+                printBenchmarkResult(System.nanoTime() - startNanos, successes.get(), failures.get(), feeder.stats(), cliArgs.benchmarkModeEnabled() ? systemOut : systemError);
                 if (fatal.get() != null) throw fatal.get();
             }
             return 0;
@@ -139,6 +139,7 @@ public class CliClient {
         cliArgs.doomSeconds().ifPresent(doom -> builder.setCircuitBreaker(new GracePeriodCircuitBreaker(Duration.ofSeconds(10),
                                                                                                         Duration.ofSeconds(doom))));
         cliArgs.proxy().ifPresent(builder::setProxy);
+        cliArgs.compression().ifPresent(compression -> builder.setCompression(compression, 1 << 10));
         return builder.build();
     }
 
@@ -147,6 +148,7 @@ public class CliClient {
         cliArgs.timeout().ifPresent(builder::withTimeout);
         cliArgs.route().ifPresent(builder::withRoute);
         cliArgs.traceLevel().ifPresent(builder::withTracelevel);
+        cliArgs.parseThreads().ifPresent(builder::withParallelism);
         return builder.build();
     }
 
@@ -179,9 +181,13 @@ public class CliClient {
             writeFloatField(generator, "feeder.ok.rate", successes * 1e9 / Math.max(1, durationNanos), 3);
             generator.writeNumberField("feeder.error.count", failures);
             generator.writeNumberField("feeder.inflight.count", stats.inflight());
+            generator.writeNumberField("feeder.parse.count", stats.operationsParsed());
+            generator.writeNumberField("feeder.parse.bytes", stats.bytesParsed());
+            writeFloatField(generator, "feeder.parse.rate", stats.operationsParsed() * 1e9 / Math.max(1, durationNanos), 3);
 
             generator.writeNumberField("http.request.count", stats.requests());
             generator.writeNumberField("http.request.bytes", stats.bytesSent());
+            writeFloatField(generator, "http.request.compression.ratio", stats.compressionRatio(), 3);
 
             generator.writeNumberField("http.exception.count", stats.exceptions());
 
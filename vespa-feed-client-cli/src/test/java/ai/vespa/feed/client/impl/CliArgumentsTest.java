@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package ai.vespa.feed.client.impl;
 
+import ai.vespa.feed.client.FeedClientBuilder.Compression;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
@@ -24,7 +25,7 @@ class CliArgumentsTest {
     void parses_parameters_correctly() throws CliArguments.CliArgumentsException {
         CliArguments args = CliArguments.fromRawArgs(new String[]{
                 "--endpoint=https://vespa.ai:4443/", "--file=feed.json", "--connections=10",
-                "--max-streams-per-connection=128", "--certificate=cert.pem", "--private-key=key.pem",
+                "--max-streams-per-connection=128", "--parse-threads=4", "--compression=zstd", "--certificate=cert.pem", "--private-key=key.pem",
                 "--ca-certificates=ca-certs.pem", "--disable-ssl-hostname-verification",
                 "--header=\"My-Header: my-value\"", "--header", "Another-Header: another-value", "--benchmark",
                 "--route=myroute", "--timeout=0.125", "--trace=9", "--verbose", "--silent",
@@ -33,6 +34,8 @@ class CliArgumentsTest {
         assertEquals(Paths.get("feed.json"), args.inputFile().get());
         assertEquals(10, args.connections().getAsInt());
         assertEquals(128, args.maxStreamsPerConnection().getAsInt());
+        assertEquals(4, args.parseThreads().getAsInt());
+        assertEquals(Compression.zstd, args.compression().get());
         assertEquals(Paths.get("cert.pem"), args.certificateAndKey().get().certificateFile);
         assertEquals(Paths.get("key.pem"), args.certificateAndKey().get().privateKeyFile);
         assertEquals(Paths.get("ca-certs.pem"), args.caCertificates().get());
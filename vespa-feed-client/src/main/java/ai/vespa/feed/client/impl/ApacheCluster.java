@@ -73,7 +73,8 @@ class ApacheCluster implements Cluster {
             defaultHeaders.forEach(request::setHeader);
             wrapped.headers().forEach((name, value) -> request.setHeader(name, value.get()));
             if (wrapped.body() != null)
-                request.setBody(wrapped.body(), ContentType.APPLICATION_JSON);
+                request.setBody(wrapped.body(), wrapped.contentType() == null ? ContentType.APPLICATION_JSON
+                                                                               : ContentType.create(wrapped.contentType()));
 
             Future<?> future = endpoint.client.execute(request,
                                                        new FutureCallback<SimpleHttpResponse>() {
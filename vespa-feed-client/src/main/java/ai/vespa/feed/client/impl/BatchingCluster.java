@@ -0,0 +1,216 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.HttpResponse;
+import ai.vespa.feed.client.OperationStats;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coalesces batchable requests with the same batch path into batch requests, which are dispatched to the delegate
+ * when they reach the maximum size, or when the first request in them has waited for the maximum delay.
+ * The response of each batched request is the corresponding element of the "results" array of the batch response,
+ * or the whole batch response if this is not a 200. Requests which can not be batched are dispatched directly.
+ * Requests for which there is no result in the batch response, e.g., because the batch could not be parsed
+ * past an earlier malformed operation, or the batch was rejected as a bad request, are dispatched individually.
+ *
+ * The caller must ensure there is never more than one request for any one document in flight, as
+ * all but the first operation on any one document in a batch request fail.
+ */
+class BatchingCluster implements Cluster {
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final Cluster delegate;
+    private final int maxBatchBytes;
+    private final Duration maxBatchDelay;
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "feed-client-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    BatchingCluster(Cluster delegate, int maxBatchBytes, Duration maxBatchDelay) {
+        this.delegate = requireNonNull(delegate);
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchDelay = requireNonNull(maxBatchDelay);
+    }
+
+    @Override
+    public void dispatch(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
+        if (request.batchOperation() == null) {
+            delegate.dispatch(request, vessel);
+            return;
+        }
+
+        Batch full = null, started = null, filled = null;
+        synchronized (batches) {
+            Batch batch = batches.get(request.batchPath());
+            if (batch != null && batch.bytes + request.batchOperation().length + 1 > maxBatchBytes) {
+                full = batches.remove(request.batchPath());
+                batch = null;
+            }
+            if (batch == null) {
+                batches.put(request.batchPath(), started = batch = new Batch(request.batchPath()));
+            }
+            batch.add(request, vessel);
+            if (batch.bytes >= maxBatchBytes)
+                filled = batches.remove(request.batchPath());
+        }
+        if (full != null) send(full);
+        if (filled != null) send(filled);
+        else if (started != null) schedule(started);
+    }
+
+    private void schedule(Batch batch) {
+        try {
+            executor.schedule(() -> flush(batch), maxBatchDelay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        catch (RejectedExecutionException e) {
+            flush(batch); // Closing; send immediately.
+        }
+    }
+
+    /** Sends the given batch, unless it has already been sent. */
+    private void flush(Batch batch) {
+        synchronized (batches) {
+            if ( ! batches.remove(batch.path, batch)) return;
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        if (batch.requests.size() == 1) {
+            delegate.dispatch(batch.requests.get(0), batch.vessels.get(0));
+            return;
+        }
+
+        HttpRequest first = batch.requests.get(0);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(batch.bytes + 2);
+        body.write('[');
+        for (int i = 0; i < batch.requests.size(); i++) {
+            if (i > 0) body.write(',');
+            byte[] operation = batch.requests.get(i).batchOperation();
+            body.write(operation, 0, operation.length);
+        }
+        body.write(']');
+        HttpRequest request = new HttpRequest("POST", batch.path, first.headers(), body.toByteArray(), first.timeout());
+        CompletableFuture<HttpResponse> vessel = new CompletableFuture<>();
+        delegate.dispatch(request, vessel);
+        vessel.whenComplete((response, thrown) -> {
+            if (thrown != null)
+                batch.vessels.forEach(operationVessel -> operationVessel.completeExceptionally(thrown));
+            else if (response.code() == 400)
+                dispatchIncomplete(batch);
+            else if (response.code() != 200)
+                batch.vessels.forEach(operationVessel -> operationVessel.complete(response));
+            else {
+                complete(batch, response);
+                dispatchIncomplete(batch);
+            }
+        });
+    }
+
+    /** Dispatches each request in the batch which is not yet completed individually. */
+    private void dispatchIncomplete(Batch batch) {
+        for (int i = 0; i < batch.requests.size(); i++)
+            if ( ! batch.vessels.get(i).isDone())
+                delegate.dispatch(batch.requests.get(i), batch.vessels.get(i));
+    }
+
+    /** Completes each operation in the batch which has a result in the given batch response with this result. */
+    static void complete(Batch batch, HttpResponse response) {
+        byte[] body = response.body();
+        try {
+            JsonParser parser = factory.createParser(body);
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Expected '" + JsonToken.START_OBJECT + "', but found '" + parser.currentToken() + "'");
+
+            String name;
+            while ((name = parser.nextFieldName()) != null) {
+                if ( ! "results".equals(name)) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                    continue;
+                }
+                if (parser.nextToken() != JsonToken.START_ARRAY)
+                    throw new IOException("Expected 'results' to be an array, but found '" + parser.currentToken() + "'");
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int start = (int) parser.getTokenLocation().getByteOffset();
+                    int index = -1, status = -1;
+                    while ((name = parser.nextFieldName()) != null) {
+                        parser.nextToken();
+                        switch (name) {
+                            case "index":  index = parser.getIntValue();  break;
+                            case "status": status = parser.getIntValue(); break;
+                            default: parser.skipChildren();
+                        }
+                    }
+                    int end = (int) parser.getTokenLocation().getByteOffset() + 1;
+                    if (index < 0 || index >= batch.vessels.size() || status < 0)
+                        throw new IOException("Invalid result in batch response: " + new String(body, start, end - start, UTF_8));
+
+                    batch.vessels.get(index).complete(HttpResponse.of(status, Arrays.copyOfRange(body, start, end)));
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            batch.vessels.forEach(vessel -> vessel.completeExceptionally(new IOException("Failed parsing batch response", e)));
+        }
+    }
+
+    @Override
+    public OperationStats stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        List<Batch> pending;
+        synchronized (batches) {
+            pending = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        pending.forEach(this::send);
+        delegate.close();
+    }
+
+    static class Batch {
+
+        final String path;
+        final List<HttpRequest> requests = new ArrayList<>();
+        final List<CompletableFuture<HttpResponse>> vessels = new ArrayList<>();
+        int bytes = 1; // Opening bracket.
+
+        Batch(String path) { this.path = path; }
+
+        void add(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
+            requests.add(request);
+            vessels.add(vessel);
+            bytes += request.batchOperation().length + 1; // Comma or closing bracket.
+        }
+
+    }
+
+}
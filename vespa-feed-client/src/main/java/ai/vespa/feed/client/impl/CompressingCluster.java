@@ -0,0 +1,108 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.FeedClientBuilder.Compression;
+import ai.vespa.feed.client.HttpResponse;
+import ai.vespa.feed.client.OperationStats;
+import io.airlift.compress.zstd.ZstdCompressor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compresses request bodies of at least a minimum size before dispatching them to the delegate, and sets
+ * the Content-Encoding header accordingly. Bodies which do not become smaller are sent uncompressed.
+ */
+class CompressingCluster implements Cluster {
+
+    private static final ZstdCompressor zstd = new ZstdCompressor();
+
+    private final Cluster delegate;
+    private final Compression compression;
+    private final int minBytes;
+    private final AtomicLong bytesCompressed = new AtomicLong();
+    private final AtomicLong bytesAfterCompression = new AtomicLong();
+
+    CompressingCluster(Cluster delegate, Compression compression, int minBytes) {
+        if (compression == Compression.none) throw new IllegalArgumentException("Compression must be specified");
+        this.delegate = requireNonNull(delegate);
+        this.compression = compression;
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public void dispatch(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
+        byte[] body = request.body();
+        if (body == null || body.length < minBytes) {
+            delegate.dispatch(request, vessel);
+            return;
+        }
+
+        byte[] compressed;
+        try {
+            compressed = compress(body);
+        }
+        catch (IOException | RuntimeException e) {
+            vessel.completeExceptionally(e);
+            return;
+        }
+        if (compressed.length >= body.length) {
+            delegate.dispatch(request, vessel);
+            return;
+        }
+
+        bytesCompressed.addAndGet(body.length);
+        bytesAfterCompression.addAndGet(compressed.length);
+        Map<String, Supplier<String>> headers = new HashMap<>(request.headers());
+        String encoding = compression.name();
+        headers.put("Content-Encoding", () -> encoding);
+        delegate.dispatch(new HttpRequest(request.method(), request.path(), headers, compressed, request.contentType(), request.timeout()),
+                          vessel);
+    }
+
+    byte[] compress(byte[] body) throws IOException {
+        switch (compression) {
+            case gzip:
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 2 + 64);
+                try (OutputStream out = new GZIPOutputStream(buffer, 1 << 13)) {
+                    out.write(body);
+                }
+                return buffer.toByteArray();
+            case zstd:
+                byte[] compressed = new byte[zstd.maxCompressedLength(body.length)];
+                int length = zstd.compress(body, 0, body.length, compressed, 0, compressed.length);
+                return Arrays.copyOf(compressed, length);
+            default:
+                throw new IllegalStateException("Unexpected compression '" + compression + "'");
+        }
+    }
+
+    /** Returns the given stats, with the compression statistics of this. */
+    OperationStats addTo(OperationStats stats) {
+        return new OperationStats(stats.requests(), stats.responsesByCode(), stats.exceptions(), stats.inflight(),
+                                  stats.averageLatencyMillis(), stats.minLatencyMillis(), stats.maxLatencyMillis(),
+                                  stats.bytesSent(), stats.bytesReceived(), bytesCompressed.get(), bytesAfterCompression.get(),
+                                  stats.operationsParsed(), stats.bytesParsed());
+    }
+
+    @Override
+    public OperationStats stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+}
@@ -49,6 +49,11 @@ public class FeedClientBuilderImpl implements FeedClientBuilder {
     Collection<X509Certificate> caCertificates;
     boolean benchmark = true;
     boolean dryrun = false;
+    int maxBatchBytes = 0;
+    Duration maxBatchDelay = Duration.ZERO;
+    boolean latencyBasedThrottling = false;
+    Compression compression = Compression.none;
+    int compressionMinBytes = 0;
     URI proxy;
 
 
@@ -170,6 +175,29 @@ public class FeedClientBuilderImpl implements FeedClientBuilder {
         return this;
     }
 
+    @Override
+    public FeedClientBuilderImpl setLatencyBasedThrottling(boolean enabled) {
+        this.latencyBasedThrottling = enabled;
+        return this;
+    }
+
+    @Override
+    public FeedClientBuilderImpl setBatching(int maxBatchBytes, Duration maxBatchDelay) {
+        if (maxBatchBytes < 1) throw new IllegalArgumentException("Max batch bytes must be at least 1, but was " + maxBatchBytes);
+        if (maxBatchDelay.isNegative()) throw new IllegalArgumentException("Max batch delay cannot be negative, but was " + maxBatchDelay);
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchDelay = maxBatchDelay;
+        return this;
+    }
+
+    @Override
+    public FeedClientBuilderImpl setCompression(Compression compression, int minBytes) {
+        if (minBytes < 0) throw new IllegalArgumentException("Min bytes for compression cannot be negative, but was " + minBytes);
+        this.compression = requireNonNull(compression);
+        this.compressionMinBytes = minBytes;
+        return this;
+    }
+
     /**
      * Overrides JVM default SSL truststore
      * @param caCertificatesFile Path to PEM encoded file containing trusted certificates
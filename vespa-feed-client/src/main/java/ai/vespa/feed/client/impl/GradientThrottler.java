@@ -0,0 +1,106 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.HttpResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+
+/**
+ * Adjusts the target inflight requests by the gradient between a long-term and a short-term average round-trip time.
+ *
+ * Latencies are averaged over windows of about one round-trip time, and the target is adjusted once per window.
+ * While the latency of a window stays close to the long-term baseline, the target grows by roughly its square root;
+ * when latency increases, because requests queue up somewhere, the target shrinks proportionally.
+ * Throttling responses from the server shrink the target further, also at most once per window.
+ * This converges to a stable target also when the baseline latency is high, as when feeding across long network
+ * links, where throughput sampling is noisy.
+ */
+public class GradientThrottler implements Throttler {
+
+    static final double tolerance = 1.5;   // Accept this much increase in latency over the baseline before reducing the target.
+    static final double smoothing = 0.2;   // Move this far towards the reduced target in each window.
+    static final double longWindow = 100;  // Number of windows in the long-term average.
+    static final long minWindowNanos = 10_000_000;
+
+    private final long minInflight;
+    private final long maxInflight;
+    private final LongSupplier nanoClock;
+    private volatile long target;
+    private double limit;
+    private double shortRttNanos = 0;
+    private double longRttNanos = 0;
+    private long windowStartNanos;
+    private long windowLatencyNanos = 0;
+    private long windowResponses = 0;
+    private boolean windowThrottled = false;
+
+    public GradientThrottler(FeedClientBuilderImpl builder) {
+        this(builder, System::nanoTime);
+    }
+
+    GradientThrottler(FeedClientBuilderImpl builder, LongSupplier nanoClock) {
+        this.minInflight = 16L * builder.connectionsPerEndpoint * builder.endpoints.size();
+        this.maxInflight = 256 * minInflight; // 4096 max streams per connection on the server side.
+        this.nanoClock = nanoClock;
+        this.limit = 8 * minInflight;
+        this.target = (long) limit;
+        this.windowStartNanos = nanoClock.getAsLong();
+    }
+
+    @Override
+    public void sent(long inflight, CompletableFuture<HttpResponse> vessel) { }
+
+    @Override
+    public void success() { }
+
+    @Override
+    public synchronized void responded(long latencyNanos) {
+        windowLatencyNanos += latencyNanos;
+        windowResponses++;
+        long now = nanoClock.getAsLong();
+        if (now - windowStartNanos < max(minWindowNanos, shortRttNanos))
+            return;
+
+        shortRttNanos = (double) windowLatencyNanos / windowResponses;
+        if (longRttNanos == 0)
+            longRttNanos = shortRttNanos;
+
+        longRttNanos += (shortRttNanos - longRttNanos) / longWindow;
+        if (longRttNanos > 2 * shortRttNanos) // Let the baseline recover quickly when latency drops.
+            longRttNanos *= 0.95;
+
+        if ( ! windowThrottled) {
+            double gradient = max(0.5, min(1.0, tolerance * longRttNanos / shortRttNanos));
+            update(limit * (1 - smoothing + gradient * smoothing) + sqrt(limit));
+        }
+        windowStartNanos = now;
+        windowLatencyNanos = 0;
+        windowResponses = 0;
+        windowThrottled = false;
+    }
+
+    @Override
+    public synchronized void throttled(long inflight) {
+        if (windowThrottled)
+            return;
+
+        windowThrottled = true;
+        update(min(limit, inflight) * 0.9);
+    }
+
+    @Override
+    public long targetInflight() {
+        return target;
+    }
+
+    private void update(double limit) {
+        this.limit = max(minInflight, min(maxInflight, limit));
+        this.target = (long) this.limit;
+    }
+
+}
@@ -11,10 +11,13 @@ import ai.vespa.feed.client.Result;
 import ai.vespa.feed.client.ResultException;
 import ai.vespa.feed.client.ResultParseException;
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.HashMap;
@@ -37,9 +40,11 @@ import static java.util.Objects.requireNonNull;
 class HttpFeedClient implements FeedClient {
 
     private static final JsonFactory factory = new JsonFactory();
+    private static final String binaryDocumentContentType = "application/x-vespa-document";
 
     private final Map<String, Supplier<String>> requestHeaders;
     private final RequestStrategy requestStrategy;
+    private final boolean batching;
     private final AtomicBoolean closed = new AtomicBoolean();
 
     HttpFeedClient(FeedClientBuilderImpl builder) throws IOException {
@@ -49,21 +54,32 @@ class HttpFeedClient implements FeedClient {
     HttpFeedClient(FeedClientBuilderImpl builder, RequestStrategy requestStrategy) {
         this.requestHeaders = new HashMap<>(builder.requestHeaders);
         this.requestStrategy = requestStrategy;
+        this.batching = builder.maxBatchBytes > 0;
     }
 
     @Override
     public CompletableFuture<Result> put(DocumentId documentId, String documentJson, OperationParameters params) {
-        return send("POST", documentId, requireNonNull(documentJson), params);
+        return send("POST", documentId, requireNonNull(documentJson).getBytes(UTF_8), null, params);
     }
 
     @Override
     public CompletableFuture<Result> update(DocumentId documentId, String updateJson, OperationParameters params) {
-        return send("PUT", documentId, requireNonNull(updateJson), params);
+        return send("PUT", documentId, requireNonNull(updateJson).getBytes(UTF_8), null, params);
     }
 
     @Override
     public CompletableFuture<Result> remove(DocumentId documentId, OperationParameters params) {
-        return send("DELETE", documentId, null, params);
+        return send("DELETE", documentId, null, null, params);
+    }
+
+    @Override
+    public CompletableFuture<Result> put(DocumentId documentId, byte[] document, OperationParameters params) {
+        return send("POST", documentId, requireNonNull(document), binaryDocumentContentType, params);
+    }
+
+    @Override
+    public CompletableFuture<Result> update(DocumentId documentId, byte[] update, OperationParameters params) {
+        return send("PUT", documentId, requireNonNull(update), binaryDocumentContentType, params);
     }
 
     @Override
@@ -85,15 +101,17 @@ class HttpFeedClient implements FeedClient {
         requestStrategy.destroy();
     }
 
-    private CompletableFuture<Result> send(String method, DocumentId documentId, String operationJson, OperationParameters params) {
+    private CompletableFuture<Result> send(String method, DocumentId documentId, byte[] operation, String contentType, OperationParameters params) {
         if (closed.get())
             throw new IllegalStateException("Client is closed");
 
-        HttpRequest request = new HttpRequest(method,
-                                              getPath(documentId) + getQuery(params),
-                                              requestHeaders,
-                                              operationJson == null ? null : operationJson.getBytes(UTF_8), // TODO: make it bytes all the way?
-                                              params.timeout().orElse(null));
+        HttpRequest single = new HttpRequest(method,
+                                             getPath(documentId) + getQuery(params),
+                                             requestHeaders,
+                                             operation,
+                                             contentType,
+                                             params.timeout().orElse(null));
+        HttpRequest request = batching && contentType == null ? toBatchable(single, documentId, operation, params) : single;
 
         CompletableFuture<Result> promise = new CompletableFuture<>();
         requestStrategy.enqueue(documentId, request)
@@ -111,6 +129,61 @@ class HttpFeedClient implements FeedClient {
         return promise;
     }
 
+    /**
+     * Returns a copy of the given request which may also be sent as part of a batch request, where the operation is
+     * a JSON object in the feed format, with the document id, condition and create flag merged with the given payload.
+     * The request is returned unchanged if the payload is not a JSON object.
+     */
+    static HttpRequest toBatchable(HttpRequest request, DocumentId documentId, byte[] operation, OperationParameters params) {
+        int start = 0;
+        if (operation != null) {
+            start = skipWhitespace(operation, 0);
+            if (start == operation.length || operation[start] != '{')
+                return request;
+
+            start++;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + (operation == null ? 0 : operation.length));
+        try {
+            JsonGenerator generator = factory.createGenerator(out);
+            generator.writeStartObject();
+            generator.writeStringField(batchOperationName(request.method()), documentId.toString());
+            if (params.testAndSetCondition().isPresent())
+                generator.writeStringField("condition", params.testAndSetCondition().get());
+            if (params.createIfNonExistent() && "PUT".equals(request.method()))
+                generator.writeBooleanField("create", true);
+            generator.flush(); // Leaves the object open, so the fields of the payload can be appended.
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (operation == null)
+            out.write('}');
+        else {
+            int next = skipWhitespace(operation, start);
+            if (next < operation.length && operation[next] != '}')
+                out.write(',');
+            out.write(operation, start, operation.length - start);
+        }
+        return request.batchable("/document/v1/batch" + getBatchQuery(params), out.toByteArray());
+    }
+
+    private static String batchOperationName(String method) {
+        switch (method) {
+            case "POST":   return "put";
+            case "PUT":    return "update";
+            case "DELETE": return "remove";
+            default: throw new IllegalArgumentException("Unexpected HTTP method: " + method);
+        }
+    }
+
+    private static int skipWhitespace(byte[] json, int offset) {
+        while (offset < json.length && (json[offset] == ' ' || json[offset] == '\n' || json[offset] == '\r' || json[offset] == '\t'))
+            offset++;
+        return offset;
+    }
+
     private enum Outcome { success, conditionNotMet, vespaFailure, transportFailure };
 
     static Result.Type toResultType(Outcome outcome) {
@@ -227,4 +300,13 @@ class HttpFeedClient implements FeedClient {
         return query.toString();
     }
 
+    /** Returns the query of a batch request, with only the parameters which are common to all operations in it */
+    static String getBatchQuery(OperationParameters params) {
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        params.timeout().ifPresent(timeout -> query.add("timeout=" + timeout.toMillis() + "ms"));
+        params.route().ifPresent(route -> query.add("route=" + encode(route)));
+        params.tracelevel().ifPresent(tracelevel -> query.add("tracelevel=" + tracelevel));
+        return query.toString();
+    }
+
 }
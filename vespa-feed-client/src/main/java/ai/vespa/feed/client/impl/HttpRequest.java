@@ -11,14 +11,34 @@ class HttpRequest {
     private final String path;
     private final Map<String, Supplier<String>> headers;
     private final byte[] body;
+    private final String contentType;
     private final Duration timeout;
+    private final String batchPath;
+    private final byte[] batchOperation;
 
     public HttpRequest(String method, String path, Map<String, Supplier<String>> headers, byte[] body, Duration timeout) {
+        this(method, path, headers, body, null, timeout);
+    }
+
+    public HttpRequest(String method, String path, Map<String, Supplier<String>> headers, byte[] body, String contentType, Duration timeout) {
+        this(method, path, headers, body, contentType, timeout, null, null);
+    }
+
+    private HttpRequest(String method, String path, Map<String, Supplier<String>> headers, byte[] body, String contentType,
+                        Duration timeout, String batchPath, byte[] batchOperation) {
         this.method = method;
         this.path = path;
         this.headers = headers;
         this.body = body;
+        this.contentType = contentType;
         this.timeout = timeout;
+        this.batchPath = batchPath;
+        this.batchOperation = batchOperation;
+    }
+
+    /** Returns a copy of this which may be sent as the given operation in a batch request to the given path */
+    public HttpRequest batchable(String batchPath, byte[] batchOperation) {
+        return new HttpRequest(method, path, headers, body, contentType, timeout, batchPath, batchOperation);
     }
 
     public String method() {
@@ -37,10 +57,25 @@ class HttpRequest {
         return body;
     }
 
+    /** The content type of the body, or null if this is JSON */
+    public String contentType() {
+        return contentType;
+    }
+
     public Duration timeout() {
         return timeout;
     }
 
+    /** The path of the batch request this may be sent in, or null if this cannot be batched */
+    public String batchPath() {
+        return batchPath;
+    }
+
+    /** This operation as an element of the JSON array of a batch request, or null if this cannot be batched */
+    public byte[] batchOperation() {
+        return batchOperation;
+    }
+
     @Override
     public String toString() {
         return method + " " + path;
@@ -5,6 +5,7 @@ import ai.vespa.feed.client.DocumentId;
 import ai.vespa.feed.client.FeedClient;
 import ai.vespa.feed.client.FeedClient.CircuitBreaker;
 import ai.vespa.feed.client.FeedClient.RetryStrategy;
+import ai.vespa.feed.client.FeedClientBuilder.Compression;
 import ai.vespa.feed.client.FeedException;
 import ai.vespa.feed.client.HttpResponse ;
 import ai.vespa.feed.client.OperationStats;
@@ -54,6 +55,7 @@ class HttpRequestStrategy implements RequestStrategy {
     private static final Logger log = Logger.getLogger(HttpRequestStrategy.class.getName());
 
     private final Cluster cluster;
+    private final CompressingCluster compressor; // Null if compression is disabled.
     private final Map<DocumentId, RetriableFuture<HttpResponse>> inflightById = new ConcurrentHashMap<>();
     private final RetryStrategy strategy;
     private final CircuitBreaker breaker;
@@ -73,10 +75,16 @@ class HttpRequestStrategy implements RequestStrategy {
     }
 
     HttpRequestStrategy(FeedClientBuilderImpl builder, Cluster cluster) {
+        this.compressor = builder.compression == Compression.none ? null
+                                                                  : new CompressingCluster(cluster, builder.compression, builder.compressionMinBytes);
+        if (compressor != null)
+            cluster = compressor;
+        if (builder.maxBatchBytes > 0 && ! builder.dryrun)
+            cluster = new BatchingCluster(cluster, builder.maxBatchBytes, builder.maxBatchDelay);
         this.cluster = builder.benchmark ? new BenchmarkingCluster(cluster) : cluster;
         this.strategy = builder.retryStrategy;
         this.breaker = builder.circuitBreaker;
-        this.throttler = new DynamicThrottler(builder);
+        this.throttler = builder.latencyBasedThrottling ? new GradientThrottler(builder) : new DynamicThrottler(builder);
 
         Thread dispatcher = new Thread(this::dispatch, "feed-client-dispatcher");
         dispatcher.setDaemon(true);
@@ -85,7 +93,8 @@ class HttpRequestStrategy implements RequestStrategy {
 
     @Override
     public OperationStats stats() {
-        return cluster.stats();
+        OperationStats stats = cluster.stats();
+        return compressor == null ? stats : compressor.addTo(stats);
     }
 
     @Override
@@ -109,7 +118,14 @@ class HttpRequestStrategy implements RequestStrategy {
 
     private void offer(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
         delayedCount.incrementAndGet();
-        queue.offer(() -> cluster.dispatch(request, vessel));
+        queue.offer(() -> {
+            long startNanos = System.nanoTime();
+            cluster.dispatch(request, vessel);
+            vessel.whenComplete((response, thrown) -> {
+                if (thrown == null && response.code() != 429 && response.code() != 503) // Throttling is signalled separately.
+                    throttler.responded(System.nanoTime() - startNanos);
+            });
+        });
     }
 
     private boolean poll() {
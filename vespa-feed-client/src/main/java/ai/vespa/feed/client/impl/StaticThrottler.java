@@ -34,6 +34,9 @@ public class StaticThrottler implements Throttler {
         targetX10.incrementAndGet();
     }
 
+    @Override
+    public void responded(long latencyNanos) { }
+
     @Override
     public void throttled(long inflight) {
         targetX10.set(max(inflight * 5, minInflight * 10));
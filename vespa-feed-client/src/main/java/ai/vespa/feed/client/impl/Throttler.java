@@ -22,6 +22,11 @@ interface Throttler {
      */
     void success();
 
+    /**
+     * A response was obtained, {@code latencyNanos} after its request was dispatched.
+     */
+    void responded(long latencyNanos);
+
     /**
      * A throttle signal was obtained from the server.
      */
@@ -0,0 +1,172 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.DocumentId;
+import ai.vespa.feed.client.HttpResponse;
+import ai.vespa.feed.client.OperationParameters;
+import ai.vespa.feed.client.Result;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingClusterTest {
+
+    final DocumentId id1 = DocumentId.of("ns", "type", "1");
+    final DocumentId id2 = DocumentId.of("ns", "type", "2");
+    final DocumentId id3 = DocumentId.of("ns", "type", "3");
+
+    @Test
+    void testBatchableRequests() {
+        OperationParameters params = OperationParameters.empty().route("route").testAndSetCondition("true").createIfNonExistent(true);
+        HttpRequest put = batchable("POST", id1, "{\"fields\":{\"a\":1}}", OperationParameters.empty());
+        assertEquals("/document/v1/batch", put.batchPath());
+        assertEquals("{\"put\":\"id:ns:type::1\",\"fields\":{\"a\":1}}", new String(put.batchOperation(), UTF_8));
+
+        HttpRequest update = batchable("PUT", id2, " { } ", params);
+        assertEquals("/document/v1/batch?route=route", update.batchPath());
+        assertEquals("{\"update\":\"id:ns:type::2\",\"condition\":\"true\",\"create\":true } ", new String(update.batchOperation(), UTF_8));
+
+        HttpRequest remove = batchable("DELETE", id3, null, params);
+        assertEquals("{\"remove\":\"id:ns:type::3\",\"condition\":\"true\"}", new String(remove.batchOperation(), UTF_8));
+
+        assertNull(batchable("POST", id1, "[]", params).batchOperation());
+    }
+
+    @Test
+    void testOperationsAreCoalescedAndResultsDistributed() throws Exception {
+        BlockingQueue<Dispatch> dispatched = new LinkedBlockingQueue<>();
+        BatchingCluster cluster = new BatchingCluster((request, vessel) -> dispatched.add(new Dispatch(request, vessel)), 1 << 20, Duration.ofDays(1));
+
+        HttpRequest single = new HttpRequest("GET", "/", Collections.emptyMap(), null, null);
+        CompletableFuture<HttpResponse> singleVessel = new CompletableFuture<>();
+        cluster.dispatch(single, singleVessel);
+        assertSame(single, dispatched.poll().request);
+
+        HttpRequest put = batchable("POST", id1, "{\"fields\":{}}", OperationParameters.empty());
+        HttpRequest update = batchable("PUT", id2, "{\"fields\":{}}", OperationParameters.empty());
+        HttpRequest remove = batchable("DELETE", id3, null, OperationParameters.empty());
+        HttpRequest routed = batchable("DELETE", id3, null, OperationParameters.empty().route("route"));
+        CompletableFuture<HttpResponse> putVessel = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> updateVessel = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> removeVessel = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> routedVessel = new CompletableFuture<>();
+        cluster.dispatch(put, putVessel);
+        cluster.dispatch(update, updateVessel);
+        cluster.dispatch(remove, removeVessel);
+        cluster.dispatch(routed, routedVessel);
+        assertTrue(dispatched.isEmpty());
+
+        cluster.close();
+        Dispatch batch = dispatched.poll();
+        Dispatch other = dispatched.poll();
+        if ( ! batch.request.path().equals("/document/v1/batch")) {
+            Dispatch swap = batch;
+            batch = other;
+            other = swap;
+        }
+        assertSame(routed, other.request);
+        assertEquals("POST", batch.request.method());
+        assertEquals("[{\"put\":\"id:ns:type::1\",\"fields\":{}},{\"update\":\"id:ns:type::2\",\"fields\":{}},{\"remove\":\"id:ns:type::3\"}]",
+                     new String(batch.request.body(), UTF_8));
+
+        batch.vessel.complete(HttpResponse.of(200, ("{\"pathId\":\"/document/v1/batch\",\"results\":[" +
+                                                    "{\"index\":1,\"id\":\"id:ns:type::2\",\"status\":412,\"message\":\"no\"}," +
+                                                    "{\"index\":0,\"id\":\"id:ns:type::1\",\"status\":200,\"trace\":[{\"message\":\"yes\"}]}" +
+                                                    "]}").getBytes(UTF_8)));
+        Result result = HttpFeedClient.toResult(put, putVessel.get(), id1);
+        assertEquals(Result.Type.success, result.type());
+        assertEquals("[{\"message\":\"yes\"}]", result.traceMessage().get());
+        result = HttpFeedClient.toResult(update, updateVessel.get(), id2);
+        assertEquals(Result.Type.conditionNotMet, result.type());
+        assertEquals("no", result.resultMessage().get());
+
+        // The operation without a result in the batch response is dispatched on its own.
+        assertFalse(removeVessel.isDone());
+        Dispatch resent = dispatched.poll();
+        assertSame(remove, resent.request);
+        assertSame(removeVessel, resent.vessel);
+        assertTrue(dispatched.isEmpty());
+    }
+
+    @Test
+    void testOperationsInRejectedBatchAreDispatchedIndividually() throws Exception {
+        BlockingQueue<Dispatch> dispatched = new LinkedBlockingQueue<>();
+        BatchingCluster cluster = new BatchingCluster((request, vessel) -> dispatched.add(new Dispatch(request, vessel)), 1 << 20, Duration.ofDays(1));
+        HttpRequest put = batchable("POST", id1, "{\"fields\":{}}", OperationParameters.empty());
+        HttpRequest remove = batchable("DELETE", id2, null, OperationParameters.empty());
+        CompletableFuture<HttpResponse> putVessel = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> removeVessel = new CompletableFuture<>();
+        cluster.dispatch(put, putVessel);
+        cluster.dispatch(remove, removeVessel);
+        cluster.close();
+
+        dispatched.poll().vessel.complete(HttpResponse.of(400, "{\"message\":\"bad\"}".getBytes(UTF_8)));
+        assertSame(put, dispatched.poll().request);
+        assertSame(remove, dispatched.poll().request);
+        assertTrue(dispatched.isEmpty());
+        assertFalse(putVessel.isDone());
+        assertFalse(removeVessel.isDone());
+    }
+
+    @Test
+    void testBatchesAreSentWhenFullOrDelayed() throws Exception {
+        BlockingQueue<Dispatch> dispatched = new LinkedBlockingQueue<>();
+        HttpRequest put = batchable("POST", id1, "{\"fields\":{}}", OperationParameters.empty());
+        HttpRequest update = batchable("PUT", id2, "{\"fields\":{}}", OperationParameters.empty());
+        HttpRequest remove = batchable("DELETE", id3, null, OperationParameters.empty());
+        int maxBytes = 3 + put.batchOperation().length + update.batchOperation().length;
+        BatchingCluster cluster = new BatchingCluster((request, vessel) -> dispatched.add(new Dispatch(request, vessel)), maxBytes, Duration.ofMillis(10));
+
+        cluster.dispatch(put, new CompletableFuture<>());
+        CompletableFuture<HttpResponse> updateVessel = new CompletableFuture<>();
+        cluster.dispatch(update, updateVessel);
+        Dispatch full = dispatched.poll();
+        assertEquals("/document/v1/batch", full.request.path());
+
+        CompletableFuture<HttpResponse> removeVessel = new CompletableFuture<>();
+        cluster.dispatch(remove, removeVessel);
+        assertSame(remove, dispatched.poll(1, TimeUnit.MINUTES).request);
+
+        HttpResponse overloaded = HttpResponse.of(429, null);
+        full.vessel.complete(overloaded);
+        assertSame(overloaded, updateVessel.get());
+
+        cluster.close();
+        assertTrue(dispatched.isEmpty());
+        assertFalse(removeVessel.isDone());
+    }
+
+    static HttpRequest batchable(String method, DocumentId id, String operation, OperationParameters params) {
+        HttpRequest request = new HttpRequest(method,
+                                              HttpFeedClient.getPath(id) + HttpFeedClient.getQuery(params),
+                                              Collections.emptyMap(),
+                                              operation == null ? null : operation.getBytes(UTF_8),
+                                              null);
+        return HttpFeedClient.toBatchable(request, id, request.body(), params);
+    }
+
+    static class Dispatch {
+
+        final HttpRequest request;
+        final CompletableFuture<HttpResponse> vessel;
+
+        Dispatch(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
+            this.request = request;
+            this.vessel = vessel;
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.FeedClientBuilder.Compression;
+import ai.vespa.feed.client.HttpResponse;
+import ai.vespa.feed.client.OperationStats;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressingClusterTest {
+
+    static final byte[] text = String.join(" ", Collections.nCopies(100, "{\"fields\":{\"text\":\"lorem ipsum\"}}")).getBytes(UTF_8);
+
+    @Test
+    void testGzip() throws IOException {
+        AtomicReference<HttpRequest> sent = new AtomicReference<>();
+        CompressingCluster cluster = new CompressingCluster((request, vessel) -> sent.set(request), Compression.gzip, 1024);
+
+        HttpRequest small = request(new byte[1023]);
+        cluster.dispatch(small, new CompletableFuture<>());
+        assertSame(small, sent.get());
+
+        HttpRequest random = request(new byte[1 << 12]);
+        new Random(1).nextBytes(random.body());
+        cluster.dispatch(random, new CompletableFuture<>());
+        assertSame(random, sent.get());
+
+        cluster.dispatch(request(text), new CompletableFuture<>());
+        assertEquals("gzip", sent.get().headers().get("Content-Encoding").get());
+        assertEquals("value", sent.get().headers().get("name").get());
+        assertEquals("POST", sent.get().method());
+        assertEquals("/path", sent.get().path());
+        assertNull(sent.get().contentType());
+        assertArrayEquals(text, readAll(new GZIPInputStream(new ByteArrayInputStream(sent.get().body()))));
+
+        OperationStats stats = cluster.addTo(new OperationStats(1, Collections.emptyMap(), 0, 0, 0, 0, 0, 0, 0));
+        assertEquals(text.length, stats.bytesCompressed());
+        assertEquals(sent.get().body().length, stats.bytesAfterCompression());
+        assertTrue(stats.compressionRatio() > 10, "compression ratio " + stats.compressionRatio());
+    }
+
+    @Test
+    void testZstd() {
+        AtomicReference<HttpRequest> sent = new AtomicReference<>();
+        CompressingCluster cluster = new CompressingCluster((request, vessel) -> sent.set(request), Compression.zstd, 0);
+        cluster.dispatch(request(text), new CompletableFuture<HttpResponse>());
+        assertEquals("zstd", sent.get().headers().get("Content-Encoding").get());
+        byte[] decompressed = new byte[text.length];
+        assertEquals(text.length, new ZstdDecompressor().decompress(sent.get().body(), 0, sent.get().body().length, decompressed, 0, decompressed.length));
+        assertArrayEquals(text, decompressed);
+    }
+
+    static HttpRequest request(byte[] body) {
+        return new HttpRequest("POST", "/path", Collections.singletonMap("name", () -> "value"), body, Duration.ofSeconds(1));
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 10];
+        for (int read; (read = in.read(buffer)) >= 0; )
+            out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,59 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientThrottlerTest {
+
+    static final long millis = 1_000_000;
+
+    final AtomicLong clock = new AtomicLong();
+    final GradientThrottler throttler = new GradientThrottler(new FeedClientBuilderImpl(Collections.singletonList(URI.create("http://dummy"))), clock::get);
+
+    /** Responds with the given latency during one window. */
+    void window(long latencyMillis) {
+        clock.addAndGet(latencyMillis * millis);
+        throttler.responded(latencyMillis * millis);
+    }
+
+    @Test
+    void testTargetFollowsLatency() {
+        long initial = throttler.targetInflight();
+        assertEquals(8 * 16 * 4, initial);
+
+        for (int i = 0; i < 10; i++) window(50);
+        long grown = throttler.targetInflight();
+        assertTrue(grown > initial, grown + " > " + initial);
+
+        for (int i = 0; i < 10; i++) window(200);
+        long shrunk = throttler.targetInflight();
+        assertTrue(shrunk < grown * 0.6, shrunk + " < " + grown * 0.6);
+
+        for (int i = 0; i < 10; i++) window(60);
+        assertTrue(throttler.targetInflight() > shrunk, throttler.targetInflight() + " > " + shrunk);
+    }
+
+    @Test
+    void testThrottlingReducesTargetOncePerWindow() {
+        window(50);
+        long initial = throttler.targetInflight();
+        throttler.throttled(initial);
+        long throttled = throttler.targetInflight();
+        assertEquals((long) (initial * 0.9), throttled);
+        throttler.throttled(initial);
+        assertEquals(throttled, throttler.targetInflight());
+
+        window(50);
+        assertEquals(throttled, throttler.targetInflight());
+        throttler.throttled(throttled / 2);
+        assertEquals((long) (throttled / 2 * 0.9), throttler.targetInflight());
+    }
+
+}
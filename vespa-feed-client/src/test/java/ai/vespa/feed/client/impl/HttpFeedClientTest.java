@@ -21,6 +21,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -52,6 +53,7 @@ class HttpFeedClientTest {
                              request.path());
                 assertEquals("PUT", request.method());
                 assertEquals("json", new String(request.body(), UTF_8));
+                assertNull(request.contentType());
 
                 HttpResponse response = HttpResponse.of(200,
                                                         ("{\n" +
@@ -201,6 +203,35 @@ class HttpFeedClientTest {
                                                  OperationParameters.empty())
                                             .get());
         assertEquals("Status 500 executing 'POST /document/v1/ns/type/docid/0': Alla ska i jorden.", expected.getCause().getMessage());
+
+        // Binary put is a POST with the binary document content type.
+        dispatch.set((documentId, request) -> {
+            try {
+                assertEquals(id, documentId);
+                assertEquals("/document/v1/ns/type/docid/0",
+                             request.path());
+                assertEquals("POST", request.method());
+                assertEquals("application/x-vespa-document", request.contentType());
+                assertArrayEquals(new byte[] { 1, 2, 3 }, request.body());
+
+                HttpResponse response = HttpResponse.of(200,
+                                                        ("{\n" +
+                                                         "  \"pathId\": \"/document/v1/ns/type/docid/0\",\n" +
+                                                         "  \"id\": \"id:ns:type::0\"\n" +
+                                                         "}").getBytes(UTF_8));
+                return CompletableFuture.completedFuture(response);
+            }
+            catch (Throwable thrown) {
+                CompletableFuture<HttpResponse> failed = new CompletableFuture<>();
+                failed.completeExceptionally(thrown);
+                return failed;
+            }
+        });
+        result = client.put(id,
+                            new byte[] { 1, 2, 3 },
+                            OperationParameters.empty())
+                       .get();
+        assertEquals(Result.Type.success, result.type());
     }
 
 }
@@ -0,0 +1,121 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.DocumentId;
+import ai.vespa.feed.client.HttpResponse;
+import ai.vespa.feed.client.OperationStats;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares throughput and latency stability of the throttlers, against a simulated cluster behind a long network link,
+ * whose capacity varies over time, as when its nodes have uneven speed, and which responds 429 when overloaded.
+ */
+public class ThrottlerBenchmark {
+
+    static final HttpResponse ok = HttpResponse.of(200, "{}".getBytes(UTF_8));
+    static final HttpResponse throttled = HttpResponse.of(429, "{}".getBytes(UTF_8));
+
+    /** Responds after the network round-trip plus the service time, which grows when inflight exceeds the capacity. */
+    static class SimulatedCluster implements Cluster {
+
+        final ScheduledExecutorService executor = Executors.newScheduledThreadPool(4);
+        final AtomicInteger inflight = new AtomicInteger();
+        final long startNanos = System.nanoTime();
+        final double rttMillis;
+        final double serviceMillis;
+        final int capacity;
+
+        SimulatedCluster(double rttMillis, double serviceMillis, int capacity) {
+            this.rttMillis = rttMillis;
+            this.serviceMillis = serviceMillis;
+            this.capacity = capacity;
+        }
+
+        /** Capacity varies between 50% and 150% of the nominal value, with a period of 10 seconds. */
+        double currentCapacity() {
+            return capacity * (1 + 0.5 * Math.sin(2 * Math.PI * (System.nanoTime() - startNanos) * 1e-10));
+        }
+
+        @Override
+        public void dispatch(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
+            int current = inflight.incrementAndGet();
+            double capacity = currentCapacity();
+            boolean overloaded = current > 4 * capacity;
+            double millis = rttMillis + (overloaded ? 0 : serviceMillis * Math.max(1, current / capacity));
+            executor.schedule(() -> {
+                                  inflight.decrementAndGet();
+                                  vessel.complete(overloaded ? throttled : ok);
+                              },
+                              (long) (millis * 1e3), TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+        }
+
+    }
+
+    static void benchmark(String name, boolean latencyBased, int seconds) throws InterruptedException {
+        FeedClientBuilderImpl builder = new FeedClientBuilderImpl(Collections.singletonList(URI.create("https://dummy:123")));
+        builder.setConnectionsPerEndpoint(1).setLatencyBasedThrottling(latencyBased);
+        SimulatedCluster cluster = new SimulatedCluster(50, 10, 256);
+        HttpRequestStrategy strategy = new HttpRequestStrategy(builder, cluster);
+        HttpRequest request = new HttpRequest("POST", "/", Collections.emptyMap(), null, null);
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread feeder = new Thread(() -> {
+            for (long i = 0; ! done.get(); i++)
+                strategy.enqueue(DocumentId.of("ns", "type", Long.toString(i)), request);
+        });
+        feeder.start();
+
+        System.out.println(name);
+        double sum = 0, squares = 0;
+        long previousOk = 0, previousLatencySum = 0, previousResponses = 0;
+        for (int i = 1; i <= seconds; i++) {
+            Thread.sleep(1000);
+            OperationStats stats = strategy.stats();
+            long okCount = stats.responsesByCode().getOrDefault(200, 0L);
+            long throttledCount = stats.responsesByCode().getOrDefault(429, 0L);
+            long latencySum = stats.averageLatencyMillis() * stats.responses();
+            long rate = okCount - previousOk;
+            long latency = stats.responses() == previousResponses ? -1 : (latencySum - previousLatencySum) / (stats.responses() - previousResponses);
+            System.out.printf("%3d s: %7d ok/s, %6d inflight, %5d ms average latency, %8d throttled, capacity %6.0f ops/s\n",
+                              i, rate, stats.inflight(), latency, throttledCount, cluster.currentCapacity() * 1e3 / cluster.serviceMillis);
+            if (i > 5) { // Skip warmup.
+                sum += rate;
+                squares += rate * rate;
+            }
+            previousOk = okCount;
+            previousLatencySum = latencySum;
+            previousResponses = stats.responses();
+        }
+        int n = seconds - 5;
+        double mean = sum / n;
+        System.out.printf("%s: mean %.0f ok/s, coefficient of variation %.3f\n\n", name, mean, Math.sqrt(squares / n - mean * mean) / mean);
+
+        done.set(true);
+        feeder.join();
+        strategy.destroy();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        // About 5600 ok/s, with collapses to near zero after throttling, as the throughput samples are too noisy to follow capacity
+        benchmark("Throughput sampling (DynamicThrottler)", false, seconds);
+        // About 9200 ok/s, following capacity, with latency within the tolerance of the 60 ms baseline
+        benchmark("Latency gradient (GradientThrottler)", true, seconds);
+    }
+
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.yahoo.component.annotation.Inject;
 import com.yahoo.cloud.config.ClusterListConfig;
+import com.yahoo.compress.ZstdCompressor;
 import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.concurrent.SystemTimer;
 import com.yahoo.container.core.HandlerMetricContextUtil;
@@ -29,6 +30,7 @@ import com.yahoo.document.json.JsonReader;
 import com.yahoo.document.json.JsonWriter;
 import com.yahoo.document.restapi.DocumentOperationExecutorConfig;
 import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
 import com.yahoo.documentapi.AckToken;
 import com.yahoo.documentapi.AsyncParameters;
 import com.yahoo.documentapi.AsyncSession;
@@ -46,6 +48,7 @@ import com.yahoo.documentapi.messagebus.protocol.DocumentProtocol;
 import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
 import com.yahoo.documentapi.metrics.DocumentApiMetrics;
 import com.yahoo.documentapi.metrics.DocumentOperationStatus;
+import com.yahoo.io.GrowableByteBuffer;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.Response;
@@ -72,23 +75,30 @@ import com.yahoo.vespa.http.server.MetricNames;
 import com.yahoo.yolean.Exceptions;
 import com.yahoo.yolean.Exceptions.RunnableThrowingIOException;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
@@ -108,6 +118,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static com.yahoo.documentapi.DocumentOperationParameters.parameters;
 import static com.yahoo.jdisc.http.HttpRequest.Method.DELETE;
@@ -151,6 +162,10 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     };
 
     private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final ZstdCompressor zstd = new ZstdCompressor();
+
+    /** Content type of document puts and updates in the binary document serialization format, rather than JSON */
+    private static final String BINARY_DOCUMENT = "application/x-vespa-document";
 
     private static final String CREATE = "create";
     private static final String CONDITION = "condition";
@@ -176,15 +191,17 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     private final DocumentApiMetrics metrics;
     private final DocumentOperationParser parser;
     private final long maxThrottled;
+    private final int maxDecompressedBytes;
     private final DocumentAccess access;
     private final AsyncSession asyncSession;
     private final Map<String, StorageCluster> clusters;
-    private final Deque<Operation> operations;
+    private final DispatchShard[] shards;
     private final Deque<BooleanSupplier> visitOperations = new ConcurrentLinkedDeque<>();
     private final AtomicLong enqueued = new AtomicLong();
     private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicLong unkeyedOperations = new AtomicLong();
     private final Map<VisitorControlHandler, VisitorSession> visits = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("document-api-handler-"));
+    private final ScheduledExecutorService dispatcher;
     private final ScheduledExecutorService visitDispatcher = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("document-api-handler-visit-"));
     private final Map<String, Map<Method, Handler>> handlers = defineApi();
 
@@ -209,14 +226,19 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         this.metric = metric;
         this.metrics = new DocumentApiMetrics(metricReceiver, "documentV1");
         this.maxThrottled = executorConfig.maxThrottled();
+        this.maxDecompressedBytes = executorConfig.maxDecompressedBytes();
         this.access = access;
         this.asyncSession = access.createAsyncSession(new AsyncParameters());
         this.clusters = parseClusters(clusterListConfig, bucketSpacesConfig);
-        this.operations = new ConcurrentLinkedDeque<>();
+        this.shards = new DispatchShard[dispatchShards(executorConfig)];
+        for (int i = 0; i < shards.length; i++)
+            shards[i] = new DispatchShard(i);
+        this.dispatcher = Executors.newScheduledThreadPool(shards.length, new DaemonThreadFactory("document-api-handler-"));
         long resendDelayMS = SystemTimer.adjustTimeoutByDetectedHz(Duration.ofMillis(executorConfig.resendDelayMillis())).toMillis();
 
         // TODO: Here it would be better do have dedicated threads with different wait depending on blocked or empty.
-        this.dispatcher.scheduleWithFixedDelay(this::dispatchEnqueued, resendDelayMS, resendDelayMS, MILLISECONDS);
+        for (DispatchShard shard : shards)
+            this.dispatcher.scheduleWithFixedDelay(shard::dispatchEnqueuedAndReport, resendDelayMS, resendDelayMS, MILLISECONDS);
         this.visitDispatcher.scheduleWithFixedDelay(this::dispatchVisitEnqueued, resendDelayMS, resendDelayMS, MILLISECONDS);
     }
 
@@ -277,16 +299,19 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         // Shut down both dispatchers, so only we empty the queues of outstanding operations, and can be sure they're empty.
         dispatcher.shutdown();
         visitDispatcher.shutdown();
-        while ( ! (operations.isEmpty() && visitOperations.isEmpty()) && clock.instant().isBefore(doom)) {
+        while ( ! (enqueued.get() == 0 && visitOperations.isEmpty()) && clock.instant().isBefore(doom)) {
             dispatchEnqueued();
             dispatchVisitEnqueued();
         }
 
-        if ( ! operations.isEmpty())
-            log.log(WARNING, "Failed to empty request queue before shutdown timeout — " + operations.size() + " requests left");
+        if (enqueued.get() != 0) {
+            log.log(WARNING, "Failed to empty request queue before shutdown timeout — " + enqueued.get() + " requests left");
+            for (DispatchShard shard : shards)
+                shard.abortEnqueued("Handler shut down");
+        }
 
         if ( ! visitOperations.isEmpty())
-            log.log(WARNING, "Failed to empty visitor operations queue before shutdown timeout — " + operations.size() + " operations left");
+            log.log(WARNING, "Failed to empty visitor operations queue before shutdown timeout — " + visitOperations.size() + " operations left");
 
         try {
             while (outstanding.get() > 0 && clock.instant().isBefore(doom))
@@ -322,6 +347,9 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
                             POST, this::postDocuments,
                             DELETE, this::deleteDocuments));
 
+        handlers.put("/document/v1/batch",
+                     Map.of(POST, this::postBatch));
+
         handlers.put("/document/v1/{namespace}/{documentType}/docid/",
                      Map.of(GET, this::getDocuments,
                             POST, this::postDocuments,
@@ -420,7 +448,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     }
 
     private ContentChannel getDocument(HttpRequest request, DocumentPath path, ResponseHandler handler) {
-        enqueueAndDispatch(request, handler, () -> {
+        enqueueAndDispatch(request, handler, path.id(), () -> {
             DocumentOperationParameters rawParameters = parametersFromRequest(request, CLUSTER, FIELD_SET);
             if (rawParameters.fieldSet().isEmpty())
                 rawParameters = rawParameters.withFieldSet(path.documentType().orElseThrow() + ":[document]");
@@ -443,8 +471,10 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     private ContentChannel postDocument(HttpRequest request, DocumentPath path, ResponseHandler rawHandler) {
         ResponseHandler handler = new MeasuringResponseHandler(rawHandler, com.yahoo.documentapi.metrics.DocumentOperationType.PUT, clock.instant());
         return new ForwardingContentChannel(in -> {
-            enqueueAndDispatch(request, handler, () -> {
-                DocumentPut put = parser.parsePut(in, path.id().toString());
+            enqueueAndDispatch(request, handler, path.id(), () -> {
+                InputStream decoded = decoded(request, in);
+                DocumentPut put = isBinary(request) ? parser.deserializePut(decoded, path.id())
+                                                    : parser.parsePut(decoded, path.id().toString());
                 getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(put::setCondition);
                 DocumentOperationParameters parameters = parametersFromRequest(request, ROUTE)
                         .withResponseHandler(response -> {
@@ -460,8 +490,10 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     private ContentChannel putDocument(HttpRequest request, DocumentPath path, ResponseHandler rawHandler) {
         ResponseHandler handler = new MeasuringResponseHandler(rawHandler, com.yahoo.documentapi.metrics.DocumentOperationType.UPDATE, clock.instant());
         return new ForwardingContentChannel(in -> {
-            enqueueAndDispatch(request, handler, () -> {
-                DocumentUpdate update = parser.parseUpdate(in, path.id().toString());
+            enqueueAndDispatch(request, handler, path.id(), () -> {
+                InputStream decoded = decoded(request, in);
+                DocumentUpdate update = isBinary(request) ? parser.deserializeUpdate(decoded, path.id())
+                                                          : parser.parseUpdate(decoded, path.id().toString());
                 getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(update::setCondition);
                 getProperty(request, CREATE, booleanParser).ifPresent(update::setCreateIfNonExistent);
                 DocumentOperationParameters parameters = parametersFromRequest(request, ROUTE)
@@ -477,7 +509,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
 
     private ContentChannel deleteDocument(HttpRequest request, DocumentPath path, ResponseHandler rawHandler) {
         ResponseHandler handler = new MeasuringResponseHandler(rawHandler, com.yahoo.documentapi.metrics.DocumentOperationType.REMOVE, clock.instant());
-        enqueueAndDispatch(request, handler, () -> {
+        enqueueAndDispatch(request, handler, path.id(), () -> {
             DocumentRemove remove = new DocumentRemove(path.id());
             getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(remove::setCondition);
             DocumentOperationParameters parameters = parametersFromRequest(request, ROUTE)
@@ -491,6 +523,154 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         return ignoredContent;
     }
 
+    private ContentChannel postBatch(HttpRequest request, DocumentPath path, ResponseHandler handler) {
+        return new ForwardingContentChannel(in -> {
+            List<BatchOperation> operations;
+            DocumentOperationParameters parameters;
+            BatchResponse response;
+            try {
+                operations = parser.parseBatch(decoded(request, in));
+                parameters = parametersFromRequest(request, ROUTE);
+                response = new BatchResponse(request, handler, operations.size());
+            }
+            catch (IllegalArgumentException e) {
+                badRequest(request, e, handler);
+                return;
+            }
+            catch (RuntimeException e) {
+                serverError(request, e, handler);
+                return;
+            }
+
+            // Operations are dispatched through the shards of their documents, to keep their order with other operations on them.
+            Map<DispatchShard, List<BatchOperation>> parts = new LinkedHashMap<>();
+            for (BatchOperation operation : operations) {
+                if (operation.failure != null)
+                    response.complete(operation.index, operation.id, Response.Status.BAD_REQUEST, operation.failure, null);
+                else
+                    parts.computeIfAbsent(shardOf(operation.id), __ -> new ArrayList<>()).add(operation);
+            }
+            parts.forEach((shard, part) -> {
+                BatchDispatch dispatch = new BatchDispatch(response, part, parameters);
+                if ( ! reserveQueueSlot()) {
+                    dispatch.fail(Response.Status.TOO_MANY_REQUESTS, overloadMessage());
+                    return;
+                }
+                Operation operation = new Operation(request, handler, () -> dispatch,
+                                                    message -> dispatch.fail(Response.Status.SERVICE_UNAVAILABLE, message));
+                operation.parse();
+                enqueueAndDispatch(shard, operation);
+            });
+        });
+    }
+
+    /**
+     * The response to a batch request, which is committed before any operation is dispatched, so failure of an
+     * operation is reported as the result of that operation, rather than for the whole request. The result of each
+     * operation is written as it completes, and the response is closed when all operations are complete.
+     */
+    private static class BatchResponse {
+
+        private final JsonResponse response;
+        private final AtomicLong remaining;
+
+        BatchResponse(HttpRequest request, ResponseHandler handler, int size) {
+            this.remaining = new AtomicLong(size);
+            try {
+                this.response = JsonResponse.create(request, handler);
+                response.commit(Response.Status.OK);
+                response.writeResultsArrayStart();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (size == 0)
+                loggingException(response::close);
+        }
+
+        void complete(int index, DocumentId id, int status, String message, Trace trace) {
+            loggingException(() -> {
+                response.writeResult(index, id, status, message, trace);
+                if (remaining.decrementAndGet() == 0)
+                    response.close();
+            });
+        }
+
+    }
+
+    /** Dispatches the operations of a batch request which belong to one shard, in order. */
+    private class BatchDispatch implements BooleanSupplier {
+
+        private final BatchResponse response;
+        private final List<BatchOperation> operations;
+        private final DocumentOperationParameters parameters;
+        private int next = 0;
+
+        BatchDispatch(BatchResponse response, List<BatchOperation> operations, DocumentOperationParameters parameters) {
+            this.response = response;
+            this.operations = operations;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            for ( ; next < operations.size(); next++) {
+                int index = operations.get(next).index;
+                DocumentOperation operation = operations.get(next).operation;
+                Result result;
+                try {
+                    result = dispatch(operation, parameters.withResponseHandler(operationResponse -> {
+                        outstanding.decrementAndGet();
+                        updateMetrics(operation, operationResponse.outcome());
+                        if (operationResponse.isSuccess())
+                            response.complete(index, operation.getId(), Response.Status.OK, null, operationResponse.getTrace());
+                        else
+                            response.complete(index, operation.getId(), statusOf(operationResponse), operationResponse.getTextMessage(), operationResponse.getTrace());
+                    }));
+                }
+                catch (RuntimeException e) {
+                    log.log(FINE, e, () -> "Exception dispatching operation in batch");
+                    response.complete(index, operation.getId(), Response.Status.INTERNAL_SERVER_ERROR, Exceptions.toMessageString(e), null);
+                    continue;
+                }
+                if (result.type() == Result.ResultType.TRANSIENT_ERROR)
+                    return false;
+
+                if (result.type() == Result.ResultType.FATAL_ERROR)
+                    response.complete(index, operation.getId(), Response.Status.BAD_GATEWAY, result.error().toString(), null);
+                else
+                    outstanding.incrementAndGet();
+            }
+            return true;
+        }
+
+        /** Completes the operations which are not yet dispatched with the given status and message. */
+        void fail(int status, String message) {
+            for ( ; next < operations.size(); next++)
+                response.complete(operations.get(next).index, operations.get(next).id, status, message, null);
+        }
+
+        private Result dispatch(DocumentOperation operation, DocumentOperationParameters parameters) {
+            if (operation instanceof DocumentPut)
+                return asyncSession.put((DocumentPut) operation, parameters);
+            if (operation instanceof DocumentUpdate)
+                return asyncSession.update((DocumentUpdate) operation, parameters);
+            if (operation instanceof DocumentRemove)
+                return asyncSession.remove((DocumentRemove) operation, parameters);
+            throw new IllegalArgumentException("Unexpected document operation '" + operation + "'");
+        }
+
+        private void updateMetrics(DocumentOperation operation, Outcome outcome) {
+            if (operation instanceof DocumentPut)
+                updatePutMetrics(outcome);
+            else if (operation instanceof DocumentUpdate)
+                updateUpdateMetrics(outcome, ((DocumentUpdate) operation).getCreateIfNonExistent());
+            else
+                updateRemoveMetrics(outcome);
+        }
+
+    }
+
     private DocumentOperationParameters parametersFromRequest(HttpRequest request, String... names) {
         DocumentOperationParameters parameters = getProperty(request, TRACELEVEL, integerParser).map(parameters()::withTraceLevel)
                                                                                                 .orElse(parameters());
@@ -517,28 +697,92 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         return parameters;
     }
 
-    /** Dispatches enqueued requests until one is blocked. */
+    /** Dispatches enqueued requests in all shards, until each is empty or blocked. */
     void dispatchEnqueued() {
-        try {
-            while (dispatchFirst());
+        for (DispatchShard shard : shards)
+            shard.dispatchEnqueued();
+    }
+
+    private static int dispatchShards(DocumentOperationExecutorConfig executorConfig) {
+        return executorConfig.dispatchShards() > 0 ? executorConfig.dispatchShards()
+                                                   : Math.max(1, Runtime.getRuntime().availableProcessors() / 8);
+    }
+
+    /**
+     * A queue of document operations, which are dispatched in order, by at most one thread at a time.
+     * All operations on a document go through the same shard, so these are dispatched in the order they were enqueued.
+     */
+    private class DispatchShard {
+
+        private final Deque<Operation> operations = new ConcurrentLinkedDeque<>();
+        private final AtomicLong size = new AtomicLong();
+        private final Lock lock = new ReentrantLock();
+        private final Metric.Context context;
+
+        DispatchShard(int index) {
+            this.context = metric.createContext(Map.of("shard", Integer.toString(index)));
         }
-        catch (Exception e) {
-            log.log(WARNING, "Uncaught exception in /document/v1 dispatch thread", e);
+
+        void enqueue(Operation operation) {
+            size.incrementAndGet();
+            operations.offer(operation);
         }
-    }
 
-    /** Attempts to dispatch the first enqueued operations, and returns whether this was successful. */
-    private boolean dispatchFirst() {
-        Operation operation = operations.poll();
-        if (operation == null)
+        /** Reports the size of this shard's queue, and then dispatches what is enqueued. */
+        void dispatchEnqueuedAndReport() {
+            metric.set(MetricNames.DISPATCH_QUEUE_SIZE, size.get(), context);
+            dispatchEnqueued();
+        }
+
+        /** Dispatches enqueued requests until the queue is empty or one is blocked, unless another thread is already doing this. */
+        void dispatchEnqueued() {
+            try {
+                while (lock.tryLock()) {
+                    boolean blocked = false;
+                    try {
+                        for (Operation operation; ! blocked && (operation = operations.poll()) != null; )
+                            blocked = ! dispatch(operation);
+                    }
+                    finally {
+                        lock.unlock();
+                    }
+                    // An operation may have been enqueued after we found the queue empty, but before we released the lock.
+                    if (blocked || operations.isEmpty())
+                        return;
+                }
+            }
+            catch (Exception e) {
+                log.log(WARNING, "Uncaught exception in /document/v1 dispatch thread", e);
+            }
+        }
+
+        /** Attempts to dispatch the given operation, taken from the head of the queue, and returns whether this was successful. */
+        private boolean dispatch(Operation operation) {
+            if (operation.dispatch()) {
+                size.decrementAndGet();
+                enqueued.decrementAndGet();
+                metric.set(MetricNames.DISPATCH_LATENCY, (System.nanoTime() - operation.enqueuedNanos) * 1e-6, context);
+                return true;
+            }
+            operations.push(operation);
             return false;
+        }
 
-        if (operation.dispatch()) {
-            enqueued.decrementAndGet();
-            return true;
+        /** Removes all enqueued operations, and fails them with the given message. */
+        void abortEnqueued(String message) {
+            lock.lock();
+            try {
+                for (Operation operation; (operation = operations.poll()) != null; ) {
+                    size.decrementAndGet();
+                    enqueued.decrementAndGet();
+                    operation.abort(message);
+                }
+            }
+            finally {
+                lock.unlock();
+            }
         }
-        operations.push(operation);
-        return false;
+
     }
 
     /** Dispatches enqueued requests until one is blocked. */
@@ -564,18 +808,52 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         return false;
     }
 
+    private void enqueueAndDispatch(HttpRequest request, ResponseHandler handler, Supplier<BooleanSupplier> operationParser) {
+        enqueueAndDispatch(request, handler, null, operationParser);
+    }
+
     /**
-     * Enqueues the given request and operation, or responds with "overload" if the queue is full,
-     * and then attempts to dispatch an enqueued operation from the head of the queue.
+     * Enqueues the given request and operation, or responds with "overload" if the queue is full, and then
+     * dispatches enqueued operations from the head of the queue of the shard of the given document id.
+     * The operation is parsed before it is enqueued, so parsing is done in parallel by the calling threads.
+     * Operations without a document id are spread evenly over the shards.
      */
-    private void enqueueAndDispatch(HttpRequest request, ResponseHandler handler, Supplier<BooleanSupplier> operationParser) {
-        if (enqueued.incrementAndGet() > maxThrottled) {
+    private void enqueueAndDispatch(HttpRequest request, ResponseHandler handler, DocumentId id, Supplier<BooleanSupplier> operationParser) {
+        if ( ! reserveQueueSlot()) {
+            overload(request, overloadMessage(), handler);
+            return;
+        }
+        Operation operation = new Operation(request, handler, operationParser);
+        if ( ! operation.parse()) {
             enqueued.decrementAndGet();
-            overload(request, "Rejecting execution due to overload: " + maxThrottled + " requests already enqueued", handler);
             return;
         }
-        operations.offer(new Operation(request, handler, operationParser));
-        dispatchFirst();
+        enqueueAndDispatch(id != null ? shardOf(id) : shards[(int) Math.floorMod(unkeyedOperations.getAndIncrement(), (long) shards.length)],
+                           operation);
+    }
+
+    /** Enqueues the given operation, for which a queue slot is reserved, and dispatches what is enqueued in the given shard. */
+    private void enqueueAndDispatch(DispatchShard shard, Operation operation) {
+        shard.enqueue(operation);
+        shard.dispatchEnqueued();
+    }
+
+    /** Reserves a slot in the queue of operations, and returns whether this was successful, i.e., the queue was not full. */
+    private boolean reserveQueueSlot() {
+        if (enqueued.incrementAndGet() > maxThrottled) {
+            enqueued.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private String overloadMessage() {
+        return "Rejecting execution due to overload: " + maxThrottled + " requests already enqueued";
+    }
+
+    /** Returns the shard through which all operations on the given document are dispatched. */
+    private DispatchShard shardOf(DocumentId id) {
+        return shards[Math.floorMod(id.hashCode(), shards.length)];
     }
 
 
@@ -804,6 +1082,27 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             json.writeStringField("continuation", token);
         }
 
+        synchronized void writeResultsArrayStart() throws IOException {
+            json.writeArrayFieldStart("results");
+        }
+
+        /**
+         * Writes the result of the operation with the given index in a batch, and flushes it to the network layer.
+         * The document id is null if the operation could not be parsed.
+         */
+        synchronized void writeResult(int index, DocumentId id, int status, String message, Trace trace) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("index", index);
+            if (id != null)
+                json.writeStringField("id", id.toString());
+            json.writeNumberField("status", status);
+            writeTrace(trace);
+            if (message != null)
+                writeMessage(message);
+            json.writeEndObject();
+            json.flush();
+        }
+
     }
 
     private static void options(Collection<Method> methods, ResponseHandler handler) {
@@ -863,6 +1162,13 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         });
     }
 
+    private static void serviceUnavailable(HttpRequest request, String message, ResponseHandler handler) {
+        loggingException(() -> {
+            log.log(FINE, () -> "Failed handling request " + request.getMethod() + " " + request.getUri().getRawPath() + ": " + message);
+            JsonResponse.create(request, message, handler).respond(Response.Status.SERVICE_UNAVAILABLE);
+        });
+    }
+
     private static void timeout(HttpRequest request, String message, ResponseHandler handler) {
         loggingException(() -> {
             log.log(FINE, () -> "Timeout handling request " + request.getMethod() + " " + request.getUri().getRawPath() + ": " + message);
@@ -886,13 +1192,36 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         private final Lock lock = new ReentrantLock();
         private final HttpRequest request;
         private final ResponseHandler handler;
+        private final long enqueuedNanos = System.nanoTime();
+        private final Consumer<String> abort; // Fails what is not yet dispatched of this operation, with the given message.
         private BooleanSupplier operation; // The operation to attempt until it returns success.
         private Supplier<BooleanSupplier> parser; // The unparsed operation—getting this will parse it.
 
         Operation(HttpRequest request, ResponseHandler handler, Supplier<BooleanSupplier> parser) {
+            this(request, handler, parser, message -> serviceUnavailable(request, message, handler));
+        }
+
+        Operation(HttpRequest request, ResponseHandler handler, Supplier<BooleanSupplier> parser, Consumer<String> abort) {
             this.request = request;
             this.handler = handler;
             this.parser = parser;
+            this.abort = abort;
+        }
+
+        /** Parses this operation, and returns whether this was successful; if not, the failure is responded with. */
+        boolean parse() {
+            try {
+                operation = parser.get();
+                parser = null;
+                return true;
+            }
+            catch (IllegalArgumentException e) {
+                badRequest(request, e, handler);
+            }
+            catch (RuntimeException e) {
+                serverError(request, e, handler);
+            }
+            return false;
         }
 
         /**
@@ -901,18 +1230,15 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
          * dispatch should be retried at a later time.
          */
         boolean dispatch() {
-            if (request.isCancelled())
+            if (request.isCancelled()) {
+                abort("Request cancelled");
                 return true;
+            }
 
             if ( ! lock.tryLock())
                 throw new IllegalStateException("Concurrent attempts at dispatch — this is a bug");
 
             try {
-                if (operation == null) {
-                    operation = parser.get();
-                    parser = null;
-                }
-
                 return operation.getAsBoolean();
             }
             catch (IllegalArgumentException e) {
@@ -930,6 +1256,11 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             return true;
         }
 
+        /** Fails this operation, or what is not yet dispatched of it, as it will not be dispatched. */
+        void abort(String message) {
+            abort.accept(message);
+        }
+
     }
 
     /** Attempts to send the given document operation, returning false if this needs to be retried. */
@@ -1015,6 +1346,100 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             return new JsonReader(manager, inputStream, jsonFactory).readSingleDocument(operation, docId);
         }
 
+        /**
+         * Parses a JSON array of document operations, which must all be to different documents. An operation which
+         * is invalid, or which is to the same document as an earlier one, is returned as failed, and parsing continues
+         * with the next operation, unless the JSON is malformed, in which case parsing ends with the failed operation.
+         */
+        List<BatchOperation> parseBatch(InputStream inputStream) {
+            JsonReader reader = new JsonReader(manager, inputStream, jsonFactory);
+            reader.readArrayStart();
+            List<BatchOperation> operations = new ArrayList<>();
+            Set<DocumentId> ids = new HashSet<>();
+            while (true) {
+                int index = operations.size();
+                DocumentOperation operation;
+                try {
+                    operation = reader.next();
+                }
+                catch (IllegalArgumentException e) {
+                    operations.add(new BatchOperation(index, null, null, Exceptions.toMessageString(e)));
+                    continue;
+                }
+                if (operation == null)
+                    return operations;
+
+                if ( ! ids.add(operation.getId()))
+                    operations.add(new BatchOperation(index, operation.getId(), null,
+                                                      "Batch contains more than one operation on document '" + operation.getId() + "'"));
+                else
+                    operations.add(new BatchOperation(index, operation.getId(), operation, null));
+            }
+        }
+
+        DocumentPut deserializePut(InputStream inputStream, DocumentId docId) {
+            GrowableByteBuffer buffer = read(inputStream);
+            Document document;
+            try {
+                document = new Document(DocumentDeserializerFactory.create6(manager, buffer));
+            }
+            catch (RuntimeException e) {
+                throw new IllegalArgumentException("Could not deserialize document: " + Exceptions.toMessageString(e));
+            }
+            verifyDeserialized(docId, document.getId(), buffer);
+            return new DocumentPut(document);
+        }
+
+        DocumentUpdate deserializeUpdate(InputStream inputStream, DocumentId docId) {
+            GrowableByteBuffer buffer = read(inputStream);
+            DocumentUpdate update;
+            try {
+                update = new DocumentUpdate(DocumentDeserializerFactory.createHead(manager, buffer));
+            }
+            catch (RuntimeException e) {
+                throw new IllegalArgumentException("Could not deserialize document update: " + Exceptions.toMessageString(e));
+            }
+            verifyDeserialized(docId, update.getId(), buffer);
+            return update;
+        }
+
+        private static GrowableByteBuffer read(InputStream inputStream) {
+            try {
+                byte[] data = inputStream.readAllBytes();
+                if (data.length == 0)
+                    throw new IllegalArgumentException("Could not read document, no document?");
+
+                return GrowableByteBuffer.wrap(data);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static void verifyDeserialized(DocumentId expected, DocumentId actual, GrowableByteBuffer buffer) {
+            if ( ! expected.equals(actual))
+                throw new IllegalArgumentException("Document id in payload '" + actual + "' does not match '" + expected + "' in path");
+            if (buffer.remaining() > 0)
+                throw new IllegalArgumentException(buffer.remaining() + " bytes of trailing data after the document operation");
+        }
+
+    }
+
+    /** An operation in a batch, which is either parsed, or failed, with a document id if this was parsed. */
+    static class BatchOperation {
+
+        final int index;
+        final DocumentId id;
+        final DocumentOperation operation;
+        final String failure;
+
+        BatchOperation(int index, DocumentId id, DocumentOperation operation, String failure) {
+            this.index = index;
+            this.id = id;
+            this.operation = operation;
+            this.failure = failure;
+        }
+
     }
 
     interface SuccessCallback {
@@ -1028,27 +1453,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
                 callback.onSuccess((response instanceof DocumentResponse) ? ((DocumentResponse) response).getDocument() : null, jsonResponse);
             else {
                 jsonResponse.writeMessage(response.getTextMessage());
-                switch (response.outcome()) {
-                    case NOT_FOUND:
-                        jsonResponse.commit(Response.Status.NOT_FOUND);
-                        break;
-                    case CONDITION_FAILED:
-                        jsonResponse.commit(Response.Status.PRECONDITION_FAILED);
-                        break;
-                    case INSUFFICIENT_STORAGE:
-                        jsonResponse.commit(Response.Status.INSUFFICIENT_STORAGE);
-                        break;
-                    case TIMEOUT:
-                        jsonResponse.commit(Response.Status.GATEWAY_TIMEOUT);
-                        break;
-                    case ERROR:
-                        log.log(FINE, () -> "Exception performing document operation: " + response.getTextMessage());
-                        jsonResponse.commit(Response.Status.BAD_GATEWAY);
-                        break;
-                    default:
-                        log.log(WARNING, "Unexpected document API operation outcome '" + response.outcome() + "' " + response.getTextMessage());
-                        jsonResponse.commit(Response.Status.BAD_GATEWAY);
-                }
+                jsonResponse.commit(statusOf(response));
             }
         }
         catch (Exception e) {
@@ -1056,6 +1461,26 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         }
     }
 
+    /** Returns the HTTP status code corresponding to the outcome of the given unsuccessful document operation. */
+    private static int statusOf(com.yahoo.documentapi.Response response) {
+        switch (response.outcome()) {
+            case NOT_FOUND:
+                return Response.Status.NOT_FOUND;
+            case CONDITION_FAILED:
+                return Response.Status.PRECONDITION_FAILED;
+            case INSUFFICIENT_STORAGE:
+                return Response.Status.INSUFFICIENT_STORAGE;
+            case TIMEOUT:
+                return Response.Status.GATEWAY_TIMEOUT;
+            case ERROR:
+                log.log(FINE, () -> "Exception performing document operation: " + response.getTextMessage());
+                return Response.Status.BAD_GATEWAY;
+            default:
+                log.log(WARNING, "Unexpected document API operation outcome '" + response.outcome() + "' " + response.getTextMessage());
+                return Response.Status.BAD_GATEWAY;
+        }
+    }
+
     private static void handleFeedOperation(DocumentPath path, ResponseHandler handler, com.yahoo.documentapi.Response response) {
         handle(path, null, handler, response, (document, jsonResponse) -> jsonResponse.commit(Response.Status.OK));
     }
@@ -1375,6 +1800,105 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         return getProperty(request, name).map(parser::parse);
     }
 
+    /** Returns whether the payload of the given request is in the binary document format */
+    private static boolean isBinary(HttpRequest request) {
+        String contentType = request.headers().getFirst("Content-Type");
+        return contentType != null && contentType.split(";")[0].trim().equalsIgnoreCase(BINARY_DOCUMENT);
+    }
+
+    /**
+     * Returns the payload of the given request, decoded according to its Content-Encoding. Gzip is normally inflated
+     * already by the HTTP server, which then renames the header; zstd frames must carry their decompressed size.
+     * Decompressed payloads larger than the configured limit are rejected: zstd frames declaring such a size before
+     * anything is allocated for them, and gzip streams as soon as they inflate past the limit.
+     */
+    private InputStream decoded(HttpRequest request, InputStream in) {
+        String encoding = request.headers().getFirst("Content-Encoding");
+        if (encoding == null || encoding.trim().equalsIgnoreCase("identity"))
+            return in;
+
+        switch (encoding.trim().toLowerCase(Locale.ENGLISH)) {
+            case "gzip":
+                try {
+                    return new SizeLimitedInputStream(new GZIPInputStream(in), maxDecompressedBytes);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            case "zstd":
+                byte[] compressed = readAll(new SizeLimitedInputStream(in, ZstdCompressor.getMaxCompressedLength(maxDecompressedBytes)));
+                int size = ZstdCompressor.getDecompressedLength(compressed, 0, compressed.length);
+                if (size < 0)
+                    throw new IllegalArgumentException("Zstd payload must specify its decompressed size");
+                if (size > maxDecompressedBytes)
+                    throw new IllegalArgumentException("Decompressed payload of " + size + " bytes exceeds the limit of " +
+                                                       maxDecompressedBytes + " bytes");
+                try {
+                    return new ByteArrayInputStream(zstd.decompress(compressed, 0, compressed.length));
+                }
+                catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Failed decompressing zstd payload: " + Exceptions.toMessageString(e));
+                }
+            default:
+                throw new IllegalArgumentException("Unsupported Content-Encoding '" + encoding + "'");
+        }
+    }
+
+    /** An input stream which fails, rather than truncates, when more than a given number of bytes are read from it. */
+    private static class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long remaining;
+
+        SizeLimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) consumed(1);
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) consumed(read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            consumed(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void consumed(long bytes) {
+            remaining -= bytes;
+            if (remaining < 0)
+                throw new IllegalArgumentException("Decompressed payload exceeds the limit of " + limit + " bytes");
+        }
+
+    }
+
+    private static byte[] readAll(InputStream in) {
+        try {
+            return in.readAllBytes();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private static void disallow(HttpRequest request, String... properties) {
         for (String property : properties)
             if (request.parameters().containsKey(property))
@@ -23,6 +23,8 @@ public final class MetricNames {
     public static final String PARSE_ERROR = PREFIX + "parse_error";
     public static final String SUCCEEDED = PREFIX + "succeeded";
     public static final String PENDING = PREFIX + "pending";
+    public static final String DISPATCH_QUEUE_SIZE = PREFIX + "dispatch_queue_size";
+    public static final String DISPATCH_LATENCY = PREFIX + "dispatch_latency";
 
     private MetricNames() {
     }
@@ -2,6 +2,7 @@
 package com.yahoo.document.restapi.resource;
 
 import com.yahoo.cloud.config.ClusterListConfig;
+import com.yahoo.compress.ZstdCompressor;
 import com.yahoo.container.jdisc.RequestHandlerTestDriver;
 import com.yahoo.document.BucketId;
 import com.yahoo.document.Document;
@@ -17,6 +18,8 @@ import com.yahoo.document.datatypes.StringFieldValue;
 import com.yahoo.document.datatypes.TensorFieldValue;
 import com.yahoo.document.restapi.DocumentOperationExecutorConfig;
 import com.yahoo.document.restapi.resource.DocumentV1ApiHandler.StorageCluster;
+import com.yahoo.document.serialization.DocumentSerializer;
+import com.yahoo.document.serialization.DocumentSerializerFactory;
 import com.yahoo.document.update.FieldUpdate;
 import com.yahoo.documentapi.AckToken;
 import com.yahoo.documentapi.AsyncParameters;
@@ -43,6 +46,7 @@ import com.yahoo.documentapi.VisitorParameters;
 import com.yahoo.documentapi.VisitorResponse;
 import com.yahoo.documentapi.VisitorSession;
 import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
+import com.yahoo.io.GrowableByteBuffer;
 import com.yahoo.jdisc.test.MockMetric;
 import com.yahoo.messagebus.StaticThrottlePolicy;
 import com.yahoo.messagebus.Trace;
@@ -63,7 +67,9 @@ import org.junit.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -77,9 +83,11 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 import static com.yahoo.documentapi.DocumentOperationParameters.parameters;
 import static com.yahoo.jdisc.http.HttpRequest.Method.DELETE;
@@ -111,7 +119,9 @@ public class DocumentV1ApiTest {
             .build();
     final DocumentOperationExecutorConfig executorConfig = new DocumentOperationExecutorConfig.Builder()
             .maxThrottled(2)
+            .dispatchShards(1)
             .resendDelayMillis(1 << 30)
+            .maxDecompressedBytes(1 << 16)
             .build();
     final DocumentmanagerConfig docConfig = Deriver.getDocumentManagerConfig("src/test/cfg/music.sd").build();
     final DocumentTypeManager manager = new DocumentTypeManager(docConfig);
@@ -195,6 +205,7 @@ public class DocumentV1ApiTest {
                        "  \"pathId\": \"/document/v1/not-found\"," +
                        "  \"message\": \"Nothing at '/document/v1/not-found'. Available paths are:\\n" +
                        "/document/v1/\\n" +
+                       "/document/v1/batch\\n" +
                        "/document/v1/{namespace}/{documentType}/docid/\\n" +
                        "/document/v1/{namespace}/{documentType}/group/{group}/\\n" +
                        "/document/v1/{namespace}/{documentType}/number/{number}/\\n" +
@@ -779,6 +790,392 @@ public class DocumentV1ApiTest {
         driver.close();
     }
 
+    @Test
+    public void testBinaryOperations() {
+        RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+
+        // POST with a binary document payload is a document put operation.
+        access.session.expect((put, parameters) -> {
+            DocumentPut expectedPut = new DocumentPut(doc2);
+            expectedPut.setCondition(new TestAndSetCondition("test it"));
+            assertEquals(expectedPut, put);
+            parameters.responseHandler().get().handleResponse(new DocumentResponse(0, doc2));
+            return new Result();
+        });
+        var response = driver.sendRequest("http://localhost/document/v1/space/music/number/1/two?condition=test%20it", POST,
+                                          serialize(doc2), "application/x-vespa-document");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/number/1/two\"," +
+                       "  \"id\": \"id:space:music:n=1:two\"" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
+        // PUT with a binary document update payload is a document update operation.
+        DocumentUpdate update = new DocumentUpdate(doc3.getDataType(), doc3.getId());
+        update.addFieldUpdate(FieldUpdate.createAssign(doc3.getField("artist"), new StringFieldValue("Lisa Ekdahl")));
+        access.session.expect((operation, parameters) -> {
+            DocumentUpdate expectedUpdate = new DocumentUpdate(update);
+            expectedUpdate.setCreateIfNonExistent(true);
+            assertEquals(expectedUpdate, operation);
+            parameters.responseHandler().get().handleResponse(new UpdateResponse(0, true));
+            return new Result();
+        });
+        response = driver.sendRequest("http://localhost/document/v1/space/music/group/a/three?create=true", PUT,
+                                      serialize(update), "application/x-vespa-document; charset=binary");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/group/a/three\"," +
+                       "  \"id\": \"id:space:music:g=a:three\"" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
+        // POST with a binary document with a different document id is a 400
+        access.session.expect((__, ___) -> { throw new AssertionError("Not supposed to happen"); });
+        response = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", POST,
+                                      serialize(doc2), "application/x-vespa-document");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/docid/one\"," +
+                       "  \"message\": \"Document id in payload 'id:space:music:n=1:two' does not match 'id:space:music::one' in path\"" +
+                       "}", response.readAll());
+        assertEquals(400, response.getStatus());
+
+        // POST with an invalid binary payload is a 400
+        access.session.expect((__, ___) -> { throw new AssertionError("Not supposed to happen"); });
+        response = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", POST,
+                                      ByteBuffer.wrap(new byte[] { 1, 2, 3 }), "application/x-vespa-document");
+        Inspector responseRoot = SlimeUtils.jsonToSlime(response.readAll()).get();
+        assertTrue(responseRoot.field("message").asString().startsWith("Could not deserialize document: "));
+        assertEquals(400, response.getStatus());
+
+        driver.close();
+    }
+
+    @Test
+    public void testBatch() {
+        RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+
+        // POST of a JSON array of operations to /document/v1/batch dispatches each, and responds with a result per operation.
+        access.session.expect((operation, parameters) -> {
+            assertEquals(parameters().withRoute("route"), parameters);
+            if (operation instanceof DocumentPut) {
+                assertEquals(new DocumentPut(doc1), operation);
+                parameters.responseHandler().get().handleResponse(new DocumentResponse(0, doc1));
+            }
+            else if (operation instanceof DocumentUpdate) {
+                DocumentUpdate expectedUpdate = new DocumentUpdate(doc3.getDataType(), doc3.getId());
+                expectedUpdate.addFieldUpdate(FieldUpdate.createAssign(doc3.getField("artist"), new StringFieldValue("Lisa Ekdahl")));
+                expectedUpdate.setCreateIfNonExistent(true);
+                assertEquals(expectedUpdate, operation);
+                parameters.responseHandler().get().handleResponse(new Response(0, "no", Response.Outcome.CONDITION_FAILED));
+            }
+            else {
+                DocumentRemove expectedRemove = new DocumentRemove(doc2.getId());
+                expectedRemove.setCondition(new TestAndSetCondition("false"));
+                assertEquals(expectedRemove, operation);
+                parameters.responseHandler().get().handleResponse(new DocumentIdResponse(0, doc2.getId()));
+            }
+            return new Result();
+        });
+        var response = driver.sendRequest("http://localhost/document/v1/batch?route=route", POST,
+                                          "[" +
+                                          "  {" +
+                                          "    \"put\": \"id:space:music::one\"," +
+                                          "    \"fields\": {" +
+                                          "      \"artist\": \"Tom Waits\"," +
+                                          "      \"embedding\": { \"values\": [1.0,2.0,3.0] }" +
+                                          "    }" +
+                                          "  }," +
+                                          "  {" +
+                                          "    \"update\": \"id:space:music:g=a:three\"," +
+                                          "    \"create\": true," +
+                                          "    \"fields\": {" +
+                                          "      \"artist\": { \"assign\": \"Lisa Ekdahl\" }" +
+                                          "    }" +
+                                          "  }," +
+                                          "  {" +
+                                          "    \"remove\": \"id:space:music:n=1:two\"," +
+                                          "    \"condition\": \"false\"" +
+                                          "  }" +
+                                          "]");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/batch\"," +
+                       "  \"results\": [" +
+                       "    { \"index\": 0, \"id\": \"id:space:music::one\", \"status\": 200 }," +
+                       "    { \"index\": 1, \"id\": \"id:space:music:g=a:three\", \"status\": 412, \"message\": \"no\" }," +
+                       "    { \"index\": 2, \"id\": \"id:space:music:n=1:two\", \"status\": 200 }" +
+                       "  ]" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
+        // Operations which are invalid, or on a document with an earlier operation in the batch, fail individually,
+        // and their results are written before those of the dispatched operations.
+        List<DocumentId> dispatched = new ArrayList<>();
+        access.session.expect((operation, parameters) -> {
+            DocumentId id = ((DocumentRemove) operation).getId();
+            dispatched.add(id);
+            parameters.responseHandler().get().handleResponse(new DocumentIdResponse(0, id));
+            return new Result();
+        });
+        response = driver.sendRequest("http://localhost/document/v1/batch", POST,
+                                      "[" +
+                                      "  { \"remove\": \"id:space:music::one\" }," +
+                                      "  { \"remove\": \"not a document id\" }," +
+                                      "  { \"remove\": \"id:space:music::one\" }," +
+                                      "  { \"remove\": \"id:space:nosuchtype::two\" }," +
+                                      "  { \"remove\": \"id:space:music::three\" }" +
+                                      "]");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/batch\"," +
+                       "  \"results\": [" +
+                       "    { \"index\": 1, \"status\": 400, \"message\": \"Unparseable id 'not a document id': Scheme missing\" }," +
+                       "    { \"index\": 2, \"id\": \"id:space:music::one\", \"status\": 400, \"message\": \"Batch contains more than one operation on document 'id:space:music::one'\" }," +
+                       "    { \"index\": 3, \"status\": 400, \"message\": \"Document type nosuchtype does not exist\" }," +
+                       "    { \"index\": 0, \"id\": \"id:space:music::one\", \"status\": 200 }," +
+                       "    { \"index\": 4, \"id\": \"id:space:music::three\", \"status\": 200 }" +
+                       "  ]" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+        assertEquals(List.of(new DocumentId("id:space:music::one"), new DocumentId("id:space:music::three")), dispatched);
+
+        // Input which is not an array of operations is rejected as a whole.
+        access.session.expect((__, ___) -> { throw new AssertionError("Not supposed to happen"); });
+        response = driver.sendRequest("http://localhost/document/v1/batch", POST, "{ \"remove\": \"id:space:music::one\" }");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/batch\"," +
+                       "  \"message\": \"Expected start of array, got START_OBJECT\"" +
+                       "}", response.readAll());
+        assertEquals(400, response.getStatus());
+
+        driver.close();
+    }
+
+    @Test
+    public void testCompressedOperations() throws IOException {
+        RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+        byte[] put = "{ \"fields\": { \"artist\": \"Tom Waits\", \"embedding\": { \"values\": [1.0,2.0,3.0] } } }".getBytes(UTF_8);
+
+        // POST with a zstd compressed payload is decompressed before parsing.
+        access.session.expect((operation, parameters) -> {
+            assertEquals(new DocumentPut(doc1), operation);
+            parameters.responseHandler().get().handleResponse(new DocumentResponse(0, doc1));
+            return new Result();
+        });
+        var response = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", POST,
+                                          ByteBuffer.wrap(new ZstdCompressor().compress(put, 0, put.length)),
+                                          Map.of("Content-Encoding", "zstd"));
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/docid/one\"," +
+                       "  \"id\": \"id:space:music::one\"" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
+        // POST with a gzip compressed batch payload is also decompressed.
+        access.session.expect((operation, parameters) -> {
+            assertEquals(new DocumentRemove(doc2.getId()), operation);
+            parameters.responseHandler().get().handleResponse(new DocumentIdResponse(0, doc2.getId()));
+            return new Result();
+        });
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write("[{ \"remove\": \"id:space:music:n=1:two\" }]".getBytes(UTF_8));
+        }
+        response = driver.sendRequest("http://localhost/document/v1/batch", POST,
+                                      ByteBuffer.wrap(gzipped.toByteArray()), Map.of("Content-Encoding", "gzip"));
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/batch\"," +
+                       "  \"results\": [" +
+                       "    { \"index\": 0, \"id\": \"id:space:music:n=1:two\", \"status\": 200 }" +
+                       "  ]" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
+        // POST with a zstd frame declaring a decompressed size above the limit is a 400, before decompressing.
+        access.session.expect((__, ___) -> { throw new AssertionError("Not supposed to happen"); });
+        byte[] large = " ".repeat(1 << 17).getBytes(UTF_8);
+        response = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", POST,
+                                      ByteBuffer.wrap(new ZstdCompressor().compress(large, 0, large.length)),
+                                      Map.of("Content-Encoding", "zstd"));
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/docid/one\"," +
+                       "  \"message\": \"Decompressed payload of 131072 bytes exceeds the limit of 65536 bytes\"" +
+                       "}", response.readAll());
+        assertEquals(400, response.getStatus());
+
+        // POST with a gzip payload which inflates past the limit is also a 400.
+        gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(large);
+        }
+        response = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", POST,
+                                      ByteBuffer.wrap(gzipped.toByteArray()), Map.of("Content-Encoding", "gzip"));
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/docid/one\"," +
+                       "  \"message\": \"Decompressed payload exceeds the limit of 65536 bytes\"" +
+                       "}", response.readAll());
+        assertEquals(400, response.getStatus());
+
+        // POST with an unknown content encoding is a 400.
+        access.session.expect((__, ___) -> { throw new AssertionError("Not supposed to happen"); });
+        response = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", POST,
+                                      ByteBuffer.wrap(put), Map.of("Content-Encoding", "br"));
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/docid/one\"," +
+                       "  \"message\": \"Unsupported Content-Encoding 'br'\"" +
+                       "}", response.readAll());
+        assertEquals(400, response.getStatus());
+
+        driver.close();
+    }
+
+    @Test
+    public void testShardedDispatch() {
+        int shards = 3;
+        handler.destroy();
+        handler = new DocumentV1ApiHandler(clock, Duration.ofMillis(1), metric, metrics, access, docConfig,
+                                           new DocumentOperationExecutorConfig.Builder().dispatchShards(shards)
+                                                                                         .resendDelayMillis(1 << 30)
+                                                                                         .build(),
+                                           clusterConfig, bucketConfig);
+        RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+        DocumentId blocked = new DocumentId("id:space:music::one");
+        String other = "two";
+        for (int i = 0; Math.floorMod(new DocumentId("id:space:music::" + other).hashCode(), shards) == Math.floorMod(blocked.hashCode(), shards); i++)
+            other = "two-" + i;
+
+        // Operations on a document wait behind a blocked operation on the same document, while other shards proceed.
+        List<String> dispatched = new ArrayList<>();
+        AtomicBoolean blocking = new AtomicBoolean(true);
+        access.session.expect((remove, parameters) -> {
+            DocumentRemove documentRemove = (DocumentRemove) remove;
+            if (blocking.get() && documentRemove.getId().equals(blocked))
+                return new Result(Result.ResultType.TRANSIENT_ERROR, Result.toError(Result.ResultType.TRANSIENT_ERROR));
+
+            dispatched.add(documentRemove.getId().getDocType() + ":" + documentRemove.getCondition().getSelection());
+            parameters.responseHandler().get().handleResponse(new DocumentIdResponse(0, documentRemove.getId()));
+            return new Result();
+        });
+        var first = driver.sendRequest("http://localhost/document/v1/space/music/docid/one?condition=first", DELETE);
+        var second = driver.sendRequest("http://localhost/document/v1/space/music/docid/one?condition=second", DELETE);
+        var third = driver.sendRequest("http://localhost/document/v1/space/music/docid/" + other + "?condition=third", DELETE);
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/docid/" + other + "\"," +
+                       "  \"id\": \"id:space:music::" + other + "\"" +
+                       "}", third.readAll());
+        assertEquals(200, third.getStatus());
+        assertEquals(List.of("music:third"), dispatched);
+
+        blocking.set(false);
+        handler.dispatchEnqueued();
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/space/music/docid/one\"," +
+                       "  \"id\": \"id:space:music::one\"" +
+                       "}", first.readAll());
+        assertEquals(200, first.getStatus());
+        second.readAll();
+        assertEquals(200, second.getStatus());
+        assertEquals(List.of("music:third", "music:first", "music:second"), dispatched);
+
+        Map<Map<String, ?>, Double> latencies = metric.metrics().get("httpapi_dispatch_latency");
+        assertTrue(latencies.containsKey(Map.of("shard", Integer.toString(Math.floorMod(blocked.hashCode(), shards)))));
+        assertEquals(2, latencies.size());
+        driver.close();
+    }
+
+    @Test
+    public void testShardedBatch() {
+        int shards = 3;
+        handler.destroy();
+        handler = new DocumentV1ApiHandler(clock, Duration.ofMillis(1), metric, metrics, access, docConfig,
+                                           new DocumentOperationExecutorConfig.Builder().dispatchShards(shards)
+                                                                                         .resendDelayMillis(1 << 30)
+                                                                                         .build(),
+                                           clusterConfig, bucketConfig);
+        RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+        DocumentId blocked = new DocumentId("id:space:music::one");
+        String other = "two";
+        for (int i = 0; Math.floorMod(new DocumentId("id:space:music::" + other).hashCode(), shards) == Math.floorMod(blocked.hashCode(), shards); i++)
+            other = "two-" + i;
+
+        // Operations in a batch wait behind blocked single operations on the same document, while other shards proceed.
+        List<String> dispatched = new ArrayList<>();
+        AtomicBoolean blocking = new AtomicBoolean(true);
+        access.session.expect((remove, parameters) -> {
+            DocumentRemove documentRemove = (DocumentRemove) remove;
+            if (blocking.get() && documentRemove.getId().equals(blocked))
+                return new Result(Result.ResultType.TRANSIENT_ERROR, Result.toError(Result.ResultType.TRANSIENT_ERROR));
+
+            dispatched.add(documentRemove.getCondition().getSelection());
+            parameters.responseHandler().get().handleResponse(new DocumentIdResponse(0, documentRemove.getId()));
+            return new Result();
+        });
+        var first = driver.sendRequest("http://localhost/document/v1/space/music/docid/one?condition=first", DELETE);
+        var batch = driver.sendRequest("http://localhost/document/v1/batch", POST,
+                                       "[" +
+                                       "  { \"remove\": \"id:space:music::one\", \"condition\": \"second\" }," +
+                                       "  { \"remove\": \"id:space:music::" + other + "\", \"condition\": \"third\" }" +
+                                       "]");
+        assertEquals(List.of("third"), dispatched);
+
+        blocking.set(false);
+        handler.dispatchEnqueued();
+        first.readAll();
+        assertEquals(200, first.getStatus());
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/batch\"," +
+                       "  \"results\": [" +
+                       "    { \"index\": 1, \"id\": \"id:space:music::" + other + "\", \"status\": 200 }," +
+                       "    { \"index\": 0, \"id\": \"id:space:music::one\", \"status\": 200 }" +
+                       "  ]" +
+                       "}", batch.readAll());
+        assertEquals(200, batch.getStatus());
+        assertEquals(List.of("third", "first", "second"), dispatched);
+        driver.close();
+    }
+
+    @Test
+    public void testBatchOperationsLeftAtShutdownAreFailed() {
+        RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+
+        // The first operation is dispatched, while the second is blocked until shutdown times out.
+        access.session.expect((remove, parameters) -> {
+            DocumentId id = ((DocumentRemove) remove).getId();
+            if (id.equals(new DocumentId("id:space:music::two"))) {
+                clock.advance(Duration.ofMinutes(1));
+                return new Result(Result.ResultType.TRANSIENT_ERROR, Result.toError(Result.ResultType.TRANSIENT_ERROR));
+            }
+            parameters.responseHandler().get().handleResponse(new DocumentIdResponse(0, id));
+            return new Result();
+        });
+        var response = driver.sendRequest("http://localhost/document/v1/batch", POST,
+                                          "[" +
+                                          "  { \"remove\": \"id:space:music::one\" }," +
+                                          "  { \"remove\": \"id:space:music::two\" }," +
+                                          "  { \"remove\": \"id:space:music::three\" }" +
+                                          "]");
+        handler.destroy();
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1/batch\"," +
+                       "  \"results\": [" +
+                       "    { \"index\": 0, \"id\": \"id:space:music::one\", \"status\": 200 }," +
+                       "    { \"index\": 1, \"id\": \"id:space:music::two\", \"status\": 503, \"message\": \"Handler shut down\" }," +
+                       "    { \"index\": 2, \"id\": \"id:space:music::three\", \"status\": 503, \"message\": \"Handler shut down\" }" +
+                       "  ]" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+        driver.close();
+    }
+
+    private static ByteBuffer serialize(Document document) {
+        DocumentSerializer serializer = DocumentSerializerFactory.create6();
+        serializer.write(document);
+        return serializer.getBuf().getByteBuffer().flip();
+    }
+
+    private static ByteBuffer serialize(DocumentUpdate update) {
+        DocumentSerializer serializer = DocumentSerializerFactory.createHead(new GrowableByteBuffer());
+        update.serialize(serializer);
+        return serializer.getBuf().getByteBuffer().flip();
+    }
+
     @Test
     public void testThroughput() throws InterruptedException {
         DocumentOperationExecutorConfig executorConfig = new DocumentOperationExecutorConfig.Builder().build();
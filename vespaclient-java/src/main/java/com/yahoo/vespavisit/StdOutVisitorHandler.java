@@ -16,7 +16,6 @@ import com.yahoo.documentapi.messagebus.protocol.MapVisitorMessage;
 import java.util.logging.Level;
 import com.yahoo.messagebus.Message;
 
-import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.util.LinkedHashMap;
@@ -124,40 +123,37 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
                 } catch (InterruptedException e) {}
             }
 
-            synchronized (printLock) {
-                if (m instanceof MapVisitorMessage) {
+            if (m instanceof MapVisitorMessage) {
+                synchronized (printLock) {
                     onMapVisitorData(((MapVisitorMessage)m).getData());
-                    ack(token);
-                } else if (m instanceof DocumentListMessage) {
-                    DocumentListMessage dlm = (DocumentListMessage)m;
-                    onDocumentList(dlm.getBucketId(), dlm.getDocuments());
-                    ack(token);
-                } else if (m instanceof EmptyBucketsMessage) {
-                    onEmptyBuckets(((EmptyBucketsMessage)m).getBucketIds());
-                    ack(token);
-                } else {
-                    super.onMessage(m, token);
                 }
+                ack(token);
+            } else if (m instanceof DocumentListMessage) {
+                DocumentListMessage dlm = (DocumentListMessage)m;
+                onDocumentList(dlm.getBucketId(), dlm.getDocuments());
+                ack(token);
+            } else if (m instanceof EmptyBucketsMessage) {
+                onEmptyBuckets(((EmptyBucketsMessage)m).getBucketIds());
+                ack(token);
+            } else {
+                super.onMessage(m, token);
             }
         }
 
+        // Documents are serialized before taking the print lock, so parallel handler threads only wait for each other's writes
         @Override
         public void onDocument(Document doc, long timestamp) {
             try {
-                if (lastLineIsProgress) {
-                    System.err.print('\r');
-                }
-
                 if (printIds) {
-                    out.print(doc.getId());
-                    out.print(" (Last modified at ");
-                    out.println(timestamp + ")");
+                    String line = doc.getId() + " (Last modified at " + timestamp + ")";
+                    print(() -> out.println(line));
                 } else {
                     if (jsonOutput) {
-                        writeJsonDocument(doc);
+                        byte[] json = JsonWriter.toByteArray(doc);
+                        print(() -> writeJsonRecord(json));
                     } else {
-                        out.print(doc.toXML(
-                                indentXml ? "  " : ""));
+                        String xml = doc.toXML(indentXml ? "  " : "");
+                        print(() -> out.print(xml));
                     }
                 }
             } catch (Exception e) {
@@ -167,30 +163,22 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
             }
         }
 
-        private void writeJsonDocument(Document doc) throws IOException {
-            writeFeedStartOrRecordSeparator();
-            out.write(JsonWriter.toByteArray(doc));
-        }
-
         @Override
         public void onRemove(DocumentId docId) {
             try {
-                if (lastLineIsProgress) {
-                    System.err.print('\r');
-                }
-
                 if (printIds) {
-                    out.println(docId + " (Removed)");
+                    print(() -> out.println(docId + " (Removed)"));
                 } else {
                     if (jsonOutput) {
-                        writeJsonDocumentRemove(docId);
+                        byte[] json = JsonWriter.documentRemove(docId);
+                        print(() -> writeJsonRecord(json));
                     } else {
                         XmlStream stream = new XmlStream();
                         stream.beginTag("remove");
                         stream.addAttribute("documentid", docId);
                         stream.endTag();
                         assert(stream.isFinalized());
-                        out.print(stream);
+                        print(() -> out.print(stream));
                     }
                 }
             } catch (Exception e) {
@@ -200,10 +188,19 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
             }
         }
 
-        private void writeJsonDocumentRemove(DocumentId docId)
-                throws IOException {
+        /** Writes to the output while holding the print lock, first moving past any progress line. */
+        private void print(Runnable write) {
+            synchronized (printLock) {
+                if (lastLineIsProgress) {
+                    System.err.print('\r');
+                }
+                write.run();
+            }
+        }
+
+        private void writeJsonRecord(byte[] json) {
             writeFeedStartOrRecordSeparator();
-            out.write(JsonWriter.documentRemove(docId));
+            out.write(json, 0, json.length);
         }
 
         private void writeFeedStartOrRecordSeparator() {
@@ -231,7 +228,7 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
         }
 
         private void onDocumentList(BucketId bucketId, List<DocumentListEntry> documents) {
-            out.println("Got document list of bucket " + bucketId.toString());
+            print(() -> out.println("Got document list of bucket " + bucketId.toString()));
             for (DocumentListEntry entry : documents) {
                 entry.getDocument().setLastModified(entry.getTimestamp());
                 onDocument(entry.getDocument(), entry.getTimestamp());
@@ -5,6 +5,7 @@ import com.yahoo.document.FixedBucketSpaces;
 import com.yahoo.document.fieldset.DocIdOnly;
 import com.yahoo.document.fieldset.DocumentOnly;
 import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.documentapi.ParallelVisitorSession;
 import com.yahoo.documentapi.ProgressToken;
 import com.yahoo.documentapi.VisitorControlHandler;
 import com.yahoo.documentapi.VisitorParameters;
@@ -305,6 +306,14 @@ public class VdsVisit {
                 .desc("Sleep this amount of millisecs before processing message. (Debug option for pretending to be slow client)")
                 .type(Number.class)
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("parallel")
+                .hasArg(true)
+                .argName("num")
+                .desc("Visit with this many sessions, each over a distinct slice of the buckets, and process the visited " +
+                        "documents in as many threads. Defaults to 1. Can not be combined with a progress file or a remote data handler.")
+                .type(Number.class)
+                .build());
         options.addOption(Option.builder()
                 .longOpt("priority")
                 .hasArg(true)
@@ -362,6 +371,7 @@ public class VdsVisit {
         private int processTime = 0;
         private int fullTimeout = 7 * 24 * 60 * 60 * 1000;
         private boolean jsonOutput = false;
+        private int parallelism = 1;
 
         public VisitorParameters getVisitorParameters() {
             return visitorParameters;
@@ -430,6 +440,14 @@ public class VdsVisit {
         public void setJsonOutput(boolean jsonOutput) {
             this.jsonOutput = jsonOutput;
         }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
     }
 
     protected static class ArgumentParser {
@@ -525,6 +543,16 @@ public class VdsVisit {
             if (line.hasOption("processtime")) {
                 allParams.setProcessTime(((Number) line.getParsedOptionValue("processtime")).intValue());
             }
+            if (line.hasOption("parallel")) {
+                int parallelism = ((Number) line.getParsedOptionValue("parallel")).intValue();
+                if (parallelism < 1) {
+                    throw new IllegalArgumentException("Parallelism must be positive");
+                }
+                if (parallelism > 1 && (line.hasOption("p") || line.hasOption("d"))) {
+                    throw new IllegalArgumentException("Cannot combine parallel visiting with a progress file or a remote data handler");
+                }
+                allParams.setParallelism(parallelism);
+            }
             if (line.hasOption("maxtotalhits")) {
                 params.setMaxTotalHits(((Number)line.getParsedOptionValue("maxtotalhits")).intValue());
             }
@@ -658,6 +686,9 @@ public class VdsVisit {
         if (params.skipBucketsOnFatalErrors()) {
             out.println("Skip visiting super buckets with fatal errors.");
         }
+        if (vdsParams.getParallelism() > 1) {
+            out.println("Visiting with " + vdsParams.getParallelism() + " parallel sessions.");
+        }
     }
 
     private void onDocumentSelectionException(Exception e) {
@@ -741,7 +772,14 @@ public class VdsVisit {
         }
 
         try {
-            session = sessionAccessor.createVisitorSession(visitorParameters);
+            if (params.getParallelism() > 1) {
+                // Let the queue to the handler threads hold maxPending messages per session.
+                session = new ParallelVisitorSession(sessionAccessor::createVisitorSession, visitorParameters,
+                                                     params.getParallelism(), params.getParallelism(),
+                                                     params.getParallelism() * visitorParameters.getMaxPending());
+            } else {
+                session = sessionAccessor.createVisitorSession(visitorParameters);
+            }
             while (true) {
                 try {
                     if (session.waitUntilDone(params.getFullTimeout())) break;
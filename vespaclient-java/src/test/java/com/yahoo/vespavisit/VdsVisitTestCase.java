@@ -214,6 +214,26 @@ public class VdsVisitTestCase {
         }
     }
 
+    @Test
+    public void testParallelism() throws Exception {
+        VdsVisit.ArgumentParser parser = createMockArgumentParser();
+        assertEquals(1, parser.parse(emptyArgList()).getParallelism());
+        assertEquals(4, parser.parse(new String[] { "--parallel", "4" }).getParallelism());
+        assertEquals(1, parser.parse(new String[] { "--parallel", "1", "--progress", "foo-progress.txt" }).getParallelism());
+        try {
+            parser.parse(new String[] { "--parallel", "4", "--progress", "foo-progress.txt" });
+            fail("no exception thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Cannot combine parallel visiting with a progress file or a remote data handler", e.getMessage());
+        }
+        try {
+            parser.parse(new String[] { "--parallel", "0" });
+            fail("no exception thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Parallelism must be positive", e.getMessage());
+        }
+    }
+
     @Test
     public void testCommandLineShortOptionsInvokeHelp() throws Exception {
         // Short options testing (for options that do not collide with each other)
@@ -146,6 +146,11 @@ public class TypeResolver {
         // result of computation must be at least float
         cellType = Value.largestOf(cellType, Value.FLOAT);
 
+        if (lhs.dimensions().equals(rhs.dimensions())) { // common case: avoid creating a new type
+            if (lhs.valueType() == cellType) return lhs;
+            if (rhs.valueType() == cellType) return rhs;
+        }
+
         Map<String, Dimension> map = new HashMap<>();
         for (Dimension dim : lhs.dimensions()) {
             map.put(dim.name(), dim);
@@ -115,17 +115,18 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
     }
 
     private static Tensor indexedVectorJoin(IndexedTensor a, IndexedTensor b, TensorType type, DoubleBinaryOperator combinator) {
-        long joinedRank = Math.min(a.dimensionSizes().size(0), b.dimensionSizes().size(0));
-        Iterator<Double> aIterator = a.valueIterator();
-        Iterator<Double> bIterator = b.valueIterator();
-        IndexedTensor.Builder builder = IndexedTensor.Builder.of(type, new DimensionSizes.Builder(1).set(0, joinedRank).build());
-        for (int i = 0; i < joinedRank; i++)
-            builder.cell(combinator.applyAsDouble(aIterator.next(), bIterator.next()), i);
-        return builder.build();
+        int joinedRank = (int)Math.min(a.dimensionSizes().size(0), b.dimensionSizes().size(0));
+        double[] values = new double[joinedRank];
+        joinValues(a, b, values, combinator);
+        return indexedTensor(type, new DimensionSizes.Builder(1).set(0, joinedRank).build(), values);
     }
 
     /** When both tensors have the same dimensions, at most one cell matches a cell in the other tensor */
     private static Tensor singleSpaceJoin(Tensor a, Tensor b, TensorType joinedType, DoubleBinaryOperator combinator) {
+        if (a instanceof IndexedTensor && b instanceof IndexedTensor && a.type().dimensions().equals(b.type().dimensions())
+            && ((IndexedTensor)a).dimensionSizes().equals(((IndexedTensor)b).dimensionSizes()))
+            return indexedSingleSpaceJoin((IndexedTensor)a, (IndexedTensor)b, joinedType, combinator);
+
         Tensor.Builder builder = Tensor.Builder.of(joinedType);
         for (Iterator<Tensor.Cell> i = a.cellIterator(); i.hasNext(); ) {
             Map.Entry<TensorAddress, Double> aCell = i.next();
@@ -137,6 +138,56 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         return builder.build();
     }
 
+    /** Dense tensors with the same dimensions and sizes have their cells in the same order and can be joined by value index */
+    private static Tensor indexedSingleSpaceJoin(IndexedTensor a, IndexedTensor b, TensorType joinedType, DoubleBinaryOperator combinator) {
+        double[] values = new double[(int)a.size()];
+        joinValues(a, b, values, combinator);
+        return indexedTensor(joinedType, a.dimensionSizes(), values);
+    }
+
+    /** Returns a tensor taking ownership of the given values, converted to float values if the type requires it */
+    private static Tensor indexedTensor(TensorType type, DimensionSizes sizes, double[] values) {
+        if (type.valueType() == TensorType.Value.DOUBLE)
+            return IndexedTensor.Builder.of(type, sizes, values).build();
+
+        float[] floatValues = new float[values.length];
+        for (int i = 0; i < values.length; i++)
+            floatValues[i] = (float)values[i];
+        return IndexedTensor.Builder.of(type, sizes, floatValues).build();
+    }
+
+    /**
+     * Joins the first values.length values of a and b into the given array.
+     * The most common combinators are applied directly in tight loops over the values,
+     * which avoids a megamorphic call per value and allows the JIT compiler to unroll and vectorize them.
+     */
+    private static void joinValues(IndexedTensor a, IndexedTensor b, double[] values, DoubleBinaryOperator combinator) {
+        if (combinator instanceof ScalarFunctions.Add) {
+            for (int i = 0; i < values.length; i++)
+                values[i] = a.get(i) + b.get(i);
+        }
+        else if (combinator instanceof ScalarFunctions.Multiply) {
+            for (int i = 0; i < values.length; i++)
+                values[i] = a.get(i) * b.get(i);
+        }
+        else if (combinator instanceof ScalarFunctions.Subtract) {
+            for (int i = 0; i < values.length; i++)
+                values[i] = a.get(i) - b.get(i);
+        }
+        else if (combinator instanceof ScalarFunctions.Max) {
+            for (int i = 0; i < values.length; i++)
+                values[i] = Math.max(a.get(i), b.get(i));
+        }
+        else if (combinator instanceof ScalarFunctions.Min) {
+            for (int i = 0; i < values.length; i++)
+                values[i] = Math.min(a.get(i), b.get(i));
+        }
+        else {
+            for (int i = 0; i < values.length; i++)
+                values[i] = combinator.applyAsDouble(a.get(i), b.get(i));
+        }
+    }
+
     /** Join a tensor into a superspace */
     private static Tensor subspaceJoin(Tensor subspace, Tensor superspace, TensorType joinedType, boolean reversedArgumentOrder, DoubleBinaryOperator combinator) {
         if (subspace instanceof IndexedTensor && superspace instanceof IndexedTensor)
@@ -104,9 +104,21 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
 
     @Override
     public Tensor evaluate(EvaluationContext<NAMETYPE> context) {
+        if (argument instanceof Join)
+            return evaluateJoin((Join<NAMETYPE>)argument, context);
         return evaluate(this.argument.evaluate(context), dimensions, aggregator);
     }
 
+    /** Evaluates a reduce of a join as one operation, which avoids creating the joined tensor when possible */
+    private Tensor evaluateJoin(Join<NAMETYPE> join, EvaluationContext<NAMETYPE> context) {
+        Tensor a = join.arguments().get(0).evaluate(context);
+        Tensor b = join.arguments().get(1).evaluate(context);
+        TensorType joinedType = Join.outputType(a.type(), b.type());
+        if ( ! joinedType.dimensionNames().containsAll(dimensions)) // fail as if evaluated separately
+            return evaluate(Join.evaluate(a, b, joinedType, join.combinator()), dimensions, aggregator);
+        return new ReduceJoin<>(this, join).evaluate(a, b, joinedType);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash("reduce", argument, dimensions, aggregator);
@@ -121,8 +133,8 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
         if (dimensions.isEmpty() || dimensions.size() == argument.type().dimensions().size())
             if (argument.isEmpty())
                 return Tensor.from(0.0);
-            else if (argument.type().dimensions().size() == 1 && argument instanceof IndexedTensor)
-                return reduceIndexedVector((IndexedTensor)argument, aggregator);
+            else if (argument instanceof IndexedTensor)
+                return reduceIndexedAll((IndexedTensor)argument, aggregator);
             else
                 return reduceAllGeneral(argument, aggregator);
 
@@ -164,11 +176,45 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
         return Tensor.Builder.of(TensorType.empty).cell((valueAggregator.aggregatedValue())).build();
     }
 
-    private static Tensor reduceIndexedVector(IndexedTensor argument, Aggregator aggregator) {
-        ValueAggregator valueAggregator = ValueAggregator.ofType(aggregator);
-        for (int i = 0; i < argument.dimensionSizes().size(0); i++)
-            valueAggregator.aggregate(argument.get(i));
-        return Tensor.Builder.of(TensorType.empty).cell((valueAggregator.aggregatedValue())).build();
+    /** Reduces all the values of a dense tensor by value index, without creating an iterator or boxing values */
+    private static Tensor reduceIndexedAll(IndexedTensor argument, Aggregator aggregator) {
+        return Tensor.Builder.of(TensorType.empty).cell(reduceValues(argument, aggregator)).build();
+    }
+
+    /**
+     * Returns the given values aggregated. The most common aggregators are applied directly in tight loops
+     * over the values, which allows the JIT compiler to unroll them.
+     */
+    private static double reduceValues(IndexedTensor values, Aggregator aggregator) {
+        int size = (int)values.size();
+        switch (aggregator) {
+            case sum :
+                double sum = 0.0;
+                for (int i = 0; i < size; i++)
+                    sum += values.get(i);
+                return sum;
+            case max :
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < size; i++) {
+                    double value = values.get(i);
+                    if (value > max)
+                        max = value;
+                }
+                return max;
+            case min :
+                double min = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < size; i++) {
+                    double value = values.get(i);
+                    if (value < min)
+                        min = value;
+                }
+                return min;
+            default :
+                ValueAggregator valueAggregator = ValueAggregator.ofType(aggregator);
+                for (int i = 0; i < size; i++)
+                    valueAggregator.aggregate(values.get(i));
+                return valueAggregator.aggregatedValue();
+        }
     }
 
     static abstract class ValueAggregator {
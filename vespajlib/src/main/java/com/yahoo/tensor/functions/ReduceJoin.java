@@ -73,7 +73,15 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
         Tensor a = argumentA.evaluate(context);
         Tensor b = argumentB.evaluate(context);
         TensorType joinedType = new TensorType.Builder(a.type(), b.type()).build();
+        return evaluate(a, b, joinedType);
+    }
 
+    /**
+     * Evaluates this on the given evaluated arguments, without creating the joined tensor if possible.
+     *
+     * @param joinedType the type the join of the arguments would have
+     */
+    Tensor evaluate(Tensor a, Tensor b, TensorType joinedType) {
         if (canOptimize(a, b)) {
             return evaluate((IndexedTensor)a, (IndexedTensor)b, joinedType);
         }
@@ -81,7 +89,7 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
     }
 
     /**
-     * Tests whether or not the reduce is over the join dimensions. The
+     * Tests whether or not the reduce is over exactly the join dimensions. The
      * remaining logic in this class assumes this to be true.
      *
      * If no dimensions are given, the join must be on all tensor dimensions.
@@ -112,6 +120,8 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
                 if (!dimensions.contains(dimension.name()))
                     return false;
             }
+            if ( ! commonDimensions.dimensionNames().containsAll(dimensions))
+                return false;
         }
         return true;
     }
@@ -148,12 +158,7 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
         long commonSize = Math.min(a.dimensionSizes().size(0), b.dimensionSizes().size(0));
 
         Reduce.ValueAggregator agg = Reduce.ValueAggregator.ofType(aggregator);
-        for (int ic = 0; ic < commonSize; ++ic) {
-            double va = a.get(ic);
-            double vb = b.get(ic);
-            agg.aggregate(combinator.applyAsDouble(va, vb));
-        }
-        builder.cellByDirectIndex(0, agg.aggregatedValue());
+        builder.cellByDirectIndex(0, product(a, 0, 1, b, 0, 1, commonSize, false, agg));
         return builder.build();
     }
 
@@ -164,17 +169,11 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
         IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder)IndexedTensor.Builder.of(reducedType);
         DimensionSizes sizesA = a.dimensionSizes();
         DimensionSizes sizesB = b.dimensionSizes();
+        long commonSize = Math.min(sizesA.size(0), sizesB.size(1));
 
         Reduce.ValueAggregator agg = Reduce.ValueAggregator.ofType(aggregator);
         for (int ib = 0; ib < sizesB.size(0); ++ib) {
-            agg.reset();
-            for (int ic = 0; ic < Math.min(sizesA.size(0), sizesB.size(1)); ++ic) {
-                double va = a.get(ic);
-                double vb = b.get(ib * sizesB.size(1) + ic);
-                double result = swapped ? combinator.applyAsDouble(vb, va) : combinator.applyAsDouble(va, vb);
-                agg.aggregate(result);
-            }
-            builder.cellByDirectIndex(ib, agg.aggregatedValue());
+            builder.cellByDirectIndex(ib, product(a, 0, 1, b, ib * sizesB.size(1), 1, commonSize, swapped, agg));
         }
         return builder.build();
     }
@@ -190,22 +189,42 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
         int ibToReduced = reducedType.indexOfDimension(b.type().dimensions().get(0).name()).get();
         long strideA = iaToReduced < ibToReduced ? sizesB.size(0) : 1;
         long strideB = ibToReduced < iaToReduced ? sizesA.size(0) : 1;
+        long commonSize = Math.min(sizesA.size(1), sizesB.size(1));
 
         Reduce.ValueAggregator agg = Reduce.ValueAggregator.ofType(aggregator);
         for (int ia = 0; ia < sizesA.size(0); ++ia) {
             for (int ib = 0; ib < sizesB.size(0); ++ib) {
-                agg.reset();
-                for (int ic = 0; ic < Math.min(sizesA.size(1), sizesB.size(1)); ++ic) {
-                    double va = a.get(ia * sizesA.size(1) + ic);
-                    double vb = b.get(ib * sizesB.size(1) + ic);
-                    agg.aggregate(combinator.applyAsDouble(va, vb));
-                }
-                builder.cellByDirectIndex(ia * strideA + ib * strideB, agg.aggregatedValue());
+                double value = product(a, ia * sizesA.size(1), 1, b, ib * sizesB.size(1), 1, commonSize, false, agg);
+                builder.cellByDirectIndex(ia * strideA + ib * strideB, value);
             }
         }
         return builder.build();
     }
 
+    /**
+     * Returns the aggregated combination of the given number of values in a and b, starting at the given
+     * value indexes and advancing by the given strides. The sum of products is computed directly in a tight loop.
+     *
+     * @param swapped whether the values of b should be the first argument to the combinator
+     */
+    private double product(IndexedTensor a, long startA, long strideA, IndexedTensor b, long startB, long strideB,
+                           long size, boolean swapped, Reduce.ValueAggregator agg) {
+        if (aggregator == Reduce.Aggregator.sum && combinator instanceof ScalarFunctions.Multiply) {
+            double sum = 0.0;
+            for (long ic = 0; ic < size; ++ic) {
+                sum += a.get(startA + ic * strideA) * b.get(startB + ic * strideB);
+            }
+            return sum;
+        }
+        agg.reset();
+        for (long ic = 0; ic < size; ++ic) {
+            double va = a.get(startA + ic * strideA);
+            double vb = b.get(startB + ic * strideB);
+            agg.aggregate(swapped ? combinator.applyAsDouble(vb, va) : combinator.applyAsDouble(va, vb));
+        }
+        return agg.aggregatedValue();
+    }
+
     private Tensor evaluateGeneral(IndexedTensor a, IndexedTensor b, TensorType reducedType) {
         IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder)IndexedTensor.Builder.of(reducedType);
         TensorType onlyInA = Reduce.outputType(a.type(), dimensions);
@@ -229,6 +248,20 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
 
         MultiDimensionIterator ic = new MultiDimensionIterator(common);
         Reduce.ValueAggregator agg = Reduce.ValueAggregator.ofType(aggregator);
+        if (common.dimensions().size() == 1) { // the values to reduce are at a fixed stride in each tensor
+            long commonSize = common.dimensions().get(0).size().get();
+            long strideA = stridesA[mapCommonToA[0]];
+            long strideB = stridesB[mapCommonToB[0]];
+            for (MultiDimensionIterator ia = new MultiDimensionIterator(onlyInA); ia.hasNext(); ia.next()) {
+                for (MultiDimensionIterator ib = new MultiDimensionIterator(onlyInB); ib.hasNext(); ib.next()) {
+                    long startA = toDirectIndex(ia, ic, stridesA, mapOnlyAToA, mapCommonToA);
+                    long startB = toDirectIndex(ib, ic, stridesB, mapOnlyBToB, mapCommonToB);
+                    builder.cellByDirectIndex(toDirectIndex(ia, ib, stridesResult, mapOnlyAToResult, mapOnlyBToResult),
+                                              product(a, startA, strideA, b, startB, strideB, commonSize, false, agg));
+                }
+            }
+            return builder.build();
+        }
         for (MultiDimensionIterator ia = new MultiDimensionIterator(onlyInA); ia.hasNext(); ia.next()) {
             for (MultiDimensionIterator ib = new MultiDimensionIterator(onlyInB); ib.hasNext(); ib.next()) {
                 agg.reset();
@@ -35,6 +35,31 @@ public class JoinTestCase {
                      t2.divide(t1));
     }
 
+    @Test
+    public void testJoinIndexedSingleSpace() {
+        Tensor a = Tensor.from("tensor(x[2],y[2])", "[[1, 2], [3, 4]]");
+        Tensor b = Tensor.from("tensor(x[2],y[2])", "[[5, -6], [7, 0.5]]");
+        assertEquals(Tensor.from("tensor(x[2],y[2])", "[[6, -4], [10, 4.5]]"), a.add(b));
+        assertEquals(Tensor.from("tensor(x[2],y[2])", "[[-4, 8], [-4, 3.5]]"), a.subtract(b));
+        assertEquals(Tensor.from("tensor(x[2],y[2])", "[[5, -12], [21, 2]]"), a.multiply(b));
+        assertEquals(Tensor.from("tensor(x[2],y[2])", "[[5, 2], [7, 4]]"), a.max(b));
+        assertEquals(Tensor.from("tensor(x[2],y[2])", "[[1, -6], [3, 0.5]]"), a.min(b));
+        assertEquals(Tensor.from("tensor(x[2],y[2])", "[[7, -2], [13, 8.5]]"), a.join(b, (x, y) -> x * 2 + y));
+
+        Tensor floats = Tensor.from("tensor<float>(x[2],y[2])", "[[1, 2], [3, 4]]");
+        assertEquals(Tensor.from("tensor<float>(x[2],y[2])", "[[2, 4], [6, 8]]"), floats.add(floats));
+        assertEquals(Tensor.from("tensor(x[2],y[2])", "[[2, 4], [6, 8]]"), floats.add(a));
+    }
+
+    @Test
+    public void testJoinIndexedVectors() {
+        Tensor a = Tensor.from("tensor(x[]):{{x:0}:1, {x:1}:2, {x:2}:3}");
+        Tensor b = Tensor.from("tensor(x[]):{{x:0}:4, {x:1}:5}");
+        assertEquals(Tensor.from("tensor(x[]):{{x:0}:5, {x:1}:7}"), a.add(b));
+        assertEquals(Tensor.from("tensor(x[]):{{x:0}:4, {x:1}:10}"), a.multiply(b));
+        assertEquals(Tensor.from("tensor(x[]):{{x:0}:0, {x:1}:1}"), a.join(b, (x, y) -> y % x));
+    }
+
     @Test
     public void testGeneralJoin() {
         assertEquals(Tensor.from("tensor(x[],y[]):{ {x:0,y:0}:1, {x:1,y:0}:2, {x:2,y:0}:3 }"),
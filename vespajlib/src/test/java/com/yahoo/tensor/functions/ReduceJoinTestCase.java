@@ -0,0 +1,93 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.evaluation.MapEvaluationContext;
+import com.yahoo.tensor.evaluation.Name;
+import com.yahoo.tensor.evaluation.VariableTensor;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that reduce of join gives the same result when evaluated as one operation as when evaluated separately.
+ */
+public class ReduceJoinTestCase {
+
+    @Test
+    public void testVectorProducts() {
+        assertReduceJoin("tensor(x[3]):[1, 2, 3]", "tensor(x[3]):[4, 5, 6]", List.of("x"));
+        assertReduceJoin("tensor(x[3]):[1, 2, 3]", "tensor(x[3]):[4, 5, 6]", List.of());
+        assertReduceJoin("tensor<float>(x[3]):[1.5, 2, 3]", "tensor<float>(x[3]):[4, 5, 6.5]", List.of("x"));
+        assertReduceJoin("tensor<float>(x[3]):[1.5, 2, 3]", "tensor(x[3]):[4, 5, 6.5]", List.of("x"));
+    }
+
+    @Test
+    public void testMatrixProducts() {
+        assertReduceJoin("tensor(x[3]):[1, 2, 3]", "tensor(x[3],y[2]):[[1, 2], [3, 4], [5, 6]]", List.of("x"));
+        assertReduceJoin("tensor(y[2],z[3]):[[1, 2, 3], [4, 5, 6]]", "tensor(z[3]):[1, 2, 3]", List.of("z"));
+        assertReduceJoin("tensor(z[3]):[1, 2, 3]", "tensor(y[2],z[3]):[[1, 2, 3], [4, 5, 6]]", List.of("z"));
+        assertReduceJoin("tensor(x[2],z[3]):[[1, 2, 3], [4, 5, 6]]", "tensor(y[2],z[3]):[[7, 8, 9], [10, 11, 12]]", List.of("z"));
+        assertReduceJoin("tensor<float>(x[2],z[3]):[[1, 2, 3], [4, 5, 6]]", "tensor<float>(y[2],z[3]):[[7, 8, 9], [10, 11, 12]]", List.of("z"));
+        assertReduceJoin("tensor(x[2],y[3]):[[1, 2, 3], [4, 5, 6]]", "tensor(y[3],z[2]):[[1, 2], [3, 4], [5, 6]]", List.of("y"));
+        assertReduceJoin("tensor(x[2],y[2],z[3]):[[[1, 2, 3], [4, 5, 6]], [[7, 8, 9], [10, 11, 12]]]",
+                         "tensor(x[2],z[3]):[[1, 2, 3], [4, 5, 6]]",
+                         List.of("x", "z"));
+    }
+
+    @Test
+    public void testOtherCombinatorsAndAggregators() {
+        String a = "tensor(x[2],z[3]):[[1, 2, 3], [4, 5, 6]]";
+        String b = "tensor(y[2],z[3]):[[7, 8, 9], [10, 11, 12]]";
+        for (Reduce.Aggregator aggregator : Reduce.Aggregator.values()) {
+            assertReduceJoin(a, b, ScalarFunctions.multiply(), aggregator, List.of("z"));
+            assertReduceJoin(a, b, ScalarFunctions.subtract(), aggregator, List.of("z"));
+        }
+        assertReduceJoin("tensor(y[2],z[3]):[[1, 2, 3], [4, 5, 6]]", "tensor(z[3]):[3, 2, 1]",
+                         ScalarFunctions.subtract(), Reduce.Aggregator.max, List.of("z"));
+    }
+
+    @Test
+    public void testTensorsWhichCannotBeOptimized() {
+        assertReduceJoin("tensor(x{}):{a:1, b:2}", "tensor(x{}):{a:3, b:4}", List.of("x"));
+        assertReduceJoin("tensor(x[3]):[1, 2, 3]", "tensor(x[3],y{}):{a:[1, 2, 3], b:[4, 5, 6]}", List.of("x"));
+        assertReduceJoin("tensor(x[3]):[1, 2, 3]", "tensor(y[2]):[4, 5]", List.of("x"));
+        try {
+            reduceOfJoin(Tensor.from("tensor(x[3]):[1, 2, 3]"), Tensor.from("tensor(x[3]):[1, 2, 3]"),
+                         ScalarFunctions.multiply(), Reduce.Aggregator.sum, List.of("y"));
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Cannot reduce tensor(x[3]):[1.0, 4.0, 9.0] over dimensions [y]: Not all those dimensions are present in this tensor",
+                         e.getMessage());
+        }
+    }
+
+    private void assertReduceJoin(String a, String b, List<String> dimensions) {
+        assertReduceJoin(a, b, ScalarFunctions.multiply(), Reduce.Aggregator.sum, dimensions);
+    }
+
+    private void assertReduceJoin(String aString, String bString, DoubleBinaryOperator combinator,
+                                  Reduce.Aggregator aggregator, List<String> dimensions) {
+        Tensor a = Tensor.from(aString);
+        Tensor b = Tensor.from(bString);
+        Tensor expected = Reduce.evaluate(Join.evaluate(a, b, Join.outputType(a.type(), b.type()), combinator),
+                                          dimensions, aggregator);
+        assertEquals(expected, reduceOfJoin(a, b, combinator, aggregator, dimensions));
+    }
+
+    private Tensor reduceOfJoin(Tensor a, Tensor b, DoubleBinaryOperator combinator,
+                                Reduce.Aggregator aggregator, List<String> dimensions) {
+        var reduce = new Reduce<>(new Join<>(new VariableTensor<>("a"), new VariableTensor<>("b"), combinator),
+                                  aggregator, dimensions);
+        MapEvaluationContext<Name> context = new MapEvaluationContext<>();
+        context.put("a", a);
+        context.put("b", b);
+        return reduce.evaluate(context);
+    }
+
+}
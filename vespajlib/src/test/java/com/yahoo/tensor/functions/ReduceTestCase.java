@@ -38,6 +38,28 @@ public class ReduceTestCase {
         assertEquals(0.0, Tensor.from("tensor(x[3],y{})", "{}").count().asDouble(), delta);
     }
 
+    @Test
+    public void testReduceAllOfDenseTensor() {
+        Tensor matrix = Tensor.from("tensor(x[2],y[3])", "[[1, -2, 3], [4, 5, -6]]");
+        assertEquals(5.0, matrix.sum().asDouble(), delta);
+        assertEquals(5.0, matrix.max().asDouble(), delta);
+        assertEquals(-6.0, matrix.min().asDouble(), delta);
+        assertEquals(6.0, matrix.count().asDouble(), delta);
+        assertEquals(5.0 / 6, matrix.avg().asDouble(), delta);
+        assertEquals(720.0, matrix.prod().asDouble(), delta);
+        assertEquals(5.0, matrix.reduce(Reduce.Aggregator.sum, "x", "y").asDouble(), delta);
+
+        Tensor floatVector = Tensor.from("tensor<float>(x[3])", "[1.5, 2.5, -1]");
+        assertEquals(3.0, floatVector.sum().asDouble(), delta);
+        assertEquals(2.5, floatVector.max().asDouble(), delta);
+        assertEquals(-1.0, floatVector.min().asDouble(), delta);
+
+        Tensor withNan = Tensor.Builder.of("tensor(x[3])").cell(1, 0).cell(Double.NaN, 1).cell(2, 2).build();
+        assertEquals(2.0, withNan.max().asDouble(), delta);
+        assertEquals(1.0, withNan.min().asDouble(), delta);
+        assertNan(withNan.sum());
+    }
+
     private void assertNan(Tensor tensor) {
         assertTrue(tensor + " is NaN", Double.isNaN(tensor.asDouble()));
     }